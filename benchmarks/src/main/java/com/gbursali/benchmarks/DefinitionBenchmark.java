@@ -0,0 +1,81 @@
+package com.gbursali.benchmarks;
+
+import com.gbursali.endpoint.Endpoint;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.utils.JSONUtils;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks turning JSON endpoint definitions into endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefinitionBenchmark {
+
+    private EndpointBase base;
+    private JsonObject definition;
+
+    @Setup
+    public void setUp() {
+        Path root = Payloads.definitionTree("/converter");
+        base = EndpointBase.builder("http://localhost").withJsonBasePath(root);
+        definition = JSONUtils.jsonify(Payloads.definition("/converter")).getAsJsonObject();
+        try {
+            Files.writeString(root.resolve("templated.json"), "{"
+                    + "\"settings\":{\"path\":\"/users/{{user}}/orders\",\"method\":\"POST\"},"
+                    + "\"headers\":{\"X-Tenant\":\"{{tenant}}\"},"
+                    + "\"body\":{\"item\":\"{{item}}\",\"note\":\"{{note}}\",\"quantity\":1}"
+                    + "}");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates an endpoint from a definition file, as data-driven tests do on every iteration.
+     */
+    @Benchmark
+    public Endpoint makeWithJson() {
+        return base.makeWithJson("endpoint.json");
+    }
+
+    /**
+     * Creates an endpoint from an already parsed definition.
+     */
+    @Benchmark
+    public Endpoint fromJson() {
+        return Endpoint.fromJson(base, definition);
+    }
+
+    /**
+     * Creates an endpoint from a templated definition file, binding fresh values as data-driven runs do.
+     */
+    @Benchmark
+    public Endpoint makeWithTemplate() {
+        int id = ThreadLocalRandom.current().nextInt(1_000_000);
+        return base.makeWithJson("templated.json",
+                Map.of("user", id, "tenant", "acme", "item", "book-" + id, "note", "gift \"wrap\""));
+    }
+}
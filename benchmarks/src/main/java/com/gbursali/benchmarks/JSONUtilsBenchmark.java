@@ -0,0 +1,71 @@
+package com.gbursali.benchmarks;
+
+import com.gbursali.utils.JSONUtils;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the JSON helpers used on every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JSONUtilsBenchmark {
+
+    /**
+     * Number of records in the parsed payload.
+     */
+    @Param({"1", "1000"})
+    public int records;
+
+    private String text;
+    private byte[] bytes;
+    private JsonElement tree;
+    private JsonObject params;
+
+    @Setup
+    public void setUp() {
+        text = Payloads.list(records);
+        bytes = text.getBytes(StandardCharsets.UTF_8);
+        tree = JSONUtils.jsonify(text);
+        params = JSONUtils.jsonify(Payloads.definition("/converter")).getAsJsonObject().getAsJsonObject("params");
+    }
+
+    @Benchmark
+    public JsonElement jsonifyString() {
+        return JSONUtils.jsonify(text);
+    }
+
+    @Benchmark
+    public JsonElement jsonifyBytes() {
+        return JSONUtils.jsonify(bytes);
+    }
+
+    @Benchmark
+    public String stringify() {
+        return JSONUtils.stringify(tree);
+    }
+
+    @Benchmark
+    public Map<String, String> objToStringMap() {
+        return JSONUtils.objToStringMap(params);
+    }
+}
@@ -0,0 +1,99 @@
+package com.gbursali.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates the schemas, payloads and definition files used by the benchmarks.
+ */
+final class Payloads {
+
+    /**
+     * Schema of a single record.
+     */
+    static final String RECORD_SCHEMA = "{"
+            + "\"type\":\"object\","
+            + "\"properties\":{"
+            + "\"id\":{\"type\":\"integer\",\"minimum\":0},"
+            + "\"name\":{\"type\":\"string\",\"minLength\":1},"
+            + "\"email\":{\"type\":\"string\",\"pattern\":\"^[^@]+@[^@]+$\"},"
+            + "\"active\":{\"type\":\"boolean\"},"
+            + "\"score\":{\"type\":\"number\"},"
+            + "\"tags\":{\"type\":\"array\",\"items\":{\"type\":\"string\"}}"
+            + "},"
+            + "\"required\":[\"id\",\"name\",\"email\",\"active\",\"score\",\"tags\"]"
+            + "}";
+
+    /**
+     * Schema of a list of records.
+     */
+    static final String LIST_SCHEMA = "{\"type\":\"array\",\"items\":" + RECORD_SCHEMA + "}";
+
+    private Payloads() {
+    }
+
+    /**
+     * Creates a JSON record matching {@link #RECORD_SCHEMA}.
+     *
+     * @param id The id of the record.
+     * @return The record as JSON.
+     */
+    static String record(int id) {
+        return "{\"id\":" + id
+                + ",\"name\":\"user-" + id + "\""
+                + ",\"email\":\"user-" + id + "@example.com\""
+                + ",\"active\":" + (id % 2 == 0)
+                + ",\"score\":" + (id * 1.5)
+                + ",\"tags\":[\"a\",\"b\",\"c\"]}";
+    }
+
+    /**
+     * Creates a JSON array of records matching {@link #LIST_SCHEMA}.
+     *
+     * @param size The number of records.
+     * @return The array as JSON.
+     */
+    static String list(int size) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                builder.append(',');
+            builder.append(record(i));
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Writes an endpoint definition and its result schema to a new temporary directory.
+     *
+     * @param path The endpoint path of the definition.
+     * @return The temporary directory, to be used as JSON base path.
+     */
+    static Path definitionTree(String path) {
+        try {
+            Path root = Files.createTempDirectory("ra-requester-bench");
+            Files.writeString(root.resolve("record-schema.json"), RECORD_SCHEMA);
+            Files.writeString(root.resolve("endpoint.json"), definition(path));
+            return root;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates an endpoint definition referencing {@code record-schema.json}, with a stub response matching it.
+     *
+     * @param path The endpoint path of the definition.
+     * @return The definition as JSON.
+     */
+    static String definition(String path) {
+        return "{"
+                + "\"settings\":{\"path\":\"" + path + "\",\"method\":\"GET\"},"
+                + "\"params\":{\"cfg\":\"json\",\"date\":\"2011-06-02\",\"g2h\":1,\"strict\":1},"
+                + "\"result-schema\":{\"file\":\"record-schema.json\"},"
+                + "\"stub-response\":{\"status\":200,\"body\":" + record(1) + "}"
+                + "}";
+    }
+}
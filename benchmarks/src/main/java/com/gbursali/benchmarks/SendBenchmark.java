@@ -0,0 +1,59 @@
+package com.gbursali.benchmarks;
+
+import com.gbursali.endpoint.ConnectionSettings;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.stub.StubServer;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a full {@code send()}, including schema validation, against an in-process {@link StubServer},
+ * with RestAssured's default client and with pooled keep-alive connections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class SendBenchmark {
+
+    private StubServer server;
+    private EndpointBase base;
+    private EndpointBase pooledBase;
+
+    @Setup
+    public void setUp() {
+        server = StubServer.fromDefinitions(Payloads.definitionTree("/converter")).start();
+        base = server.getBase();
+        pooledBase = base.withConnectionSettings(ConnectionSettings.defaults());
+    }
+
+    @TearDown
+    public void tearDown() {
+        pooledBase.getConnectionPool().close();
+        server.close();
+    }
+
+    @Benchmark
+    public Response send() {
+        return base.makeWithJson("endpoint.json").send();
+    }
+
+    @Benchmark
+    public Response sendPooled() {
+        return pooledBase.makeWithJson("endpoint.json").send();
+    }
+}
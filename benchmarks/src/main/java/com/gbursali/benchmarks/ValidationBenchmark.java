@@ -0,0 +1,80 @@
+package com.gbursali.benchmarks;
+
+import com.gbursali.utils.JSONUtils;
+import com.gbursali.utils.json_validator.JSONValidator;
+import com.google.gson.JsonElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks schema validation of small and large payloads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    /**
+     * "small" validates a single record, "large" validates a list of 10,000 records.
+     */
+    @Param({"small", "large"})
+    public String size;
+
+    private JSONValidator validator;
+    private String text;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        boolean large = "large".equals(size);
+        validator = JSONValidator.fromString(large ? Payloads.LIST_SCHEMA : Payloads.RECORD_SCHEMA);
+        text = large ? Payloads.list(10_000) : Payloads.record(1);
+        bytes = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a validator from a schema string; served by the schema registry after the first call.
+     */
+    @Benchmark
+    public JSONValidator createValidator() {
+        return JSONValidator.fromString(Payloads.LIST_SCHEMA);
+    }
+
+    @Benchmark
+    public void validateString() {
+        validator.validate(text);
+    }
+
+    @Benchmark
+    public JsonElement validateBytes() {
+        return validator.validate(bytes);
+    }
+
+    @Benchmark
+    public void validateStream() {
+        validator.validateStream(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public JsonElement validateBytesParallel() {
+        JsonElement parsed = JSONUtils.jsonify(bytes);
+        validator.validateParallel(parsed);
+        return parsed;
+    }
+}
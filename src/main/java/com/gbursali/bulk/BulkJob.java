@@ -0,0 +1,214 @@
+package com.gbursali.bulk;
+
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Description of a data-driven bulk run: a templated JSON endpoint definition, the input file whose rows are
+ * bound to it and the output file receiving one result per row. Instances are immutable; every
+ * {@code with...} method returns a new instance.
+ * <pre>
+ * BulkJob job = BulkJob.of("orders/create.json", Path.of("orders.csv"), Path.of("results.jsonl"))
+ *         .withMaxConcurrency(32)
+ *         .withResume(true);
+ * </pre>
+ */
+public class BulkJob {
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 16;
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+
+    private final String definition;
+    private final Path input;
+    private final Path output;
+    private final InputFormat format;
+    private final Path checkpointFile;
+    private final int maxConcurrency;
+    private final int checkpointInterval;
+    private final boolean resume;
+    private final ExecutorService executor;
+
+    private BulkJob(String definition, Path input, Path output, InputFormat format, Path checkpointFile,
+                    int maxConcurrency, int checkpointInterval, boolean resume, ExecutorService executor) {
+        this.definition = definition;
+        this.input = input;
+        this.output = output;
+        this.format = format;
+        this.checkpointFile = checkpointFile;
+        this.maxConcurrency = maxConcurrency;
+        this.checkpointInterval = checkpointInterval;
+        this.resume = resume;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a bulk job. The input format is detected from the extension of the input file, and the
+     * checkpoint is written next to the output file, with a ".checkpoint" suffix.
+     *
+     * @param definition The path of the templated definition, relative to the JSON base path of the base.
+     * @param input      The input file holding the rows.
+     * @param output     The output file receiving the results, as JSON lines.
+     * @return The created BulkJob.
+     */
+    public static BulkJob of(String definition, Path input, Path output) {
+        return new BulkJob(definition, input, output, null,
+                output.resolveSibling(output.getFileName() + ".checkpoint"),
+                DEFAULT_MAX_CONCURRENCY, DEFAULT_CHECKPOINT_INTERVAL, false, null);
+    }
+
+    /**
+     * Sets the format of the input file.
+     *
+     * @param format The input format.
+     * @return A new BulkJob with the format.
+     */
+    public BulkJob withFormat(InputFormat format) {
+        return new BulkJob(definition, input, output, format, checkpointFile, maxConcurrency,
+                checkpointInterval, resume, executor);
+    }
+
+    /**
+     * Sets the file recording how far the run has committed its results.
+     *
+     * @param checkpointFile The checkpoint file.
+     * @return A new BulkJob with the checkpoint file.
+     */
+    public BulkJob withCheckpointFile(Path checkpointFile) {
+        return new BulkJob(definition, input, output, format, checkpointFile, maxConcurrency,
+                checkpointInterval, resume, executor);
+    }
+
+    /**
+     * Sets the maximum number of rows in flight. It also bounds the number of results held in memory
+     * while waiting for earlier rows to complete.
+     *
+     * @param maxConcurrency The maximum number of rows in flight.
+     * @return A new BulkJob with the limit.
+     */
+    public BulkJob withMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency must be positive, got " + maxConcurrency);
+        return new BulkJob(definition, input, output, format, checkpointFile, maxConcurrency,
+                checkpointInterval, resume, executor);
+    }
+
+    /**
+     * Sets how many rows are written between two checkpoints.
+     *
+     * @param checkpointInterval The number of rows between checkpoints.
+     * @return A new BulkJob with the interval.
+     */
+    public BulkJob withCheckpointInterval(int checkpointInterval) {
+        if (checkpointInterval < 1)
+            throw new IllegalArgumentException("checkpointInterval must be positive, got " + checkpointInterval);
+        return new BulkJob(definition, input, output, format, checkpointFile, maxConcurrency,
+                checkpointInterval, resume, executor);
+    }
+
+    /**
+     * Sets whether the run continues from the last checkpoint. When enabled and a checkpoint exists, rows
+     * already committed are skipped and results written after the checkpoint are discarded; otherwise
+     * the run starts over with an empty output file.
+     *
+     * @param resume Whether to resume from the checkpoint.
+     * @return A new BulkJob with the setting.
+     */
+    public BulkJob withResume(boolean resume) {
+        return new BulkJob(definition, input, output, format, checkpointFile, maxConcurrency,
+                checkpointInterval, resume, executor);
+    }
+
+    /**
+     * Sets the executor sending the requests. By default a pool with one thread per row in flight is
+     * created for the run and shut down afterwards.
+     *
+     * @param executor The executor.
+     * @return A new BulkJob with the executor.
+     */
+    public BulkJob withExecutor(ExecutorService executor) {
+        return new BulkJob(definition, input, output, format, checkpointFile, maxConcurrency,
+                checkpointInterval, resume, executor);
+    }
+
+    /**
+     * Gets the path of the templated definition.
+     *
+     * @return The definition path.
+     */
+    public String getDefinition() {
+        return definition;
+    }
+
+    /**
+     * Gets the input file.
+     *
+     * @return The input file.
+     */
+    public Path getInput() {
+        return input;
+    }
+
+    /**
+     * Gets the output file.
+     *
+     * @return The output file.
+     */
+    public Path getOutput() {
+        return output;
+    }
+
+    /**
+     * Gets the format of the input file.
+     *
+     * @return The format, set explicitly or detected from the extension of the input file.
+     * @throws IllegalArgumentException If no format is set and it cannot be detected.
+     */
+    public InputFormat getFormat() {
+        return format != null ? format : InputFormat.of(input);
+    }
+
+    /**
+     * Gets the checkpoint file.
+     *
+     * @return The checkpoint file.
+     */
+    public Path getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    /**
+     * Gets the maximum number of rows in flight.
+     *
+     * @return The maximum concurrency.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Gets how many rows are written between two checkpoints.
+     *
+     * @return The checkpoint interval.
+     */
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * Checks whether the run continues from the last checkpoint.
+     *
+     * @return True if resuming is enabled.
+     */
+    public boolean isResume() {
+        return resume;
+    }
+
+    /**
+     * Gets the executor sending the requests.
+     *
+     * @return The executor, or null to create one for the run.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+}
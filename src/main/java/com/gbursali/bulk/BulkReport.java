@@ -0,0 +1,143 @@
+package com.gbursali.bulk;
+
+import com.gbursali.metrics.LatencyHistogram;
+import com.gbursali.metrics.RequestOutcome;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Summary of a bulk run: how many rows were sent, skipped and rejected, their outcomes and latencies.
+ * The details of every row are in the output file of the job.
+ */
+public class BulkReport {
+
+    private final long skipped;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final Map<RequestOutcome, LongAdder> outcomes = new EnumMap<>(RequestOutcome.class);
+    private final LongAdder invalidRows = new LongAdder();
+    private long elapsedNanos;
+
+    /**
+     * Constructs a new BulkReport.
+     *
+     * @param skipped The number of rows committed by an earlier run and skipped by this one.
+     */
+    BulkReport(long skipped) {
+        this.skipped = skipped;
+        for (RequestOutcome outcome : RequestOutcome.values())
+            outcomes.put(outcome, new LongAdder());
+    }
+
+    /**
+     * Records a row that was sent.
+     *
+     * @param latencyNanos The latency of the request.
+     * @param outcome      The outcome of the request.
+     */
+    void record(long latencyNanos, RequestOutcome outcome) {
+        latency.record(latencyNanos);
+        outcomes.get(outcome).increment();
+    }
+
+    /**
+     * Records a row that could not be turned into a request.
+     */
+    void recordInvalidRow() {
+        invalidRows.increment();
+    }
+
+    /**
+     * Sets the duration of the run.
+     *
+     * @param elapsedNanos The duration in nanoseconds.
+     */
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of rows processed by this run, sent or rejected.
+     *
+     * @return The row count.
+     */
+    public long getRowCount() {
+        return getSentCount() + getInvalidRowCount();
+    }
+
+    /**
+     * Gets the number of rows sent by this run.
+     *
+     * @return The sent count.
+     */
+    public long getSentCount() {
+        return latency.getCount();
+    }
+
+    /**
+     * Gets the number of rows committed by an earlier run and skipped by this one.
+     *
+     * @return The skipped count.
+     */
+    public long getSkippedCount() {
+        return skipped;
+    }
+
+    /**
+     * Gets the number of rows that could not be read or bound to the definition.
+     *
+     * @return The invalid row count.
+     */
+    public long getInvalidRowCount() {
+        return invalidRows.sum();
+    }
+
+    /**
+     * Gets the number of sent rows with the given outcome.
+     *
+     * @param outcome The outcome.
+     * @return The count.
+     */
+    public long getOutcomeCount(RequestOutcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+
+    /**
+     * Gets the latency distribution of the sent rows, in nanoseconds.
+     *
+     * @return The latency histogram.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Gets the duration of the run.
+     *
+     * @return The elapsed time.
+     */
+    public Duration getElapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    /**
+     * Gets the number of rows processed per second.
+     *
+     * @return The throughput.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : getRowCount() / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows (%d skipped, %d invalid), %.1f rows/s, %d successes, %d HTTP errors, "
+                        + "%d validation failures, %d transport errors, p50 %.3fms, p99 %.3fms",
+                getRowCount(), skipped, getInvalidRowCount(), getThroughput(),
+                getOutcomeCount(RequestOutcome.SUCCESS), getOutcomeCount(RequestOutcome.HTTP_ERROR),
+                getOutcomeCount(RequestOutcome.VALIDATION_FAILURE), getOutcomeCount(RequestOutcome.TRANSPORT_ERROR),
+                latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(99) / 1e6);
+    }
+}
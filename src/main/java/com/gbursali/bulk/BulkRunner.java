@@ -0,0 +1,256 @@
+package com.gbursali.bulk;
+
+import com.gbursali.endpoint.Endpoint;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.endpoint.EndpointResult;
+import com.gbursali.metrics.RequestOutcome;
+import com.gbursali.utils.InvalidJSONException;
+import com.gbursali.utils.ThreadPools;
+import com.gbursali.utils.json_validator.ValidationMode;
+import com.google.gson.JsonObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs a {@link BulkJob}: streams the rows of the input file, binds each one to the templated definition,
+ * sends the requests with bounded concurrency and appends one JSON line per row to the output file, such as
+ * <pre>
+ * {"row":42,"status":200,"latencyMs":12.7,"outcome":"SUCCESS"}
+ * </pre>
+ * Results are written in input order. At most {@link BulkJob#getMaxConcurrency()} rows are in flight or waiting
+ * for an earlier row to complete, so memory use does not depend on the size of the input. Every
+ * {@link BulkJob#getCheckpointInterval()} rows, the output is flushed and a checkpoint records the rows
+ * committed so far; a resumed run continues from there.
+ */
+@SuppressWarnings("java:S1144")
+public class BulkRunner {
+
+    /**
+     * Outcome written for rows that cannot be read or bound to the definition.
+     */
+    static final String INVALID_ROW = "INVALID_ROW";
+
+    /**
+     * Prevent instantiation of the utility class.
+     */
+    private BulkRunner() {
+    }
+
+    /**
+     * Runs a bulk job and waits for it to complete. The definition is loaded before the first row is read,
+     * so a malformed definition fails fast. Failing rows do not stop the run.
+     *
+     * @param base The base to create the endpoints from.
+     * @param job  The job to run.
+     * @return The report of the run.
+     * @throws InvalidJSONException If the definition or the checkpoint cannot be loaded.
+     * @throws UncheckedIOException If the input cannot be read or the output cannot be written.
+     */
+    public static BulkReport run(EndpointBase base, BulkJob job) {
+        base.getDefinition(Path.of(job.getDefinition()));
+        InputFormat format = job.getFormat();
+        Checkpoint start = job.isResume() ? Checkpoint.read(job.getCheckpointFile()) : Checkpoint.START;
+        BulkReport report = new BulkReport(start.getRows());
+        ExecutorService executor = job.getExecutor();
+        boolean ownExecutor = executor == null;
+        if (ownExecutor)
+            executor = ThreadPools.newRequestExecutor(job.getMaxConcurrency());
+        long begin = System.nanoTime();
+        try (RowReader reader = RowReader.open(job.getInput(), format, start.getInputOffset());
+             FileChannel output = FileChannel.open(job.getOutput(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (!job.isResume())
+                Files.deleteIfExists(job.getCheckpointFile());
+            // Results written after the checkpoint belong to rows that are sent again.
+            output.truncate(start.getOutputOffset());
+            output.position(start.getOutputOffset());
+            Semaphore window = new Semaphore(job.getMaxConcurrency());
+            OrderedWriter writer = new OrderedWriter(output, job, start, window);
+            long number = start.getRows();
+            RowReader.Row row;
+            while ((row = reader.next()) != null) {
+                window.acquireUninterruptibly();
+                writer.throwIfFailed();
+                submit(executor, base, job, report, writer, number++, row);
+            }
+            window.acquireUninterruptibly(job.getMaxConcurrency());
+            writer.throwIfFailed();
+            writer.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Bulk run can't read " + job.getInput() + " or write " + job.getOutput(), e);
+        } finally {
+            if (ownExecutor)
+                executor.shutdown();
+        }
+        report.setElapsedNanos(System.nanoTime() - begin);
+        return report;
+    }
+
+    /**
+     * Sends a row on the executor, or on the current thread if the executor rejects it.
+     *
+     * @param executor The executor sending the requests.
+     * @param base     The base to create the endpoint from.
+     * @param job      The job being run.
+     * @param report   The report of the run.
+     * @param writer   The writer of the results.
+     * @param number   The number of the row, starting at 0.
+     * @param row      The row.
+     */
+    private static void submit(ExecutorService executor, EndpointBase base, BulkJob job, BulkReport report,
+                               OrderedWriter writer, long number, RowReader.Row row) {
+        Runnable task = () -> writer.complete(number, row.getEndOffset(), process(base, job, report, number, row));
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /**
+     * Binds a row to the definition, sends it and describes the result. Only the outcome and the first error
+     * are written, so validation stops at the first error.
+     *
+     * @param base   The base to create the endpoint from.
+     * @param job    The job being run.
+     * @param report The report of the run.
+     * @param number The number of the row, starting at 0.
+     * @param row    The row.
+     * @return The result as a JSON line.
+     */
+    private static String process(EndpointBase base, BulkJob job, BulkReport report, long number, RowReader.Row row) {
+        JsonObject result = new JsonObject();
+        result.addProperty("row", number + 1);
+        Endpoint endpoint;
+        try {
+            if (row.getError() != null)
+                return invalid(report, result, row.getError());
+            endpoint = base.makeWithJson(job.getDefinition(), row.getValues())
+                    .withValidationMode(ValidationMode.failFast());
+        } catch (RuntimeException e) {
+            return invalid(report, result, e.getMessage());
+        }
+        long start = System.nanoTime();
+        EndpointResult sent = endpoint.sendForResult();
+        long latency = System.nanoTime() - start;
+        RequestOutcome outcome;
+        if (sent.isSuccess())
+            outcome = sent.getResponse().getStatusCode() >= 400 ? RequestOutcome.HTTP_ERROR : RequestOutcome.SUCCESS;
+        else
+            outcome = sent.isValidationFailure() ? RequestOutcome.VALIDATION_FAILURE : RequestOutcome.TRANSPORT_ERROR;
+        report.record(latency, outcome);
+        if (sent.getResponse() != null)
+            result.addProperty("status", sent.getResponse().getStatusCode());
+        result.addProperty("latencyMs", Math.round(latency / 1e4) / 100.0);
+        result.addProperty("outcome", outcome.toString());
+        if (sent.getError() != null)
+            result.addProperty("error", firstLine(sent.getError().getMessage()));
+        return result.toString();
+    }
+
+    private static String invalid(BulkReport report, JsonObject result, String error) {
+        report.recordInvalidRow();
+        result.addProperty("outcome", INVALID_ROW);
+        result.addProperty("error", firstLine(error));
+        return result.toString();
+    }
+
+    private static String firstLine(String message) {
+        String text = String.valueOf(message);
+        int end = text.indexOf('\n');
+        return end < 0 ? text : text.substring(0, end);
+    }
+
+    /**
+     * Writes results in row order, holding results that complete early until the rows before them are written,
+     * and writes checkpoints. A window permit is released for every row written.
+     */
+    private static final class OrderedWriter {
+
+        private final FileChannel channel;
+        private final Writer out;
+        private final Path checkpointFile;
+        private final int checkpointInterval;
+        private final Semaphore window;
+        private final Map<Long, String> pending = new HashMap<>();
+        private final Map<Long, Long> pendingOffsets = new HashMap<>();
+        private long next;
+        private long inputOffset;
+        private int uncommitted;
+        private IOException failure;
+
+        OrderedWriter(FileChannel channel, BulkJob job, Checkpoint start, Semaphore window) {
+            this.channel = channel;
+            this.out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+            this.checkpointFile = job.getCheckpointFile();
+            this.checkpointInterval = job.getCheckpointInterval();
+            this.window = window;
+            this.next = start.getRows();
+            this.inputOffset = start.getInputOffset();
+        }
+
+        /**
+         * Accepts the result of a row and writes every result that is now next in order.
+         *
+         * @param number    The number of the row, starting at 0.
+         * @param endOffset The input offset right after the row.
+         * @param line      The result as a JSON line.
+         */
+        synchronized void complete(long number, long endOffset, String line) {
+            pending.put(number, line);
+            pendingOffsets.put(number, endOffset);
+            String ready;
+            while ((ready = pending.remove(next)) != null) {
+                inputOffset = pendingOffsets.remove(next);
+                next++;
+                window.release();
+                if (failure != null)
+                    continue;
+                try {
+                    out.write(ready);
+                    out.write('\n');
+                    if (++uncommitted >= checkpointInterval)
+                        commit();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        }
+
+        /**
+         * Flushes the output and records a checkpoint of the rows written so far.
+         *
+         * @throws IOException If the output or the checkpoint cannot be written.
+         */
+        synchronized void commit() throws IOException {
+            out.flush();
+            channel.force(false);
+            new Checkpoint(next, inputOffset, channel.position()).write(checkpointFile);
+            uncommitted = 0;
+        }
+
+        /**
+         * Rethrows the first failure to write the output.
+         *
+         * @throws IOException If writing has failed.
+         */
+        synchronized void throwIfFailed() throws IOException {
+            if (failure != null)
+                throw failure;
+        }
+    }
+}
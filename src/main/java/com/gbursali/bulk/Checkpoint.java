@@ -0,0 +1,90 @@
+package com.gbursali.bulk;
+
+import com.gbursali.utils.InvalidJSONException;
+import com.gbursali.utils.JSONUtils;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * How far a bulk run has committed its results: the number of rows written, the input offset of the next row
+ * and the length of the output file holding their results. Instances are immutable.
+ */
+final class Checkpoint {
+
+    /**
+     * The checkpoint of a run that has not committed any row.
+     */
+    static final Checkpoint START = new Checkpoint(0, 0, 0);
+
+    private final long rows;
+    private final long inputOffset;
+    private final long outputOffset;
+
+    /**
+     * Constructs a new Checkpoint.
+     *
+     * @param rows         The number of rows committed.
+     * @param inputOffset  The byte offset of the first row not committed.
+     * @param outputOffset The length of the output file holding the committed results.
+     */
+    Checkpoint(long rows, long inputOffset, long outputOffset) {
+        this.rows = rows;
+        this.inputOffset = inputOffset;
+        this.outputOffset = outputOffset;
+    }
+
+    /**
+     * Reads a checkpoint file.
+     *
+     * @param file The checkpoint file.
+     * @return The checkpoint, or {@link #START} if the file does not exist.
+     * @throws InvalidJSONException If the file cannot be read or is malformed.
+     */
+    static Checkpoint read(Path file) {
+        if (!Files.exists(file))
+            return START;
+        JsonObject json = JSONUtils.readJsonFile(file, "Malformed bulk checkpoint");
+        if (!json.has("rows") || !json.has("inputOffset") || !json.has("outputOffset"))
+            throw new InvalidJSONException("Malformed bulk checkpoint", file);
+        return new Checkpoint(json.get("rows").getAsLong(), json.get("inputOffset").getAsLong(),
+                json.get("outputOffset").getAsLong());
+    }
+
+    /**
+     * Writes the checkpoint, replacing the file atomically where the file system supports it.
+     *
+     * @param file The checkpoint file.
+     * @throws IOException If the file cannot be written.
+     */
+    void write(Path file) throws IOException {
+        JsonObject json = new JsonObject();
+        json.addProperty("rows", rows);
+        json.addProperty("inputOffset", inputOffset);
+        json.addProperty("outputOffset", outputOffset);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, json.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    long getInputOffset() {
+        return inputOffset;
+    }
+
+    long getOutputOffset() {
+        return outputOffset;
+    }
+}
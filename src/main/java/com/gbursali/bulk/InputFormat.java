@@ -0,0 +1,37 @@
+package com.gbursali.bulk;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Enumeration of the input file formats a {@link BulkJob} can read rows from.
+ */
+public enum InputFormat {
+
+    /**
+     * Comma-separated values with a header line naming the columns. Fields may be quoted with double quotes,
+     * and quoted fields may span several lines.
+     */
+    CSV,
+
+    /**
+     * One JSON object per line; the attributes of the object are the columns of the row.
+     */
+    JSONL;
+
+    /**
+     * Detects the format of a file from its extension.
+     *
+     * @param file The input file.
+     * @return {@link #CSV} for ".csv" files, {@link #JSONL} for ".jsonl" and ".ndjson" files.
+     * @throws IllegalArgumentException If the extension is not recognized.
+     */
+    public static InputFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv"))
+            return CSV;
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson"))
+            return JSONL;
+        throw new IllegalArgumentException("Can't detect the input format of " + file + ", set it explicitly");
+    }
+}
@@ -0,0 +1,271 @@
+package com.gbursali.bulk;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the rows of a CSV or JSON lines file one at a time, keeping track of the byte offset where the
+ * next row starts so that a later run can continue from there. Only the current row is held in memory.
+ */
+final class RowReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final InputFormat format;
+    private final List<String> columns;
+    private byte[] line = new byte[256];
+    private long offset;
+
+    private RowReader(InputStream in, InputFormat format, List<String> columns, long offset) {
+        this.in = in;
+        this.format = format;
+        this.columns = columns;
+        this.offset = offset;
+    }
+
+    /**
+     * Opens a file for reading its rows. The header of a CSV file is always read from the start of the file.
+     *
+     * @param file   The input file.
+     * @param format The format of the file.
+     * @param offset The byte offset of the first row to read, or 0 to read from the first row.
+     * @return The reader.
+     * @throws IOException If the file cannot be read.
+     */
+    static RowReader open(Path file, InputFormat format, long offset) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            RowReader header = new RowReader(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE),
+                    format, null, 0);
+            List<String> columns = null;
+            if (format == InputFormat.CSV) {
+                String line = header.readRecord();
+                if (line == null)
+                    line = "";
+                if (line.startsWith("\uFEFF"))
+                    line = line.substring(1);
+                columns = splitCsv(line);
+            }
+            long start = Math.max(offset, header.offset);
+            if (start == header.offset)
+                return new RowReader(header.in, format, columns, start);
+            channel.position(start);
+            return new RowReader(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE),
+                    format, columns, start);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next row, skipping blank lines.
+     *
+     * @return The row, or null at the end of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    Row next() throws IOException {
+        String record;
+        do {
+            record = readRecord();
+            if (record == null)
+                return null;
+        } while (record.isBlank());
+        return format == InputFormat.CSV ? csvRow(record) : jsonRow(record);
+    }
+
+    /**
+     * Gets the byte offset where the next row starts.
+     *
+     * @return The offset.
+     */
+    long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private Row csvRow(String record) {
+        List<String> values = splitCsv(record);
+        if (values.size() != columns.size())
+            return Row.invalid(offset, "Expected " + columns.size() + " columns, got " + values.size());
+        Map<String, String> row = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size(); i++)
+            row.put(columns.get(i), values.get(i));
+        return Row.of(offset, row);
+    }
+
+    private Row jsonRow(String record) {
+        JsonElement element;
+        try {
+            element = JsonParser.parseString(record);
+        } catch (JsonParseException e) {
+            return Row.invalid(offset, "Malformed JSON line");
+        }
+        if (!element.isJsonObject())
+            return Row.invalid(offset, "JSON line is not an object");
+        Map<String, String> row = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonElement> entry : ((JsonObject) element).entrySet()) {
+            JsonElement value = entry.getValue();
+            row.put(entry.getKey(), value.isJsonNull() ? null
+                    : value.isJsonPrimitive() ? value.getAsString() : value.toString());
+        }
+        return Row.of(offset, row);
+    }
+
+    /**
+     * Reads a record: a line, or several lines for CSV records whose quoted fields contain line breaks.
+     *
+     * @return The record without its line terminator, or null at the end of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    private String readRecord() throws IOException {
+        String record = readLine();
+        if (record == null || format != InputFormat.CSV)
+            return record;
+        while (countQuotes(record) % 2 != 0) {
+            String continuation = readLine();
+            if (continuation == null)
+                break;
+            record = record + '\n' + continuation;
+        }
+        return record;
+    }
+
+    /**
+     * Reads a line of UTF-8 text, advancing the offset by the bytes consumed.
+     *
+     * @return The line without its terminator, or null at the end of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    private String readLine() throws IOException {
+        int length = 0;
+        int b;
+        while ((b = in.read()) >= 0) {
+            offset++;
+            if (b == '\n')
+                break;
+            if (length == line.length)
+                line = Arrays.copyOf(line, length * 2);
+            line[length++] = (byte) b;
+        }
+        if (b < 0 && length == 0)
+            return null;
+        if (length > 0 && line[length - 1] == '\r')
+            length--;
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static int countQuotes(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++)
+            if (text.charAt(i) == '"')
+                count++;
+        return count;
+    }
+
+    /**
+     * Splits a CSV record into its fields, unquoting quoted fields.
+     *
+     * @param record The record.
+     * @return The fields.
+     */
+    static List<String> splitCsv(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * A row read from the input: either its values by column, or the reason it cannot be used.
+     */
+    static final class Row {
+        private final long endOffset;
+        private final Map<String, String> values;
+        private final String error;
+
+        private Row(long endOffset, Map<String, String> values, String error) {
+            this.endOffset = endOffset;
+            this.values = values;
+            this.error = error;
+        }
+
+        static Row of(long endOffset, Map<String, String> values) {
+            return new Row(endOffset, values, null);
+        }
+
+        static Row invalid(long endOffset, String error) {
+            return new Row(endOffset, null, error);
+        }
+
+        /**
+         * Gets the byte offset right after the row.
+         *
+         * @return The offset where the next row starts.
+         */
+        long getEndOffset() {
+            return endOffset;
+        }
+
+        /**
+         * Gets the values of the row.
+         *
+         * @return The values by column, or null if the row is invalid.
+         */
+        Map<String, String> getValues() {
+            return values;
+        }
+
+        /**
+         * Gets the reason the row cannot be used.
+         *
+         * @return The error, or null if the row is valid.
+         */
+        String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.gbursali.endpoint;
+
+import io.restassured.response.Response;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The permits of the endpoint and host rate limiters under which a single request is sent.
+ * The endpoint permit is acquired first, so that requests waiting for their endpoint do not hold a slot of the host.
+ */
+final class Admission {
+
+    /**
+     * Admission of requests that are not rate limited.
+     */
+    static final Admission NONE = new Admission(null, null);
+
+    private final RateLimiter.Permit endpoint;
+    private final RateLimiter.Permit host;
+
+    private Admission(RateLimiter.Permit endpoint, RateLimiter.Permit host) {
+        this.endpoint = endpoint;
+        this.host = host;
+    }
+
+    /**
+     * Waits for the permits of a request without blocking.
+     *
+     * @param endpoint The limiter of the endpoint, or null.
+     * @param host     The limiter of the host, or null.
+     * @return A future completing with the admission once the request may be sent.
+     */
+    static CompletableFuture<Admission> acquireAsync(RateLimiter endpoint, RateLimiter host) {
+        if (endpoint == null && host == null)
+            return CompletableFuture.completedFuture(NONE);
+        if (endpoint == null)
+            return host.acquireAsync().thenApply(permit -> new Admission(null, permit));
+        if (host == null)
+            return endpoint.acquireAsync().thenApply(permit -> new Admission(permit, null));
+        return endpoint.acquireAsync().thenCompose(endpointPermit ->
+                host.acquireAsync().thenApply(hostPermit -> new Admission(endpointPermit, hostPermit)));
+    }
+
+    /**
+     * Waits for the permits of a request, blocking the current thread.
+     *
+     * @param endpoint The limiter of the endpoint, or null.
+     * @param host     The limiter of the host, or null.
+     * @return The admission.
+     */
+    static Admission acquire(RateLimiter endpoint, RateLimiter host) {
+        if (endpoint == null && host == null)
+            return NONE;
+        try {
+            return acquireAsync(endpoint, host).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Reports the response of the request to the limiters.
+     *
+     * @param response The response.
+     */
+    void onResponse(Response response) {
+        if (endpoint == null && host == null)
+            return;
+        int status = response.getStatusCode();
+        String retryAfter = status == 429 || status == 503 ? response.getHeader("Retry-After") : null;
+        if (endpoint != null)
+            endpoint.onResponse(status, retryAfter);
+        if (host != null)
+            host.onResponse(status, retryAfter);
+    }
+
+    /**
+     * Releases the concurrency slots of the request. Only the first call releases.
+     */
+    void release() {
+        if (host != null)
+            host.release();
+        if (endpoint != null)
+            endpoint.release();
+    }
+}
@@ -0,0 +1,96 @@
+package com.gbursali.endpoint;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Options controlling how {@link EndpointBase#sendAll} runs a batch of endpoints.
+ * Instances are immutable; every {@code with...} method returns a new instance.
+ */
+public class BatchOptions {
+
+    private static final int DEFAULT_CONCURRENCY = Math.max(4, Runtime.getRuntime().availableProcessors() * 4);
+
+    private final int maxConcurrency;
+    private final int maxConnectionsPerHost;
+    private final ExecutorService executor;
+
+    private BatchOptions(int maxConcurrency, int maxConnectionsPerHost, ExecutorService executor) {
+        this.maxConcurrency = maxConcurrency;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates the default options: a concurrency limit of four requests per processor,
+     * no extra per-host limit and an executor created for the batch.
+     *
+     * @return The default BatchOptions.
+     */
+    public static BatchOptions defaults() {
+        return new BatchOptions(DEFAULT_CONCURRENCY, DEFAULT_CONCURRENCY, null);
+    }
+
+    /**
+     * Sets the maximum number of requests in flight at the same time.
+     *
+     * @param maxConcurrency The concurrency limit.
+     * @return The updated BatchOptions instance.
+     */
+    public BatchOptions withMaxConcurrency(int maxConcurrency) {
+        requirePositive(maxConcurrency, "maxConcurrency");
+        return new BatchOptions(maxConcurrency, Math.min(maxConnectionsPerHost, maxConcurrency), executor);
+    }
+
+    /**
+     * Sets the maximum number of requests in flight at the same time against a single host.
+     *
+     * @param maxConnectionsPerHost The per-host limit.
+     * @return The updated BatchOptions instance.
+     */
+    public BatchOptions withMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        requirePositive(maxConnectionsPerHost, "maxConnectionsPerHost");
+        return new BatchOptions(maxConcurrency, maxConnectionsPerHost, executor);
+    }
+
+    /**
+     * Sets the executor to run the requests on. The executor is not shut down after the batch.
+     *
+     * @param executor The executor to use.
+     * @return The updated BatchOptions instance.
+     */
+    public BatchOptions withExecutor(ExecutorService executor) {
+        return new BatchOptions(maxConcurrency, maxConnectionsPerHost, executor);
+    }
+
+    /**
+     * Gets the maximum number of requests in flight at the same time.
+     *
+     * @return The concurrency limit.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Gets the maximum number of requests in flight at the same time against a single host.
+     *
+     * @return The per-host limit.
+     */
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * Gets the executor to run the requests on.
+     *
+     * @return The executor, or null if one is created for each batch.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    private static void requirePositive(int value, String name) {
+        if (value < 1)
+            throw new IllegalArgumentException(name + " must be positive, got " + value);
+    }
+}
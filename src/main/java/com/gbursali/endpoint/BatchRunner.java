@@ -0,0 +1,212 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.utils.ThreadPools;
+import io.restassured.response.Response;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs a batch of endpoints concurrently, bounded by a global and a per-host concurrency limit.
+ * Every endpoint is sent regardless of failures of the others.
+ * <p>
+ * Endpoints wait in one queue per host and are only started once both their host and the batch have a free slot,
+ * so a batch heavy on one host never holds the slots of the others while waiting for that host.
+ */
+class BatchRunner {
+
+    /**
+     * Suffix of the coalescing keys of results, kept apart from those of {@link Endpoint#sendForJson()}, whose
+     * callers get validation failures thrown rather than captured.
+     */
+    private static final String RESULT_KEY_SUFFIX = "\n#result";
+
+    private final BatchOptions options;
+    private final Map<String, HostQueue> hosts = new LinkedHashMap<>();
+    private List<Endpoint> endpoints;
+    private List<CompletableFuture<EndpointResult>> results;
+    private ExecutorService executor;
+    private int inFlight;
+
+    /**
+     * Constructs a new BatchRunner.
+     *
+     * @param options The options of the batch.
+     */
+    BatchRunner(BatchOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Sends all endpoints and waits for them to complete.
+     *
+     * @param endpoints The endpoints to send.
+     * @return The results, in the iteration order of the given endpoints.
+     */
+    List<EndpointResult> run(Collection<Endpoint> endpoints) {
+        ExecutorService batchExecutor = options.getExecutor();
+        boolean ownExecutor = batchExecutor == null;
+        if (ownExecutor)
+            batchExecutor = ThreadPools.newRequestExecutor(options.getMaxConcurrency());
+        try {
+            List<CompletableFuture<EndpointResult>> futures = new ArrayList<>(endpoints.size());
+            synchronized (this) {
+                this.endpoints = new ArrayList<>(endpoints);
+                this.results = futures;
+                this.executor = batchExecutor;
+                for (int i = 0; i < this.endpoints.size(); i++) {
+                    futures.add(new CompletableFuture<>());
+                    hosts.computeIfAbsent(hostOf(this.endpoints.get(i).getBase()), host -> new HostQueue())
+                            .pending.add(i);
+                }
+                dispatch();
+            }
+            List<EndpointResult> batchResults = new ArrayList<>(futures.size());
+            for (CompletableFuture<EndpointResult> future : futures)
+                batchResults.add(future.join());
+            return batchResults;
+        } finally {
+            if (ownExecutor)
+                batchExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Starts queued endpoints while the batch has free slots, always picking the earliest endpoint whose host
+     * has a free slot. Endpoints the executor rejects complete with the rejection as their error.
+     */
+    private synchronized void dispatch() {
+        while (inFlight < options.getMaxConcurrency()) {
+            HostQueue next = null;
+            for (HostQueue host : hosts.values())
+                if (!host.pending.isEmpty() && host.inFlight < options.getMaxConnectionsPerHost()
+                        && (next == null || host.pending.peek() < next.pending.peek()))
+                    next = host;
+            if (next == null)
+                return;
+            int index = next.pending.poll();
+            HostQueue host = next;
+            host.inFlight++;
+            inFlight++;
+            try {
+                executor.execute(() -> sendGuarded(index, host));
+            } catch (RejectedExecutionException e) {
+                host.inFlight--;
+                inFlight--;
+                results.get(index).complete(new EndpointResult(endpoints.get(index), null, e));
+            }
+        }
+    }
+
+    /**
+     * Sends a single endpoint, then frees its slots and starts the next queued endpoints.
+     *
+     * @param index The position of the endpoint in the batch.
+     * @param host  The queue of the host of the endpoint.
+     */
+    private void sendGuarded(int index, HostQueue host) {
+        EndpointResult result;
+        try {
+            result = send(endpoints.get(index));
+        } catch (RuntimeException | Error e) {
+            result = new EndpointResult(endpoints.get(index), null, e);
+        }
+        synchronized (this) {
+            host.inFlight--;
+            inFlight--;
+            dispatch();
+        }
+        results.get(index).complete(result);
+    }
+
+    /**
+     * Sends a single endpoint, capturing any failure in the result. Identical idempotent requests in flight at
+     * the same time, in this batch or elsewhere, share one call through the request coalescer of the base.
+     *
+     * @param endpoint The endpoint to send.
+     * @return The result of the request.
+     */
+    static EndpointResult send(Endpoint endpoint) {
+        RequestCoalescer coalescer = endpoint.requestCoalescer();
+        if (coalescer == null)
+            return sendOnce(endpoint);
+        try {
+            JsonResponse response = coalescer.send(endpoint.coalescingKey() + RESULT_KEY_SUFFIX, () -> {
+                EndpointResult result = sendOnce(endpoint);
+                if (result.getError() != null)
+                    throw new FailedResult(result);
+                return new JsonResponse(result.getResponse(), null);
+            });
+            return new EndpointResult(endpoint, response.getResponse(), null);
+        } catch (FailedResult e) {
+            return new EndpointResult(endpoint, e.result.getResponse(), e.result.getError());
+        }
+    }
+
+    /**
+     * Sends a single endpoint, capturing any failure in the result.
+     *
+     * @param endpoint The endpoint to send.
+     * @return The result of the request.
+     */
+    private static EndpointResult sendOnce(Endpoint endpoint) {
+        RequestTimer timer = endpoint.startTimer();
+        Response response;
+        try {
+            response = endpoint.execute(timer);
+        } catch (RuntimeException e) {
+            return new EndpointResult(endpoint, null, e);
+        }
+        try {
+            endpoint.validate(response, timer);
+            return new EndpointResult(endpoint, response, null);
+        } catch (RuntimeException e) {
+            return new EndpointResult(endpoint, response, e);
+        }
+    }
+
+    /**
+     * Extracts the host part of the base URL of an endpoint base.
+     *
+     * @param base The endpoint base.
+     * @return The host and port, or the whole base URL if it cannot be parsed.
+     */
+    private static String hostOf(EndpointBase base) {
+        try {
+            String authority = URI.create(base.getBaseURL()).getAuthority();
+            return authority != null ? authority : base.getBaseURL();
+        } catch (IllegalArgumentException e) {
+            return base.getBaseURL();
+        }
+    }
+
+    /**
+     * Carries a failed result through the request coalescer to every caller attached to the call, so that each
+     * of them gets the response along with the validation failure.
+     */
+    private static final class FailedResult extends RuntimeException {
+        private final transient EndpointResult result;
+
+        FailedResult(EndpointResult result) {
+            super(result.getError().getMessage(), null, false, false);
+            this.result = result;
+        }
+    }
+
+    /**
+     * The endpoints of a host waiting to be sent, by position in the batch, and the number in flight.
+     */
+    private static final class HostQueue {
+        private final Queue<Integer> pending = new ArrayDeque<>();
+        private int inFlight;
+    }
+}
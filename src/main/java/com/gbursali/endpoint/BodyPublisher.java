@@ -0,0 +1,156 @@
+package com.gbursali.endpoint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes a stream as buffers, reading only as many buffers as the subscriber has requested.
+ * Reads and signals run on the executor, one task at a time.
+ */
+final class BodyPublisher implements Flow.Publisher<ByteBuffer> {
+
+    private final InputStream body;
+    private final Closeable source;
+    private final int chunkSize;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * Constructs a new BodyPublisher.
+     *
+     * @param body      The stream to publish.
+     * @param source    The owner of the stream, closed once the stream is complete, failed or cancelled.
+     * @param chunkSize The largest size of the published buffers.
+     * @param executor  The executor reading the stream.
+     */
+    BodyPublisher(InputStream body, Closeable source, int chunkSize, Executor executor) {
+        this.body = body;
+        this.source = source;
+        this.chunkSize = chunkSize;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    // The subscription is already terminated.
+                }
+
+                @Override
+                public void cancel() {
+                    // The subscription is already terminated.
+                }
+            });
+            subscriber.onError(new IllegalStateException("A body publisher accepts a single subscriber"));
+            return;
+        }
+        BodySubscription subscription = new BodySubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * The subscription of the single subscriber.
+     */
+    private final class BodySubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean done;
+        private volatile Throwable invalidRequest;
+
+        private BodySubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (done)
+                return;
+            if (n <= 0)
+                invalidRequest = new IllegalArgumentException("Requested a non-positive number of buffers: " + n);
+            else
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (pending.getAndIncrement() == 0)
+                executor.execute(this);
+        }
+
+        /**
+         * Serves the outstanding demand, until it is met, the body ends or the subscription is cancelled.
+         */
+        @Override
+        public void run() {
+            do {
+                drain();
+            } while (pending.decrementAndGet() != 0);
+        }
+
+        private void drain() {
+            if (done) {
+                closeBody();
+                return;
+            }
+            if (invalidRequest != null) {
+                fail(invalidRequest);
+                return;
+            }
+            while (!done && demand.get() > 0) {
+                byte[] chunk = new byte[chunkSize];
+                int read;
+                try {
+                    read = body.readNBytes(chunk, 0, chunkSize);
+                } catch (IOException e) {
+                    fail(e);
+                    return;
+                }
+                if (read > 0) {
+                    demand.decrementAndGet();
+                    subscriber.onNext(ByteBuffer.wrap(read == chunkSize ? chunk : Arrays.copyOf(chunk, read)));
+                }
+                if (read < chunkSize && !done) {
+                    done = true;
+                    closeBody();
+                    subscriber.onComplete();
+                    return;
+                }
+            }
+            if (done)
+                closeBody();
+        }
+
+        private void fail(Throwable error) {
+            done = true;
+            closeBody();
+            subscriber.onError(error);
+        }
+
+        private void closeBody() {
+            try {
+                source.close();
+            } catch (IOException e) {
+                // Failing to close the body only affects connection reuse.
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.utils.InvalidJSONException;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stops sending requests to a host that keeps failing, so that an unhealthy upstream is not flooded with
+ * requests that are bound to fail and callers fail fast with a {@link CircuitOpenException}.
+ * <p>
+ * Every host has its own circuit. After {@link #getFailureThreshold()} consecutive failures, transport errors or
+ * {@code 5xx} responses, the circuit opens and rejects requests for {@link #getOpenDuration()}. It then lets a
+ * single trial request through: a success closes the circuit, a failure opens it again.
+ * <p>
+ * Settings are immutable; every {@code with...} method returns a new breaker with its own circuits and counters.
+ */
+public final class CircuitBreaker {
+
+    private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    private static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+    /**
+     * The states of the circuit of a host.
+     */
+    public enum State {
+        /**
+         * Requests are sent.
+         */
+        CLOSED,
+        /**
+         * Requests are rejected.
+         */
+        OPEN,
+        /**
+         * A single trial request is sent; the others are rejected.
+         */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * Creates a breaker with the default settings: circuits open after 5 consecutive failures, for 30 seconds.
+     *
+     * @return The default CircuitBreaker.
+     */
+    public static CircuitBreaker defaults() {
+        return new CircuitBreaker(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION);
+    }
+
+    /**
+     * Creates a breaker from the "circuit-breaker" attribute of the "settings" block of a definition: either
+     * {@code true} for the defaults, or an object such as {@code {"failure-threshold": 5, "open-ms": 30000}}
+     * where every attribute is optional.
+     *
+     * @param settings The "circuit-breaker" attribute.
+     * @return The CircuitBreaker, or null if the attribute is {@code false}.
+     * @throws InvalidJSONException If the attribute is neither a boolean nor an object.
+     */
+    static CircuitBreaker fromJson(JsonElement settings) {
+        if (settings.isJsonPrimitive() && settings.getAsJsonPrimitive().isBoolean())
+            return settings.getAsBoolean() ? defaults() : null;
+        if (!settings.isJsonObject())
+            throw new InvalidJSONException("\"circuit-breaker\" must be a boolean or an object");
+        JsonObject object = settings.getAsJsonObject();
+        CircuitBreaker breaker = defaults();
+        if (object.has("failure-threshold"))
+            breaker = breaker.withFailureThreshold(object.get("failure-threshold").getAsInt());
+        if (object.has("open-ms"))
+            breaker = breaker.withOpenDuration(Duration.ofMillis(object.get("open-ms").getAsLong()));
+        return breaker;
+    }
+
+    /**
+     * Sets how many consecutive failures open the circuit of a host.
+     *
+     * @param failureThreshold The number of consecutive failures.
+     * @return The updated CircuitBreaker instance.
+     */
+    public CircuitBreaker withFailureThreshold(int failureThreshold) {
+        if (failureThreshold < 1)
+            throw new IllegalArgumentException("failureThreshold must be positive, got " + failureThreshold);
+        return new CircuitBreaker(failureThreshold, openDuration);
+    }
+
+    /**
+     * Sets how long an open circuit rejects requests before letting a trial request through.
+     *
+     * @param openDuration The open duration.
+     * @return The updated CircuitBreaker instance.
+     */
+    public CircuitBreaker withOpenDuration(Duration openDuration) {
+        if (openDuration.isNegative())
+            throw new IllegalArgumentException("openDuration must not be negative, got " + openDuration);
+        return new CircuitBreaker(failureThreshold, openDuration);
+    }
+
+    /**
+     * Gets how many consecutive failures open the circuit of a host.
+     *
+     * @return The failure threshold.
+     */
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * Gets how long an open circuit rejects requests.
+     *
+     * @return The open duration.
+     */
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * Gets the state of the circuit of a host.
+     *
+     * @param host The host, as {@code host[:port]}.
+     * @return The state; hosts that were never contacted are closed.
+     */
+    public State getState(String host) {
+        Circuit circuit = circuits.get(host);
+        return circuit == null ? State.CLOSED : circuit.state();
+    }
+
+    /**
+     * Gets the number of times a circuit opened.
+     *
+     * @return The opened count.
+     */
+    public long getOpenedCount() {
+        return opened.sum();
+    }
+
+    /**
+     * Gets the number of requests rejected by an open circuit.
+     *
+     * @return The rejected count.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Admits a request to a host. Every admitted request must be followed by {@link #onSuccess(String)}
+     * or {@link #onFailure(String)}.
+     *
+     * @param host The host.
+     * @throws CircuitOpenException If the circuit of the host rejects the request.
+     */
+    void acquire(String host) {
+        if (!circuits.computeIfAbsent(host, h -> new Circuit()).tryAcquire()) {
+            rejected.increment();
+            throw new CircuitOpenException(host);
+        }
+    }
+
+    /**
+     * Records a successful request to a host, closing its circuit.
+     *
+     * @param host The host.
+     */
+    void onSuccess(String host) {
+        circuits.get(host).onSuccess();
+    }
+
+    /**
+     * Records a failed request to a host, opening its circuit if the threshold is reached or the request was a trial.
+     *
+     * @param host The host.
+     */
+    void onFailure(String host) {
+        if (circuits.get(host).onFailure())
+            opened.increment();
+    }
+
+    /**
+     * The circuit of a single host.
+     */
+    private final class Circuit {
+        private int failures;
+        private long openedAt;
+        private State state = State.CLOSED;
+
+        synchronized State state() {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openDuration.toNanos())
+                return State.HALF_OPEN;
+            return state;
+        }
+
+        synchronized boolean tryAcquire() {
+            if (state == State.CLOSED)
+                return true;
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openDuration.toNanos()) {
+                // The caller becomes the trial request; everyone else is rejected until it completes.
+                state = State.HALF_OPEN;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void onSuccess() {
+            failures = 0;
+            state = State.CLOSED;
+        }
+
+        synchronized boolean onFailure() {
+            failures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+                return true;
+            }
+            return false;
+        }
+    }
+}
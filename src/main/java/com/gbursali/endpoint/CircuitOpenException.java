@@ -0,0 +1,28 @@
+package com.gbursali.endpoint;
+
+/**
+ * Thrown when a request is rejected without being sent because the circuit breaker of its host is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private final String host;
+
+    /**
+     * Constructs a new CircuitOpenException.
+     *
+     * @param host The host whose circuit is open.
+     */
+    public CircuitOpenException(String host) {
+        super("Circuit breaker is open for " + host);
+        this.host = host;
+    }
+
+    /**
+     * Gets the host whose circuit is open.
+     *
+     * @return The host.
+     */
+    public String getHost() {
+        return host;
+    }
+}
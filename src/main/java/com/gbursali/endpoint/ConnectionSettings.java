@@ -0,0 +1,177 @@
+package com.gbursali.endpoint;
+
+import java.time.Duration;
+
+/**
+ * Options of the pooled HTTP connections shared by the endpoints of an {@link EndpointBase}.
+ * Instances are immutable; every {@code with...} method returns a new instance.
+ * A zero timeout means no timeout, as in RestAssured's defaults.
+ */
+public class ConnectionSettings {
+
+    private static final int DEFAULT_MAX_TOTAL = 200;
+    private static final int DEFAULT_MAX_PER_ROUTE = 50;
+    private static final Duration DEFAULT_KEEP_ALIVE = Duration.ofSeconds(30);
+    private static final int DEFAULT_SOCKET_BUFFER_SIZE = 8 * 1024;
+
+    private final int maxTotal;
+    private final int maxPerRoute;
+    private final Duration keepAlive;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final int socketBufferSize;
+
+    private ConnectionSettings(int maxTotal, int maxPerRoute, Duration keepAlive, Duration connectTimeout,
+                               Duration readTimeout, int socketBufferSize) {
+        this.maxTotal = maxTotal;
+        this.maxPerRoute = maxPerRoute;
+        this.keepAlive = keepAlive;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.socketBufferSize = socketBufferSize;
+    }
+
+    /**
+     * Creates the default settings: 200 connections in total, 50 per host, idle connections kept alive
+     * for 30 seconds unless the server says otherwise, no timeouts and 8 KiB socket buffers.
+     *
+     * @return The default ConnectionSettings.
+     */
+    public static ConnectionSettings defaults() {
+        return new ConnectionSettings(DEFAULT_MAX_TOTAL, DEFAULT_MAX_PER_ROUTE, DEFAULT_KEEP_ALIVE,
+                Duration.ZERO, Duration.ZERO, DEFAULT_SOCKET_BUFFER_SIZE);
+    }
+
+    /**
+     * Sets the maximum number of pooled connections across all hosts.
+     *
+     * @param maxTotal The connection limit.
+     * @return The updated ConnectionSettings instance.
+     */
+    public ConnectionSettings withMaxTotal(int maxTotal) {
+        requirePositive(maxTotal, "maxTotal");
+        return new ConnectionSettings(maxTotal, Math.min(maxPerRoute, maxTotal), keepAlive, connectTimeout,
+                readTimeout, socketBufferSize);
+    }
+
+    /**
+     * Sets the maximum number of pooled connections to a single host.
+     *
+     * @param maxPerRoute The per-host connection limit.
+     * @return The updated ConnectionSettings instance.
+     */
+    public ConnectionSettings withMaxPerRoute(int maxPerRoute) {
+        requirePositive(maxPerRoute, "maxPerRoute");
+        return new ConnectionSettings(maxTotal, maxPerRoute, keepAlive, connectTimeout, readTimeout, socketBufferSize);
+    }
+
+    /**
+     * Sets how long an idle connection is kept for reuse when the server does not send a shorter
+     * {@code Keep-Alive} timeout. A zero duration closes every connection after its response.
+     *
+     * @param keepAlive The keep-alive duration.
+     * @return The updated ConnectionSettings instance.
+     */
+    public ConnectionSettings withKeepAlive(Duration keepAlive) {
+        return new ConnectionSettings(maxTotal, maxPerRoute, requireNotNegative(keepAlive, "keepAlive"),
+                connectTimeout, readTimeout, socketBufferSize);
+    }
+
+    /**
+     * Sets the timeout for establishing a connection.
+     *
+     * @param connectTimeout The connect timeout, or zero for none.
+     * @return The updated ConnectionSettings instance.
+     */
+    public ConnectionSettings withConnectTimeout(Duration connectTimeout) {
+        return new ConnectionSettings(maxTotal, maxPerRoute, keepAlive,
+                requireNotNegative(connectTimeout, "connectTimeout"), readTimeout, socketBufferSize);
+    }
+
+    /**
+     * Sets the maximum time to wait for data on an open connection.
+     *
+     * @param readTimeout The read timeout, or zero for none.
+     * @return The updated ConnectionSettings instance.
+     */
+    public ConnectionSettings withReadTimeout(Duration readTimeout) {
+        return new ConnectionSettings(maxTotal, maxPerRoute, keepAlive, connectTimeout,
+                requireNotNegative(readTimeout, "readTimeout"), socketBufferSize);
+    }
+
+    /**
+     * Sets the size of the buffers used to read from and write to a connection.
+     *
+     * @param socketBufferSize The buffer size in bytes.
+     * @return The updated ConnectionSettings instance.
+     */
+    public ConnectionSettings withSocketBufferSize(int socketBufferSize) {
+        requirePositive(socketBufferSize, "socketBufferSize");
+        return new ConnectionSettings(maxTotal, maxPerRoute, keepAlive, connectTimeout, readTimeout, socketBufferSize);
+    }
+
+    /**
+     * Gets the maximum number of pooled connections across all hosts.
+     *
+     * @return The connection limit.
+     */
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Gets the maximum number of pooled connections to a single host.
+     *
+     * @return The per-host connection limit.
+     */
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    /**
+     * Gets how long an idle connection is kept for reuse.
+     *
+     * @return The keep-alive duration.
+     */
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Gets the timeout for establishing a connection.
+     *
+     * @return The connect timeout, zero if none.
+     */
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Gets the maximum time to wait for data on an open connection.
+     *
+     * @return The read timeout, zero if none.
+     */
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Gets the size of the connection buffers.
+     *
+     * @return The buffer size in bytes.
+     */
+    public int getSocketBufferSize() {
+        return socketBufferSize;
+    }
+
+    private static void requirePositive(int value, String name) {
+        if (value < 1)
+            throw new IllegalArgumentException(name + " must be positive, got " + value);
+    }
+
+    private static Duration requireNotNegative(Duration value, String name) {
+        if (value.isNegative())
+            throw new IllegalArgumentException(name + " must not be negative, got " + value);
+        return value;
+    }
+}
@@ -0,0 +1,332 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.utils.InvalidJSONException;
+import com.gbursali.utils.JSONUtils;
+import com.google.gson.JsonElement;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded, thread-safe cache of parsed endpoint definitions, keyed by normalized file path.
+ * The least recently used definition is evicted when the cache is full. When modification checks
+ * are enabled, a cached definition is re-read as soon as its file's modification time changes.
+ * <p>
+ * A whole directory can be {@link #preload(Path) preloaded} up front; preloaded definitions are additionally
+ * indexed by logical id and by file name, and stay available through the index regardless of eviction.
+ */
+@SuppressWarnings("java:S1144")
+public class DefinitionCache {
+
+    /**
+     * Default maximum number of cached definitions.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    private final int maxEntries;
+    private final boolean checkModification;
+    private final Map<Path, CachedDefinition> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile Index preloaded = new Index();
+
+    /**
+     * Constructs a DefinitionCache holding up to {@link #DEFAULT_MAX_ENTRIES} definitions, with modification checks.
+     */
+    public DefinitionCache() {
+        this(DEFAULT_MAX_ENTRIES, true);
+    }
+
+    /**
+     * Constructs a DefinitionCache.
+     *
+     * @param maxEntries        The maximum number of cached definitions.
+     * @param checkModification Whether to compare the file's modification time on every lookup.
+     *                          When disabled, a cached definition is served without touching the file system.
+     */
+    public DefinitionCache(int maxEntries, boolean checkModification) {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries must be positive, got " + maxEntries);
+        this.maxEntries = maxEntries;
+        this.checkModification = checkModification;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, CachedDefinition> eldest) {
+                return size() > DefinitionCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets the definition stored in the given file, reading and parsing it only if it is not cached or has changed.
+     *
+     * @param jsonPath The path to the JSON file.
+     * @return The parsed definition.
+     * @throws InvalidJSONException If the JSON file is not found or is malformed.
+     */
+    public EndpointDefinition get(Path jsonPath) {
+        Path key = jsonPath.toAbsolutePath().normalize();
+        FileTime modified = checkModification ? modificationTime(jsonPath) : null;
+        CachedDefinition entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && (!checkModification || entry.modified.equals(modified))) {
+            hits.increment();
+            return entry.definition;
+        }
+        misses.increment();
+        if (modified == null)
+            modified = modificationTime(jsonPath);
+        EndpointDefinition definition = EndpointDefinition.fromJson(
+                JSONUtils.readJsonFile(jsonPath, "Malformed JSON file supplied"));
+        put(key, modified, definition);
+        return definition;
+    }
+
+    /**
+     * Stores an already parsed definition.
+     *
+     * @param key        The normalized path of the file.
+     * @param modified   The modification time of the file when it was read.
+     * @param definition The parsed definition.
+     */
+    void put(Path key, FileTime modified, EndpointDefinition definition) {
+        synchronized (entries) {
+            entries.put(key, new CachedDefinition(modified, definition));
+        }
+    }
+
+    /**
+     * Walks the given directory, parses every endpoint definition in parallel, compiles the schemas they
+     * reference and indexes the definitions by logical id and by file name. The logical id is the "id"
+     * attribute of the definition, or its path relative to the directory without the ".json" extension.
+     * JSON files that are not objects with a "settings" block, such as schemas and payloads, are skipped. Files that
+     * cannot be loaded do not stop the preload; they are all collected in the returned report. The index is built
+     * aside and then replaces the one of any previous preload at once, so lookups by id or file name never see a
+     * partially built index.
+     *
+     * @param root The directory to preload, which is also the base path schema files are resolved against.
+     * @return The report of the preload.
+     * @throws InvalidJSONException If the directory cannot be walked.
+     */
+    public PreloadReport preload(Path root) {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().endsWith(".json"))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new InvalidJSONException("JSON base path can't be read", root);
+        }
+
+        Index building = new Index();
+        Map<Path, String> failures = new ConcurrentHashMap<>();
+        AtomicInteger skipped = new AtomicInteger();
+        List<EndpointDefinition> loaded = files.parallelStream()
+                .map(file -> preloadFile(root, file, building, failures, skipped))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        preloaded = building;
+        return new PreloadReport(root, loaded.size(), skipped.get(), failures);
+    }
+
+    /**
+     * Loads, compiles and indexes a single definition file.
+     *
+     * @param root     The directory being preloaded.
+     * @param file     The definition file.
+     * @param building The index being built.
+     * @param failures The map collecting error messages by file.
+     * @param skipped  The counter of files that are not endpoint definitions.
+     * @return The loaded definition, or null if the file was skipped or failed.
+     */
+    private EndpointDefinition preloadFile(Path root, Path file, Index building, Map<Path, String> failures,
+                                           AtomicInteger skipped) {
+        try {
+            FileTime modified = modificationTime(file);
+            JsonElement contents = JSONUtils.jsonify(Files.readString(file));
+            if (!contents.isJsonObject() || !contents.getAsJsonObject().has("settings")) {
+                skipped.incrementAndGet();
+                return null;
+            }
+            EndpointDefinition definition = EndpointDefinition.fromJson(contents.getAsJsonObject());
+            definition.getValidator(root);
+            put(file.toAbsolutePath().normalize(), modified, definition);
+            return index(root, file, definition, building, failures) ? definition : null;
+        } catch (IOException e) {
+            failures.put(file, "JSON file can't be read");
+            return null;
+        } catch (RuntimeException e) {
+            failures.put(file, firstLine(e));
+            return null;
+        }
+    }
+
+    /**
+     * Adds a preloaded definition to the id and file name indexes.
+     *
+     * @param root       The directory being preloaded.
+     * @param file       The definition file.
+     * @param definition The loaded definition.
+     * @param building   The index being built.
+     * @param failures   The map collecting error messages by file.
+     * @return false if another definition already has the same logical id.
+     */
+    private static boolean index(Path root, Path file, EndpointDefinition definition, Index building,
+                                 Map<Path, String> failures) {
+        String id = definition.getId();
+        if (id == null) {
+            String relative = root.relativize(file).toString().replace('\\', '/');
+            id = relative.substring(0, relative.length() - ".json".length());
+        }
+        if (building.byId.putIfAbsent(id, definition) != null) {
+            failures.put(file, "Duplicate endpoint id: " + id);
+            return false;
+        }
+
+        String fileName = file.getFileName().toString();
+        if (building.byFileName.putIfAbsent(fileName, definition) != null)
+            building.ambiguousFileNames.add(fileName);
+        return true;
+    }
+
+    /**
+     * Gets the definitions of the last preload.
+     *
+     * @return The unmodifiable collection of preloaded definitions, in no particular order.
+     */
+    public Collection<EndpointDefinition> getPreloaded() {
+        return Collections.unmodifiableCollection(preloaded.byId.values());
+    }
+
+    /**
+     * Finds a preloaded definition by its logical id.
+     *
+     * @param id The logical id of the definition.
+     * @return The definition, or empty if no preloaded definition has the id.
+     */
+    public Optional<EndpointDefinition> findById(String id) {
+        return Optional.ofNullable(preloaded.byId.get(id));
+    }
+
+    /**
+     * Finds a preloaded definition by its file name. File names that occur more than once in the
+     * preloaded directory tree are ambiguous and are not found.
+     *
+     * @param fileName The file name of the definition, including the extension.
+     * @return The definition, or empty if no single preloaded definition has the file name.
+     */
+    public Optional<EndpointDefinition> findByFileName(String fileName) {
+        Index current = preloaded;
+        if (current.ambiguousFileNames.contains(fileName))
+            return Optional.empty();
+        return Optional.ofNullable(current.byFileName.get(fileName));
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     *
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that required reading a file.
+     *
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of cached definitions.
+     *
+     * @return The number of cached definitions.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Removes all cached definitions.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        preloaded = new Index();
+    }
+
+    /**
+     * Reads the modification time of a definition file.
+     *
+     * @param jsonPath The path to the JSON file.
+     * @return The modification time.
+     * @throws InvalidJSONException If the file is not found.
+     */
+    static FileTime modificationTime(Path jsonPath) {
+        try {
+            return Files.getLastModifiedTime(jsonPath);
+        } catch (NoSuchFileException e) {
+            throw new InvalidJSONException("JSON file not found", jsonPath);
+        } catch (IOException e) {
+            throw new InvalidJSONException("JSON file can't be read", jsonPath);
+        }
+    }
+
+    /**
+     * Gets the first line of the message of an exception.
+     *
+     * @param e The exception.
+     * @return The first line of its message.
+     */
+    private static String firstLine(RuntimeException e) {
+        String message = String.valueOf(e.getMessage());
+        int end = message.indexOf('\n');
+        return end < 0 ? message : message.substring(0, end);
+    }
+
+    /**
+     * The definitions of a preload, by logical id and by file name.
+     */
+    private static final class Index {
+        private final Map<String, EndpointDefinition> byId = new ConcurrentHashMap<>();
+        private final Map<String, EndpointDefinition> byFileName = new ConcurrentHashMap<>();
+        private final Set<String> ambiguousFileNames = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * A parsed definition along with the modification time of its file.
+     */
+    private static final class CachedDefinition {
+        private final FileTime modified;
+        private final EndpointDefinition definition;
+
+        private CachedDefinition(FileTime modified, EndpointDefinition definition) {
+            this.modified = modified;
+            this.definition = definition;
+        }
+    }
+}
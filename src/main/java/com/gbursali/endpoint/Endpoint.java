@@ -1,18 +1,50 @@
 package com.gbursali.endpoint;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import io.restassured.config.EncoderConfig;
+import io.restassured.http.ContentType;
+import io.restassured.http.Header;
 import io.restassured.response.Response;
-import com.gbursali.utils.InvalidJSONException;
+import io.restassured.specification.RequestSpecification;
+import com.gbursali.metrics.RequestMetricsListener;
+import com.gbursali.metrics.RequestOutcome;
+import com.gbursali.metrics.RequestPhase;
+import com.gbursali.record.RecordedExchange;
+import com.gbursali.record.TrafficRecorder;
 import com.gbursali.utils.JSONUtils;
 import com.gbursali.utils.MethodType;
+import com.gbursali.utils.ThreadPools;
 import com.gbursali.utils.json_validator.JSONValidator;
+import com.gbursali.utils.json_validator.ValidationMode;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * This class represents an API endpoint and provides methods to configure and send HTTP requests.
+ * The parameters and body of an endpoint belong to the endpoint alone; they are applied to a fresh
+ * request specification derived from the {@link EndpointBase} on every send.
  */
 @SuppressWarnings("java:S1144")
 public class Endpoint {
@@ -20,7 +52,20 @@ public class Endpoint {
     private MethodType type = MethodType.GET;
     private JSONValidator jsonValidator;
     private final EndpointBase base;
+    private final Map<String, String> params = new LinkedHashMap<>();
+    private final Map<String, String> headers = new LinkedHashMap<>();
+    private String body;
+    private RequestBody binaryBody;
     private String url;
+    private String metricsPath;
+    private long definitionLoadNanos;
+    private boolean streamingValidation;
+    private boolean parallelValidation;
+    private ValidationMode validationMode;
+    private RetryPolicy retryPolicy;
+    private CircuitBreaker circuitBreaker;
+    private HedgePolicy hedgePolicy;
+    private RateLimiter rateLimiter;
 
     /**
      * Private constructor to create an Endpoint instance from a given EndpointBase.
@@ -32,6 +77,32 @@ public class Endpoint {
         this.base = base;
     }
 
+    /**
+     * Copies the request configuration of an endpoint, so that changes made to it afterwards do not reach the copy.
+     * The binary body is shared, as it can only be sent once either way.
+     *
+     * @param endpoint The endpoint to copy.
+     */
+    private Endpoint(Endpoint endpoint) {
+        this.base = endpoint.base;
+        this.type = endpoint.type;
+        this.jsonValidator = endpoint.jsonValidator;
+        this.params.putAll(endpoint.params);
+        this.headers.putAll(endpoint.headers);
+        this.body = endpoint.body;
+        this.binaryBody = endpoint.binaryBody;
+        this.url = endpoint.url;
+        this.metricsPath = endpoint.metricsPath;
+        this.definitionLoadNanos = endpoint.definitionLoadNanos;
+        this.streamingValidation = endpoint.streamingValidation;
+        this.parallelValidation = endpoint.parallelValidation;
+        this.validationMode = endpoint.validationMode;
+        this.retryPolicy = endpoint.retryPolicy;
+        this.circuitBreaker = endpoint.circuitBreaker;
+        this.hedgePolicy = endpoint.hedgePolicy;
+        this.rateLimiter = endpoint.rateLimiter;
+    }
+
     /**
      * Creates a new Endpoint instance from a given EndpointBase.
      *
@@ -44,73 +115,88 @@ public class Endpoint {
 
     /**
      * Creates an Endpoint instance from a JSON representation.
+     * A "result-schema" block, holding either the schema itself or a "file" reference resolved against
+     * the JSON base path, sets the validator of the endpoint.
      *
      * @param endpointBase The base endpoint configuration.
      * @param object The JSON representation of the endpoint.
      * @return The created Endpoint instance.
      */
     public static Endpoint fromJson(EndpointBase endpointBase, JsonObject object) {
-        var instance = new Endpoint(endpointBase);
-        JSONUtils.doIfJsonHasObject(object, "settings", instance::pullSettings);
-        JSONUtils.doIfJsonHasObject(object, "params", instance::addParam);
-        JSONUtils.doIfJsonHasObject(object, "body", body -> instance.setBody(body.toString()));
-        return instance;
+        return EndpointDefinition.fromJson(object).toEndpoint(endpointBase);
     }
 
     /**
-     * Sets the JSON schema validator for the response based on the provided schema information.
-     * If the schema includes a file reference, it reads the schema from the file; otherwise, it uses the provided JSON object.
+     * Sets the body of the endpoint.
      *
-     * @param schema The JSON representation of the schema information.
-     *               If the schema includes a "file" attribute, it is treated as a file reference; otherwise, it is used directly.
-     * @throws InvalidJSONException If the file specified in the schema cannot be read or is invalid.
+     * @param body The body of the endpoint.
+     * @return The current Endpoint instance.
      */
-    private void setSchema(JsonObject schema){
-        if(schema.has("file")){
-            Path file = Path.of(schema.get("file").getAsString());
-            schema = JSONUtils.readJsonFile(file);
-        }
-        withValidator(JSONUtils.stringify(schema));
+    public Endpoint setBody(String body) {
+        this.body = body;
+        this.binaryBody = null;
+        return this;
+    }
 
+    /**
+     * Sets a body sent as raw bytes, replacing any text body. Such requests are neither cached nor coalesced.
+     *
+     * @param body The body of the endpoint, or null to remove it.
+     * @return The current Endpoint instance.
+     * @see RequestBody
+     */
+    public Endpoint setBody(RequestBody body) {
+        this.binaryBody = body;
+        this.body = null;
+        return this;
     }
 
     /**
-     * Sets the body of the endpoint.
+     * Sets a byte array as the body of the endpoint. The array is not copied.
      *
      * @param body The body of the endpoint.
      * @return The current Endpoint instance.
      */
-    public Endpoint setBody(String body) {
-        this.base.getRawRequest().body(body);
-        return this;
+    public Endpoint setBody(byte[] body) {
+        return setBody(RequestBody.fromBytes(body));
     }
 
     /**
-     * Adds parameters to the request.
+     * Sets the remaining bytes of a buffer as the body of the endpoint. The buffer is not copied.
      *
-     * @param params The parameters to add.
+     * @param body The body of the endpoint.
+     * @return The current Endpoint instance.
      */
-    public void addParam(Map<String, String> params) {
-        this.base.getRawRequest().params(params);
+    public Endpoint setBody(ByteBuffer body) {
+        return setBody(RequestBody.fromBuffer(body));
+    }
+
+    /**
+     * Sets a file streamed from disk on every send as the body of the endpoint.
+     *
+     * @param body The file to send.
+     * @return The current Endpoint instance.
+     */
+    public Endpoint setBody(Path body) {
+        return setBody(RequestBody.fromFile(body));
     }
 
     /**
-     * Adds parameters to the request from a JSON object.
+     * Adds parameters to the request.
      *
-     * @param params The JSON object containing parameters.
+     * @param params The parameters to add.
      */
-    private void addParam(JsonObject params) {
-        addParam(JSONUtils.objToStringMap(params));
+    public void addParam(Map<String, String> params) {
+        this.params.putAll(params);
     }
 
     /**
-     * Pulls settings from a JSON object and applies them to the endpoint.
+     * Adds headers to the request, on top of the headers of the base.
      *
-     * @param settings The JSON object containing settings.
+     * @param headers The headers to add.
      */
-    private void pullSettings(JsonObject settings) {
-        JSONUtils.doIfJsonHasString(settings, "path", this::withPath);
-        JSONUtils.doIfJsonHasString(settings, "method", this::withType);
+    public void addHeader(Map<String, String> headers) {
+        this.headers.putAll(headers);
     }
 
     /**
@@ -121,6 +207,7 @@ public class Endpoint {
      */
     public Endpoint withPath(String path) {
         this.url = path;
+        this.metricsPath = null;
         return this;
     }
 
@@ -153,23 +240,921 @@ public class Endpoint {
      * @return The current Endpoint instance.
      */
     public Endpoint withValidator(String schema) {
-        this.jsonValidator = JSONValidator.fromString(schema);
+        return withValidator(JSONValidator.fromString(schema));
+    }
+
+    /**
+     * Gets the JSON schema validator for the response.
+     *
+     * @return The validator, or null if responses are not validated.
+     */
+    public JSONValidator getValidator() {
+        return jsonValidator;
+    }
+
+    /**
+     * Sets the JSON schema validator for the response.
+     *
+     * @param validator The validator, or null to disable validation.
+     * @return The current Endpoint instance.
+     */
+    public Endpoint withValidator(JSONValidator validator) {
+        this.jsonValidator = validator != null && validationMode != null ? validator.withMode(validationMode) : validator;
+        return this;
+    }
+
+    /**
+     * Sets how many errors validation reports before it stops, for the current and any later validator.
+     *
+     * @param validationMode The validation mode.
+     * @return The current Endpoint instance.
+     */
+    public Endpoint withValidationMode(ValidationMode validationMode) {
+        this.validationMode = validationMode;
+        if (jsonValidator != null)
+            this.jsonValidator = jsonValidator.withMode(validationMode);
+        return this;
+    }
+
+    /**
+     * Enables validating the response while it is read from the connection, one array element at a time,
+     * instead of buffering and parsing the whole body first. Memory use then stays bounded by the largest
+     * element, but the body is consumed by validation and cannot be read from the returned response.
+     * Schemas that cannot be checked element by element are validated as a whole.
+     *
+     * @param streamingValidation Whether to validate the response while streaming it.
+     * @return The current Endpoint instance.
+     * @see JSONValidator#validateStream(InputStream)
+     */
+    public Endpoint withStreamingValidation(boolean streamingValidation) {
+        this.streamingValidation = streamingValidation;
+        return this;
+    }
+
+    /**
+     * Checks whether the response is validated while streaming it.
+     *
+     * @return True if streaming validation is enabled.
+     */
+    public boolean isStreamingValidation() {
+        return streamingValidation;
+    }
+
+    /**
+     * Enables validating the response on several cores: array items and object properties are validated
+     * as separate tasks on the validation executor of the base when it is a {@link ForkJoinPool}, or on the
+     * common pool otherwise. Worth it for large responses; small ones are faster validated on one thread.
+     * Streaming validation takes precedence when both are enabled.
+     *
+     * @param parallelValidation Whether to validate the response in parallel.
+     * @return The current Endpoint instance.
+     * @see JSONValidator#validateParallel(JsonElement, ForkJoinPool)
+     */
+    public Endpoint withParallelValidation(boolean parallelValidation) {
+        this.parallelValidation = parallelValidation;
+        return this;
+    }
+
+    /**
+     * Sets the retry policy of the endpoint, overriding the policy of the base.
+     *
+     * @param retryPolicy The retry policy, or null to use the policy of the base.
+     * @return The current Endpoint instance.
+     */
+    public Endpoint withRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * Sets the circuit breaker of the endpoint, overriding the breaker of the base.
+     *
+     * @param circuitBreaker The circuit breaker, or null to use the breaker of the base.
+     * @return The current Endpoint instance.
+     */
+    public Endpoint withCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
+    /**
+     * Sets the hedge policy of the endpoint, overriding the policy of the base.
+     *
+     * @param hedgePolicy The hedge policy, or null to use the policy of the base.
+     * @return The current Endpoint instance.
+     */
+    public Endpoint withHedgePolicy(HedgePolicy hedgePolicy) {
+        this.hedgePolicy = hedgePolicy;
+        return this;
+    }
+
+    /**
+     * Sets the rate limiter of the endpoint. Requests then wait for both this limiter and the limiter of the base.
+     *
+     * @param rateLimiter The rate limiter, or null to only apply the limiter of the base.
+     * @return The current Endpoint instance.
+     */
+    public Endpoint withRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
         return this;
     }
 
+    /**
+     * Checks whether the response is validated in parallel.
+     *
+     * @return True if parallel validation is enabled.
+     */
+    public boolean isParallelValidation() {
+        return parallelValidation;
+    }
+
     /**
      * Sends the configured HTTP request and returns the response.
      *
      * @return The response of the HTTP request.
      */
     public Response send() {
-        Response result = base.getRawRequest()
-                .request(type.toString(), url)
-                .thenReturn();
-        if(Objects.nonNull(jsonValidator)){
-            jsonValidator.validate(result.asPrettyString());
+        return sendForJson().getResponse();
+    }
+
+    /**
+     * Sends the configured HTTP request and returns as soon as the status line and headers are received,
+     * leaving the body on the connection for the caller to stream. The response is neither validated, cached
+     * nor coalesced, and must be closed to release the connection.
+     *
+     * @return The streaming response.
+     * @see StreamingResponse
+     */
+    public StreamingResponse sendStreaming() {
+        RequestTimer timer = startTimer();
+        Admission admission = admit(timer);
+        try {
+            RequestSpecification request = buildRequest();
+            if (Objects.nonNull(timer))
+                timer.mark(RequestPhase.REQUEST_BUILD);
+            Response response = request
+                    .request(type.toString(), url)
+                    .thenReturn();
+            if (Objects.nonNull(timer))
+                timer.mark(RequestPhase.EXCHANGE);
+            admission.onResponse(response);
+            return new StreamingResponse(response, timer, base.getRequestExecutor(), admission);
+        } catch (RuntimeException e) {
+            admission.release();
+            if (Objects.nonNull(timer))
+                timer.finish(null, RequestOutcome.TRANSPORT_ERROR);
+            throw e;
+        }
+    }
+
+    /**
+     * Sends the configured HTTP request and returns the response along with its parsed JSON body.
+     * If a validator is set, the body is parsed once from the raw bytes for validation and the
+     * resulting tree is kept; otherwise it is parsed on first access.
+     *
+     * @return The response of the HTTP request with its JSON body.
+     */
+    public JsonResponse sendForJson() {
+        RequestCoalescer coalescer = requestCoalescer();
+        if (Objects.isNull(coalescer))
+            return exchangeForJson();
+        return coalescer.send(coalescingKey(), this::exchangeForJson);
+    }
+
+    /**
+     * Sends the request and validates the response on the current thread.
+     *
+     * @return The response of the HTTP request with its JSON body.
+     */
+    private JsonResponse exchangeForJson() {
+        RequestTimer timer = startTimer();
+        Response result = execute(timer);
+        return new JsonResponse(result, validate(result, timer));
+    }
+
+    /**
+     * Sends the configured HTTP request, capturing a failed request or a response failing validation in the
+     * result instead of throwing. The response is kept when validation fails.
+     *
+     * @return The result of the request.
+     */
+    public EndpointResult sendForResult() {
+        return BatchRunner.send(this);
+    }
+
+    /**
+     * Sends the configured HTTP request asynchronously, using the executors of the endpoint base.
+     *
+     * @return A future completing with the response, or exceptionally if the request or validation fails.
+     * @see #sendAsync(Executor, Executor)
+     */
+    public CompletableFuture<Response> sendAsync() {
+        return sendAsync(base.getRequestExecutor(), base.getValidationExecutor());
+    }
+
+    /**
+     * Sends the configured HTTP request asynchronously on the given executor,
+     * validating the response on the validation executor of the endpoint base.
+     *
+     * @param requestExecutor The executor performing the network I/O.
+     * @return A future completing with the response, or exceptionally if the request or validation fails.
+     */
+    public CompletableFuture<Response> sendAsync(Executor requestExecutor) {
+        return sendAsync(requestExecutor, base.getValidationExecutor());
+    }
+
+    /**
+     * Sends the configured HTTP request asynchronously. The network exchange runs on the request executor;
+     * schema validation runs as a separate stage on the validation executor, so that CPU-heavy validation
+     * does not hold threads meant for I/O. The request is captured when this method is called: changing the
+     * endpoint afterwards does not affect it.
+     *
+     * @param requestExecutor    The executor performing the network I/O.
+     * @param validationExecutor The executor validating the response.
+     * @return A future completing with the response, or exceptionally if the request or validation fails.
+     */
+    public CompletableFuture<Response> sendAsync(Executor requestExecutor, Executor validationExecutor) {
+        Endpoint request = new Endpoint(this);
+        definitionLoadNanos = 0;
+        RequestCoalescer coalescer = request.requestCoalescer();
+        CompletableFuture<JsonResponse> exchange = Objects.isNull(coalescer)
+                ? request.exchangeAsync(requestExecutor, validationExecutor)
+                : coalescer.sendAsync(request.coalescingKey(), () -> request.exchangeAsync(requestExecutor, validationExecutor));
+        return exchange.thenApply(JsonResponse::getResponse);
+    }
+
+    /**
+     * Sends the request on the request executor and validates the response on the validation executor.
+     * Unless the response may come from the cache, the request waits for its rate limiters before it is handed
+     * to the request executor, so that waiting requests do not hold a thread.
+     *
+     * @param requestExecutor    The executor performing the network I/O.
+     * @param validationExecutor The executor validating the response.
+     * @return A future completing with the response and its JSON body.
+     */
+    private CompletableFuture<JsonResponse> exchangeAsync(Executor requestExecutor, Executor validationExecutor) {
+        RequestTimer timer = startTimer();
+        CompletableFuture<Response> exchange;
+        if (Objects.nonNull(responseCache()))
+            exchange = CompletableFuture.supplyAsync(() -> execute(timer), requestExecutor);
+        else
+            exchange = Admission.acquireAsync(rateLimiter, base.getRateLimiter()).thenCompose(admission -> {
+                if (Objects.nonNull(timer) && admission != Admission.NONE)
+                    timer.mark(RequestPhase.RATE_LIMIT);
+                try {
+                    return CompletableFuture.supplyAsync(() -> execute(timer, admission), requestExecutor);
+                } catch (RejectedExecutionException e) {
+                    admission.release();
+                    throw e;
+                }
+            });
+        if (Objects.isNull(jsonValidator))
+            return exchange.thenApply(response -> new JsonResponse(response, validate(response, timer)));
+        return exchange.thenApplyAsync(response -> new JsonResponse(response, validate(response, timer)), validationExecutor);
+    }
+
+    /**
+     * Starts measuring a request, if a metrics listener is registered on the base.
+     *
+     * @return The timer of the request, or null if no listener is registered.
+     */
+    RequestTimer startTimer() {
+        RequestMetricsListener listener = base.getMetricsListener();
+        if (Objects.isNull(listener))
+            return null;
+        long requestBytes = 0;
+        if (Objects.nonNull(body))
+            requestBytes = body.getBytes(StandardCharsets.UTF_8).length;
+        else if (Objects.nonNull(binaryBody))
+            requestBytes = Math.max(0, binaryBody.getLength());
+        RequestTimer timer = new RequestTimer(listener, type,
+                String.valueOf(Objects.nonNull(metricsPath) ? metricsPath : url), requestBytes);
+        timer.record(RequestPhase.DEFINITION_LOAD, definitionLoadNanos);
+        definitionLoadNanos = 0;
+        return timer;
+    }
+
+    /**
+     * Performs the HTTP exchange without validating the response, or serves it from the response cache of the base.
+     *
+     * @param timer The timer of the request, or null if the request is not measured.
+     * @return The response of the HTTP request.
+     */
+    Response execute(RequestTimer timer) {
+        return execute(timer, null);
+    }
+
+    /**
+     * Performs the HTTP exchange without validating the response, or serves it from the response cache of the base.
+     *
+     * @param timer     The timer of the request, or null if the request is not measured.
+     * @param admission The permits acquired for the first attempt, released once it completes, or null to acquire them.
+     * @return The response of the HTTP request.
+     */
+    private Response execute(RequestTimer timer, Admission admission) {
+        ResponseCache cache = responseCache();
+        if (Objects.isNull(cache))
+            return exchange(null, timer, admission);
+        String key = RequestKey.of(base, type, url, params, headers, body);
+        ResponseCache.CachedResponse cached = cache.lookup(key);
+        if (Objects.nonNull(cached) && cached.isFresh())
+            return cached.getResponse();
+        Response response = exchange(cached, timer, admission);
+        if (Objects.nonNull(cached) && response.getStatusCode() == 304) {
+            cache.revalidated(cached, response);
+            return cached.getResponse();
+        }
+        cache.store(key, response);
+        return response;
+    }
+
+    /**
+     * Sends the request to the server, applying the circuit breaker, retry and hedge policies of the endpoint.
+     *
+     * @param stale The stale cached response to revalidate with a conditional request, or null.
+     * @param timer     The timer of the request, or null if the request is not measured.
+     * @param admission The permits acquired for the first attempt, or null to acquire them.
+     * @return The response of the HTTP request.
+     * @throws CircuitOpenException If the circuit breaker of the host rejects the request.
+     */
+    private Response exchange(ResponseCache.CachedResponse stale, RequestTimer timer, Admission admission) {
+        try {
+            return exchangeWithPolicies(stale, timer, admission);
+        } catch (RuntimeException e) {
+            if (Objects.nonNull(admission))
+                admission.release();
+            if (Objects.nonNull(timer))
+                timer.finish(null, RequestOutcome.TRANSPORT_ERROR);
+            throw e;
+        }
+    }
+
+    /**
+     * Sends the request until it succeeds, fails with a status that is not retried, or runs out of attempts.
+     * Retryable statuses and transport errors count as failures of the host for the circuit breaker, as do
+     * other {@code 5xx} responses.
+     *
+     * @param stale     The stale cached response to revalidate with a conditional request, or null.
+     * @param timer     The timer of the request, or null if the request is not measured.
+     * @param admission The permits acquired for the first attempt, or null to acquire them.
+     * @return The response of the last attempt.
+     */
+    private Response exchangeWithPolicies(ResponseCache.CachedResponse stale, RequestTimer timer, Admission admission) {
+        RetryPolicy retry = retryPolicy();
+        CircuitBreaker breaker = Objects.nonNull(circuitBreaker) ? circuitBreaker : base.getCircuitBreaker();
+        HedgePolicy hedge = hedgePolicy();
+        if (Objects.isNull(retry) && Objects.isNull(breaker) && Objects.isNull(hedge))
+            return attempt(stale, timer, admission);
+        String host = Objects.nonNull(breaker) ? host() : null;
+        int maxAttempts = Objects.nonNull(retry) ? retry.getMaxAttempts() : 1;
+        for (int attempt = 1; ; attempt++) {
+            Admission admitted = attempt == 1 ? admission : null;
+            if (Objects.nonNull(breaker))
+                breaker.acquire(host);
+            Response response;
+            try {
+                response = Objects.nonNull(hedge)
+                        ? hedgedAttempt(hedge, stale, timer, admitted)
+                        : attempt(stale, timer, admitted);
+            } catch (Exception e) {
+                if (Objects.nonNull(breaker))
+                    breaker.onFailure(host);
+                if (attempt >= maxAttempts || !backOff(retry, attempt, 0)) {
+                    if (attempt > 1)
+                        retry.recordExhausted();
+                    throw e;
+                }
+                continue;
+            }
+            int status = response.getStatusCode();
+            boolean retryable = Objects.nonNull(retry) && retry.isRetryStatus(status);
+            if (Objects.nonNull(breaker)) {
+                if (retryable || status >= 500)
+                    breaker.onFailure(host);
+                else
+                    breaker.onSuccess(host);
+            }
+            if (!retryable) {
+                if (attempt > 1)
+                    retry.recordRecovered();
+                return response;
+            }
+            if (attempt >= maxAttempts || !backOff(retry, attempt, RateLimiter.retryAfterNanos(response.getHeader("Retry-After")))) {
+                if (attempt > 1)
+                    retry.recordExhausted();
+                return response;
+            }
+            if (streamsBody())
+                closeQuietly(response);
+        }
+    }
+
+    /**
+     * Waits before a retry, for the jittered backoff of the policy or the delay requested by the server,
+     * whichever is longer.
+     *
+     * @param retry           The retry policy, or null if requests are not retried.
+     * @param attempt         The number of the attempt that failed, starting at 1.
+     * @param retryAfterNanos The delay requested by a {@code Retry-After} header, or a non-positive value.
+     * @return True if the request is to be retried, false if it is not retryable or the thread was interrupted.
+     */
+    private static boolean backOff(RetryPolicy retry, int attempt, long retryAfterNanos) {
+        if (Objects.isNull(retry))
+            return false;
+        long delay = Math.max(retry.backoffNanos(attempt), retryAfterNanos);
+        if (delay > 0)
+            LockSupport.parkNanos(delay);
+        if (Thread.currentThread().isInterrupted())
+            return false;
+        retry.recordRetry();
+        return true;
+    }
+
+    /**
+     * Sends the request and, if it has not completed after the hedging delay of the endpoint, a second identical
+     * request, returning the first successful response. The attempts run on the shared hedge executor; the
+     * losing attempt completes in the background and its response is discarded. Only the winning attempt adds its
+     * phases to the timer and is recorded to the traffic log.
+     *
+     * @param hedge     The hedge policy.
+     * @param stale     The stale cached response to revalidate with a conditional request, or null.
+     * @param timer     The timer of the request, or null if the request is not measured.
+     * @param admission The permits acquired for the first attempt, or null to acquire them. The hedge acquires its own.
+     * @return The response of the winning attempt.
+     */
+    private Response hedgedAttempt(HedgePolicy hedge, ResponseCache.CachedResponse stale, RequestTimer timer,
+                                   Admission admission) {
+        String key = type + " " + url;
+        long delay = hedge.delayNanos(key);
+        long start = System.nanoTime();
+        if (delay < 0) {
+            Response response = attempt(stale, timer, admission);
+            hedge.recordLatency(key, System.nanoTime() - start);
+            return response;
+        }
+        Executor executor = ThreadPools.sharedHedgeExecutor();
+        CompletableFuture<HedgeAttempt> primary = CompletableFuture.supplyAsync(
+                () -> new HedgeAttempt(timer).send(stale, admission), executor);
+        HedgeAttempt winner;
+        try {
+            try {
+                winner = primary.get(delay, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                hedge.recordHedge();
+                CompletableFuture<HedgeAttempt> backup = CompletableFuture.supplyAsync(
+                        () -> new HedgeAttempt(timer).send(stale, null), executor);
+                CompletableFuture<HedgeAttempt> first = new CompletableFuture<>();
+                AtomicInteger failures = new AtomicInteger();
+                AtomicBoolean decided = new AtomicBoolean();
+                primary.whenComplete((result, error) -> complete(first, result, error, failures, decided, null));
+                backup.whenComplete((result, error) ->
+                        complete(first, result, error, failures, decided, hedge::recordHedgeWin));
+                winner = first.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException("Hedged request failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a hedged request", e);
+        }
+        hedge.recordLatency(key, System.nanoTime() - start);
+        if (Objects.nonNull(timer))
+            timer.merge(winner.timer);
+        TrafficRecorder recorder = base.getTrafficRecorder();
+        if (Objects.nonNull(recorder) && Objects.nonNull(winner.exchange))
+            recorder.record(winner.exchange);
+        return winner.response;
+    }
+
+    /**
+     * Completes the outcome of a hedged request with the result of one of its attempts: with the first response,
+     * or with the error of the last attempt to fail.
+     *
+     * @param first    The outcome of the hedged request.
+     * @param result   The attempt, or null if it failed.
+     * @param error    The error of the attempt, or null if it succeeded.
+     * @param failures The number of attempts that failed so far.
+     * @param decided  Whether an attempt already decided the outcome with its response.
+     * @param onWin    Run before the outcome is completed, if this attempt decides it, or null.
+     * @param <T>      The type of the result of an attempt.
+     */
+    private static <T> void complete(CompletableFuture<T> first, T result, Throwable error,
+                                     AtomicInteger failures, AtomicBoolean decided, Runnable onWin) {
+        if (Objects.isNull(error)) {
+            if (decided.compareAndSet(false, true)) {
+                // Counted before completing, so that the caller sees the win as soon as it has the response.
+                if (Objects.nonNull(onWin))
+                    onWin.run();
+                first.complete(result);
+            }
+            return;
+        }
+        if (failures.incrementAndGet() == 2)
+            first.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+    }
+
+    /**
+     * Sends the request to the server once, under the permits of the rate limiters of the endpoint and the base,
+     * and records the exchange to the traffic log of the base.
+     *
+     * @param stale     The stale cached response to revalidate with a conditional request, or null.
+     * @param timer     The timer of the request, or null if the request is not measured.
+     * @param admission The permits acquired for this attempt, or null to acquire them. They are released on return.
+     * @return The response of the HTTP request.
+     */
+    private Response attempt(ResponseCache.CachedResponse stale, RequestTimer timer, Admission admission) {
+        return attempt(stale, timer, admission, null);
+    }
+
+    /**
+     * Sends the request to the server once, under the permits of the rate limiters of the endpoint and the base.
+     *
+     * @param stale     The stale cached response to revalidate with a conditional request, or null.
+     * @param timer     The timer of the request, or null if the request is not measured.
+     * @param admission The permits acquired for this attempt, or null to acquire them. They are released on return.
+     * @param hedged    The hedged attempt to hand the exchange to instead of recording it, or null to record it.
+     * @return The response of the HTTP request.
+     */
+    private Response attempt(ResponseCache.CachedResponse stale, RequestTimer timer, Admission admission,
+                             HedgeAttempt hedged) {
+        Admission admitted = Objects.nonNull(admission) ? admission : admit(timer);
+        try {
+            long sentAt = System.currentTimeMillis();
+            long start = System.nanoTime();
+            RequestSpecification request = buildRequest();
+            if (Objects.nonNull(stale) && Objects.nonNull(stale.getEtag()))
+                request.header("If-None-Match", stale.getEtag());
+            if (Objects.nonNull(stale) && Objects.nonNull(stale.getLastModified()))
+                request.header("If-Modified-Since", stale.getLastModified());
+            if (Objects.nonNull(timer))
+                timer.mark(RequestPhase.REQUEST_BUILD);
+            Response response = request
+                    .request(type.toString(), url)
+                    .thenReturn();
+            if (Objects.nonNull(timer))
+                timer.mark(RequestPhase.EXCHANGE);
+            admitted.onResponse(response);
+            if (streamsBody())
+                return response;
+            // Reading the body releases the connection back to the pool; RestAssured keeps the bytes for later use.
+            int responseBytes = response.asByteArray().length;
+            if (Objects.nonNull(timer)) {
+                timer.setResponseBytes(responseBytes);
+                timer.mark(RequestPhase.BODY_READ);
+            }
+            TrafficRecorder recorder = base.getTrafficRecorder();
+            if (Objects.nonNull(recorder)) {
+                RecordedExchange exchange = toRecordedExchange(response, sentAt, System.nanoTime() - start);
+                if (Objects.nonNull(hedged))
+                    hedged.exchange = exchange;
+                else
+                    recorder.record(exchange);
+            }
+            return response;
+        } finally {
+            admitted.release();
+        }
+    }
+
+    /**
+     * Captures the request and its fully read response for the traffic recorder of the base.
+     * Bodies streamed from files are not captured.
+     *
+     * @param response      The response, with its body read.
+     * @param sentAt        The time the request was sent, in milliseconds since the epoch.
+     * @param durationNanos The time the exchange took.
+     * @return The exchange to record.
+     */
+    private RecordedExchange toRecordedExchange(Response response, long sentAt, long durationNanos) {
+        String path = url;
+        if (Objects.nonNull(path) && (path.startsWith("http://") || path.startsWith("https://")))
+            path = URI.create(path).getRawPath();
+        String query = null;
+        if (!params.isEmpty()) {
+            StringJoiner joiner = new StringJoiner("&");
+            new TreeMap<>(params).forEach((name, value) -> joiner.add(name + '=' + value));
+            query = joiner.toString();
+        }
+        byte[] requestBody = null;
+        if (Objects.nonNull(body))
+            requestBody = body.getBytes(StandardCharsets.UTF_8);
+        else if (Objects.nonNull(binaryBody))
+            requestBody = binaryBody.inMemoryBytes();
+        Map<String, String> responseHeaders = new LinkedHashMap<>();
+        for (Header header : response.getHeaders())
+            responseHeaders.putIfAbsent(header.getName(), header.getValue());
+        return new RecordedExchange(sentAt, durationNanos, type.toString(), base.getBaseURL(),
+                Objects.nonNull(path) ? path : "", query, requestBody, response.getStatusCode(), responseHeaders,
+                response.asByteArray());
+    }
+
+    /**
+     * Waits for the permits of the rate limiters of the endpoint and the base.
+     *
+     * @param timer The timer of the request, or null if the request is not measured.
+     * @return The admission of the request.
+     */
+    private Admission admit(RequestTimer timer) {
+        Admission admission = Admission.acquire(rateLimiter, base.getRateLimiter());
+        if (Objects.nonNull(timer) && admission != Admission.NONE)
+            timer.mark(RequestPhase.RATE_LIMIT);
+        return admission;
+    }
+
+    /**
+     * Gets the retry policy applying to this request.
+     *
+     * @return The policy of the endpoint or of the base, or null if there is none or the method is not idempotent.
+     */
+    private RetryPolicy retryPolicy() {
+        RetryPolicy retry = Objects.nonNull(retryPolicy) ? retryPolicy : base.getRetryPolicy();
+        return Objects.nonNull(retry) && retry.getMaxAttempts() > 1 && RetryPolicy.isRetryable(type) ? retry : null;
+    }
+
+    /**
+     * Gets the hedge policy applying to this request.
+     *
+     * @return The policy of the endpoint or of the base, or null if there is none, it is disabled, the method is
+     * not idempotent or the body is streamed.
+     */
+    private HedgePolicy hedgePolicy() {
+        HedgePolicy hedge = Objects.nonNull(hedgePolicy) ? hedgePolicy : base.getHedgePolicy();
+        return Objects.nonNull(hedge) && hedge.isEnabled() && RetryPolicy.isRetryable(type) && !streamsBody()
+                ? hedge : null;
+    }
+
+    /**
+     * Gets the host the circuit breaker tracks the request under.
+     *
+     * @return The authority of the base URL, or the base URL itself if it cannot be parsed.
+     */
+    private String host() {
+        try {
+            String authority = URI.create(base.getBaseURL()).getAuthority();
+            return Objects.nonNull(authority) ? authority : base.getBaseURL();
+        } catch (IllegalArgumentException e) {
+            return base.getBaseURL();
+        }
+    }
+
+    /**
+     * Closes the unread body of a discarded response, releasing its connection.
+     *
+     * @param response The response.
+     */
+    private static void closeQuietly(Response response) {
+        try {
+            response.asInputStream().close();
+        } catch (IOException e) {
+            // Failing to close the body only affects connection reuse.
         }
+    }
+
+    /**
+     * Gets the coalescer collapsing concurrent identical requests of this endpoint.
+     *
+     * @return The coalescer of the base, or null if the base has none, the method is not idempotent,
+     * the request body is binary or the response body is streamed.
+     */
+    RequestCoalescer requestCoalescer() {
+        RequestCoalescer coalescer = base.getRequestCoalescer();
+        return Objects.nonNull(coalescer) && RequestCoalescer.isCoalescable(type) && Objects.isNull(binaryBody)
+                && !streamsBody() ? coalescer : null;
+    }
+
+    /**
+     * Builds the key under which the request is coalesced. Besides the request itself, the key holds how the
+     * response is validated, so that attached requests get the outcome they would have got on their own.
+     *
+     * @return The coalescing key.
+     */
+    String coalescingKey() {
+        String key = RequestKey.of(base, type, url, params, headers, body);
+        if (Objects.isNull(jsonValidator))
+            return key;
+        return key + "\n#validator:" + jsonValidator.getSchema().getKey() + ' ' + jsonValidator.getMode()
+                + (parallelValidation ? " parallel" : "");
+    }
+
+    /**
+     * Gets the response cache serving this endpoint.
+     *
+     * @return The cache of the base, or null if the base has none, the method is not idempotent,
+     * the request body is binary or the response body is streamed.
+     */
+    private ResponseCache responseCache() {
+        ResponseCache cache = base.getResponseCache();
+        return Objects.nonNull(cache) && ResponseCache.isCacheable(type) && Objects.isNull(binaryBody)
+                && !streamsBody() ? cache : null;
+    }
+
+    /**
+     * Validates the response against the schema of this endpoint, if one is set, and completes the measurement.
+     *
+     * @param response The response to validate.
+     * @param timer    The timer of the request, or null if the request is not measured.
+     * @return The body parsed for validation, or null if no validator is set or a cached response
+     * was already validated against the same schema.
+     * @throws com.gbursali.utils.json_validator.JsonValidationException If the response does not match the schema.
+     */
+    JsonElement validate(Response response, RequestTimer timer) {
+        JsonElement parsed = null;
+        try {
+            if (streamsBody())
+                validateStream(response);
+            else if (Objects.nonNull(jsonValidator) && !isCachedAndValidated(response)) {
+                parsed = parallelValidation
+                        ? validateParallel(response)
+                        : jsonValidator.validate(response.asByteArray(), JsonResponse.charsetOf(response));
+                ResponseCache cache = responseCache();
+                if (Objects.nonNull(cache))
+                    cache.markValidated(response, jsonValidator.getSchema());
+            }
+        } catch (RuntimeException e) {
+            if (Objects.nonNull(timer))
+                timer.finish(response, RequestOutcome.VALIDATION_FAILURE);
+            throw e;
+        }
+        if (Objects.nonNull(timer)) {
+            timer.mark(RequestPhase.VALIDATION);
+            timer.finish(response, null);
+        }
+        return parsed;
+    }
+
+    /**
+     * Checks whether the response comes from the response cache and passed validation against the current schema.
+     *
+     * @param response The response to validate.
+     * @return True if validating the response again can be skipped.
+     */
+    private boolean isCachedAndValidated(Response response) {
+        ResponseCache cache = responseCache();
+        return Objects.nonNull(cache) && cache.isValidated(response, jsonValidator.getSchema());
+    }
+
+    /**
+     * Checks whether the body is left on the connection for streaming validation.
+     *
+     * @return True if streaming validation is enabled and a validator is set.
+     */
+    private boolean streamsBody() {
+        return streamingValidation && Objects.nonNull(jsonValidator);
+    }
+
+    /**
+     * Validates the body while reading it from the connection, then closes the body stream so that
+     * the connection is released.
+     *
+     * @param response The response to validate.
+     * @throws com.gbursali.utils.json_validator.JsonValidationException If the response does not match the schema.
+     */
+    private void validateStream(Response response) {
+        InputStream body = response.asInputStream();
+        try {
+            jsonValidator.validateStream(body);
+        } finally {
+            try {
+                body.close();
+            } catch (IOException e) {
+                // The body has been read; failing to close it only affects connection reuse.
+            }
+        }
+    }
+
+    /**
+     * Parses the body and validates it on the fork-join pool of the base.
+     *
+     * @param response The response to validate.
+     * @return The parsed body.
+     * @throws com.gbursali.utils.json_validator.JsonValidationException If the response does not match the schema.
+     */
+    private JsonElement validateParallel(Response response) {
+        Executor executor = base.getValidationExecutor();
+        ForkJoinPool pool = executor instanceof ForkJoinPool ? (ForkJoinPool) executor : ForkJoinPool.commonPool();
+        JsonElement parsed = JSONUtils.jsonify(response.asByteArray(), JsonResponse.charsetOf(response));
+        jsonValidator.validateParallel(parsed, pool);
+        return parsed;
+    }
+
+    /**
+     * Sets the path this endpoint is measured under, so that the requests of a templated definition are
+     * aggregated together whatever values their placeholders are bound to. It is cleared by {@link #withPath(String)}.
+     *
+     * @param path The path of the definition, with its placeholders.
+     */
+    void setMetricsPath(String path) {
+        this.metricsPath = path;
+    }
+
+    /**
+     * Records how long loading the definition of this endpoint took; reported with its first request.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    void setDefinitionLoadNanos(long nanos) {
+        this.definitionLoadNanos = nanos;
+    }
+
+    /**
+     * Gets the base this endpoint was created from.
+     *
+     * @return The endpoint base.
+     */
+    EndpointBase getBase() {
+        return base;
+    }
+
+    /**
+     * Builds a fresh request specification from the base and applies the parameters, headers and body of this endpoint.
+     *
+     * @return The request specification for a single request.
+     */
+    private RequestSpecification buildRequest() {
+        RequestSpecification request = base.newRequest();
+        if (!params.isEmpty())
+            request.params(params);
+        if (!headers.isEmpty())
+            request.headers(headers);
+        if (Objects.nonNull(body))
+            request.body(body);
+        else if (Objects.nonNull(binaryBody))
+            applyBinaryBody(request);
+        return request;
+    }
+
+    /**
+     * Applies the binary body to a request. RestAssured encodes streams sent as JSON or text by reading them
+     * into memory first, so the content type of the request is declared binary to have the bytes passed to
+     * the connection untouched, and no charset is appended to it.
+     *
+     * @param request The request specification.
+     */
+    private void applyBinaryBody(RequestSpecification request) {
+        EncoderConfig encoder = base.getConfig().getEncoderConfig()
+                .appendDefaultContentCharsetToContentTypeIfUndefined(false);
+        String contentType = contentType();
+        if (Objects.nonNull(contentType))
+            encoder = encoder.encodeContentTypeAs(contentType, ContentType.BINARY);
+        request.config(base.getConfig().encoderConfig(encoder));
+        Object content = binaryBody.content();
+        if (content instanceof byte[])
+            request.body((byte[]) content);
+        else
+            request.body((InputStream) content);
+    }
+
+    /**
+     * Gets the media type of the request, without parameters.
+     *
+     * @return The Content-Type set on the endpoint or on the base, or null if there is none.
+     */
+    private String contentType() {
+        String value = null;
+        for (Header header : base.getHeaders())
+            if (header.getName().equalsIgnoreCase("Content-Type"))
+                value = header.getValue();
+        for (Map.Entry<String, String> header : headers.entrySet())
+            if (header.getKey().equalsIgnoreCase("Content-Type"))
+                value = header.getValue();
+        if (Objects.isNull(value))
+            return null;
+        int parameters = value.indexOf(';');
+        return (parameters < 0 ? value : value.substring(0, parameters)).trim();
+    }
+
+    /**
+     * One attempt of a hedged request, keeping its phases and exchange apart until it is known to be the winner.
+     */
+    private final class HedgeAttempt {
+        private final RequestTimer timer;
+        private Response response;
+        private RecordedExchange exchange;
 
-        return result;
+        /**
+         * Constructs a new HedgeAttempt.
+         *
+         * @param requestTimer The timer of the request, or null if the request is not measured.
+         */
+        HedgeAttempt(RequestTimer requestTimer) {
+            this.timer = Objects.nonNull(requestTimer) ? requestTimer.fork() : null;
+        }
+
+        /**
+         * Sends the attempt.
+         *
+         * @param stale     The stale cached response to revalidate with a conditional request, or null.
+         * @param admission The permits acquired for this attempt, or null to acquire them.
+         * @return This attempt, with its response.
+         */
+        HedgeAttempt send(ResponseCache.CachedResponse stale, Admission admission) {
+            response = attempt(stale, timer, admission, this);
+            return this;
+        }
     }
 }
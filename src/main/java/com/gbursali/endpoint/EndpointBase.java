@@ -1,28 +1,56 @@
 package com.gbursali.endpoint;
 
-import com.google.gson.JsonObject;
+import io.restassured.RestAssured;
+import io.restassured.config.RestAssuredConfig;
 import io.restassured.http.Cookie;
+import io.restassured.http.Cookies;
 import io.restassured.http.Header;
+import io.restassured.http.Headers;
 import io.restassured.specification.RequestSpecification;
+import com.gbursali.metrics.RequestMetricsListener;
+import com.gbursali.record.TrafficRecorder;
 import com.gbursali.utils.InvalidJSONException;
-import com.gbursali.utils.JSONUtils;
+import com.gbursali.utils.ThreadPools;
 
-import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import static io.restassured.RestAssured.given;
 
 /**
  * Base class for building REST API endpoints. It provides methods for configuring the base URL,
  * creating endpoints with specific paths and JSON data, and handling request specifications.
+ * <p>
+ * An EndpointBase is an immutable template: every {@code with...} method returns a new instance and leaves
+ * the base it is called on unchanged, so its result must be used. Every request sent through a base gets
+ * a fresh request specification. A single base can therefore be shared by endpoints running on many threads.
  */
 @SuppressWarnings("java:S1144")
 public class EndpointBase {
 
-    private List<Header> headers;
-    private RequestSpecification requestSpecification;
-    private Path jsonBasePath;
+    private final String baseURL;
+    private final List<Header> headers;
+    private final List<Cookie> cookies;
+    private final Path jsonBasePath;
+    private final DefinitionCache definitions;
+    private final Executor requestExecutor;
+    private final Executor validationExecutor;
+    private final RequestMetricsListener metricsListener;
+    private final ConnectionPool connectionPool;
+    private final ResponseCache responseCache;
+    private final RequestCoalescer requestCoalescer;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+    private final HedgePolicy hedgePolicy;
+    private final RateLimiter rateLimiter;
+    private final TrafficRecorder trafficRecorder;
 
     /**
      * Constructs an EndpointBase with the specified base URL.
@@ -30,7 +58,32 @@ public class EndpointBase {
      * @param baseURL The base URL for the REST API.
      */
     protected EndpointBase(String baseURL) {
-        this.requestSpecification = given().baseUri(baseURL);
+        this(new Settings(baseURL));
+    }
+
+    /**
+     * Constructs an EndpointBase from the settings of a {@code with...} call. Every field is final and set here,
+     * so the base is safely published to any thread it is shared with.
+     *
+     * @param settings The settings of the base.
+     */
+    private EndpointBase(Settings settings) {
+        this.baseURL = settings.baseURL;
+        this.headers = settings.headers;
+        this.cookies = settings.cookies;
+        this.jsonBasePath = settings.jsonBasePath;
+        this.definitions = settings.definitions;
+        this.requestExecutor = settings.requestExecutor;
+        this.validationExecutor = settings.validationExecutor;
+        this.metricsListener = settings.metricsListener;
+        this.connectionPool = settings.connectionPool;
+        this.responseCache = settings.responseCache;
+        this.requestCoalescer = settings.requestCoalescer;
+        this.retryPolicy = settings.retryPolicy;
+        this.circuitBreaker = settings.circuitBreaker;
+        this.hedgePolicy = settings.hedgePolicy;
+        this.rateLimiter = settings.rateLimiter;
+        this.trafficRecorder = settings.trafficRecorder;
     }
 
     /**
@@ -54,45 +107,396 @@ public class EndpointBase {
     }
 
     /**
-     * Adds a cookie to the request specification.
+     * Adds a cookie to every request sent through the base.
      *
      * @param cookie The cookie to add.
-     * @return The updated EndpointBase instance.
+     * @return A new EndpointBase instance with the cookie.
      */
     public EndpointBase withCookie(Cookie cookie) {
-        this.requestSpecification = requestSpecification.cookie(cookie);
-        return this;
+        Settings settings = new Settings(this);
+        settings.cookies = append(cookies, cookie);
+        return new EndpointBase(settings);
     }
 
     /**
-     * Adds a header to the request specification.
+     * Adds a header to every request sent through the base.
      *
      * @param header The header to add.
-     * @return The updated EndpointBase instance.
+     * @return A new EndpointBase instance with the header.
      */
     public EndpointBase withHeader(Header header) {
-        this.requestSpecification = requestSpecification.header(header);
-        return this;
+        Settings settings = new Settings(this);
+        settings.headers = append(headers, header);
+        return new EndpointBase(settings);
     }
 
     /**
-     * Sets the base path for JSON files used in endpoint configurations.
+     * Sets the base path for JSON files used in endpoint configurations. If the path changes, the new base
+     * gets a definition cache of its own, so that definitions preloaded from another root are not found by id.
      *
      * @param jsonBasePath The base path for JSON files.
-     * @return The updated EndpointBase instance.
+     * @return A new EndpointBase instance with the base path.
      */
     public EndpointBase withJsonBasePath(Path jsonBasePath) {
-        this.jsonBasePath = jsonBasePath;
-        return this;
+        Settings settings = new Settings(this);
+        settings.jsonBasePath = jsonBasePath;
+        if (!Objects.equals(jsonBasePath, this.jsonBasePath))
+            settings.definitions = new DefinitionCache();
+        return new EndpointBase(settings);
+    }
+
+    /**
+     * Sets the cache holding the parsed JSON definitions of this base.
+     * By default every base created with {@link #builder(String)} has a cache of its own,
+     * shared by all bases derived from it that keep its JSON base path.
+     *
+     * @param definitions The definition cache to use.
+     * @return A new EndpointBase instance with the cache.
+     */
+    public EndpointBase withDefinitionCache(DefinitionCache definitions) {
+        Settings settings = new Settings(this);
+        settings.definitions = definitions;
+        return new EndpointBase(settings);
+    }
+
+    /**
+     * Gets the cache holding the parsed JSON definitions of this base.
+     *
+     * @return The definition cache.
+     */
+    public DefinitionCache getDefinitionCache() {
+        return definitions;
+    }
+
+    /**
+     * Sets the executor on which asynchronous requests perform their network I/O.
+     *
+     * @param requestExecutor The executor for network I/O.
+     * @return A new EndpointBase instance with the executor.
+     */
+    public EndpointBase withRequestExecutor(Executor requestExecutor) {
+        Settings settings = new Settings(this);
+        settings.requestExecutor = requestExecutor;
+        return new EndpointBase(settings);
+    }
+
+    /**
+     * Sets the executor on which asynchronous requests validate their responses.
+     *
+     * @param validationExecutor The executor for schema validation.
+     * @return A new EndpointBase instance with the executor.
+     */
+    public EndpointBase withValidationExecutor(Executor validationExecutor) {
+        Settings settings = new Settings(this);
+        settings.validationExecutor = validationExecutor;
+        return new EndpointBase(settings);
+    }
+
+    /**
+     * Gets the executor on which asynchronous requests perform their network I/O.
+     *
+     * @return The configured executor, or the {@link ThreadPools#sharedRequestExecutor() shared request executor}.
+     */
+    public Executor getRequestExecutor() {
+        return requestExecutor != null ? requestExecutor : ThreadPools.sharedRequestExecutor();
+    }
+
+    /**
+     * Gets the executor on which asynchronous requests validate their responses.
+     *
+     * @return The configured executor, or the common fork-join pool.
+     */
+    public Executor getValidationExecutor() {
+        return validationExecutor != null ? validationExecutor : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Sets the listener receiving the phase timings, payload sizes and outcome of every request sent through the base.
+     * When no listener is set, requests are not measured at all.
+     *
+     * @param metricsListener The listener, or null to stop measuring.
+     * @return A new EndpointBase instance with the listener.
+     * @see com.gbursali.metrics.MetricsRecorder
+     */
+    public EndpointBase withMetricsListener(RequestMetricsListener metricsListener) {
+        Settings settings = new Settings(this);
+        settings.metricsListener = metricsListener;
+        return new EndpointBase(settings);
+    }
+
+    /**
+     * Gets the listener receiving the measurements of every request.
+     *
+     * @return The listener, or null if requests are not measured.
+     */
+    public RequestMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * Sends the requests of the base through a pool of keep-alive connections. The pool is shared by all
+     * endpoints made from the base and its copies, and may be shared with other bases.
+     *
+     * @param connectionPool The connection pool, or null to use RestAssured's default client.
+     * @return A new EndpointBase instance using the pool.
+     */
+    public EndpointBase withConnectionPool(ConnectionPool connectionPool) {
+        Settings settings = new Settings(this);
+        settings.connectionPool = connectionPool;
+        return new EndpointBase(settings);
+    }
+
+    /**
+     * Sends the requests of the base through a new pool of keep-alive connections with the given settings.
+     * The base does not close the pool: the caller owns it and must close it through
+     * {@link #getConnectionPool()} once the base and its endpoints are no longer used. Each call creates
+     * its own pool, so call it once and share the returned base rather than calling it per request.
+     *
+     * @param settings The settings of the pool.
+     * @return A new EndpointBase instance using the pool.
+     * @see #withConnectionPool(ConnectionPool)
+     */
+    public EndpointBase withConnectionSettings(ConnectionSettings settings) {
+        return withConnectionPool(ConnectionPool.create(settings));
+    }
+
+    /**
+     * Gets the connection pool the requests of the base are sent through.
+     *
+     * @return The connection pool, or null if RestAssured's default client is used.
+     */
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    /**
+     * Serves repeated {@code GET} and {@code HEAD} requests of the base from a response cache, revalidating
+     * stale responses with conditional requests. The cache is shared by all endpoints made from the base and
+     * its copies, and may be shared with other bases.
+     *
+     * @param responseCache The response cache, or null to send every request.
+     * @return A new EndpointBase instance using the cache.
+     */
+    public EndpointBase withResponseCache(ResponseCache responseCache) {
+        Settings settings = new Settings(this);
+        settings.responseCache = responseCache;
+        return new EndpointBase(settings);
+    }
+
+    /**
+     * Gets the cache serving repeated requests of the base.
+     *
+     * @return The response cache, or null if every request is sent.
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Collapses concurrent identical {@code GET}, {@code HEAD} and {@code OPTIONS} requests of the base into a
+     * single call whose response, validated once, is handed to every caller.
+     *
+     * @param requestCoalescer The coalescer, or null to send every request separately.
+     * @return A new EndpointBase instance using the coalescer.
+     */
+    public EndpointBase withRequestCoalescer(RequestCoalescer requestCoalescer) {
+        Settings settings = new Settings(this);
+        settings.requestCoalescer = requestCoalescer;
+        return new EndpointBase(settings);
+    }
+
+    /**
+     * Gets the coalescer collapsing concurrent identical requests of the base.
+     *
+     * @return The request coalescer, or null if every request is sent separately.
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    /**
+     * Creates a new EndpointBase retrying the failed idempotent requests of its endpoints.
+     * Endpoints and definitions can set their own policy.
+     *
+     * @param retryPolicy The retry policy, or null to send every request once.
+     * @return A new EndpointBase instance with the retry policy.
+     */
+    public EndpointBase withRetryPolicy(RetryPolicy retryPolicy) {
+        Settings settings = new Settings(this);
+        settings.retryPolicy = retryPolicy;
+        return new EndpointBase(settings);
+    }
+
+    /**
+     * Gets the retry policy of the endpoints of the base.
+     *
+     * @return The retry policy, or null if requests are sent once.
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Creates a new EndpointBase rejecting requests to hosts that keep failing.
+     * Endpoints and definitions can set their own breaker.
+     *
+     * @param circuitBreaker The circuit breaker, or null to always send requests.
+     * @return A new EndpointBase instance with the circuit breaker.
+     */
+    public EndpointBase withCircuitBreaker(CircuitBreaker circuitBreaker) {
+        Settings settings = new Settings(this);
+        settings.circuitBreaker = circuitBreaker;
+        return new EndpointBase(settings);
+    }
+
+    /**
+     * Gets the circuit breaker of the endpoints of the base.
+     *
+     * @return The circuit breaker, or null if requests are always sent.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Creates a new EndpointBase hedging the slow idempotent requests of its endpoints.
+     * Endpoints and definitions can set their own policy.
+     *
+     * @param hedgePolicy The hedge policy, or null to never hedge.
+     * @return A new EndpointBase instance with the hedge policy.
+     */
+    public EndpointBase withHedgePolicy(HedgePolicy hedgePolicy) {
+        Settings settings = new Settings(this);
+        settings.hedgePolicy = hedgePolicy;
+        return new EndpointBase(settings);
+    }
+
+    /**
+     * Gets the hedge policy of the endpoints of the base.
+     *
+     * @return The hedge policy, or null if requests are never hedged.
+     */
+    public HedgePolicy getHedgePolicy() {
+        return hedgePolicy;
+    }
+
+    /**
+     * Creates a new EndpointBase whose requests, from all of its endpoints, share the given rate and concurrency
+     * limits. Endpoints and definitions can add limits of their own.
+     *
+     * @param rateLimiter The rate limiter of the host, or null to send requests unthrottled.
+     * @return A new EndpointBase instance with the rate limiter.
+     */
+    public EndpointBase withRateLimiter(RateLimiter rateLimiter) {
+        Settings settings = new Settings(this);
+        settings.rateLimiter = rateLimiter;
+        return new EndpointBase(settings);
+    }
+
+    /**
+     * Gets the rate limiter shared by the endpoints of the base.
+     *
+     * @return The rate limiter, or null if requests are not throttled.
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Creates a new EndpointBase recording every request sent over the network, with its response, to a traffic log.
+     * Responses served from the response cache and streamed responses are not recorded.
+     *
+     * @param trafficRecorder The recorder, or null to stop recording.
+     * @return A new EndpointBase instance recording to the recorder.
+     */
+    public EndpointBase withTrafficRecorder(TrafficRecorder trafficRecorder) {
+        Settings settings = new Settings(this);
+        settings.trafficRecorder = trafficRecorder;
+        return new EndpointBase(settings);
+    }
+
+    /**
+     * Gets the recorder capturing the traffic of the base.
+     *
+     * @return The recorder, or null if traffic is not recorded.
+     */
+    public TrafficRecorder getTrafficRecorder() {
+        return trafficRecorder;
+    }
+
+    /**
+     * Gets the base URL of the REST API.
+     *
+     * @return The base URL.
+     */
+    public String getBaseURL() {
+        return baseURL;
+    }
+
+    /**
+     * Gets the headers added to every request.
+     *
+     * @return The unmodifiable list of headers.
+     */
+    public List<Header> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Gets the cookies added to every request.
+     *
+     * @return The unmodifiable list of cookies.
+     */
+    public List<Cookie> getCookies() {
+        return cookies;
+    }
+
+    /**
+     * Gets the base path for JSON files used in endpoint configurations.
+     *
+     * @return The base path, or null if none is set.
+     */
+    public Path getJsonBasePath() {
+        return jsonBasePath;
+    }
+
+    /**
+     * Creates a fresh request specification carrying the base URL, headers and cookies of this base.
+     * Changes made to the returned specification do not affect the base or any other request.
+     *
+     * @return A new request specification.
+     */
+    public RequestSpecification newRequest() {
+        RequestSpecification specification = given().baseUri(baseURL);
+        if (connectionPool != null)
+            specification.config(getConfig());
+        if (!headers.isEmpty())
+            specification.headers(new Headers(headers));
+        if (!cookies.isEmpty())
+            specification.cookies(new Cookies(cookies));
+        return specification;
+    }
+
+    /**
+     * Gets the RestAssured configuration requests of this base are sent with.
+     *
+     * @return RestAssured's global configuration, sending requests through the connection pool if there is one.
+     */
+    RestAssuredConfig getConfig() {
+        RestAssuredConfig config = RestAssured.config();
+        return connectionPool != null ? config.httpClient(connectionPool.httpClientConfig()) : config;
     }
 
     /**
-     * Gets the raw request specification associated with this endpoint base.
+     * Gets a raw request specification derived from this endpoint base.
      *
-     * @return The raw request specification.
+     * @return A new request specification.
+     * @deprecated The base no longer holds a shared specification; this is equivalent to {@link #newRequest()},
+     * and changes made to the returned specification do not reach the requests of the base.
      */
+    @Deprecated
     public RequestSpecification getRawRequest() {
-        return this.requestSpecification;
+        return newRequest();
     }
 
     /**
@@ -103,16 +507,60 @@ public class EndpointBase {
      * @throws InvalidJSONException If the JSON file is not found or is malformed.
      */
     public Endpoint makeWithJson(Path jsonPath) {
-        if (jsonBasePath != null)
-            jsonPath = jsonBasePath.resolve(jsonPath);
+        if (metricsListener == null)
+            return getDefinition(jsonPath).toEndpoint(this);
+        long start = System.nanoTime();
+        Endpoint endpoint = getDefinition(jsonPath).toEndpoint(this);
+        endpoint.setDefinitionLoadNanos(System.nanoTime() - start);
+        return endpoint;
+    }
 
-        File jsonFile = jsonPath.toFile();
-        if (!jsonFile.exists())
-            throw new InvalidJSONException("JSON file not found", jsonPath);
+    /**
+     * Creates a new Endpoint from a templated JSON definition, binding the given values to its
+     * {@code {{name}}} placeholders. The definition is parsed and its templates compiled only once.
+     *
+     * @param jsonPath  The path to the JSON file.
+     * @param variables The values of the variables.
+     * @return The created Endpoint instance.
+     * @throws InvalidJSONException     If the JSON file is not found or is malformed.
+     * @throws IllegalArgumentException If a variable of the definition has no value.
+     * @see EndpointDefinition#toEndpoint(EndpointBase, Map)
+     */
+    public Endpoint makeWithJson(Path jsonPath, Map<String, ?> variables) {
+        if (metricsListener == null)
+            return getDefinition(jsonPath).toEndpoint(this, variables);
+        long start = System.nanoTime();
+        Endpoint endpoint = getDefinition(jsonPath).toEndpoint(this, variables);
+        endpoint.setDefinitionLoadNanos(System.nanoTime() - start);
+        return endpoint;
+    }
 
+    /**
+     * Creates a new Endpoint from a templated JSON definition, binding the given values to its
+     * {@code {{name}}} placeholders.
+     *
+     * @param jsonPath  The path to the JSON file.
+     * @param variables The values of the variables.
+     * @return The created Endpoint instance.
+     * @throws InvalidJSONException     If the JSON file is not found or is malformed.
+     * @throws IllegalArgumentException If a variable of the definition has no value.
+     */
+    public Endpoint makeWithJson(String jsonPath, Map<String, ?> variables) {
+        return makeWithJson(Path.of(jsonPath), variables);
+    }
 
-        JsonObject contents = JSONUtils.readJsonFile(jsonPath,"Malformed JSON file supplied");
-        return Endpoint.fromJson(this, contents);
+    /**
+     * Gets the parsed definition stored in the specified file, resolved against the JSON base path.
+     * The file is read and parsed only once; later calls are served from the {@link DefinitionCache}.
+     *
+     * @param jsonPath The path to the JSON file.
+     * @return The parsed definition.
+     * @throws InvalidJSONException If the JSON file is not found or is malformed.
+     */
+    public EndpointDefinition getDefinition(Path jsonPath) {
+        if (jsonBasePath != null)
+            jsonPath = jsonBasePath.resolve(jsonPath);
+        return definitions.get(jsonPath);
     }
 
     /**
@@ -125,4 +573,120 @@ public class EndpointBase {
     public Endpoint makeWithJson(String jsonPath) {
         return makeWithJson(Path.of(jsonPath));
     }
+
+    /**
+     * Parses, compiles and indexes every endpoint definition under the JSON base path, in parallel.
+     * Malformed files are collected in the returned report rather than thrown one at a time;
+     * call {@link PreloadReport#throwIfFailed()} to fail on any of them.
+     *
+     * @return The report of the preload.
+     * @throws IllegalStateException If no JSON base path is set.
+     * @see DefinitionCache#preload(Path)
+     */
+    public PreloadReport preload() {
+        if (jsonBasePath == null)
+            throw new IllegalStateException("A JSON base path is required to preload endpoint definitions");
+        return definitions.preload(jsonBasePath);
+    }
+
+    /**
+     * Creates a new Endpoint from a preloaded definition, looked up by logical id and then by file name.
+     *
+     * @param id The logical id or the file name of the definition.
+     * @return The created Endpoint instance.
+     * @throws IllegalArgumentException If no preloaded definition matches.
+     * @see #preload()
+     */
+    public Endpoint makeWithId(String id) {
+        return definitions.findById(id)
+                .or(() -> definitions.findByFileName(id))
+                .orElseThrow(() -> new IllegalArgumentException("No preloaded endpoint definition found for " + id))
+                .toEndpoint(this);
+    }
+
+    /**
+     * Sends all given endpoints concurrently with the default {@link BatchOptions}.
+     *
+     * @param endpoints The endpoints to send.
+     * @return The results, in the iteration order of the given endpoints.
+     */
+    public List<EndpointResult> sendAll(Collection<Endpoint> endpoints) {
+        return sendAll(endpoints, BatchOptions.defaults());
+    }
+
+    /**
+     * Sends all given endpoints concurrently and waits for all of them to complete.
+     * A failing request or a response failing schema validation does not stop the batch;
+     * the failure is recorded in the corresponding {@link EndpointResult}.
+     *
+     * @param endpoints The endpoints to send.
+     * @param options   The concurrency options of the batch.
+     * @return The results, in the iteration order of the given endpoints.
+     */
+    public List<EndpointResult> sendAll(Collection<Endpoint> endpoints, BatchOptions options) {
+        return new BatchRunner(options).run(endpoints);
+    }
+
+    /**
+     * Creates an unmodifiable copy of the list with the item appended.
+     *
+     * @param list The original list.
+     * @param item The item to append.
+     * @param <T>  The type of the items.
+     * @return The new list.
+     */
+    private static <T> List<T> append(List<T> list, T item) {
+        List<T> result = new ArrayList<>(list);
+        result.add(item);
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * The settings of a base, copied from an existing base and changed by a {@code with...} method before
+     * they are frozen into a new base.
+     */
+    private static final class Settings {
+        private final String baseURL;
+        private List<Header> headers;
+        private List<Cookie> cookies;
+        private Path jsonBasePath;
+        private DefinitionCache definitions;
+        private Executor requestExecutor;
+        private Executor validationExecutor;
+        private RequestMetricsListener metricsListener;
+        private ConnectionPool connectionPool;
+        private ResponseCache responseCache;
+        private RequestCoalescer requestCoalescer;
+        private RetryPolicy retryPolicy;
+        private CircuitBreaker circuitBreaker;
+        private HedgePolicy hedgePolicy;
+        private RateLimiter rateLimiter;
+        private TrafficRecorder trafficRecorder;
+
+        private Settings(String baseURL) {
+            this.baseURL = baseURL;
+            this.headers = Collections.emptyList();
+            this.cookies = Collections.emptyList();
+            this.definitions = new DefinitionCache();
+        }
+
+        private Settings(EndpointBase base) {
+            this.baseURL = base.baseURL;
+            this.headers = base.headers;
+            this.cookies = base.cookies;
+            this.jsonBasePath = base.jsonBasePath;
+            this.definitions = base.definitions;
+            this.requestExecutor = base.requestExecutor;
+            this.validationExecutor = base.validationExecutor;
+            this.metricsListener = base.metricsListener;
+            this.connectionPool = base.connectionPool;
+            this.responseCache = base.responseCache;
+            this.requestCoalescer = base.requestCoalescer;
+            this.retryPolicy = base.retryPolicy;
+            this.circuitBreaker = base.circuitBreaker;
+            this.hedgePolicy = base.hedgePolicy;
+            this.rateLimiter = base.rateLimiter;
+            this.trafficRecorder = base.trafficRecorder;
+        }
+    }
 }
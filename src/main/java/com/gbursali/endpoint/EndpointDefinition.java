@@ -0,0 +1,530 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.utils.JSONUtils;
+import com.gbursali.utils.MethodType;
+import com.gbursali.utils.json_validator.JSONValidator;
+import com.gbursali.utils.json_validator.ValidationMode;
+import com.google.gson.JsonObject;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable, pre-parsed endpoint definition read from a JSON DTO file.
+ * Stamping out an {@link Endpoint} from a definition performs no parsing and no file I/O.
+ * <p>
+ * The path, parameter values, header values and body may hold {@code {{name}}} placeholders. They are compiled
+ * into {@link Template templates} when the definition is parsed, and bound by {@link #toEndpoint(EndpointBase, Map)};
+ * values bound into the body are escaped as JSON string content.
+ * <p>
+ * A body of the form {@code {"file": "payload.json"}}, optionally with {@code "mapped": true}, is not sent as
+ * JSON but names a file sent as raw bytes; see {@link RequestBody}. It is resolved like schema files, and is
+ * not templated.
+ */
+public final class EndpointDefinition {
+
+    /**
+     * Key under which the body resolved without a JSON base path is stored.
+     */
+    private static final Path NO_BASE_PATH = Path.of("");
+
+    private final String id;
+    private final MethodType type;
+    private final String path;
+    private final Map<String, String> params;
+    private final Map<String, String> headers;
+    private final String body;
+    private final String bodyFile;
+    private final boolean bodyMapped;
+    private final JsonObject schemaReference;
+    private final JsonObject stubResponse;
+    private final boolean streamingValidation;
+    private final boolean parallelValidation;
+    private final ValidationMode validationMode;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+    private final HedgePolicy hedgePolicy;
+    private final RateLimiter rateLimiter;
+    private final Template pathTemplate;
+    private final Map<String, Template> paramTemplates;
+    private final Map<String, Template> headerTemplates;
+    private final Template bodyTemplate;
+    private final Set<String> variables;
+
+    /**
+     * Validator of an inline schema reference, created on first use.
+     */
+    private volatile JSONValidator inlineValidator;
+
+    /**
+     * Bodies resolved from the body file, by the JSON base path they were resolved against.
+     */
+    private final Map<Path, RequestBody> fileBodies = new ConcurrentHashMap<>();
+
+    private EndpointDefinition(String id, MethodType type, String path, Map<String, String> params,
+                               Map<String, String> headers, String body, String bodyFile, boolean bodyMapped,
+                               JsonObject schemaReference, JsonObject stubResponse,
+                               boolean streamingValidation, boolean parallelValidation, ValidationMode validationMode,
+                               RetryPolicy retryPolicy, CircuitBreaker circuitBreaker, HedgePolicy hedgePolicy,
+                               RateLimiter rateLimiter) {
+        this.id = id;
+        this.type = type;
+        this.path = path;
+        this.params = params;
+        this.headers = headers;
+        this.body = body;
+        this.bodyFile = bodyFile;
+        this.bodyMapped = bodyMapped;
+        this.schemaReference = schemaReference;
+        this.stubResponse = stubResponse;
+        this.streamingValidation = streamingValidation;
+        this.parallelValidation = parallelValidation;
+        this.validationMode = validationMode;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.hedgePolicy = hedgePolicy;
+        this.rateLimiter = rateLimiter;
+        this.pathTemplate = path != null ? Template.compile(path) : null;
+        this.paramTemplates = compileAll(params);
+        this.headerTemplates = compileAll(headers);
+        this.bodyTemplate = body != null ? Template.compileJson(body) : null;
+        Set<String> names = new LinkedHashSet<>();
+        if (pathTemplate != null)
+            names.addAll(pathTemplate.getVariables());
+        paramTemplates.values().forEach(template -> names.addAll(template.getVariables()));
+        headerTemplates.values().forEach(template -> names.addAll(template.getVariables()));
+        if (bodyTemplate != null)
+            names.addAll(bodyTemplate.getVariables());
+        this.variables = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Creates an EndpointDefinition from a JSON representation.
+     *
+     * @param object The JSON representation of the endpoint.
+     * @return The created EndpointDefinition.
+     */
+    public static EndpointDefinition fromJson(JsonObject object) {
+        String id = object.has("id") ? object.get("id").getAsString() : null;
+        MethodType type = MethodType.GET;
+        String path = null;
+        boolean streamingValidation = false;
+        boolean parallelValidation = false;
+        ValidationMode validationMode = null;
+        RetryPolicy retryPolicy = null;
+        CircuitBreaker circuitBreaker = null;
+        HedgePolicy hedgePolicy = null;
+        RateLimiter rateLimiter = null;
+        if (object.has("settings")) {
+            JsonObject settings = object.getAsJsonObject("settings");
+            if (settings.has("method"))
+                type = MethodType.valueOf(settings.get("method").getAsString());
+            if (settings.has("path"))
+                path = settings.get("path").getAsString();
+            if (settings.has("streaming-validation"))
+                streamingValidation = settings.get("streaming-validation").getAsBoolean();
+            if (settings.has("parallel-validation"))
+                parallelValidation = settings.get("parallel-validation").getAsBoolean();
+            if (settings.has("max-validation-errors"))
+                validationMode = ValidationMode.capped(settings.get("max-validation-errors").getAsInt());
+            if (settings.has("retry"))
+                retryPolicy = RetryPolicy.fromJson(settings.get("retry"));
+            if (settings.has("circuit-breaker"))
+                circuitBreaker = CircuitBreaker.fromJson(settings.get("circuit-breaker"));
+            if (settings.has("hedge"))
+                hedgePolicy = HedgePolicy.fromJson(settings.get("hedge"));
+            if (settings.has("rate-limit"))
+                rateLimiter = RateLimiter.fromJson(settings.get("rate-limit"));
+        }
+        Map<String, String> params = readStringMap(object, "params");
+        Map<String, String> headers = readStringMap(object, "headers");
+        String body = null;
+        String bodyFile = null;
+        boolean bodyMapped = false;
+        if (object.has("body")) {
+            JsonObject bodyObject = object.getAsJsonObject("body");
+            if (isFileReference(bodyObject)) {
+                bodyFile = bodyObject.get("file").getAsString();
+                bodyMapped = bodyObject.has("mapped") && bodyObject.get("mapped").getAsBoolean();
+            } else {
+                body = bodyObject.toString();
+            }
+        }
+        JsonObject schema = object.has("result-schema") ? object.getAsJsonObject("result-schema").deepCopy() : null;
+        JsonObject stub = object.has("stub-response") ? object.getAsJsonObject("stub-response").deepCopy() : null;
+        return new EndpointDefinition(id, type, path, params, headers, body, bodyFile, bodyMapped, schema, stub,
+                streamingValidation, parallelValidation, validationMode, retryPolicy, circuitBreaker, hedgePolicy,
+                rateLimiter);
+    }
+
+    /**
+     * Checks whether a "body" block references a file rather than being the body itself: it holds a string
+     * "file" attribute and no attributes other than "mapped".
+     *
+     * @param body The "body" block.
+     * @return True if the block is a file reference.
+     */
+    private static boolean isFileReference(JsonObject body) {
+        if (!body.has("file") || !body.get("file").isJsonPrimitive() || !body.getAsJsonPrimitive("file").isString())
+            return false;
+        for (String name : body.keySet())
+            if (!name.equals("file") && !name.equals("mapped"))
+                return false;
+        return true;
+    }
+
+    /**
+     * Reads a block of string attributes of the definition.
+     *
+     * @param object The JSON representation of the endpoint.
+     * @param name   The name of the block.
+     * @return The unmodifiable map of attributes, empty if the block is absent.
+     */
+    private static Map<String, String> readStringMap(JsonObject object, String name) {
+        return object.has(name)
+                ? Collections.unmodifiableMap(new LinkedHashMap<>(JSONUtils.objToStringMap(object.getAsJsonObject(name))))
+                : Collections.emptyMap();
+    }
+
+    /**
+     * Compiles the templated values of a map.
+     *
+     * @param values The values by name.
+     * @return The unmodifiable map of templates by name, holding only the values with placeholders.
+     */
+    private static Map<String, Template> compileAll(Map<String, String> values) {
+        Map<String, Template> templates = new LinkedHashMap<>();
+        values.forEach((name, value) -> {
+            Template template = Template.compile(value);
+            if (!template.isConstant())
+                templates.put(name, template);
+        });
+        return templates.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(templates);
+    }
+
+    /**
+     * Renders the templated values of a map, reusing the map itself when nothing is templated.
+     *
+     * @param constants The values by name, as declared.
+     * @param templates The templates of the values with placeholders.
+     * @param values    The values of the variables.
+     * @return The rendered values by name.
+     */
+    private static Map<String, String> renderAll(Map<String, String> constants, Map<String, Template> templates,
+                                                 Map<String, ?> values) {
+        if (templates.isEmpty())
+            return constants;
+        Map<String, String> rendered = new LinkedHashMap<>(constants);
+        templates.forEach((name, template) -> rendered.put(name, template.render(values)));
+        return rendered;
+    }
+
+    /**
+     * Creates a new Endpoint from this definition. If the definition declares a result schema,
+     * the endpoint validates its responses against it; the schema is shared by all endpoints
+     * created from the definition and is only loaded the first time. Placeholders are sent as they are.
+     *
+     * @param base The base endpoint configuration.
+     * @return The created Endpoint instance.
+     */
+    public Endpoint toEndpoint(EndpointBase base) {
+        return toEndpoint(base, path, params, headers, body);
+    }
+
+    /**
+     * Creates a new Endpoint from this definition, binding the given values to the {@code {{name}}} placeholders
+     * of its path, parameters, headers and body.
+     *
+     * @param base      The base endpoint configuration.
+     * @param variables The values of the variables, converted with {@link String#valueOf(Object)}.
+     * @return The created Endpoint instance.
+     * @throws IllegalArgumentException If a variable of the definition has no value.
+     * @see #getVariables()
+     */
+    public Endpoint toEndpoint(EndpointBase base, Map<String, ?> variables) {
+        if (this.variables.isEmpty())
+            return toEndpoint(base);
+        return toEndpoint(base,
+                pathTemplate != null ? pathTemplate.render(variables) : null,
+                renderAll(params, paramTemplates, variables),
+                renderAll(headers, headerTemplates, variables),
+                bodyTemplate != null ? bodyTemplate.render(variables) : null);
+    }
+
+    /**
+     * Creates a new Endpoint from this definition with the given request parts.
+     *
+     * @param base    The base endpoint configuration.
+     * @param path    The path of the endpoint.
+     * @param params  The request parameters.
+     * @param headers The request headers.
+     * @param body    The request body, or null.
+     * @return The created Endpoint instance.
+     */
+    private Endpoint toEndpoint(EndpointBase base, String path, Map<String, String> params,
+                                Map<String, String> headers, String body) {
+        Endpoint endpoint = Endpoint.fromBase(base)
+                .withType(type)
+                .withPath(path);
+        if (!params.isEmpty())
+            endpoint.addParam(params);
+        if (!headers.isEmpty())
+            endpoint.addHeader(headers);
+        if (body != null)
+            endpoint.setBody(body);
+        else if (bodyFile != null)
+            endpoint.setBody(getFileBody(base.getJsonBasePath()));
+        if (this.path != null)
+            endpoint.setMetricsPath(this.path);
+        if (validationMode != null)
+            endpoint.withValidationMode(validationMode);
+        if (retryPolicy != null)
+            endpoint.withRetryPolicy(retryPolicy);
+        if (circuitBreaker != null)
+            endpoint.withCircuitBreaker(circuitBreaker);
+        if (hedgePolicy != null)
+            endpoint.withHedgePolicy(hedgePolicy);
+        if (rateLimiter != null)
+            endpoint.withRateLimiter(rateLimiter);
+        return endpoint.withValidator(getValidator(base.getJsonBasePath()))
+                .withStreamingValidation(streamingValidation)
+                .withParallelValidation(parallelValidation);
+    }
+
+    /**
+     * Gets the logical id declared by the definition.
+     *
+     * @return The id, or null if the definition declares none.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the HTTP method type of the endpoint.
+     *
+     * @return The HTTP method type.
+     */
+    public MethodType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the path of the endpoint.
+     *
+     * @return The path, or null if the definition has none.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the request parameters of the endpoint.
+     *
+     * @return The unmodifiable map of parameters.
+     */
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    /**
+     * Gets the request headers of the endpoint, declared in its "headers" block.
+     *
+     * @return The unmodifiable map of headers.
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Gets the names of the {@code {{name}}} placeholders of the path, parameters, headers and body.
+     *
+     * @return The unmodifiable set of variable names, empty if the definition is not templated.
+     */
+    public Set<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Gets the request body of the endpoint.
+     *
+     * @return The body, or null if the definition has none.
+     */
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Gets the file sent as the request body, as declared by a {@code {"file": ...}} body block.
+     *
+     * @return The file, unresolved, or null if the body is not a file reference.
+     */
+    public String getBodyFile() {
+        return bodyFile;
+    }
+
+    /**
+     * Checks whether the body file is memory-mapped, as set by the "mapped" attribute of the body block.
+     *
+     * @return True if the body file is memory-mapped.
+     */
+    public boolean isBodyMapped() {
+        return bodyMapped;
+    }
+
+    /**
+     * Checks whether responses are validated while streaming them, as set by the
+     * "streaming-validation" attribute of the "settings" block.
+     *
+     * @return True if streaming validation is enabled.
+     */
+    public boolean isStreamingValidation() {
+        return streamingValidation;
+    }
+
+    /**
+     * Checks whether responses are validated on several cores, as set by the
+     * "parallel-validation" attribute of the "settings" block.
+     *
+     * @return True if parallel validation is enabled.
+     */
+    public boolean isParallelValidation() {
+        return parallelValidation;
+    }
+
+    /**
+     * Gets how many errors validation reports before it stops, as set by the "max-validation-errors"
+     * attribute of the "settings" block.
+     *
+     * @return The validation mode, or null if the definition does not set one.
+     */
+    public ValidationMode getValidationMode() {
+        return validationMode;
+    }
+
+    /**
+     * Gets the retry policy set by the "retry" attribute of the "settings" block. The policy, and its counters,
+     * are shared by all endpoints created from the definition.
+     *
+     * @return The retry policy, or null if the definition does not set one.
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Gets the circuit breaker set by the "circuit-breaker" attribute of the "settings" block. The breaker is
+     * shared by all endpoints created from the definition.
+     *
+     * @return The circuit breaker, or null if the definition does not set one.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Gets the hedge policy set by the "hedge" attribute of the "settings" block. The policy, and the latencies
+     * it tracks, are shared by all endpoints created from the definition.
+     *
+     * @return The hedge policy, or null if the definition does not set one.
+     */
+    public HedgePolicy getHedgePolicy() {
+        return hedgePolicy;
+    }
+
+    /**
+     * Gets the rate limiter set by the "rate-limit" attribute of the "settings" block. The limiter is shared by
+     * all endpoints created from the definition, so it limits the method and path of the definition as a whole.
+     *
+     * @return The rate limiter, or null if the definition does not set one.
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Checks whether the definition declares a result schema.
+     *
+     * @return true if a "result-schema" block is present.
+     */
+    public boolean hasSchemaReference() {
+        return schemaReference != null;
+    }
+
+    /**
+     * Gets the "result-schema" block of the definition.
+     *
+     * @return The schema reference, or null if the definition has none. It must not be modified.
+     */
+    JsonObject getSchemaReference() {
+        return schemaReference;
+    }
+
+    /**
+     * Gets the "stub-response" block of the definition, served by {@link com.gbursali.stub.StubServer}.
+     *
+     * @return The canned response, or null if the definition has none. It must not be modified.
+     */
+    public JsonObject getStubResponse() {
+        return stubResponse;
+    }
+
+    /**
+     * Gets the validator for the "result-schema" block of the definition. The block either contains the schema
+     * itself, or a "file" attribute pointing to a schema file. Relative schema files are resolved against the
+     * JSON base path, falling back to the working directory. Schema files are looked up in the shared schema
+     * registry on every call, so an edited schema file is picked up once its modification time changes; the schema
+     * is only compiled again when its content changes. An inline schema is compiled once.
+     *
+     * @param jsonBasePath The JSON base path, or null if none is set.
+     * @return The validator, or null if the definition declares no result schema.
+     * @throws com.gbursali.utils.InvalidJSONException If the schema file cannot be read or is invalid.
+     */
+    JSONValidator getValidator(Path jsonBasePath) {
+        if (schemaReference == null)
+            return null;
+        if (schemaReference.has("file"))
+            return JSONValidator.fromFile(resolveFile(schemaReference.get("file").getAsString(), jsonBasePath));
+        JSONValidator validator = inlineValidator;
+        if (validator == null) {
+            validator = JSONValidator.fromJson(schemaReference);
+            inlineValidator = validator;
+        }
+        return validator;
+    }
+
+    /**
+     * Gets the request body for the body file of the definition. The file is resolved once per base path,
+     * so a memory-mapped file is mapped once for all endpoints created from the definition.
+     *
+     * @param jsonBasePath The JSON base path, or null if none is set.
+     * @return The body.
+     */
+    private RequestBody getFileBody(Path jsonBasePath) {
+        Path key = jsonBasePath != null ? jsonBasePath.toAbsolutePath().normalize() : NO_BASE_PATH;
+        return fileBodies.computeIfAbsent(key, k -> {
+            Path file = resolveFile(bodyFile, jsonBasePath);
+            return bodyMapped ? RequestBody.fromMappedFile(file) : RequestBody.fromFile(file);
+        });
+    }
+
+    /**
+     * Resolves a file referenced by the definition against the JSON base path, falling back to the working directory.
+     *
+     * @param name         The file as written in the definition.
+     * @param jsonBasePath The JSON base path, or null if none is set.
+     * @return The resolved file.
+     */
+    private static Path resolveFile(String name, Path jsonBasePath) {
+        Path file = Path.of(name);
+        if (jsonBasePath != null && !file.isAbsolute() && Files.exists(jsonBasePath.resolve(file)))
+            file = jsonBasePath.resolve(file);
+        return file;
+    }
+}
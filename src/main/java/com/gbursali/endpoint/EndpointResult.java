@@ -0,0 +1,72 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.utils.json_validator.JsonValidationException;
+import io.restassured.response.Response;
+
+/**
+ * The outcome of sending one endpoint as part of a batch: either a response or the error that prevented it.
+ */
+public class EndpointResult {
+
+    private final Endpoint endpoint;
+    private final Response response;
+    private final Throwable error;
+
+    /**
+     * Constructs a new EndpointResult.
+     *
+     * @param endpoint The endpoint that was sent.
+     * @param response The response, or null if the request failed.
+     * @param error    The error, or null if the request succeeded.
+     */
+    EndpointResult(Endpoint endpoint, Response response, Throwable error) {
+        this.endpoint = endpoint;
+        this.response = response;
+        this.error = error;
+    }
+
+    /**
+     * Gets the endpoint that was sent.
+     *
+     * @return The endpoint.
+     */
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Gets the response of the request.
+     *
+     * @return The response, or null if the request failed.
+     */
+    public Response getResponse() {
+        return response;
+    }
+
+    /**
+     * Gets the error that made the request fail.
+     *
+     * @return The error, or null if the request succeeded.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Checks whether the request was sent and its response passed validation.
+     *
+     * @return true if the request succeeded.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Checks whether the request failed because its response did not match the schema.
+     *
+     * @return true if the response failed schema validation.
+     */
+    public boolean isValidationFailure() {
+        return error instanceof JsonValidationException;
+    }
+}
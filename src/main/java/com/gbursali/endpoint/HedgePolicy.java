@@ -0,0 +1,249 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.utils.InvalidJSONException;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hedges idempotent requests against slow outliers: when a request has not completed after the recent
+ * {@link #getPercentile() percentile} latency of its endpoint, a second identical request is sent and whichever
+ * completes first is used. Latencies are tracked per method and path over the last {@value #WINDOW_SIZE}
+ * requests; endpoints with fewer than {@link #getMinSamples()} samples are not hedged.
+ * <p>
+ * Hedging trades a few percent of extra requests for a shorter tail, and only suits requests that are safe
+ * to send twice. Settings are immutable; every {@code with...} method returns a new policy with its own
+ * latency history and counters.
+ */
+public final class HedgePolicy {
+
+    /**
+     * Number of recent latencies kept per endpoint.
+     */
+    static final int WINDOW_SIZE = 256;
+
+    /**
+     * Number of samples between two recomputations of the hedging delay of an endpoint.
+     */
+    private static final int RECOMPUTE_INTERVAL = 16;
+
+    private static final double DEFAULT_PERCENTILE = 0.95;
+    private static final int DEFAULT_MIN_SAMPLES = 20;
+    private static final Duration DEFAULT_MIN_DELAY = Duration.ofMillis(1);
+
+    private final boolean enabled;
+    private final double percentile;
+    private final int minSamples;
+    private final Duration minDelay;
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    private HedgePolicy(boolean enabled, double percentile, int minSamples, Duration minDelay) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.minDelay = minDelay;
+    }
+
+    /**
+     * Creates the default policy: hedge after the p95 latency of the endpoint, once 20 latencies are known,
+     * and never sooner than 1 ms.
+     *
+     * @return The default HedgePolicy.
+     */
+    public static HedgePolicy defaults() {
+        return new HedgePolicy(true, DEFAULT_PERCENTILE, DEFAULT_MIN_SAMPLES, DEFAULT_MIN_DELAY);
+    }
+
+    /**
+     * Creates a policy that never hedges, to disable hedging set on a base.
+     *
+     * @return A disabled HedgePolicy.
+     */
+    public static HedgePolicy none() {
+        return new HedgePolicy(false, DEFAULT_PERCENTILE, DEFAULT_MIN_SAMPLES, DEFAULT_MIN_DELAY);
+    }
+
+    /**
+     * Creates a policy from the "hedge" attribute of the "settings" block of a definition: either {@code false}
+     * to disable hedging, {@code true} for the defaults, or an object such as
+     * {@code {"percentile": 0.95, "min-samples": 20, "min-delay-ms": 1}} where every attribute is optional.
+     *
+     * @param settings The "hedge" attribute.
+     * @return The HedgePolicy.
+     * @throws InvalidJSONException If the attribute is neither a boolean nor an object.
+     */
+    static HedgePolicy fromJson(JsonElement settings) {
+        if (settings.isJsonPrimitive() && settings.getAsJsonPrimitive().isBoolean())
+            return settings.getAsBoolean() ? defaults() : none();
+        if (!settings.isJsonObject())
+            throw new InvalidJSONException("\"hedge\" must be a boolean or an object");
+        JsonObject object = settings.getAsJsonObject();
+        HedgePolicy policy = defaults();
+        if (object.has("percentile"))
+            policy = policy.withPercentile(object.get("percentile").getAsDouble());
+        if (object.has("min-samples"))
+            policy = policy.withMinSamples(object.get("min-samples").getAsInt());
+        if (object.has("min-delay-ms"))
+            policy = policy.withMinDelay(Duration.ofMillis(object.get("min-delay-ms").getAsLong()));
+        return policy;
+    }
+
+    /**
+     * Sets the latency percentile after which a request is hedged.
+     *
+     * @param percentile The percentile, between 0 exclusive and 1 exclusive, such as 0.95.
+     * @return The updated HedgePolicy instance.
+     */
+    public HedgePolicy withPercentile(double percentile) {
+        if (!(percentile > 0 && percentile < 1))
+            throw new IllegalArgumentException("percentile must be between 0 and 1, got " + percentile);
+        return new HedgePolicy(enabled, percentile, minSamples, minDelay);
+    }
+
+    /**
+     * Sets how many latencies of an endpoint must be known before its requests are hedged.
+     *
+     * @param minSamples The minimum number of samples, at most {@value #WINDOW_SIZE}.
+     * @return The updated HedgePolicy instance.
+     */
+    public HedgePolicy withMinSamples(int minSamples) {
+        if (minSamples < 1 || minSamples > WINDOW_SIZE)
+            throw new IllegalArgumentException("minSamples must be between 1 and " + WINDOW_SIZE + ", got " + minSamples);
+        return new HedgePolicy(enabled, percentile, minSamples, minDelay);
+    }
+
+    /**
+     * Sets the shortest delay before a request is hedged, so that very fast endpoints are not sent twice
+     * because of scheduling noise.
+     *
+     * @param minDelay The minimum delay.
+     * @return The updated HedgePolicy instance.
+     */
+    public HedgePolicy withMinDelay(Duration minDelay) {
+        if (minDelay.isNegative())
+            throw new IllegalArgumentException("minDelay must not be negative, got " + minDelay);
+        return new HedgePolicy(enabled, percentile, minSamples, minDelay);
+    }
+
+    /**
+     * Checks whether the policy hedges requests.
+     *
+     * @return False for {@link #none()}.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets the latency percentile after which a request is hedged.
+     *
+     * @return The percentile.
+     */
+    public double getPercentile() {
+        return percentile;
+    }
+
+    /**
+     * Gets how many latencies of an endpoint must be known before its requests are hedged.
+     *
+     * @return The minimum number of samples.
+     */
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    /**
+     * Gets the shortest delay before a request is hedged.
+     *
+     * @return The minimum delay.
+     */
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    /**
+     * Gets the number of hedge requests sent.
+     *
+     * @return The hedge count.
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * Gets the number of hedge requests that completed before the request they hedged.
+     *
+     * @return The hedge win count.
+     */
+    public long getHedgeWinCount() {
+        return hedgeWins.sum();
+    }
+
+    /**
+     * Gets the delay after which a request of an endpoint is hedged.
+     *
+     * @param key The method and path of the endpoint.
+     * @return The delay in nanoseconds, or -1 if the endpoint is not hedged yet.
+     */
+    long delayNanos(String key) {
+        LatencyWindow window = windows.get(key);
+        return window == null ? -1 : window.delayNanos();
+    }
+
+    /**
+     * Records the latency of a completed request of an endpoint.
+     *
+     * @param key   The method and path of the endpoint.
+     * @param nanos The latency in nanoseconds.
+     */
+    void recordLatency(String key, long nanos) {
+        windows.computeIfAbsent(key, k -> new LatencyWindow()).record(nanos);
+    }
+
+    /**
+     * Records a hedge request being sent.
+     */
+    void recordHedge() {
+        hedges.increment();
+    }
+
+    /**
+     * Records a hedge request winning against the request it hedged.
+     */
+    void recordHedgeWin() {
+        hedgeWins.increment();
+    }
+
+    /**
+     * The recent latencies of an endpoint, in a ring buffer, with the hedging delay derived from them.
+     */
+    private final class LatencyWindow {
+        private final long[] samples = new long[WINDOW_SIZE];
+        private int count;
+        private int next;
+        private volatile long delayNanos = -1;
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % WINDOW_SIZE;
+            count = Math.min(count + 1, WINDOW_SIZE);
+            if (count >= minSamples && (count == minSamples || next % RECOMPUTE_INTERVAL == 0)) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                long value = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+                delayNanos = Math.max(value, minDelay.toNanos());
+            }
+        }
+
+        long delayNanos() {
+            return delayNanos;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.utils.JSONUtils;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.restassured.response.Response;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A response paired with its parsed JSON body.
+ * The body is parsed on first access; when the response was schema validated, the tree built for validation is reused.
+ * A JsonResponse may be shared by coalesced requests, so the parsed body must not be modified.
+ */
+public class JsonResponse {
+
+    private final Response response;
+    private volatile JsonElement body;
+
+    /**
+     * Constructs a JsonResponse from a response and its already parsed body.
+     *
+     * @param response The response.
+     * @param body     The parsed body, or null to parse it on first access.
+     */
+    JsonResponse(Response response, JsonElement body) {
+        this.response = response;
+        this.body = body;
+    }
+
+    /**
+     * Gets the underlying response.
+     *
+     * @return The response.
+     */
+    public Response getResponse() {
+        return response;
+    }
+
+    /**
+     * Gets the parsed body of the response, parsing the raw bytes if they were not parsed yet.
+     * The bytes are decoded with the charset of the Content-Type of the response, or UTF-8 if it has none.
+     *
+     * @return The parsed body.
+     * @throws com.gbursali.utils.InvalidJSONException If the body is not a valid JSON.
+     */
+    public JsonElement getBody() {
+        if (body == null)
+            body = JSONUtils.jsonify(response.asByteArray(), charsetOf(response));
+        return body;
+    }
+
+    /**
+     * Gets the parsed body of the response as a JSON object.
+     *
+     * @return The parsed body as a JsonObject.
+     */
+    public JsonObject getBodyAsObject() {
+        return getBody().getAsJsonObject();
+    }
+
+    /**
+     * Gets the charset the body of a response is encoded in.
+     *
+     * @param response The response.
+     * @return The charset parameter of its Content-Type, or UTF-8 if there is none or it is not supported.
+     */
+    static Charset charsetOf(Response response) {
+        String contentType = response.getContentType();
+        if (contentType == null)
+            return StandardCharsets.UTF_8;
+        for (String parameter : contentType.split(";")) {
+            int separator = parameter.indexOf('=');
+            if (separator < 0 || !parameter.substring(0, separator).trim().equalsIgnoreCase("charset"))
+                continue;
+            try {
+                return Charset.forName(parameter.substring(separator + 1).trim().replace("\"", ""));
+            } catch (IllegalArgumentException e) {
+                return StandardCharsets.UTF_8;
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+}
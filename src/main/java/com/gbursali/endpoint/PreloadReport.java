@@ -0,0 +1,87 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.utils.InvalidJSONException;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Summary of preloading a directory of endpoint definitions.
+ * All malformed files are collected here instead of failing on the first one.
+ */
+public class PreloadReport {
+
+    private final Path root;
+    private final int loadedCount;
+    private final int skippedCount;
+    private final SortedMap<Path, String> failures;
+
+    /**
+     * Constructs a new PreloadReport.
+     *
+     * @param root         The directory that was preloaded.
+     * @param loadedCount  The number of definitions loaded.
+     * @param skippedCount The number of JSON files that are not endpoint definitions.
+     * @param failures     The error messages by file.
+     */
+    PreloadReport(Path root, int loadedCount, int skippedCount, Map<Path, String> failures) {
+        this.root = root;
+        this.loadedCount = loadedCount;
+        this.skippedCount = skippedCount;
+        this.failures = Collections.unmodifiableSortedMap(new TreeMap<>(failures));
+    }
+
+    /**
+     * Gets the number of endpoint definitions that were loaded and indexed.
+     *
+     * @return The number of loaded definitions.
+     */
+    public int getLoadedCount() {
+        return loadedCount;
+    }
+
+    /**
+     * Gets the number of JSON files that were skipped because they have no "settings" block,
+     * such as schema files living next to the definitions.
+     *
+     * @return The number of skipped files.
+     */
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Gets the error messages of the files that could not be loaded, sorted by path.
+     *
+     * @return The unmodifiable map of error messages by file.
+     */
+    public SortedMap<Path, String> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Checks whether any file could not be loaded.
+     *
+     * @return true if there are failures.
+     */
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    /**
+     * Throws a single exception listing every file that could not be loaded.
+     *
+     * @throws InvalidJSONException If there are failures.
+     */
+    public void throwIfFailed() {
+        if (!hasFailures())
+            return;
+        StringBuilder message = new StringBuilder()
+                .append(failures.size()).append(" endpoint definition(s) could not be loaded");
+        failures.forEach((file, error) -> message.append("\n").append(file).append(": ").append(error));
+        throw new InvalidJSONException(message.toString(), root);
+    }
+}
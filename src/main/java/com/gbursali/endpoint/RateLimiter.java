@@ -0,0 +1,442 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.utils.InvalidJSONException;
+import com.gbursali.utils.ThreadPools;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the rate and the concurrency of requests with a token bucket and a concurrency limit, so that runs stay
+ * within the quota of an upstream instead of being throttled by it. A limiter set on an {@link EndpointBase}
+ * governs every request to its host; a limiter set on an endpoint or a definition governs that endpoint only.
+ * <p>
+ * Requests wait in FIFO order. Waiting never blocks a thread on asynchronous paths: a waiting request is a pending
+ * future, completed by the request that frees a slot or by a timer when the next token is due.
+ * <p>
+ * A {@code 429 Too Many Requests}, or a {@code 503} carrying {@code Retry-After}, pauses the limiter for the
+ * advertised time. Adaptive limiters also halve their rate on every {@code 429}, at most once per round of
+ * requests, and win back 1% of the configured rate with every successful response (AIMD), settling at the highest
+ * rate the upstream sustains.
+ * <p>
+ * Settings are immutable; every {@code with...} method returns a new limiter with its own state and counters.
+ * <pre>
+ * EndpointBase base = EndpointBase.builder(url).withRateLimiter(RateLimiter.perSecond(50).withMaxConcurrency(8));
+ * </pre>
+ */
+public final class RateLimiter {
+
+    private static final double ADDITIVE_INCREASE = 0.01;
+    private static final double MIN_RATE_FRACTION = 0.01;
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final int maxConcurrency;
+    private final boolean adaptive;
+
+    private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+    private double rate;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+    private long pausedUntil = refilledAt;
+    private long lastDecreaseAt = refilledAt;
+    private long wakeUpAt;
+    private int inFlight;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    private RateLimiter(double permitsPerSecond, int burst, int maxConcurrency, boolean adaptive) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.maxConcurrency = maxConcurrency;
+        this.adaptive = adaptive;
+        this.rate = permitsPerSecond;
+        this.tokens = burst;
+    }
+
+    /**
+     * Creates an adaptive limiter sending up to the given number of requests per second, with a burst of a tenth
+     * of a second's worth of requests and no concurrency limit.
+     *
+     * @param permitsPerSecond The rate limit.
+     * @return The RateLimiter.
+     */
+    public static RateLimiter perSecond(double permitsPerSecond) {
+        requirePositiveRate(permitsPerSecond);
+        return new RateLimiter(permitsPerSecond, defaultBurst(permitsPerSecond), Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * Creates a limiter capping the number of requests in flight, without a rate limit.
+     *
+     * @param maxConcurrency The concurrency limit.
+     * @return The RateLimiter.
+     */
+    public static RateLimiter concurrency(int maxConcurrency) {
+        requirePositive(maxConcurrency, "maxConcurrency");
+        return new RateLimiter(Double.POSITIVE_INFINITY, 1, maxConcurrency, true);
+    }
+
+    /**
+     * Creates a limiter from the "rate-limit" attribute of the "settings" block of a definition, such as
+     * <pre>
+     * {"permits-per-second": 50, "burst": 10, "max-concurrency": 8, "adaptive": true}
+     * </pre>
+     * where every attribute is optional.
+     *
+     * @param settings The "rate-limit" attribute.
+     * @return The RateLimiter.
+     * @throws InvalidJSONException If the attribute is not an object.
+     */
+    static RateLimiter fromJson(JsonElement settings) {
+        if (!settings.isJsonObject())
+            throw new InvalidJSONException("\"rate-limit\" must be an object");
+        JsonObject object = settings.getAsJsonObject();
+        RateLimiter limiter = object.has("permits-per-second")
+                ? perSecond(object.get("permits-per-second").getAsDouble())
+                : new RateLimiter(Double.POSITIVE_INFINITY, 1, Integer.MAX_VALUE, true);
+        if (object.has("burst"))
+            limiter = limiter.withBurst(object.get("burst").getAsInt());
+        if (object.has("max-concurrency"))
+            limiter = limiter.withMaxConcurrency(object.get("max-concurrency").getAsInt());
+        if (object.has("adaptive"))
+            limiter = limiter.withAdaptive(object.get("adaptive").getAsBoolean());
+        return limiter;
+    }
+
+    /**
+     * Sets the rate limit.
+     *
+     * @param permitsPerSecond The number of requests per second.
+     * @return The updated RateLimiter instance.
+     */
+    public RateLimiter withPermitsPerSecond(double permitsPerSecond) {
+        requirePositiveRate(permitsPerSecond);
+        return new RateLimiter(permitsPerSecond, burst, maxConcurrency, adaptive);
+    }
+
+    /**
+     * Sets how many requests can be sent at once after an idle period.
+     *
+     * @param burst The capacity of the token bucket.
+     * @return The updated RateLimiter instance.
+     */
+    public RateLimiter withBurst(int burst) {
+        requirePositive(burst, "burst");
+        return new RateLimiter(permitsPerSecond, burst, maxConcurrency, adaptive);
+    }
+
+    /**
+     * Sets the maximum number of requests in flight.
+     *
+     * @param maxConcurrency The concurrency limit.
+     * @return The updated RateLimiter instance.
+     */
+    public RateLimiter withMaxConcurrency(int maxConcurrency) {
+        requirePositive(maxConcurrency, "maxConcurrency");
+        return new RateLimiter(permitsPerSecond, burst, maxConcurrency, adaptive);
+    }
+
+    /**
+     * Sets whether the rate adapts to {@code 429} responses. {@code Retry-After} is honoured either way.
+     *
+     * @param adaptive True to halve the rate on throttling and recover it gradually.
+     * @return The updated RateLimiter instance.
+     */
+    public RateLimiter withAdaptive(boolean adaptive) {
+        return new RateLimiter(permitsPerSecond, burst, maxConcurrency, adaptive);
+    }
+
+    /**
+     * Gets the configured rate limit.
+     *
+     * @return The number of requests per second, or {@link Double#POSITIVE_INFINITY} if the rate is not limited.
+     */
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * Gets the rate currently applied, which adaptive limiters lower after throttling.
+     *
+     * @return The number of requests per second.
+     */
+    public synchronized double getCurrentRate() {
+        return rate;
+    }
+
+    /**
+     * Gets the capacity of the token bucket.
+     *
+     * @return The burst size.
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Gets the maximum number of requests in flight.
+     *
+     * @return The concurrency limit, or {@link Integer#MAX_VALUE} if concurrency is not limited.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Checks whether the rate adapts to {@code 429} responses.
+     *
+     * @return True if the limiter is adaptive.
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Gets the number of requests in flight.
+     *
+     * @return The number of permits not yet released.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Gets the number of requests waiting for a permit.
+     *
+     * @return The queue length.
+     */
+    public synchronized int getQueueLength() {
+        return waiters.size();
+    }
+
+    /**
+     * Gets the number of permits granted.
+     *
+     * @return The acquired count.
+     */
+    public long getAcquiredCount() {
+        return acquired.sum();
+    }
+
+    /**
+     * Gets the number of requests that had to wait for a permit.
+     *
+     * @return The delayed count.
+     */
+    public long getDelayedCount() {
+        return delayed.sum();
+    }
+
+    /**
+     * Gets the number of {@code 429} responses received.
+     *
+     * @return The throttled count.
+     */
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    /**
+     * Requests a permit without blocking.
+     *
+     * @return A future completing with the permit once the request may be sent.
+     */
+    CompletableFuture<Permit> acquireAsync() {
+        CompletableFuture<Permit> permit = new CompletableFuture<>();
+        List<Runnable> ready;
+        synchronized (this) {
+            waiters.add(permit);
+            ready = drain();
+        }
+        ready.forEach(Runnable::run);
+        if (!permit.isDone())
+            delayed.increment();
+        return permit;
+    }
+
+    /**
+     * Grants permits to the waiting requests in order, as long as tokens and concurrency slots are available,
+     * and schedules a wake-up when the next token is due.
+     *
+     * @return The completions of the granted permits, to run outside the lock.
+     */
+    private List<Runnable> drain() {
+        List<Runnable> ready = new ArrayList<>();
+        long now = System.nanoTime();
+        while (!waiters.isEmpty() && inFlight < maxConcurrency) {
+            if (waiters.peek().isDone()) {
+                // The caller gave up waiting.
+                waiters.poll();
+                continue;
+            }
+            if (now - pausedUntil < 0) {
+                scheduleWakeUp(now, pausedUntil);
+                break;
+            }
+            refill(now);
+            if (tokens < 1) {
+                scheduleWakeUp(now, now + (long) Math.ceil((1 - tokens) / rate * 1e9));
+                break;
+            }
+            tokens -= 1;
+            inFlight++;
+            acquired.increment();
+            CompletableFuture<Permit> waiter = waiters.poll();
+            Permit permit = new Permit(this, now);
+            ready.add(() -> waiter.complete(permit));
+        }
+        return ready;
+    }
+
+    private void refill(long now) {
+        if (Double.isInfinite(rate))
+            tokens = burst;
+        else
+            tokens = Math.min(burst, tokens + (now - refilledAt) * rate / 1e9);
+        refilledAt = now;
+    }
+
+    private void scheduleWakeUp(long now, long at) {
+        if (wakeUpAt != 0 && wakeUpAt - at <= 0)
+            return;
+        wakeUpAt = at;
+        ThreadPools.sharedScheduler().schedule(this::wakeUp, Math.max(0, at - now), TimeUnit.NANOSECONDS);
+    }
+
+    private void wakeUp() {
+        List<Runnable> ready;
+        synchronized (this) {
+            wakeUpAt = 0;
+            ready = drain();
+        }
+        ready.forEach(Runnable::run);
+    }
+
+    /**
+     * Returns the concurrency slot of a permit.
+     */
+    private void release() {
+        List<Runnable> ready;
+        synchronized (this) {
+            inFlight--;
+            ready = drain();
+        }
+        ready.forEach(Runnable::run);
+    }
+
+    /**
+     * Adapts the limiter to a response.
+     *
+     * @param permit     The permit the request was sent with.
+     * @param status     The status of the response.
+     * @param retryAfter The Retry-After header of the response, or null.
+     */
+    private synchronized void onResponse(Permit permit, int status, String retryAfter) {
+        long now = System.nanoTime();
+        if (status == 429 || status == 503) {
+            long pause = retryAfterNanos(retryAfter);
+            if (pause > 0 && now + pause - pausedUntil > 0)
+                pausedUntil = now + pause;
+        }
+        if (status == 429) {
+            throttled.increment();
+            // Requests sent before the last decrease were sent too fast for the old rate, not the new one.
+            if (adaptive && !Double.isInfinite(permitsPerSecond) && permit.issuedAt - lastDecreaseAt >= 0) {
+                rate = Math.max(permitsPerSecond * MIN_RATE_FRACTION, rate / 2);
+                tokens = Math.min(tokens, 1);
+                lastDecreaseAt = now;
+            }
+        } else if (status < 400 && adaptive && rate < permitsPerSecond) {
+            refill(now);
+            rate = Math.min(permitsPerSecond, rate + permitsPerSecond * ADDITIVE_INCREASE);
+        }
+    }
+
+    /**
+     * Parses a {@code Retry-After} header, given either in seconds or as an HTTP date.
+     *
+     * @param value The header value, or null.
+     * @return The delay in nanoseconds, or -1 if the header is absent or malformed.
+     */
+    static long retryAfterNanos(String value) {
+        if (value == null || value.isBlank())
+            return -1;
+        String text = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(text))).toNanos();
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(text, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toNanos());
+            } catch (DateTimeParseException | ArithmeticException malformed) {
+                return -1;
+            }
+        }
+    }
+
+    private static int defaultBurst(double permitsPerSecond) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, Math.ceil(permitsPerSecond / 10)));
+    }
+
+    private static void requirePositive(int value, String name) {
+        if (value < 1)
+            throw new IllegalArgumentException(name + " must be positive, got " + value);
+    }
+
+    private static void requirePositiveRate(double permitsPerSecond) {
+        if (!(permitsPerSecond > 0))
+            throw new IllegalArgumentException("permitsPerSecond must be positive, got " + permitsPerSecond);
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimiter{permitsPerSecond=" + permitsPerSecond + ", burst=" + burst
+                + ", maxConcurrency=" + maxConcurrency + ", adaptive=" + adaptive + '}';
+    }
+
+    /**
+     * The permission to send one request. The concurrency slot is held until the permit is released.
+     */
+    static final class Permit {
+        private final RateLimiter limiter;
+        private final long issuedAt;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(RateLimiter limiter, long issuedAt) {
+            this.limiter = limiter;
+            this.issuedAt = issuedAt;
+        }
+
+        /**
+         * Reports the response of the request to the limiter.
+         *
+         * @param status     The status of the response.
+         * @param retryAfter The Retry-After header of the response, or null.
+         */
+        void onResponse(int status, String retryAfter) {
+            limiter.onResponse(this, status, retryAfter);
+        }
+
+        /**
+         * Releases the concurrency slot of the permit. Only the first call releases.
+         */
+        void release() {
+            if (released.compareAndSet(false, true))
+                limiter.release();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.gbursali.endpoint;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A request body sent as raw bytes, without going through a Java String. Instances are immutable and can be
+ * sent any number of times, by any number of threads.
+ * <p>
+ * Byte arrays and heap buffers covering their whole array are handed to the client as they are and sent with a
+ * {@code Content-Length}. Files, memory-mapped files and other buffers are streamed to the connection in small
+ * chunks with chunked transfer encoding, so heap use does not depend on the size of the body.
+ * <pre>
+ * endpoint.setBody(RequestBody.fromFile(Path.of("payloads", "upload.json")));
+ * </pre>
+ */
+public final class RequestBody {
+
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+    private final Path file;
+    private final boolean mapped;
+    private volatile MappedByteBuffer mapping;
+
+    private RequestBody(byte[] bytes, ByteBuffer buffer, Path file, boolean mapped) {
+        this.bytes = bytes;
+        this.buffer = buffer;
+        this.file = file;
+        this.mapped = mapped;
+    }
+
+    /**
+     * Creates a body sending a byte array. The array is not copied and must not be modified afterwards.
+     *
+     * @param bytes The body.
+     * @return The created RequestBody.
+     */
+    public static RequestBody fromBytes(byte[] bytes) {
+        return new RequestBody(bytes, null, null, false);
+    }
+
+    /**
+     * Creates a body sending the remaining bytes of a buffer, from its position to its limit. The buffer is
+     * neither copied nor moved, and its content must not be modified afterwards.
+     *
+     * @param buffer The body.
+     * @return The created RequestBody.
+     */
+    public static RequestBody fromBuffer(ByteBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() + buffer.position() == 0 && buffer.limit() == buffer.array().length)
+            return fromBytes(buffer.array());
+        return new RequestBody(null, buffer.slice(), null, false);
+    }
+
+    /**
+     * Creates a body streaming a file through an NIO channel every time it is sent.
+     *
+     * @param file The file.
+     * @return The created RequestBody.
+     */
+    public static RequestBody fromFile(Path file) {
+        return new RequestBody(null, null, file, false);
+    }
+
+    /**
+     * Creates a body sending a memory-mapped file. The file is mapped on first send and the mapping is reused
+     * by later sends, so the content is paged in by the operating system rather than copied onto the heap.
+     * The file must not change while the body is in use.
+     *
+     * @param file The file, of at most 2 GiB.
+     * @return The created RequestBody.
+     */
+    public static RequestBody fromMappedFile(Path file) {
+        return new RequestBody(null, null, file, true);
+    }
+
+    /**
+     * Gets the size of the body.
+     *
+     * @return The size in bytes, or -1 if the file cannot be read.
+     */
+    public long getLength() {
+        if (bytes != null)
+            return bytes.length;
+        if (buffer != null)
+            return buffer.remaining();
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the file the body is read from.
+     *
+     * @return The file, or null if the body is held in memory.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the body as bytes if it is held in memory, for recording.
+     *
+     * @return The bytes, copied from a buffer, or null if the body is read from a file.
+     */
+    byte[] inMemoryBytes() {
+        if (bytes != null)
+            return bytes;
+        if (buffer == null)
+            return null;
+        byte[] copy = new byte[buffer.remaining()];
+        buffer.duplicate().get(copy);
+        return copy;
+    }
+
+    /**
+     * Gets the content to hand to RestAssured for a single send.
+     *
+     * @return A byte array, or a fresh input stream over the body.
+     * @throws UncheckedIOException If the file cannot be opened or mapped.
+     */
+    Object content() {
+        if (bytes != null)
+            return bytes;
+        if (buffer != null)
+            return new ByteBufferInputStream(buffer);
+        try {
+            if (mapped)
+                return new ByteBufferInputStream(map());
+            return Files.newInputStream(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Request body file can't be read: " + file, e);
+        }
+    }
+
+    /**
+     * Maps the file, once.
+     *
+     * @return The mapping of the whole file.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private MappedByteBuffer map() throws IOException {
+        MappedByteBuffer result = mapping;
+        if (result == null) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE)
+                    throw new IllegalArgumentException("Memory-mapped request bodies are limited to 2 GiB: " + file);
+                result = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            mapping = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,144 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.utils.MethodType;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical idempotent requests ({@code GET}, {@code HEAD} and {@code OPTIONS}) into a
+ * single call. The first request becomes the in-flight call; identical requests arriving while it runs attach
+ * to it and receive its response, or its failure, without contacting the server or validating again.
+ * Requests are identical when their method, URL, parameters, base headers, cookies, body and validation match.
+ * <p>
+ * Only the in-flight call is measured by the metrics listener of the base. Once it completes, the next identical
+ * request is sent again; combine with a {@link ResponseCache} to also reuse completed responses.
+ */
+@SuppressWarnings("java:S1144")
+public class RequestCoalescer {
+
+    private final Map<String, CompletableFuture<JsonResponse>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Checks whether requests with the given method can be coalesced.
+     *
+     * @param method The HTTP method.
+     * @return True for {@code GET}, {@code HEAD} and {@code OPTIONS}.
+     */
+    static boolean isCoalescable(MethodType method) {
+        return method == MethodType.GET || method == MethodType.HEAD || method == MethodType.OPTIONS;
+    }
+
+    /**
+     * Performs a call on the current thread, or waits for the identical call in flight.
+     *
+     * @param key  The key of the request.
+     * @param call The call sending and validating the request.
+     * @return The response of the call.
+     */
+    JsonResponse send(String key, Supplier<JsonResponse> call) {
+        CompletableFuture<JsonResponse> own = new CompletableFuture<>();
+        CompletableFuture<JsonResponse> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+        sent.increment();
+        try {
+            JsonResponse response = call.get();
+            inFlight.remove(key, own);
+            own.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, own);
+            own.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts an asynchronous call, or attaches to the identical call in flight.
+     *
+     * @param key  The key of the request.
+     * @param call The call starting to send and validate the request.
+     * @return A future completing with the response of the call.
+     */
+    CompletableFuture<JsonResponse> sendAsync(String key, Supplier<CompletableFuture<JsonResponse>> call) {
+        CompletableFuture<JsonResponse> own = new CompletableFuture<>();
+        CompletableFuture<JsonResponse> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            coalesced.increment();
+            // A copy, so that a caller cancelling its future does not cancel the call for everyone else.
+            return existing.copy();
+        }
+        sent.increment();
+        CompletableFuture<JsonResponse> started;
+        try {
+            started = call.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, own);
+            own.completeExceptionally(e);
+            throw e;
+        }
+        started.whenComplete((response, failure) -> {
+            inFlight.remove(key, own);
+            if (failure != null)
+                own.completeExceptionally(failure);
+            else
+                own.complete(response);
+        });
+        return own.copy();
+    }
+
+    /**
+     * Gets the number of calls sent to the server.
+     *
+     * @return The sent count.
+     */
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    /**
+     * Gets the number of requests that attached to a call in flight instead of being sent.
+     *
+     * @return The coalesced count.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Gets the number of calls currently in flight.
+     *
+     * @return The in-flight count.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Waits for a call in flight, rethrowing its failure as it was thrown to the caller that sent it.
+     *
+     * @param call The call in flight.
+     * @return The response of the call.
+     */
+    private static JsonResponse join(CompletableFuture<JsonResponse> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.utils.MethodType;
+import io.restassured.http.Cookie;
+import io.restassured.http.Header;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds the keys identifying identical requests, for the {@link ResponseCache} and the {@link RequestCoalescer}.
+ */
+@SuppressWarnings("java:S1144")
+final class RequestKey {
+
+    /**
+     * Prevent instantiation of the utility class.
+     */
+    private RequestKey() {
+    }
+
+    /**
+     * Builds the key of a request from its method, resolved URL, sorted parameters, sorted headers,
+     * the cookies of its base and its body.
+     *
+     * @param base    The base the request is sent through.
+     * @param method  The HTTP method.
+     * @param path    The path of the endpoint, or an absolute URL.
+     * @param params  The parameters of the request.
+     * @param headers The headers of the endpoint, added to those of the base.
+     * @param body    The request body, or null.
+     * @return The key.
+     */
+    static String of(EndpointBase base, MethodType method, String path, Map<String, String> params,
+                     Map<String, String> headers, String body) {
+        StringBuilder key = new StringBuilder(128).append(method).append(' ');
+        if (path == null || !(path.startsWith("http://") || path.startsWith("https://")))
+            key.append(base.getBaseURL());
+        key.append(path);
+        char separator = '?';
+        for (Map.Entry<String, String> param : new TreeMap<>(params).entrySet()) {
+            key.append(separator).append(param.getKey()).append('=').append(param.getValue());
+            separator = '&';
+        }
+        if (!base.getHeaders().isEmpty() || !headers.isEmpty()) {
+            List<String> lines = new ArrayList<>(base.getHeaders().size() + headers.size());
+            for (Header header : base.getHeaders())
+                lines.add(header.getName().toLowerCase(Locale.ROOT) + ':' + header.getValue());
+            for (Map.Entry<String, String> header : headers.entrySet())
+                lines.add(header.getKey().toLowerCase(Locale.ROOT) + ':' + header.getValue());
+            lines.sort(null);
+            for (String line : lines)
+                key.append('\n').append(line);
+        }
+        for (Cookie cookie : base.getCookies())
+            key.append("\ncookie:").append(cookie.getName()).append('=').append(cookie.getValue());
+        if (body != null)
+            key.append("\n\n").append(body);
+        return key.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.metrics.RequestMetrics;
+import com.gbursali.metrics.RequestMetricsListener;
+import com.gbursali.metrics.RequestOutcome;
+import com.gbursali.metrics.RequestPhase;
+import com.gbursali.utils.MethodType;
+import io.restassured.response.Response;
+
+/**
+ * Measures the phases of a single request and reports them to a {@link RequestMetricsListener}.
+ * A timer is only created when a listener is registered, so unmonitored requests pay no measuring cost.
+ */
+final class RequestTimer {
+
+    private final RequestMetricsListener listener;
+    private final MethodType method;
+    private final String path;
+    private final long requestBytes;
+    private final long[] phases = new long[RequestPhase.values().length];
+    private long mark = System.nanoTime();
+    private long responseBytes;
+    private boolean finished;
+
+    /**
+     * Constructs a new RequestTimer and starts measuring.
+     *
+     * @param listener     The listener to report to.
+     * @param method       The HTTP method of the request.
+     * @param path         The path of the endpoint.
+     * @param requestBytes The size of the request body.
+     */
+    RequestTimer(RequestMetricsListener listener, MethodType method, String path, long requestBytes) {
+        this.listener = listener;
+        this.method = method;
+        this.path = path;
+        this.requestBytes = requestBytes;
+    }
+
+    /**
+     * Ends a phase at the current time; the phase started when the previous one ended.
+     *
+     * @param phase The phase that ended.
+     */
+    void mark(RequestPhase phase) {
+        long now = System.nanoTime();
+        phases[phase.ordinal()] += now - mark;
+        mark = now;
+    }
+
+    /**
+     * Records the duration of a phase that was measured elsewhere.
+     *
+     * @param phase The phase.
+     * @param nanos The duration in nanoseconds.
+     */
+    void record(RequestPhase phase, long nanos) {
+        phases[phase.ordinal()] += nanos;
+    }
+
+    /**
+     * Records the size of the response body.
+     *
+     * @param bytes The size in bytes.
+     */
+    void setResponseBytes(long bytes) {
+        this.responseBytes = bytes;
+    }
+
+    /**
+     * Starts a timer for one attempt of the request, whose phases are added to this timer with
+     * {@link #merge(RequestTimer)} if the attempt is the one whose response is used. The attempt timer never reports.
+     *
+     * @return The timer of the attempt.
+     */
+    RequestTimer fork() {
+        RequestTimer attempt = new RequestTimer(listener, method, path, requestBytes);
+        attempt.finished = true;
+        return attempt;
+    }
+
+    /**
+     * Adds the phases and response size of an attempt to this timer, and restarts the current phase.
+     *
+     * @param attempt The timer of the attempt, created by {@link #fork()}.
+     */
+    void merge(RequestTimer attempt) {
+        for (int i = 0; i < phases.length; i++)
+            phases[i] += attempt.phases[i];
+        responseBytes = attempt.responseBytes;
+        mark = System.nanoTime();
+    }
+
+    /**
+     * Reports the request as completed. Only the first call reports.
+     *
+     * @param response The response, or null if none was received.
+     * @param outcome  The outcome, or null to derive it from the response status.
+     */
+    void finish(Response response, RequestOutcome outcome) {
+        if (finished)
+            return;
+        finished = true;
+        int status = response != null ? response.getStatusCode() : 0;
+        if (outcome == null)
+            outcome = status >= 400 ? RequestOutcome.HTTP_ERROR : RequestOutcome.SUCCESS;
+        listener.onRequest(new RequestMetrics(method, path, phases, requestBytes, responseBytes, status, outcome));
+    }
+}
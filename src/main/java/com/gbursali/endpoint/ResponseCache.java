@@ -0,0 +1,355 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.utils.MethodType;
+import com.gbursali.utils.json_validator.CompiledSchema;
+import io.restassured.response.Response;
+
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size- and time-bounded cache of the responses to idempotent requests ({@code GET} and {@code HEAD}).
+ * <p>
+ * Responses are keyed by method, resolved URL, sorted parameters, the headers and cookies of the base and the
+ * request body, and evicted least recently used first. A cached response stays fresh for the {@code max-age} of
+ * its {@code Cache-Control} header, capped by the time-to-live of the cache, which also applies when the header
+ * is absent. Responses marked {@code no-store} or {@code Vary: *} are not cached, and {@code no-cache} responses
+ * are revalidated on every use. Once stale, a response carrying an {@code ETag} or {@code Last-Modified} header
+ * is revalidated with a conditional request; a {@code 304 Not Modified} answer serves the cached response again.
+ * <p>
+ * A response that passed validation remembers the schema it was validated against, so that later hits
+ * validated against the same schema skip validation. Cached responses are shared between requests.
+ */
+@SuppressWarnings("java:S1144")
+public class ResponseCache {
+
+    /**
+     * Default maximum number of cached responses.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    /**
+     * Default time a response stays fresh when the server does not say otherwise.
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, CachedResponse> entries;
+    private final Map<Response, CachedResponse> byResponse = new IdentityHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+
+    /**
+     * Constructs a ResponseCache holding up to {@link #DEFAULT_MAX_ENTRIES} responses for at most {@link #DEFAULT_TTL}.
+     */
+    public ResponseCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+    }
+
+    /**
+     * Constructs a ResponseCache.
+     *
+     * @param maxEntries The maximum number of cached responses.
+     * @param ttl        The longest time a response stays fresh without being revalidated.
+     */
+    public ResponseCache(int maxEntries, Duration ttl) {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries must be positive, got " + maxEntries);
+        if (ttl.isNegative())
+            throw new IllegalArgumentException("ttl must not be negative, got " + ttl);
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                if (size() <= ResponseCache.this.maxEntries)
+                    return false;
+                byResponse.remove(eldest.getValue().response);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Checks whether responses to the given method can be cached.
+     *
+     * @param method The HTTP method.
+     * @return True for {@code GET} and {@code HEAD}.
+     */
+    static boolean isCacheable(MethodType method) {
+        return method == MethodType.GET || method == MethodType.HEAD;
+    }
+
+    /**
+     * Looks up the cached response of a request, counting a hit if it is fresh. Stale responses that cannot
+     * be revalidated are removed.
+     *
+     * @param key The key of the request.
+     * @return The entry, fresh or awaiting revalidation, or null if there is none.
+     */
+    CachedResponse lookup(String key) {
+        CachedResponse entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null)
+                return null;
+            if (!entry.isFresh() && !entry.canRevalidate()) {
+                entries.remove(key);
+                byResponse.remove(entry.response);
+                return null;
+            }
+        }
+        if (entry.isFresh())
+            hits.increment();
+        return entry;
+    }
+
+    /**
+     * Stores a full response received from the server, counting a miss. Responses that must not be cached
+     * are only counted.
+     *
+     * @param key      The key of the request.
+     * @param response The response, with its body already read.
+     */
+    void store(String key, Response response) {
+        misses.increment();
+        if (response.getStatusCode() != 200 || "*".equals(response.getHeader("Vary")))
+            return;
+        CacheControl control = CacheControl.parse(response.getHeader("Cache-Control"));
+        if (control.noStore)
+            return;
+        CachedResponse entry = new CachedResponse(response, response.getHeader("ETag"), response.getHeader("Last-Modified"));
+        entry.expiresAt = System.nanoTime() + freshness(control);
+        synchronized (entries) {
+            CachedResponse previous = entries.put(key, entry);
+            if (previous != null)
+                byResponse.remove(previous.response);
+            byResponse.put(response, entry);
+        }
+    }
+
+    /**
+     * Marks a stale response as confirmed by a {@code 304 Not Modified} answer, counting a revalidation.
+     * The freshness is renewed from the headers of the answer, or from those of the cached response.
+     *
+     * @param entry       The revalidated entry.
+     * @param notModified The {@code 304} response.
+     */
+    void revalidated(CachedResponse entry, Response notModified) {
+        revalidations.increment();
+        String header = notModified.getHeader("Cache-Control");
+        CacheControl control = CacheControl.parse(header != null ? header : entry.response.getHeader("Cache-Control"));
+        entry.expiresAt = System.nanoTime() + freshness(control);
+    }
+
+    /**
+     * Checks whether a cached response passed validation against the given schema.
+     *
+     * @param response The response.
+     * @param schema   The schema the response is to be validated against.
+     * @return True if the response is cached and was validated against a schema with the same content.
+     */
+    boolean isValidated(Response response, CompiledSchema schema) {
+        CachedResponse entry;
+        synchronized (entries) {
+            entry = byResponse.get(response);
+        }
+        String validated = entry != null ? entry.schemaKey : null;
+        return validated != null && validated.equals(schema.getKey());
+    }
+
+    /**
+     * Records that a cached response passed validation against the given schema.
+     *
+     * @param response The response.
+     * @param schema   The schema it was validated against.
+     */
+    void markValidated(Response response, CompiledSchema schema) {
+        CachedResponse entry;
+        synchronized (entries) {
+            entry = byResponse.get(response);
+        }
+        if (entry != null)
+            entry.schemaKey = schema.getKey();
+    }
+
+    /**
+     * Gets the number of requests served from the cache without contacting the server.
+     *
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of requests that received a full response from the server.
+     *
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of requests served from the cache after the server confirmed the cached response.
+     *
+     * @return The revalidation count.
+     */
+    public long getRevalidationCount() {
+        return revalidations.sum();
+    }
+
+    /**
+     * Gets the number of cached responses, fresh or stale.
+     *
+     * @return The number of cached responses.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Removes all cached responses.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            byResponse.clear();
+        }
+    }
+
+    /**
+     * Computes how long a response stays fresh.
+     *
+     * @param control The cache directives of the response.
+     * @return The freshness lifetime in nanoseconds.
+     */
+    private long freshness(CacheControl control) {
+        if (control.noCache)
+            return 0;
+        if (control.maxAgeSeconds >= 0)
+            return Math.min(ttlNanos, Duration.ofSeconds(control.maxAgeSeconds).toNanos());
+        return ttlNanos;
+    }
+
+    /**
+     * A cached response along with its validators and freshness.
+     */
+    static final class CachedResponse {
+        private final Response response;
+        private final String etag;
+        private final String lastModified;
+        private volatile long expiresAt;
+        private volatile String schemaKey;
+
+        private CachedResponse(Response response, String etag, String lastModified) {
+            this.response = response;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Gets the cached response.
+         *
+         * @return The response.
+         */
+        Response getResponse() {
+            return response;
+        }
+
+        /**
+         * Gets the entity tag of the response.
+         *
+         * @return The value of the ETag header, or null.
+         */
+        String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Gets the modification date of the response.
+         *
+         * @return The value of the Last-Modified header, or null.
+         */
+        String getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Checks whether the response can be served without contacting the server.
+         *
+         * @return True if the response is fresh.
+         */
+        boolean isFresh() {
+            return System.nanoTime() - expiresAt < 0;
+        }
+
+        /**
+         * Checks whether the response can be revalidated with a conditional request.
+         *
+         * @return True if the response has an ETag or Last-Modified header.
+         */
+        boolean canRevalidate() {
+            return etag != null || lastModified != null;
+        }
+    }
+
+    /**
+     * The directives of a {@code Cache-Control} header that affect caching.
+     */
+    private static final class CacheControl {
+        private static final CacheControl NONE = new CacheControl(false, false, -1);
+
+        private final boolean noStore;
+        private final boolean noCache;
+        private final long maxAgeSeconds;
+
+        private CacheControl(boolean noStore, boolean noCache, long maxAgeSeconds) {
+            this.noStore = noStore;
+            this.noCache = noCache;
+            this.maxAgeSeconds = maxAgeSeconds;
+        }
+
+        /**
+         * Parses a {@code Cache-Control} header.
+         *
+         * @param header The header value, or null.
+         * @return The directives.
+         */
+        private static CacheControl parse(String header) {
+            if (header == null || header.isEmpty())
+                return NONE;
+            boolean noStore = false;
+            boolean noCache = false;
+            long maxAge = -1;
+            for (String directive : header.split(",")) {
+                String name = directive.trim().toLowerCase(Locale.ROOT);
+                if (name.equals("no-store"))
+                    noStore = true;
+                else if (name.equals("no-cache"))
+                    noCache = true;
+                else if (name.startsWith("max-age="))
+                    maxAge = parseSeconds(name.substring("max-age=".length()));
+            }
+            return new CacheControl(noStore, noCache, maxAge);
+        }
+
+        private static long parseSeconds(String value) {
+            try {
+                return Math.max(0, Long.parseLong(value.replace("\"", "").trim()));
+            } catch (NumberFormatException e) {
+                // A malformed max-age makes the response stale, as required by RFC 9111.
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.utils.InvalidJSONException;
+import com.gbursali.utils.MethodType;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retries idempotent requests that fail with a transport error or a retryable status, such as
+ * {@code 502 Bad Gateway}, waiting an exponentially growing, fully jittered delay between attempts.
+ * Non-idempotent methods ({@code POST}, {@code PATCH} and {@code CONNECT}) are never retried.
+ * <p>
+ * Settings are immutable; every {@code with...} method returns a new policy with its own counters.
+ * A policy can be shared by any number of endpoints and threads.
+ * <pre>
+ * EndpointBase base = EndpointBase.builder(url).withRetryPolicy(RetryPolicy.defaults().withMaxAttempts(4));
+ * </pre>
+ */
+public final class RetryPolicy {
+
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(100);
+    private static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(2);
+    private static final Set<Integer> DEFAULT_RETRY_STATUSES = Set.of(502, 503, 504);
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Set<Integer> retryStatuses;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    private RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff, Set<Integer> retryStatuses) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retryStatuses = retryStatuses;
+    }
+
+    /**
+     * Creates the default policy: up to 3 attempts, backing off from 100 ms up to 2 seconds, retrying transport
+     * errors and the {@code 502}, {@code 503} and {@code 504} statuses.
+     *
+     * @return The default RetryPolicy.
+     */
+    public static RetryPolicy defaults() {
+        return new RetryPolicy(DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF, DEFAULT_RETRY_STATUSES);
+    }
+
+    /**
+     * Creates a policy sending every request once, to disable retries set on a base.
+     *
+     * @return A RetryPolicy without retries.
+     */
+    public static RetryPolicy none() {
+        return defaults().withMaxAttempts(1);
+    }
+
+    /**
+     * Creates a policy from the "retry" attribute of the "settings" block of a definition: either {@code false}
+     * to disable retries, {@code true} for the defaults, or an object such as
+     * <pre>
+     * {"max-attempts": 4, "initial-backoff-ms": 50, "max-backoff-ms": 1000, "statuses": [502, 503, 504]}
+     * </pre>
+     * where every attribute is optional.
+     *
+     * @param settings The "retry" attribute.
+     * @return The RetryPolicy.
+     * @throws InvalidJSONException If the attribute is neither a boolean nor an object.
+     */
+    static RetryPolicy fromJson(JsonElement settings) {
+        if (settings.isJsonPrimitive() && settings.getAsJsonPrimitive().isBoolean())
+            return settings.getAsBoolean() ? defaults() : none();
+        if (!settings.isJsonObject())
+            throw new InvalidJSONException("\"retry\" must be a boolean or an object");
+        JsonObject object = settings.getAsJsonObject();
+        RetryPolicy policy = defaults();
+        if (object.has("max-attempts"))
+            policy = policy.withMaxAttempts(object.get("max-attempts").getAsInt());
+        if (object.has("initial-backoff-ms"))
+            policy = policy.withInitialBackoff(Duration.ofMillis(object.get("initial-backoff-ms").getAsLong()));
+        if (object.has("max-backoff-ms"))
+            policy = policy.withMaxBackoff(Duration.ofMillis(object.get("max-backoff-ms").getAsLong()));
+        if (object.has("statuses")) {
+            int[] statuses = new int[object.getAsJsonArray("statuses").size()];
+            for (int i = 0; i < statuses.length; i++)
+                statuses[i] = object.getAsJsonArray("statuses").get(i).getAsInt();
+            policy = policy.withRetryStatuses(statuses);
+        }
+        return policy;
+    }
+
+    /**
+     * Sets how many times a request is sent at most, the first attempt included.
+     *
+     * @param maxAttempts The maximum number of attempts.
+     * @return The updated RetryPolicy instance.
+     */
+    public RetryPolicy withMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1)
+            throw new IllegalArgumentException("maxAttempts must be positive, got " + maxAttempts);
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, retryStatuses);
+    }
+
+    /**
+     * Sets the upper bound of the delay before the first retry. The bound doubles with every further retry.
+     *
+     * @param initialBackoff The initial backoff.
+     * @return The updated RetryPolicy instance.
+     */
+    public RetryPolicy withInitialBackoff(Duration initialBackoff) {
+        if (initialBackoff.isNegative())
+            throw new IllegalArgumentException("initialBackoff must not be negative, got " + initialBackoff);
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, retryStatuses);
+    }
+
+    /**
+     * Sets the largest delay between two attempts.
+     *
+     * @param maxBackoff The maximum backoff.
+     * @return The updated RetryPolicy instance.
+     */
+    public RetryPolicy withMaxBackoff(Duration maxBackoff) {
+        if (maxBackoff.isNegative())
+            throw new IllegalArgumentException("maxBackoff must not be negative, got " + maxBackoff);
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, retryStatuses);
+    }
+
+    /**
+     * Sets the response statuses that are retried. Transport errors are always retried.
+     *
+     * @param statuses The retryable statuses.
+     * @return The updated RetryPolicy instance.
+     */
+    public RetryPolicy withRetryStatuses(int... statuses) {
+        Set<Integer> set = new TreeSet<>();
+        Arrays.stream(statuses).forEach(set::add);
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, Collections.unmodifiableSet(set));
+    }
+
+    /**
+     * Gets how many times a request is sent at most.
+     *
+     * @return The maximum number of attempts.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Gets the upper bound of the delay before the first retry.
+     *
+     * @return The initial backoff.
+     */
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * Gets the largest delay between two attempts.
+     *
+     * @return The maximum backoff.
+     */
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Gets the response statuses that are retried.
+     *
+     * @return The unmodifiable set of statuses.
+     */
+    public Set<Integer> getRetryStatuses() {
+        return retryStatuses;
+    }
+
+    /**
+     * Gets the number of retries sent.
+     *
+     * @return The retry count.
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * Gets the number of requests that succeeded after at least one retry.
+     *
+     * @return The recovered count.
+     */
+    public long getRecoveredCount() {
+        return recovered.sum();
+    }
+
+    /**
+     * Gets the number of requests that still failed after the last attempt.
+     *
+     * @return The exhausted count.
+     */
+    public long getExhaustedCount() {
+        return exhausted.sum();
+    }
+
+    /**
+     * Checks whether requests of the given method may be sent more than once.
+     *
+     * @param method The HTTP method.
+     * @return True for idempotent methods.
+     */
+    static boolean isRetryable(MethodType method) {
+        return method != MethodType.POST && method != MethodType.PATCH && method != MethodType.CONNECT;
+    }
+
+    /**
+     * Checks whether a response status is retried.
+     *
+     * @param status The status code.
+     * @return True if the status is retryable.
+     */
+    boolean isRetryStatus(int status) {
+        return retryStatuses.contains(status);
+    }
+
+    /**
+     * Picks the delay before a retry, uniformly between zero and the exponential bound ("full jitter"),
+     * so that clients failing together do not retry together.
+     *
+     * @param retry The number of the retry, starting at 1.
+     * @return The delay in nanoseconds.
+     */
+    long backoffNanos(int retry) {
+        long bound = initialBackoff.toNanos() << Math.min(retry - 1, 30);
+        if (bound <= 0 || bound > maxBackoff.toNanos())
+            bound = maxBackoff.toNanos();
+        return bound == 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    /**
+     * Records a retry being sent.
+     */
+    void recordRetry() {
+        retries.increment();
+    }
+
+    /**
+     * Records a request succeeding after at least one retry.
+     */
+    void recordRecovered() {
+        recovered.increment();
+    }
+
+    /**
+     * Records a request failing after its last attempt.
+     */
+    void recordExhausted() {
+        exhausted.increment();
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{maxAttempts=" + maxAttempts + ", initialBackoff=" + initialBackoff
+                + ", maxBackoff=" + maxBackoff + ", retryStatuses=" + retryStatuses + '}';
+    }
+}
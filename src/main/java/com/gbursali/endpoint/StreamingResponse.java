@@ -0,0 +1,270 @@
+package com.gbursali.endpoint;
+
+import com.gbursali.metrics.RequestPhase;
+import com.gbursali.utils.JSONUtils;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.response.ValidatableResponse;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * A response whose body is left on the connection and read by the caller, so that heap use does not depend on the
+ * size of the body. The status line and headers are available at once and can be asserted with {@link #then()};
+ * the body can then be consumed exactly once, as a stream, a channel, a {@link Flow.Publisher} or JSON tokens.
+ * <pre>
+ * try (StreamingResponse export = endpoint.sendStreaming()) {
+ *     export.then().statusCode(200);
+ *     export.forEachElement(record -&gt; process(record));
+ * }
+ * </pre>
+ * Closing the response releases the connection, discarding whatever part of the body was not read.
+ */
+public class StreamingResponse implements Closeable {
+
+    /**
+     * Default size of the buffers published by {@link #toPublisher()}.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final Response response;
+    private final RequestTimer timer;
+    private final Executor executor;
+    private final Admission admission;
+    private final CountingInputStream body;
+    private boolean consumed;
+    private boolean closed;
+
+    /**
+     * Constructs a new StreamingResponse.
+     *
+     * @param response  The response, with its body not read yet.
+     * @param timer     The timer of the request, finished when the response is closed, or null.
+     * @param executor  The executor reading the body for {@link #toPublisher()}.
+     * @param admission The permits of the request, released when the response is closed.
+     */
+    StreamingResponse(Response response, RequestTimer timer, Executor executor, Admission admission) {
+        this.response = response;
+        this.timer = timer;
+        this.executor = executor;
+        this.admission = admission;
+        this.body = new CountingInputStream(response.asInputStream());
+    }
+
+    /**
+     * Gets the status code of the response.
+     *
+     * @return The status code.
+     */
+    public int getStatusCode() {
+        return response.getStatusCode();
+    }
+
+    /**
+     * Gets the status line of the response.
+     *
+     * @return The status line.
+     */
+    public String getStatusLine() {
+        return response.getStatusLine();
+    }
+
+    /**
+     * Gets the first value of a response header.
+     *
+     * @param name The name of the header, case-insensitive.
+     * @return The value, or null if the header is absent.
+     */
+    public String getHeader(String name) {
+        return response.getHeader(name);
+    }
+
+    /**
+     * Gets the headers of the response.
+     *
+     * @return The headers.
+     */
+    public Headers getHeaders() {
+        return response.getHeaders();
+    }
+
+    /**
+     * Gets the content type of the response.
+     *
+     * @return The Content-Type header, or an empty string if it is absent.
+     */
+    public String getContentType() {
+        return response.getContentType();
+    }
+
+    /**
+     * Starts RestAssured assertions on the response. Status and header assertions leave the body on the
+     * connection; body assertions read the whole body into memory and consume it.
+     *
+     * @return The validatable response.
+     */
+    public ValidatableResponse then() {
+        return response.then();
+    }
+
+    /**
+     * Gets the body as a stream read straight from the connection. Closing the stream releases the connection.
+     *
+     * @return The body stream.
+     * @throws IllegalStateException If the body has already been consumed.
+     */
+    public synchronized InputStream getBody() {
+        if (consumed)
+            throw new IllegalStateException("The body of a streaming response can only be consumed once");
+        consumed = true;
+        return body;
+    }
+
+    /**
+     * Gets the body as a channel read straight from the connection. Closing the channel releases the connection.
+     *
+     * @return The body channel.
+     * @throws IllegalStateException If the body has already been consumed.
+     */
+    public ReadableByteChannel getChannel() {
+        return Channels.newChannel(getBody());
+    }
+
+    /**
+     * Gets the body as a publisher of buffers of up to {@link #DEFAULT_CHUNK_SIZE} bytes, read on the request
+     * executor of the base. See {@link #toPublisher(int, Executor)}.
+     *
+     * @return The body publisher.
+     * @throws IllegalStateException If the body has already been consumed.
+     */
+    public Flow.Publisher<ByteBuffer> toPublisher() {
+        return toPublisher(DEFAULT_CHUNK_SIZE, executor);
+    }
+
+    /**
+     * Gets the body as a publisher of buffers. The publisher accepts a single subscriber and only reads from
+     * the connection when the subscriber has requested more buffers, so a slow subscriber slows the download
+     * down instead of filling the heap. Every buffer is a fresh buffer that the subscriber may keep. The
+     * response is closed, releasing the connection and the permits and reporting the request, when the body is
+     * complete, fails or the subscription is cancelled.
+     *
+     * @param chunkSize The largest size of the published buffers.
+     * @param executor  The executor reading the body and signalling the subscriber.
+     * @return The body publisher.
+     * @throws IllegalStateException If the body has already been consumed.
+     */
+    public Flow.Publisher<ByteBuffer> toPublisher(int chunkSize, Executor executor) {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("chunkSize must be positive, got " + chunkSize);
+        return new BodyPublisher(getBody(), this, chunkSize, executor);
+    }
+
+    /**
+     * Gets a JSON token reader over the body, for incremental parsing of large documents.
+     *
+     * @return The JSON reader. Closing it releases the connection.
+     * @throws IllegalStateException If the body has already been consumed.
+     * @see JSONUtils#newJsonReader(InputStream)
+     */
+    public JsonReader jsonReader() {
+        return JSONUtils.newJsonReader(getBody());
+    }
+
+    /**
+     * Parses the body as a JSON array one element at a time and passes each element to the given action,
+     * so that memory use is bounded by the largest element. The response is closed afterwards.
+     *
+     * @param action The action to perform on each element.
+     * @return The number of elements.
+     * @throws IllegalStateException If the body has already been consumed.
+     * @throws com.gbursali.utils.InvalidJSONException If the body is not a JSON array.
+     * @throws UncheckedIOException If the body cannot be read.
+     */
+    public long forEachElement(Consumer<JsonElement> action) {
+        try (JsonReader reader = jsonReader()) {
+            return JSONUtils.forEachArrayElement(reader, action);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Streaming response body can't be read", e);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Gets the number of body bytes read so far.
+     *
+     * @return The number of bytes.
+     */
+    public long getBytesRead() {
+        return body.count;
+    }
+
+    /**
+     * Closes the body and releases the connection and the rate limit permits of the request. The request is reported to the metrics listener of the base,
+     * with the number of body bytes read, on the first call.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            body.close();
+        } catch (IOException e) {
+            // Failing to close the body only affects connection reuse.
+        }
+        admission.release();
+        if (timer != null) {
+            timer.setResponseBytes(body.count);
+            timer.mark(RequestPhase.BODY_READ);
+            timer.finish(response, null);
+        }
+    }
+
+    /**
+     * A stream counting the bytes read through it.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private volatile long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = super.read(bytes, offset, length);
+            if (read > 0)
+                count += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.gbursali.endpoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A text with {@code {{name}}} placeholders, compiled once into literal segments and variable names.
+ * Rendering appends the segments and the bound values into a single pre-sized buffer, without searching
+ * the text or running regular expressions again. Instances are immutable and can be shared between threads.
+ * <pre>
+ * Template path = Template.compile("/users/{{id}}/orders");
+ * String resolved = path.render(Map.of("id", 42)); // "/users/42/orders"
+ * </pre>
+ */
+public final class Template {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String text;
+    private final String[] literals;
+    private final String[] variables;
+    private final boolean jsonEscaped;
+    private final int literalLength;
+
+    private Template(String text, String[] literals, String[] variables, boolean jsonEscaped) {
+        this.text = text;
+        this.literals = literals;
+        this.variables = variables;
+        this.jsonEscaped = jsonEscaped;
+        int length = 0;
+        for (String literal : literals)
+            length += literal.length();
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles a plain text template; bound values are inserted as they are.
+     *
+     * @param text The text with placeholders.
+     * @return The compiled template.
+     * @throws IllegalArgumentException If a placeholder has no name.
+     */
+    public static Template compile(String text) {
+        return compile(text, false);
+    }
+
+    /**
+     * Compiles a template of a JSON document whose placeholders all appear inside JSON strings;
+     * bound values are escaped as JSON string content.
+     *
+     * @param json The JSON text with placeholders.
+     * @return The compiled template.
+     * @throws IllegalArgumentException If a placeholder has no name.
+     */
+    public static Template compileJson(String json) {
+        return compile(json, true);
+    }
+
+    private static Template compile(String text, boolean jsonEscaped) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int position = 0;
+        int open;
+        while ((open = text.indexOf(OPEN, position)) >= 0) {
+            int close = text.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0)
+                break;
+            String name = text.substring(open + OPEN.length(), close).trim();
+            if (name.isEmpty())
+                throw new IllegalArgumentException("Template placeholder without a name at index " + open + ": " + text);
+            literals.add(text.substring(position, open));
+            variables.add(name);
+            position = close + CLOSE.length();
+        }
+        literals.add(text.substring(position));
+        return new Template(text, literals.toArray(new String[0]), variables.toArray(new String[0]), jsonEscaped);
+    }
+
+    /**
+     * Checks whether the template has no placeholders.
+     *
+     * @return True if rendering always yields the original text.
+     */
+    public boolean isConstant() {
+        return variables.length == 0;
+    }
+
+    /**
+     * Gets the names of the variables of the template.
+     *
+     * @return The unmodifiable set of variable names, in order of first appearance.
+     */
+    public Set<String> getVariables() {
+        Set<String> names = new LinkedHashSet<>();
+        Collections.addAll(names, variables);
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Gets the text the template was compiled from.
+     *
+     * @return The text, placeholders included.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Checks whether a text could have been rendered from this template with non-empty values that do not contain
+     * the given separator, such as a path whose placeholders each stand for one segment.
+     *
+     * @param text      The text to match.
+     * @param separator The character the bound values do not contain.
+     * @return True if the text matches the literal segments of the template.
+     */
+    public boolean matches(String text, char separator) {
+        if (variables.length == 0)
+            return this.text.equals(text);
+        return text.startsWith(literals[0]) && matches(text, separator, 0, literals[0].length());
+    }
+
+    /**
+     * Matches the value of a variable and the rest of the text, trying every end of the value before the next
+     * separator.
+     *
+     * @param text      The text to match.
+     * @param separator The character the bound values do not contain.
+     * @param variable  The index of the variable whose value starts at the position.
+     * @param position  The position of the value in the text.
+     * @return True if the rest of the text matches the template.
+     */
+    private boolean matches(String text, char separator, int variable, int position) {
+        String literal = literals[variable + 1];
+        int limit = text.indexOf(separator, position);
+        if (limit < 0)
+            limit = text.length();
+        for (int end = position + 1; end <= limit; end++) {
+            if (!text.startsWith(literal, end))
+                continue;
+            int next = end + literal.length();
+            if (variable + 1 == variables.length ? next == text.length() : matches(text, separator, variable + 1, next))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Renders the template with the given variables. Values are converted with {@link String#valueOf(Object)}.
+     *
+     * @param values The values of the variables.
+     * @return The rendered text.
+     * @throws IllegalArgumentException If a variable of the template has no value.
+     */
+    public String render(Map<String, ?> values) {
+        if (variables.length == 0)
+            return text;
+        StringBuilder builder = new StringBuilder(literalLength + variables.length * 16);
+        for (int i = 0; i < variables.length; i++) {
+            builder.append(literals[i]);
+            Object value = values.get(variables[i]);
+            if (value == null && !values.containsKey(variables[i]))
+                throw new IllegalArgumentException("No value bound for template variable '" + variables[i] + "'");
+            if (jsonEscaped)
+                appendJsonEscaped(builder, String.valueOf(value));
+            else
+                builder.append(value);
+        }
+        return builder.append(literals[variables.length]).toString();
+    }
+
+    /**
+     * Appends a value escaped as the content of a JSON string.
+     *
+     * @param builder The buffer to append to.
+     * @param value   The value to escape.
+     */
+    private static void appendJsonEscaped(StringBuilder builder, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                        builder.append(String.format("\\u%04x", (int) c));
+                    else
+                        builder.append(c);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
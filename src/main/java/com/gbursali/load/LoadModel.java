@@ -0,0 +1,21 @@
+package com.gbursali.load;
+
+/**
+ * Enumeration of the workload models a {@link LoadScenario} can run.
+ */
+public enum LoadModel {
+
+    /**
+     * Requests arrive at a constant rate regardless of how fast the target responds.
+     * Latency is measured from the time a request was scheduled to start, so queueing caused by a
+     * saturated target is part of the reported latency.
+     */
+    OPEN,
+
+    /**
+     * A fixed number of users each send a request, wait for the response and optionally think before
+     * sending the next one. Latency is the service time of each request; the arrival rate drops when the
+     * target slows down.
+     */
+    CLOSED
+}
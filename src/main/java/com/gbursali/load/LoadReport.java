@@ -0,0 +1,202 @@
+package com.gbursali.load;
+
+import com.gbursali.metrics.LatencyHistogram;
+import com.gbursali.metrics.RequestOutcome;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of a load test: latency distribution, throughput and outcome counts of the requests
+ * started during the measured duration.
+ */
+public class LoadReport {
+
+    private final LoadScenario scenario;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> definitionLatency = new LinkedHashMap<>();
+    private final Map<RequestOutcome, LongAdder> outcomes = new EnumMap<>(RequestOutcome.class);
+    private final LongAdder incomplete = new LongAdder();
+    private long elapsedNanos;
+
+    /**
+     * Constructs a new LoadReport.
+     *
+     * @param scenario The scenario that was run.
+     */
+    LoadReport(LoadScenario scenario) {
+        this.scenario = scenario;
+        for (String definition : scenario.getDefinitions().keySet())
+            definitionLatency.put(definition, new LatencyHistogram());
+        for (RequestOutcome outcome : RequestOutcome.values())
+            outcomes.put(outcome, new LongAdder());
+    }
+
+    /**
+     * Records a completed request.
+     *
+     * @param definition   The definition the request was made from.
+     * @param latencyNanos The latency of the request.
+     * @param outcome      The outcome of the request.
+     */
+    void record(String definition, long latencyNanos, RequestOutcome outcome) {
+        latency.record(latencyNanos);
+        definitionLatency.get(definition).record(latencyNanos);
+        outcomes.get(outcome).increment();
+    }
+
+    /**
+     * Records a request that had not completed when the test ended. Its latency is recorded as the
+     * time it had been waiting, a lower bound of its real latency.
+     *
+     * @param definition   The definition the request was made from.
+     * @param latencyNanos The time the request had been waiting.
+     */
+    void recordIncomplete(String definition, long latencyNanos) {
+        latency.record(latencyNanos);
+        definitionLatency.get(definition).record(latencyNanos);
+        incomplete.increment();
+    }
+
+    /**
+     * Sets the time the measured part of the test took, up to the completion of its last request.
+     *
+     * @param elapsedNanos The elapsed time.
+     */
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the scenario that was run.
+     *
+     * @return The scenario.
+     */
+    public LoadScenario getScenario() {
+        return scenario;
+    }
+
+    /**
+     * Gets the number of requests started during the measured duration.
+     *
+     * @return The request count, including incomplete requests.
+     */
+    public long getRequestCount() {
+        return latency.getCount();
+    }
+
+    /**
+     * Gets the number of completed requests with the given outcome.
+     *
+     * @param outcome The outcome.
+     * @return The number of requests.
+     */
+    public long getOutcomeCount(RequestOutcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+
+    /**
+     * Gets the number of requests that had not completed when the drain timeout passed.
+     *
+     * @return The number of incomplete requests.
+     */
+    public long getIncompleteCount() {
+        return incomplete.sum();
+    }
+
+    /**
+     * Gets the share of requests that failed with an HTTP error, a transport error or did not complete.
+     *
+     * @return The error rate, between 0 and 1.
+     */
+    public double getErrorRate() {
+        return share(getOutcomeCount(RequestOutcome.HTTP_ERROR) + getOutcomeCount(RequestOutcome.TRANSPORT_ERROR)
+                + getIncompleteCount());
+    }
+
+    /**
+     * Gets the share of requests whose response did not match the schema.
+     *
+     * @return The validation failure rate, between 0 and 1.
+     */
+    public double getValidationFailureRate() {
+        return share(getOutcomeCount(RequestOutcome.VALIDATION_FAILURE));
+    }
+
+    /**
+     * Gets the number of requests completed per second during the measured part of the test.
+     *
+     * @return The throughput in requests per second.
+     */
+    public double getThroughput() {
+        if (elapsedNanos <= 0)
+            return 0;
+        return (getRequestCount() - getIncompleteCount()) / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Gets the time the measured part of the test took, up to the completion of its last request.
+     *
+     * @return The elapsed time.
+     */
+    public Duration getElapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    /**
+     * Gets the latency distribution of all requests, in nanoseconds.
+     *
+     * @return The latency histogram.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Gets the latency distributions of every definition of the mix, in nanoseconds.
+     *
+     * @return The unmodifiable map of definition paths to latency histograms.
+     */
+    public Map<String, LatencyHistogram> getDefinitionLatency() {
+        return Collections.unmodifiableMap(definitionLatency);
+    }
+
+    /**
+     * Gets the latency at the given percentile.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The latency.
+     */
+    public Duration getLatencyAtPercentile(double percentile) {
+        return Duration.ofNanos(latency.getValueAtPercentile(percentile));
+    }
+
+    /**
+     * Gets a one-line summary with throughput, error rates and the p50, p90, p99 and p99.9 latencies.
+     *
+     * @return The summary.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s model: %d requests, %.1f req/s, errors %.2f%%, validation failures %.2f%%, "
+                        + "p50 %.3fms, p90 %.3fms, p99 %.3fms, p999 %.3fms, max %.3fms",
+                scenario.getModel(), getRequestCount(), getThroughput(),
+                getErrorRate() * 100, getValidationFailureRate() * 100,
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMax()));
+    }
+
+    private double share(long count) {
+        long total = getRequestCount();
+        return total == 0 ? 0 : (double) count / total;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
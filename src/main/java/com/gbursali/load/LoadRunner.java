@@ -0,0 +1,239 @@
+package com.gbursali.load;
+
+import com.gbursali.endpoint.Endpoint;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.metrics.RequestOutcome;
+import com.gbursali.utils.InvalidJSONException;
+import com.gbursali.utils.ThreadPools;
+import com.gbursali.utils.json_validator.JsonValidationException;
+import com.gbursali.utils.json_validator.ValidationMode;
+import io.restassured.response.Response;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a {@link LoadScenario} against an {@link EndpointBase}.
+ * <p>
+ * In the open model, request start times are fixed up front from the arrival rate, and latency is measured
+ * from the scheduled start rather than from the moment a thread picked the request up. When the target
+ * saturates, the time requests spend waiting is therefore part of their latency instead of silently
+ * lowering the send rate (coordinated omission).
+ * <pre>
+ * LoadReport report = LoadRunner.run(base, scenario);
+ * System.out.println(report);
+ * </pre>
+ */
+@SuppressWarnings("java:S1144")
+public class LoadRunner {
+
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Prevent instantiation of the utility class.
+     */
+    private LoadRunner() {
+    }
+
+    /**
+     * Runs a load test and waits for it to complete. Every definition of the mix is loaded once before
+     * the test starts, so malformed definitions fail fast and parsing is not part of the measurement.
+     * Since only the outcome of a request is reported, validation stops at the first error, unless the
+     * definition sets its own "max-validation-errors".
+     *
+     * @param base     The base to create the endpoints from.
+     * @param scenario The scenario to run.
+     * @return The report of the test.
+     * @throws IllegalArgumentException If the scenario has no definitions.
+     * @throws InvalidJSONException     If a definition cannot be loaded.
+     */
+    public static LoadReport run(EndpointBase base, LoadScenario scenario) {
+        if (scenario.getDefinitions().isEmpty())
+            throw new IllegalArgumentException("Load scenario has no definitions");
+        Set<String> ownModes = new HashSet<>();
+        for (String definition : scenario.getDefinitions().keySet())
+            if (base.getDefinition(Path.of(definition)).getValidationMode() != null)
+                ownModes.add(definition);
+
+        Mix mix = new Mix(scenario.getDefinitions());
+        LoadReport report = new LoadReport(scenario);
+        if (scenario.getModel() == LoadModel.OPEN)
+            runOpen(base, scenario, mix, ownModes, report);
+        else
+            runClosed(base, scenario, mix, ownModes, report);
+        return report;
+    }
+
+    /**
+     * Runs the open model: a single dispatcher submits requests at their scheduled start times.
+     */
+    private static void runOpen(EndpointBase base, LoadScenario scenario, Mix mix, Set<String> ownModes,
+                                LoadReport report) {
+        Executor executor = scenario.getExecutor() != null ? scenario.getExecutor() : base.getRequestExecutor();
+        Map<Long, Long> pending = new ConcurrentHashMap<>();
+        Map<Long, String> pendingDefinitions = new ConcurrentHashMap<>();
+        AtomicLong outstanding = new AtomicLong();
+        double intervalNanos = 1e9 / scenario.getRate();
+        long start = System.nanoTime();
+        long measureStart = start + scenario.getWarmup().toNanos();
+        long end = measureStart + scenario.getDuration().toNanos();
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + (long) (i * intervalNanos);
+            if (scheduled - end >= 0)
+                break;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0)
+                LockSupport.parkNanos(wait);
+            String definition = mix.next();
+            boolean measured = scheduled - measureStart >= 0;
+            Long id = i;
+            if (measured) {
+                pending.put(id, scheduled);
+                pendingDefinitions.put(id, definition);
+                outstanding.incrementAndGet();
+            }
+            try {
+                executor.execute(() -> {
+                    RequestOutcome outcome = send(base, definition, ownModes.contains(definition));
+                    long latency = System.nanoTime() - scheduled;
+                    if (measured)
+                        complete(pending, pendingDefinitions, outstanding, id, report, latency, outcome);
+                });
+            } catch (RejectedExecutionException e) {
+                if (measured)
+                    complete(pending, pendingDefinitions, outstanding, id, report, System.nanoTime() - scheduled,
+                            RequestOutcome.TRANSPORT_ERROR);
+            }
+        }
+
+        long drainDeadline = System.nanoTime() + scenario.getDrainTimeout().toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() - drainDeadline < 0)
+            LockSupport.parkNanos(DRAIN_POLL_NANOS);
+        long now = System.nanoTime();
+        for (Long id : new ArrayList<>(pending.keySet())) {
+            Long scheduled = pending.remove(id);
+            if (scheduled != null)
+                report.recordIncomplete(pendingDefinitions.remove(id), now - scheduled);
+        }
+        report.setElapsedNanos(now - measureStart);
+    }
+
+    /**
+     * Records a completed open-model request, unless the drain timeout already reported it as incomplete.
+     */
+    private static void complete(Map<Long, Long> pending, Map<Long, String> pendingDefinitions, AtomicLong outstanding,
+                                 Long id, LoadReport report, long latency, RequestOutcome outcome) {
+        try {
+            if (pending.remove(id) != null)
+                report.record(pendingDefinitions.remove(id), latency, outcome);
+        } finally {
+            outstanding.decrementAndGet();
+        }
+    }
+
+    /**
+     * Runs the closed model: every user sends its next request once the previous one has completed.
+     */
+    private static void runClosed(EndpointBase base, LoadScenario scenario, Mix mix, Set<String> ownModes,
+                                  LoadReport report) {
+        ExecutorService users = Executors.newFixedThreadPool(scenario.getUsers(),
+                ThreadPools.daemonThreadFactory("load-user"));
+        long start = System.nanoTime();
+        long measureStart = start + scenario.getWarmup().toNanos();
+        long end = measureStart + scenario.getDuration().toNanos();
+        long thinkNanos = scenario.getThinkTime().toNanos();
+
+        for (int user = 0; user < scenario.getUsers(); user++) {
+            users.execute(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    long begin = System.nanoTime();
+                    if (begin - end >= 0)
+                        return;
+                    String definition = mix.next();
+                    RequestOutcome outcome = send(base, definition, ownModes.contains(definition));
+                    if (begin - measureStart >= 0)
+                        report.record(definition, System.nanoTime() - begin, outcome);
+                    if (thinkNanos > 0)
+                        LockSupport.parkNanos(thinkNanos);
+                }
+            });
+        }
+        users.shutdown();
+        try {
+            long timeout = end - System.nanoTime() + scenario.getDrainTimeout().toNanos();
+            if (!users.awaitTermination(Math.max(0, timeout), TimeUnit.NANOSECONDS))
+                users.shutdownNow();
+        } catch (InterruptedException e) {
+            users.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        report.setElapsedNanos(System.nanoTime() - measureStart);
+    }
+
+    /**
+     * Sends a request made from a definition and classifies its outcome. Only the outcome is reported,
+     * so validation stops at the first error unless the definition sets its own validation mode.
+     *
+     * @param base       The base to create the endpoint from.
+     * @param definition The definition path.
+     * @param ownMode    Whether the definition sets its own validation mode, which is then kept.
+     * @return The outcome of the request.
+     */
+    private static RequestOutcome send(EndpointBase base, String definition, boolean ownMode) {
+        try {
+            Endpoint endpoint = base.makeWithJson(definition);
+            if (!ownMode)
+                endpoint.withValidationMode(ValidationMode.failFast());
+            Response response = endpoint.send();
+            return response.getStatusCode() >= 400 ? RequestOutcome.HTTP_ERROR : RequestOutcome.SUCCESS;
+        } catch (JsonValidationException e) {
+            return RequestOutcome.VALIDATION_FAILURE;
+        } catch (RuntimeException e) {
+            return RequestOutcome.TRANSPORT_ERROR;
+        }
+    }
+
+    /**
+     * Picks definitions at random, proportionally to their weights.
+     */
+    private static final class Mix {
+
+        private final String[] definitions;
+        private final long[] cumulativeWeights;
+
+        Mix(Map<String, Integer> weights) {
+            List<String> names = new ArrayList<>(weights.keySet());
+            definitions = names.toArray(new String[0]);
+            cumulativeWeights = new long[definitions.length];
+            long total = 0;
+            for (int i = 0; i < definitions.length; i++) {
+                total += weights.get(definitions[i]);
+                cumulativeWeights[i] = total;
+            }
+        }
+
+        String next() {
+            if (definitions.length == 1)
+                return definitions[0];
+            long pick = ThreadLocalRandom.current().nextLong(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++)
+                if (pick < cumulativeWeights[i])
+                    return definitions[i];
+            return definitions[definitions.length - 1];
+        }
+    }
+}
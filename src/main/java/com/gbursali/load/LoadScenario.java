@@ -0,0 +1,233 @@
+package com.gbursali.load;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Description of a load test: the workload model, its duration and the weighted mix of JSON endpoint
+ * definitions to send. Instances are immutable; every {@code with...} method returns a new instance.
+ * <pre>
+ * LoadScenario scenario = LoadScenario.openModel(200, Duration.ofMinutes(1))
+ *         .withWarmup(Duration.ofSeconds(10))
+ *         .withDefinition("users/list.json", 3)
+ *         .withDefinition("users/get.json", 1);
+ * </pre>
+ */
+public class LoadScenario {
+
+    private static final Duration DEFAULT_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadModel model;
+    private final double rate;
+    private final int users;
+    private final Duration duration;
+    private final Duration warmup;
+    private final Duration thinkTime;
+    private final Duration drainTimeout;
+    private final Map<String, Integer> definitions;
+    private final ExecutorService executor;
+
+    private LoadScenario(LoadModel model, double rate, int users, Duration duration, Duration warmup,
+                         Duration thinkTime, Duration drainTimeout, Map<String, Integer> definitions,
+                         ExecutorService executor) {
+        this.model = model;
+        this.rate = rate;
+        this.users = users;
+        this.duration = duration;
+        this.warmup = warmup;
+        this.thinkTime = thinkTime;
+        this.drainTimeout = drainTimeout;
+        this.definitions = definitions;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates an open-model scenario: requests start at a constant rate, whether or not earlier
+     * requests have completed.
+     *
+     * @param requestsPerSecond The arrival rate.
+     * @param duration          The measured duration of the test.
+     * @return The created LoadScenario.
+     */
+    public static LoadScenario openModel(double requestsPerSecond, Duration duration) {
+        if (!(requestsPerSecond > 0) || Double.isInfinite(requestsPerSecond))
+            throw new IllegalArgumentException("requestsPerSecond must be positive, got " + requestsPerSecond);
+        return new LoadScenario(LoadModel.OPEN, requestsPerSecond, 0, requirePositive(duration, "duration"),
+                Duration.ZERO, Duration.ZERO, DEFAULT_DRAIN_TIMEOUT, Collections.emptyMap(), null);
+    }
+
+    /**
+     * Creates a closed-model scenario: a fixed number of users send requests one after another.
+     *
+     * @param users    The number of concurrent users.
+     * @param duration The measured duration of the test.
+     * @return The created LoadScenario.
+     */
+    public static LoadScenario closedModel(int users, Duration duration) {
+        if (users < 1)
+            throw new IllegalArgumentException("users must be positive, got " + users);
+        return new LoadScenario(LoadModel.CLOSED, 0, users, requirePositive(duration, "duration"),
+                Duration.ZERO, Duration.ZERO, DEFAULT_DRAIN_TIMEOUT, Collections.emptyMap(), null);
+    }
+
+    /**
+     * Adds a JSON endpoint definition to the mix. Each request picks a definition at random,
+     * proportionally to its weight.
+     *
+     * @param jsonPath The path of the definition, relative to the JSON base path of the base.
+     * @param weight   The relative weight of the definition.
+     * @return The updated LoadScenario instance.
+     */
+    public LoadScenario withDefinition(String jsonPath, int weight) {
+        if (weight < 1)
+            throw new IllegalArgumentException("weight must be positive, got " + weight);
+        Map<String, Integer> mix = new LinkedHashMap<>(definitions);
+        mix.merge(jsonPath, weight, Integer::sum);
+        return new LoadScenario(model, rate, users, duration, warmup, thinkTime, drainTimeout,
+                Collections.unmodifiableMap(mix), executor);
+    }
+
+    /**
+     * Sets a warm-up period run before the measured duration. Requests started during the warm-up
+     * are sent at the same rate but not reported.
+     *
+     * @param warmup The warm-up period.
+     * @return The updated LoadScenario instance.
+     */
+    public LoadScenario withWarmup(Duration warmup) {
+        return new LoadScenario(model, rate, users, duration, requireNotNegative(warmup, "warmup"), thinkTime,
+                drainTimeout, definitions, executor);
+    }
+
+    /**
+     * Sets the pause each user takes between receiving a response and sending the next request.
+     * Only used by the closed model.
+     *
+     * @param thinkTime The think time.
+     * @return The updated LoadScenario instance.
+     */
+    public LoadScenario withThinkTime(Duration thinkTime) {
+        return new LoadScenario(model, rate, users, duration, warmup, requireNotNegative(thinkTime, "thinkTime"),
+                drainTimeout, definitions, executor);
+    }
+
+    /**
+     * Sets how long to wait for requests still in flight once the duration has passed.
+     * Requests that have not completed by then are reported as incomplete.
+     *
+     * @param drainTimeout The drain timeout.
+     * @return The updated LoadScenario instance.
+     */
+    public LoadScenario withDrainTimeout(Duration drainTimeout) {
+        return new LoadScenario(model, rate, users, duration, warmup, thinkTime,
+                requireNotNegative(drainTimeout, "drainTimeout"), definitions, executor);
+    }
+
+    /**
+     * Sets the executor running the requests of the open model. The executor is not shut down after the test.
+     * Its capacity bounds the requests in flight; requests waiting for a thread are still measured from
+     * their scheduled start.
+     *
+     * @param executor The executor to use.
+     * @return The updated LoadScenario instance.
+     */
+    public LoadScenario withExecutor(ExecutorService executor) {
+        return new LoadScenario(model, rate, users, duration, warmup, thinkTime, drainTimeout, definitions, executor);
+    }
+
+    /**
+     * Gets the workload model.
+     *
+     * @return The model.
+     */
+    public LoadModel getModel() {
+        return model;
+    }
+
+    /**
+     * Gets the arrival rate of the open model.
+     *
+     * @return The requests per second, or 0 for the closed model.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * Gets the number of users of the closed model.
+     *
+     * @return The number of users, or 0 for the open model.
+     */
+    public int getUsers() {
+        return users;
+    }
+
+    /**
+     * Gets the measured duration of the test.
+     *
+     * @return The duration.
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the warm-up period.
+     *
+     * @return The warm-up period.
+     */
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    /**
+     * Gets the think time of the closed model.
+     *
+     * @return The think time.
+     */
+    public Duration getThinkTime() {
+        return thinkTime;
+    }
+
+    /**
+     * Gets the drain timeout.
+     *
+     * @return The drain timeout.
+     */
+    public Duration getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    /**
+     * Gets the definitions of the mix with their weights, in the order they were added.
+     *
+     * @return The unmodifiable map of definition paths to weights.
+     */
+    public Map<String, Integer> getDefinitions() {
+        return definitions;
+    }
+
+    /**
+     * Gets the executor running the requests of the open model.
+     *
+     * @return The executor, or null to use the request executor of the base.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    private static Duration requirePositive(Duration value, String name) {
+        if (value.isZero() || value.isNegative())
+            throw new IllegalArgumentException(name + " must be positive, got " + value);
+        return value;
+    }
+
+    private static Duration requireNotNegative(Duration value, String name) {
+        if (value.isNegative())
+            throw new IllegalArgumentException(name + " must not be negative, got " + value);
+        return value;
+    }
+}
@@ -0,0 +1,119 @@
+package com.gbursali.metrics;
+
+import com.gbursali.utils.MethodType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated measurements of all requests sent to one endpoint, identified by method and path.
+ */
+public class EndpointMetrics {
+
+    private final MethodType method;
+    private final String path;
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final Map<RequestPhase, LatencyHistogram> phases = new EnumMap<>(RequestPhase.class);
+    private final Map<RequestOutcome, LongAdder> outcomes = new EnumMap<>(RequestOutcome.class);
+    private final LongAdder requestBytes = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+
+    /**
+     * Constructs a new EndpointMetrics.
+     *
+     * @param method The HTTP method of the endpoint.
+     * @param path   The path of the endpoint.
+     */
+    EndpointMetrics(MethodType method, String path) {
+        this.method = method;
+        this.path = path;
+        for (RequestPhase phase : RequestPhase.values())
+            phases.put(phase, new LatencyHistogram());
+        for (RequestOutcome outcome : RequestOutcome.values())
+            outcomes.put(outcome, new LongAdder());
+    }
+
+    /**
+     * Adds the measurements of a request.
+     *
+     * @param metrics The measurements of the request.
+     */
+    void record(RequestMetrics metrics) {
+        total.record(metrics.getTotalNanos());
+        for (RequestPhase phase : RequestPhase.values()) {
+            long nanos = metrics.getPhaseNanos(phase);
+            if (nanos > 0)
+                phases.get(phase).record(nanos);
+        }
+        outcomes.get(metrics.getOutcome()).increment();
+        requestBytes.add(metrics.getRequestBytes());
+        responseBytes.add(metrics.getResponseBytes());
+    }
+
+    /**
+     * Gets the HTTP method of the endpoint.
+     *
+     * @return The HTTP method.
+     */
+    public MethodType getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the path of the endpoint.
+     *
+     * @return The path.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the histogram of total request durations, in nanoseconds.
+     *
+     * @return The total latency histogram.
+     */
+    public LatencyHistogram getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the histogram of the durations of one phase, in nanoseconds.
+     * Requests that skipped the phase are not counted.
+     *
+     * @param phase The phase.
+     * @return The phase latency histogram.
+     */
+    public LatencyHistogram getPhase(RequestPhase phase) {
+        return phases.get(phase);
+    }
+
+    /**
+     * Gets the number of requests that ended with the given outcome.
+     *
+     * @param outcome The outcome.
+     * @return The number of requests.
+     */
+    public long getOutcomeCount(RequestOutcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+
+    /**
+     * Gets the total size of all request bodies sent.
+     *
+     * @return The size in bytes.
+     */
+    public long getRequestBytes() {
+        return requestBytes.sum();
+    }
+
+    /**
+     * Gets the total size of all response bodies received.
+     *
+     * @return The size in bytes.
+     */
+    public long getResponseBytes() {
+        return responseBytes.sum();
+    }
+}
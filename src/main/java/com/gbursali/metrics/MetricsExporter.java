@@ -0,0 +1,130 @@
+package com.gbursali.metrics;
+
+import com.gbursali.utils.JSONUtils;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Writes snapshots of a {@link MetricsRecorder} as JSON or CSV files. Latencies are written in microseconds.
+ */
+@SuppressWarnings("java:S1144")
+public class MetricsExporter {
+
+    private static final String TOTAL = "TOTAL";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    /**
+     * Prevent instantiation of the utility class.
+     */
+    private MetricsExporter() {
+    }
+
+    /**
+     * Writes a JSON snapshot of the recorder, one entry per endpoint with its outcome counts,
+     * payload sizes and per-phase latency percentiles.
+     *
+     * @param recorder The recorder to export.
+     * @param file     The file to write.
+     * @throws UncheckedIOException If the file cannot be written.
+     */
+    public static void writeJson(MetricsRecorder recorder, Path file) {
+        JsonArray endpoints = new JsonArray();
+        for (EndpointMetrics metrics : recorder.getEndpoints()) {
+            JsonObject endpoint = new JsonObject();
+            endpoint.addProperty("method", metrics.getMethod().toString());
+            endpoint.addProperty("path", metrics.getPath());
+            endpoint.addProperty("requests", metrics.getTotal().getCount());
+            JsonObject outcomes = new JsonObject();
+            for (RequestOutcome outcome : RequestOutcome.values())
+                outcomes.addProperty(outcome.toString(), metrics.getOutcomeCount(outcome));
+            endpoint.add("outcomes", outcomes);
+            endpoint.addProperty("requestBytes", metrics.getRequestBytes());
+            endpoint.addProperty("responseBytes", metrics.getResponseBytes());
+            JsonObject latency = new JsonObject();
+            latency.add(TOTAL, toJson(metrics.getTotal()));
+            for (RequestPhase phase : RequestPhase.values())
+                latency.add(phase.toString(), toJson(metrics.getPhase(phase)));
+            endpoint.add("latencyMicros", latency);
+            endpoints.add(endpoint);
+        }
+        JsonObject snapshot = new JsonObject();
+        snapshot.addProperty("timestamp", Instant.now().toString());
+        snapshot.add("endpoints", endpoints);
+        write(file, JSONUtils.stringify(snapshot));
+    }
+
+    /**
+     * Writes a CSV snapshot of the recorder, one row per endpoint and phase.
+     *
+     * @param recorder The recorder to export.
+     * @param file     The file to write.
+     * @throws UncheckedIOException If the file cannot be written.
+     */
+    public static void writeCsv(MetricsRecorder recorder, Path file) {
+        StringBuilder csv = new StringBuilder("method,path,phase,count,min_us,mean_us");
+        for (String name : PERCENTILE_NAMES)
+            csv.append(',').append(name).append("_us");
+        csv.append(",max_us\n");
+        for (EndpointMetrics metrics : recorder.getEndpoints()) {
+            appendRow(csv, metrics, TOTAL, metrics.getTotal());
+            for (RequestPhase phase : RequestPhase.values())
+                appendRow(csv, metrics, phase.toString(), metrics.getPhase(phase));
+        }
+        write(file, csv.toString());
+    }
+
+    private static JsonObject toJson(LatencyHistogram histogram) {
+        JsonObject json = new JsonObject();
+        json.addProperty("count", histogram.getCount());
+        json.addProperty("min", micros(histogram.getMin()));
+        json.addProperty("mean", histogram.getMean() / 1000.0);
+        for (int i = 0; i < PERCENTILES.length; i++)
+            json.addProperty(PERCENTILE_NAMES[i], micros(histogram.getValueAtPercentile(PERCENTILES[i])));
+        json.addProperty("max", micros(histogram.getMax()));
+        return json;
+    }
+
+    private static void appendRow(StringBuilder csv, EndpointMetrics metrics, String phase, LatencyHistogram histogram) {
+        csv.append(metrics.getMethod()).append(',')
+                .append(quote(metrics.getPath())).append(',')
+                .append(phase).append(',')
+                .append(histogram.getCount()).append(',')
+                .append(micros(histogram.getMin())).append(',')
+                .append(histogram.getMean() / 1000.0);
+        for (double percentile : PERCENTILES)
+            csv.append(',').append(micros(histogram.getValueAtPercentile(percentile)));
+        csv.append(',').append(micros(histogram.getMax())).append('\n');
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void write(Path file, String content) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null)
+                Files.createDirectories(parent);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write(content);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Metrics can't be written to " + file, e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.gbursali.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Listener aggregating request measurements into latency histograms per endpoint method and path.
+ * Requests made from a templated definition are reported under the path of the definition, with its placeholders,
+ * so the number of histograms is bounded by the number of endpoints rather than by the values sent.
+ * <pre>
+ * MetricsRecorder recorder = new MetricsRecorder();
+ * EndpointBase base = EndpointBase.builder("https://api.example.com").withMetricsListener(recorder);
+ * // ... run the suite ...
+ * MetricsExporter.writeJson(recorder, Path.of("target", "metrics.json"));
+ * </pre>
+ */
+public class MetricsRecorder implements RequestMetricsListener {
+
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public void onRequest(RequestMetrics metrics) {
+        endpoints.computeIfAbsent(metrics.getMethod() + " " + metrics.getPath(),
+                        key -> new EndpointMetrics(metrics.getMethod(), metrics.getPath()))
+                .record(metrics);
+    }
+
+    /**
+     * Gets the aggregated measurements of every endpoint, sorted by path and method.
+     *
+     * @return The list of endpoint measurements.
+     */
+    public List<EndpointMetrics> getEndpoints() {
+        List<EndpointMetrics> result = new ArrayList<>(endpoints.values());
+        result.sort(Comparator.comparing(EndpointMetrics::getPath).thenComparing(EndpointMetrics::getMethod));
+        return result;
+    }
+
+    /**
+     * Removes all aggregated measurements.
+     */
+    public void reset() {
+        endpoints.clear();
+    }
+}
@@ -0,0 +1,116 @@
+package com.gbursali.metrics;
+
+import com.gbursali.utils.MethodType;
+
+/**
+ * Measurements of a single request. Instances are immutable.
+ */
+public class RequestMetrics {
+
+    private final MethodType method;
+    private final String path;
+    private final long[] phaseNanos;
+    private final long requestBytes;
+    private final long responseBytes;
+    private final int statusCode;
+    private final RequestOutcome outcome;
+
+    /**
+     * Constructs a new RequestMetrics.
+     *
+     * @param method        The HTTP method of the request.
+     * @param path          The path of the endpoint.
+     * @param phaseNanos    The duration of each {@link RequestPhase}, indexed by ordinal. The array is not copied.
+     * @param requestBytes  The size of the request body.
+     * @param responseBytes The size of the response body.
+     * @param statusCode    The HTTP status code, or 0 if no response was received.
+     * @param outcome       The outcome of the request.
+     */
+    public RequestMetrics(MethodType method, String path, long[] phaseNanos, long requestBytes, long responseBytes,
+                          int statusCode, RequestOutcome outcome) {
+        this.method = method;
+        this.path = path;
+        this.phaseNanos = phaseNanos;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+        this.statusCode = statusCode;
+        this.outcome = outcome;
+    }
+
+    /**
+     * Gets the HTTP method of the request.
+     *
+     * @return The HTTP method.
+     */
+    public MethodType getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the path of the endpoint.
+     *
+     * @return The path; for an endpoint made from a templated definition, the path of the definition
+     * with its placeholders.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the duration of a phase of the request.
+     *
+     * @param phase The phase.
+     * @return The duration in nanoseconds, or 0 if the phase did not run.
+     */
+    public long getPhaseNanos(RequestPhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Gets the total duration of the request, the sum of all phases.
+     *
+     * @return The duration in nanoseconds.
+     */
+    public long getTotalNanos() {
+        long total = 0;
+        for (long nanos : phaseNanos)
+            total += nanos;
+        return total;
+    }
+
+    /**
+     * Gets the size of the request body.
+     *
+     * @return The size in bytes.
+     */
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+
+    /**
+     * Gets the size of the response body.
+     *
+     * @return The size in bytes, or 0 if no response was received.
+     */
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * Gets the HTTP status code of the response.
+     *
+     * @return The status code, or 0 if no response was received.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets the outcome of the request.
+     *
+     * @return The outcome.
+     */
+    public RequestOutcome getOutcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,16 @@
+package com.gbursali.metrics;
+
+/**
+ * Receives the measurements of every request sent through an {@link com.gbursali.endpoint.EndpointBase}.
+ * Implementations are called on the thread that completed the request and must be thread-safe.
+ */
+@FunctionalInterface
+public interface RequestMetricsListener {
+
+    /**
+     * Called once a request has completed, successfully or not.
+     *
+     * @param metrics The measurements of the request.
+     */
+    void onRequest(RequestMetrics metrics);
+}
@@ -0,0 +1,27 @@
+package com.gbursali.metrics;
+
+/**
+ * Enumeration of the possible outcomes of a request.
+ */
+public enum RequestOutcome {
+
+    /**
+     * A response with a status below 400 was received and passed validation.
+     */
+    SUCCESS,
+
+    /**
+     * A response with a status of 400 or above was received.
+     */
+    HTTP_ERROR,
+
+    /**
+     * A response was received but did not match the schema.
+     */
+    VALIDATION_FAILURE,
+
+    /**
+     * No response was received.
+     */
+    TRANSPORT_ERROR
+}
@@ -0,0 +1,38 @@
+package com.gbursali.metrics;
+
+/**
+ * Enumeration of the timed phases of a request sent through an endpoint.
+ */
+public enum RequestPhase {
+
+    /**
+     * Reading and parsing the JSON definition the endpoint was created from.
+     * Reported with the first request of the endpoint only.
+     */
+    DEFINITION_LOAD,
+
+    /**
+     * Waiting for the rate limiters of the endpoint and its host.
+     */
+    RATE_LIMIT,
+
+    /**
+     * Building the request specification from the base and the endpoint.
+     */
+    REQUEST_BUILD,
+
+    /**
+     * Connecting, sending the request and receiving the response headers.
+     */
+    EXCHANGE,
+
+    /**
+     * Reading the remaining response body into memory.
+     */
+    BODY_READ,
+
+    /**
+     * Validating the response body against the schema.
+     */
+    VALIDATION
+}
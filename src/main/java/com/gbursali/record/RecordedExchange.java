@@ -0,0 +1,158 @@
+package com.gbursali.record;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A request and the response it received, as written to a traffic log by a {@link TrafficRecorder}.
+ * Instances are immutable; the byte arrays are not copied.
+ */
+public class RecordedExchange {
+
+    private final long timestamp;
+    private final long durationNanos;
+    private final String method;
+    private final String baseURL;
+    private final String path;
+    private final String query;
+    private final byte[] requestBody;
+    private final int statusCode;
+    private final Map<String, String> headers;
+    private final byte[] responseBody;
+
+    /**
+     * Constructs a new RecordedExchange.
+     *
+     * @param timestamp     The time the request was sent, in milliseconds since the epoch.
+     * @param durationNanos The time the exchange took.
+     * @param method        The HTTP method of the request.
+     * @param baseURL       The base URL the request was sent to.
+     * @param path          The path of the endpoint, relative to the base URL.
+     * @param query         The parameters of the request as a sorted {@code name=value&...} string, or null.
+     * @param requestBody   The request body, or null if there was none or it was streamed from a file.
+     * @param statusCode    The HTTP status code of the response.
+     * @param headers       The response headers, with the first value of every header.
+     * @param responseBody  The response body.
+     */
+    public RecordedExchange(long timestamp, long durationNanos, String method, String baseURL, String path,
+                            String query, byte[] requestBody, int statusCode, Map<String, String> headers,
+                            byte[] responseBody) {
+        this.timestamp = timestamp;
+        this.durationNanos = durationNanos;
+        this.method = method;
+        this.baseURL = baseURL;
+        this.path = path;
+        this.query = query;
+        this.requestBody = requestBody;
+        this.statusCode = statusCode;
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+        this.responseBody = responseBody;
+    }
+
+    /**
+     * Gets the time the request was sent.
+     *
+     * @return The timestamp.
+     */
+    public Instant getTimestamp() {
+        return Instant.ofEpochMilli(timestamp);
+    }
+
+    /**
+     * Gets the time the request was sent, in milliseconds since the epoch.
+     *
+     * @return The timestamp in milliseconds.
+     */
+    public long getTimestampMillis() {
+        return timestamp;
+    }
+
+    /**
+     * Gets the time the exchange took, from sending the request to reading the whole response.
+     *
+     * @return The duration in nanoseconds.
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Gets the HTTP method of the request.
+     *
+     * @return The HTTP method.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the base URL the request was sent to.
+     *
+     * @return The base URL.
+     */
+    public String getBaseURL() {
+        return baseURL;
+    }
+
+    /**
+     * Gets the path of the endpoint, relative to the base URL.
+     *
+     * @return The path.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the parameters of the request.
+     *
+     * @return The sorted {@code name=value&...} string, or null if the request had no parameters.
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Gets the body of the request.
+     *
+     * @return The request body, or null if there was none or it was streamed from a file.
+     */
+    public byte[] getRequestBody() {
+        return requestBody;
+    }
+
+    /**
+     * Gets the HTTP status code of the response.
+     *
+     * @return The status code.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets the headers of the response.
+     *
+     * @return The unmodifiable map of headers to their first value.
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Gets the body of the response.
+     *
+     * @return The response body.
+     */
+    public byte[] getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public String toString() {
+        return "RecordedExchange{" + method + ' ' + path + (query == null ? "" : '?' + query)
+                + ", status=" + statusCode + ", timestamp=" + getTimestamp() + '}';
+    }
+}
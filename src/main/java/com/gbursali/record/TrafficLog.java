@@ -0,0 +1,319 @@
+package com.gbursali.record;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The on-disk format of traffic logs, shared by the {@link TrafficRecorder} and the {@link TrafficReplayer}.
+ * <p>
+ * A log starts with a {@value #LOG_MAGIC} header, followed by frames. Every frame is a batch of records, deflated
+ * together and prefixed by its raw length, compressed length and record count, all big-endian ints.
+ * The index file, next to the log with an {@value #INDEX_SUFFIX} suffix, starts with a {@value #INDEX_MAGIC}
+ * header followed by one entry per record: the length-prefixed endpoint key, the timestamp, the offset of the
+ * frame in the log, the position of the record in the frame and its match hash. Index entries are written after
+ * their frame, so they never point past the end of the log.
+ */
+@SuppressWarnings("java:S1144")
+final class TrafficLog {
+
+    /**
+     * Magic header of a traffic log, with the format version.
+     */
+    static final String LOG_MAGIC = "RALOG1";
+
+    /**
+     * Magic header of a traffic log index, with the format version.
+     */
+    static final String INDEX_MAGIC = "RAIDX1";
+
+    /**
+     * Suffix of the index file of a log.
+     */
+    static final String INDEX_SUFFIX = ".idx";
+
+    /**
+     * Length of the header of a frame: raw length, compressed length and record count.
+     */
+    static final int FRAME_HEADER_LENGTH = 12;
+
+    /**
+     * Length of an index entry after its key: timestamp, frame offset, position and match hash.
+     */
+    static final int INDEX_ENTRY_FIXED_LENGTH = 24;
+
+    /**
+     * Prevent instantiation of the utility class.
+     */
+    private TrafficLog() {
+    }
+
+    /**
+     * Gets the index file of a log.
+     *
+     * @param log The log file.
+     * @return The index file.
+     */
+    static Path indexOf(Path log) {
+        return log.resolveSibling(log.getFileName() + INDEX_SUFFIX);
+    }
+
+    /**
+     * Builds the key under which the records of an endpoint are indexed.
+     *
+     * @param method The HTTP method.
+     * @param path   The path, without query.
+     * @return The key.
+     */
+    static String endpointKey(String method, String path) {
+        return method.toUpperCase(Locale.ROOT) + ' ' + path;
+    }
+
+    /**
+     * Hashes the parameters and body of a request, to tell apart the records of an endpoint.
+     *
+     * @param query The sorted parameters, or null.
+     * @param body  The request body, or null.
+     * @return The hash; a missing body or query hashes as an empty one.
+     */
+    static int matchHash(String query, byte[] body) {
+        return 31 * (query == null ? "" : query).hashCode() + (body == null ? 1 : Arrays.hashCode(body));
+    }
+
+    /**
+     * Decodes and sorts a raw query string into the form recorded by {@link TrafficRecorder}.
+     *
+     * @param rawQuery The URL-encoded query string, or null.
+     * @return The sorted {@code name=value&...} string, or null if the query is empty.
+     */
+    static String normalizeQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty())
+            return null;
+        List<String> pairs = new ArrayList<>();
+        for (String pair : rawQuery.split("&"))
+            if (!pair.isEmpty())
+                pairs.add(URLDecoder.decode(pair, StandardCharsets.UTF_8));
+        if (pairs.isEmpty())
+            return null;
+        pairs.sort(null);
+        return String.join("&", pairs);
+    }
+
+    /**
+     * Encodes a record.
+     *
+     * @param out    The output.
+     * @param record The record.
+     * @throws IOException If the output fails.
+     */
+    static void writeRecord(DataOutput out, RecordedExchange record) throws IOException {
+        out.writeLong(record.getTimestampMillis());
+        out.writeLong(record.getDurationNanos());
+        writeString(out, record.getMethod());
+        writeString(out, record.getBaseURL());
+        writeString(out, record.getPath());
+        writeString(out, record.getQuery());
+        writeBytes(out, record.getRequestBody());
+        out.writeInt(record.getStatusCode());
+        out.writeInt(record.getHeaders().size());
+        for (Map.Entry<String, String> header : record.getHeaders().entrySet()) {
+            writeString(out, header.getKey());
+            writeString(out, header.getValue());
+        }
+        writeBytes(out, record.getResponseBody());
+    }
+
+    /**
+     * Decodes a record.
+     *
+     * @param in The input.
+     * @return The record.
+     * @throws IOException If the input is truncated.
+     */
+    static RecordedExchange readRecord(DataInput in) throws IOException {
+        long timestamp = in.readLong();
+        long durationNanos = in.readLong();
+        String method = readString(in);
+        String baseURL = readString(in);
+        String path = readString(in);
+        String query = readString(in);
+        byte[] requestBody = readBytes(in);
+        int status = in.readInt();
+        int headerCount = in.readInt();
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++)
+            headers.put(readString(in), readString(in));
+        byte[] responseBody = readBytes(in);
+        return new RecordedExchange(timestamp, durationNanos, method, baseURL, path, query, requestBody, status,
+                headers, responseBody == null ? new byte[0] : responseBody);
+    }
+
+    /**
+     * Encodes an index entry.
+     *
+     * @param out         The output.
+     * @param key         The endpoint key.
+     * @param timestamp   The timestamp of the record, in milliseconds since the epoch.
+     * @param frameOffset The offset of the frame in the log.
+     * @param position    The position of the record in the frame.
+     * @param matchHash   The match hash of the record.
+     * @throws IOException If the output fails.
+     */
+    static void writeIndexEntry(DataOutput out, String key, long timestamp, long frameOffset, int position,
+                                int matchHash) throws IOException {
+        writeString(out, key);
+        out.writeLong(timestamp);
+        out.writeLong(frameOffset);
+        out.writeInt(position);
+        out.writeInt(matchHash);
+    }
+
+    /**
+     * Finds the end of the last complete frame of a log, so that a frame cut short by a crash can be dropped.
+     *
+     * @param log The channel of the log.
+     * @return The offset after the last complete frame.
+     * @throws IOException If the log cannot be read.
+     */
+    static long validLogLength(FileChannel log) throws IOException {
+        long size = log.size();
+        long offset = LOG_MAGIC.length();
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_LENGTH);
+        while (size - offset >= FRAME_HEADER_LENGTH) {
+            header.clear();
+            while (header.hasRemaining() && log.read(header, offset + header.position()) > 0) {
+                // Read the whole frame header.
+            }
+            int compressed = header.getInt(4);
+            if (compressed < 0 || size - offset - FRAME_HEADER_LENGTH < compressed)
+                break;
+            offset += FRAME_HEADER_LENGTH + compressed;
+        }
+        return offset;
+    }
+
+    /**
+     * Finds the end of the last complete entry of an index, so that an entry cut short by a crash can be dropped.
+     *
+     * @param index The channel of the index.
+     * @return The offset after the last complete entry.
+     * @throws IOException If the index cannot be read.
+     */
+    static long validIndexLength(FileChannel index) throws IOException {
+        long offset = INDEX_MAGIC.length();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(index.position(offset)), 1 << 16));
+        try {
+            while (true) {
+                int keyLength = in.readInt();
+                if (keyLength < 0)
+                    break;
+                in.readFully(new byte[keyLength + INDEX_ENTRY_FIXED_LENGTH]);
+                offset += 4 + keyLength + INDEX_ENTRY_FIXED_LENGTH;
+            }
+        } catch (EOFException e) {
+            // The last complete entry is reached.
+        }
+        return offset;
+    }
+
+    /**
+     * Writes the whole buffer to a channel.
+     *
+     * @param channel The channel.
+     * @param buffer  The buffer.
+     * @throws IOException If the write fails.
+     */
+    static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Checks the magic header of a file, writing it if the file is empty.
+     *
+     * @param channel The channel of the file, opened for reading and writing.
+     * @param magic   The expected header.
+     * @param file    The file, for error messages.
+     * @throws IOException If the file cannot be read or written.
+     */
+    static void checkOrWriteHeader(FileChannel channel, String magic, Path file) throws IOException {
+        byte[] expected = magic.getBytes(StandardCharsets.US_ASCII);
+        if (channel.size() == 0) {
+            writeFully(channel, ByteBuffer.wrap(expected));
+            return;
+        }
+        ByteBuffer actual = ByteBuffer.allocate(expected.length);
+        while (actual.hasRemaining() && channel.read(actual, actual.position()) > 0) {
+            // Read the whole header.
+        }
+        if (!Arrays.equals(expected, actual.array()))
+            throw new UncheckedIOException(new IOException("Not a traffic log of this version: " + file));
+    }
+
+    /**
+     * Encodes a frame from the raw bytes of its records.
+     *
+     * @param raw              The encoded records.
+     * @param count            The number of records.
+     * @param compressed       The buffer holding the deflated records.
+     * @param compressedLength The length of the deflated records.
+     * @return The frame, ready to be written.
+     */
+    static ByteBuffer frame(ByteArrayOutputStream raw, int count, byte[] compressed, int compressedLength) {
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_LENGTH + compressedLength);
+        frame.putInt(raw.size()).putInt(compressedLength).putInt(count).put(compressed, 0, compressedLength);
+        return frame.flip();
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a length-prefixed UTF-8 string.
+     *
+     * @param in The input.
+     * @return The string, or null if a null string was written.
+     * @throws IOException If the input is truncated.
+     */
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutput out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
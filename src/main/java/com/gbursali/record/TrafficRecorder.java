@@ -0,0 +1,373 @@
+package com.gbursali.record;
+
+import com.gbursali.utils.ThreadPools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * Appends every request and response sent through an {@link com.gbursali.endpoint.EndpointBase} to a compressed
+ * traffic log, so that a run can be inspected or replayed offline with a {@link TrafficReplayer}.
+ * <p>
+ * Recording only hands the exchange to a queue; a background thread encodes the queued exchanges in batches,
+ * deflates every batch as one frame and appends it to the log, then appends the index entries of its records.
+ * When the queue is full, recording waits for the writer rather than dropping exchanges.
+ * <pre>
+ * try (TrafficRecorder recorder = TrafficRecorder.open(Path.of("run.ralog"))) {
+ *     EndpointBase base = EndpointBase.builder(url).withTrafficRecorder(recorder);
+ *     base.makeWithPath("/items").send();
+ * }
+ * </pre>
+ * Opening an existing log appends to it; a frame cut short by a crash is dropped first.
+ */
+public final class TrafficRecorder implements AutoCloseable {
+
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int MAX_BATCH_RECORDS = 512;
+    private static final int MAX_BATCH_BYTES = 1 << 20;
+    private static final Object CLOSE = new Object();
+
+    private final Path log;
+    private final FileChannel logChannel;
+    private final FileChannel indexChannel;
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long frames;
+    private volatile long bytesWritten;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    private TrafficRecorder(Path log, FileChannel logChannel, FileChannel indexChannel) {
+        this.log = log;
+        this.logChannel = logChannel;
+        this.indexChannel = indexChannel;
+        this.writer = ThreadPools.daemonThreadFactory("ra-requester-recorder").newThread(this::writeLoop);
+        writer.start();
+    }
+
+    /**
+     * Opens a traffic log for appending, creating it and its index if they do not exist.
+     *
+     * @param log The log file. The index is written next to it, with an {@code .idx} suffix.
+     * @return The started TrafficRecorder.
+     * @throws UncheckedIOException If the log or its index cannot be opened, or is not a traffic log.
+     */
+    public static TrafficRecorder open(Path log) {
+        FileChannel logChannel = null;
+        try {
+            logChannel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            TrafficLog.checkOrWriteHeader(logChannel, TrafficLog.LOG_MAGIC, log);
+            logChannel.truncate(TrafficLog.validLogLength(logChannel));
+            logChannel.position(logChannel.size());
+
+            Path index = TrafficLog.indexOf(log);
+            FileChannel indexChannel = FileChannel.open(index, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                TrafficLog.checkOrWriteHeader(indexChannel, TrafficLog.INDEX_MAGIC, index);
+                indexChannel.truncate(TrafficLog.validIndexLength(indexChannel));
+                indexChannel.position(indexChannel.size());
+            } catch (IOException | RuntimeException e) {
+                indexChannel.close();
+                throw e;
+            }
+            return new TrafficRecorder(log, logChannel, indexChannel);
+        } catch (IOException e) {
+            closeQuietly(logChannel);
+            throw new UncheckedIOException("Traffic log can't be opened: " + log, e);
+        } catch (RuntimeException e) {
+            closeQuietly(logChannel);
+            throw e;
+        }
+    }
+
+    /**
+     * Queues an exchange to be written. Returns as soon as the exchange is queued.
+     * Exchanges recorded after {@link #close()} or a write failure, or while the thread is interrupted, are dropped.
+     *
+     * @param exchange The exchange.
+     */
+    public void record(RecordedExchange exchange) {
+        if (closed || failure != null) {
+            dropped.increment();
+            return;
+        }
+        try {
+            queue.put(exchange);
+        } catch (InterruptedException e) {
+            dropped.increment();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until every exchange recorded so far is written to the log and its index.
+     *
+     * @throws UncheckedIOException If writing failed.
+     */
+    public void flush() {
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        if (!closed && failure == null) {
+            try {
+                queue.put(written);
+                written.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (CompletionException e) {
+                // The writer stopped; the failure is reported below.
+            }
+        }
+        throwIfFailed();
+    }
+
+    /**
+     * Gets the log file.
+     *
+     * @return The log file.
+     */
+    public Path getLog() {
+        return log;
+    }
+
+    /**
+     * Gets the number of exchanges written to the log.
+     *
+     * @return The recorded count.
+     */
+    public long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    /**
+     * Gets the number of exchanges that were not written, because the recorder was closed or failed.
+     *
+     * @return The dropped count.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Gets the number of frames, each holding a batch of exchanges, written to the log.
+     *
+     * @return The frame count.
+     */
+    public long getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * Gets the number of compressed bytes appended to the log.
+     *
+     * @return The bytes written.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Writes the pending exchanges and closes the log.
+     *
+     * @throws UncheckedIOException If writing or closing failed.
+     */
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        boolean interrupted = false;
+        boolean queued = false;
+        while (true) {
+            try {
+                if (!queued) {
+                    queue.put(CLOSE);
+                    queued = true;
+                }
+                writer.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        try {
+            logChannel.close();
+            indexChannel.close();
+        } catch (IOException e) {
+            if (failure == null)
+                failure = e;
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        throwIfFailed();
+    }
+
+    /**
+     * Takes batches of exchanges off the queue and writes them until the recorder is closed.
+     * After a failure the queue is still drained, so that recording and flushing never wait on a writer that
+     * stopped writing; the exchanges taken off it are counted as dropped.
+     */
+    private void writeLoop() {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(1 << 16);
+        DataOutputStream rawOut = new DataOutputStream(raw);
+        ByteArrayOutputStream index = new ByteArrayOutputStream(1 << 12);
+        DataOutputStream indexOut = new DataOutputStream(index);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        List<RecordedExchange> batch = new ArrayList<>();
+        List<CompletableFuture<Void>> flushes = new ArrayList<>();
+        try {
+            boolean running = true;
+            while (running) {
+                Object item = queue.take();
+                while (item != null) {
+                    if (item == CLOSE) {
+                        running = false;
+                        break;
+                    }
+                    if (item instanceof CompletableFuture) {
+                        @SuppressWarnings("unchecked")
+                        CompletableFuture<Void> flush = (CompletableFuture<Void>) item;
+                        flushes.add(flush);
+                        break;
+                    }
+                    batch.add((RecordedExchange) item);
+                    if (batch.size() >= MAX_BATCH_RECORDS)
+                        break;
+                    item = queue.poll();
+                }
+                if (!batch.isEmpty()) {
+                    if (failure == null)
+                        writeBatches(batch, raw, rawOut, index, indexOut, deflater);
+                    else
+                        dropped.add(batch.size());
+                    batch.clear();
+                }
+                flushes.forEach(flush -> flush.complete(null));
+                flushes.clear();
+            }
+        } catch (InterruptedException e) {
+            failure = new IOException("The recorder thread was interrupted", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            deflater.end();
+            // Later exchanges have no writer; release anyone waiting on the queue.
+            Object item;
+            while ((item = queue.poll()) != null)
+                if (item instanceof CompletableFuture)
+                    ((CompletableFuture<?>) item).complete(null);
+                else if (item instanceof RecordedExchange)
+                    dropped.increment();
+            flushes.forEach(flush -> flush.complete(null));
+        }
+    }
+
+    /**
+     * Encodes the exchanges taken off the queue and writes them as frames of at most {@value #MAX_BATCH_BYTES}
+     * raw bytes each. The first failure is kept, and the exchanges not written yet are counted as dropped.
+     *
+     * @param batch    The exchanges.
+     * @param raw      The buffer for the encoded exchanges.
+     * @param rawOut   The output over the raw buffer.
+     * @param index    The buffer for the index entries.
+     * @param indexOut The output over the index buffer.
+     * @param deflater The deflater, reset after use.
+     */
+    private void writeBatches(List<RecordedExchange> batch, ByteArrayOutputStream raw, DataOutputStream rawOut,
+                              ByteArrayOutputStream index, DataOutputStream indexOut, Deflater deflater) {
+        int start = 0;
+        try {
+            while (start < batch.size()) {
+                raw.reset();
+                int end = start;
+                while (end < batch.size() && (end == start || raw.size() < MAX_BATCH_BYTES))
+                    TrafficLog.writeRecord(rawOut, batch.get(end++));
+                writeBatch(batch.subList(start, end), raw, index, indexOut, deflater);
+                start = end;
+            }
+        } catch (IOException e) {
+            failure = e;
+            dropped.add(batch.size() - (long) start);
+        } catch (RuntimeException e) {
+            failure = new IOException("Traffic log record can't be encoded", e);
+            dropped.add(batch.size() - (long) start);
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    /**
+     * Deflates a batch into a frame, appends it to the log, then appends the index entries of its records.
+     *
+     * @param batch    The exchanges of the batch.
+     * @param raw      The encoded exchanges.
+     * @param index    The buffer for the index entries.
+     * @param indexOut The output over the index buffer.
+     * @param deflater The deflater, reset after use.
+     * @throws IOException If the log or index cannot be written.
+     */
+    private void writeBatch(List<RecordedExchange> batch, ByteArrayOutputStream raw, ByteArrayOutputStream index,
+                            DataOutputStream indexOut, Deflater deflater) throws IOException {
+        byte[] input = raw.toByteArray();
+        byte[] compressed = new byte[input.length + input.length / 1000 + 64];
+        deflater.setInput(input);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length)
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+        deflater.reset();
+
+        long frameOffset = logChannel.position();
+        ByteBuffer frame = TrafficLog.frame(raw, batch.size(), compressed, compressedLength);
+        TrafficLog.writeFully(logChannel, frame);
+
+        index.reset();
+        for (int i = 0; i < batch.size(); i++) {
+            RecordedExchange exchange = batch.get(i);
+            TrafficLog.writeIndexEntry(indexOut, TrafficLog.endpointKey(exchange.getMethod(), exchange.getPath()),
+                    exchange.getTimestampMillis(), frameOffset, i,
+                    TrafficLog.matchHash(exchange.getQuery(), exchange.getRequestBody()));
+        }
+        TrafficLog.writeFully(indexChannel, ByteBuffer.wrap(index.toByteArray()));
+
+        recorded.add(batch.size());
+        frames++;
+        bytesWritten += frame.limit();
+    }
+
+    /**
+     * Rethrows the failure of the writer, if any.
+     */
+    private void throwIfFailed() {
+        IOException e = failure;
+        if (e != null)
+            throw new UncheckedIOException("Traffic log can't be written: " + log, e);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null)
+            return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // The open failure is reported instead.
+        }
+    }
+}
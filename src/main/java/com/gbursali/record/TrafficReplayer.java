@@ -0,0 +1,416 @@
+package com.gbursali.record;
+
+import com.gbursali.stub.StubRequest;
+import com.gbursali.stub.StubResponder;
+import com.gbursali.stub.StubResponse;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Serves the responses of a traffic log written by a {@link TrafficRecorder}, so that a recorded run can be
+ * replayed offline through a {@link com.gbursali.stub.StubServer}:
+ * <pre>
+ * try (StubServer server = StubServer.fromRecording(Path.of("run.ralog")).start()) {
+ *     server.getBase().makeWithPath("/items").send();
+ * }
+ * </pre>
+ * Requests are matched on method and path, then on their parameters and body. When an endpoint was recorded
+ * several times, its recorded responses are served in turn, in recording order.
+ * <p>
+ * The log is memory-mapped and only its index is read up front; frames are inflated on first use and kept in a
+ * bounded cache, so replay serves requests at memory speed. Frames the index does not cover, such as those written
+ * just before a crash, are indexed by scanning them. Logs are limited to 2 GiB.
+ */
+public final class TrafficReplayer implements StubResponder {
+
+    private static final long DEFAULT_CACHE_BYTES = 256L << 20;
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "content-encoding", "content-length", "date", "keep-alive", "transfer-encoding");
+
+    private final Path log;
+    private final ByteBuffer mapping;
+    private final Map<String, Route> routes;
+    private final int size;
+    private final long cacheBytes;
+    private final Map<Long, Frame> frames = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    private TrafficReplayer(Path log, ByteBuffer mapping, Map<String, Route> routes, int size, long cacheBytes,
+                            Map<Long, Frame> scannedFrames) {
+        this.log = log;
+        this.mapping = mapping;
+        this.routes = routes;
+        this.size = size;
+        this.cacheBytes = cacheBytes;
+        scannedFrames.forEach(this::cache);
+    }
+
+    /**
+     * Maps a traffic log and reads its index, caching up to 256 MiB of inflated frames.
+     *
+     * @param log The log file. Its index is read from next to it, with an {@code .idx} suffix, if it exists.
+     * @return The TrafficReplayer.
+     * @throws UncheckedIOException     If the log cannot be read, or is not a traffic log.
+     * @throws IllegalArgumentException If the log is larger than 2 GiB.
+     */
+    public static TrafficReplayer open(Path log) {
+        return open(log, DEFAULT_CACHE_BYTES);
+    }
+
+    /**
+     * Maps a traffic log and reads its index. Replay is fastest when the inflated frames of the requests being
+     * replayed fit in the cache; a cache as large as the inflated log never inflates a frame twice.
+     *
+     * @param log        The log file. Its index is read from next to it, with an {@code .idx} suffix, if it exists.
+     * @param cacheBytes The number of inflated bytes to keep cached.
+     * @return The TrafficReplayer.
+     * @throws UncheckedIOException     If the log cannot be read, or is not a traffic log.
+     * @throws IllegalArgumentException If the log is larger than 2 GiB, or the cache size is negative.
+     */
+    public static TrafficReplayer open(Path log, long cacheBytes) {
+        if (cacheBytes < 0)
+            throw new IllegalArgumentException("cacheBytes must not be negative, got " + cacheBytes);
+        ByteBuffer mapping;
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Memory-mapped traffic logs are limited to 2 GiB: " + log);
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Traffic log can't be read: " + log, e);
+        }
+        byte[] magic = TrafficLog.LOG_MAGIC.getBytes(StandardCharsets.US_ASCII);
+        byte[] header = new byte[Math.min(magic.length, mapping.limit())];
+        mapping.duplicate().get(header);
+        if (!TrafficLog.LOG_MAGIC.equals(new String(header, StandardCharsets.US_ASCII)))
+            throw new UncheckedIOException(new IOException("Not a traffic log of this version: " + log));
+
+        List<Entry> entries = new ArrayList<>();
+        Set<Long> indexedFrames = new HashSet<>();
+        Path index = TrafficLog.indexOf(log);
+        if (Files.isRegularFile(index))
+            readIndex(index, mapping.limit(), entries, indexedFrames);
+        Map<Long, Frame> scannedFrames = new HashMap<>();
+        int offset = TrafficLog.LOG_MAGIC.length();
+        while (mapping.limit() - offset >= TrafficLog.FRAME_HEADER_LENGTH) {
+            int compressed = mapping.getInt(offset + 4);
+            if (compressed < 0 || mapping.limit() - offset - TrafficLog.FRAME_HEADER_LENGTH < compressed)
+                break;
+            if (!indexedFrames.contains((long) offset)) {
+                Frame frame = decode(log, mapping, offset);
+                scannedFrames.put((long) offset, frame);
+                RecordedExchange[] exchanges = frame.exchanges;
+                for (int i = 0; i < exchanges.length; i++)
+                    entries.add(new Entry(TrafficLog.endpointKey(exchanges[i].getMethod(), exchanges[i].getPath()),
+                            exchanges[i].getTimestampMillis(), offset, i,
+                            TrafficLog.matchHash(exchanges[i].getQuery(), exchanges[i].getRequestBody())));
+            }
+            offset += TrafficLog.FRAME_HEADER_LENGTH + compressed;
+        }
+
+        entries.sort(Comparator.comparingLong((Entry entry) -> entry.frameOffset).thenComparingInt(entry -> entry.position));
+        Map<String, List<Entry>> byKey = new LinkedHashMap<>();
+        for (Entry entry : entries)
+            byKey.computeIfAbsent(entry.key, key -> new ArrayList<>()).add(entry);
+        Map<String, Route> routes = new HashMap<>();
+        byKey.forEach((key, list) -> routes.put(key, new Route(list)));
+        return new TrafficReplayer(log, mapping, Collections.unmodifiableMap(routes), entries.size(), cacheBytes,
+                scannedFrames);
+    }
+
+    /**
+     * Gets the log file.
+     *
+     * @return The log file.
+     */
+    public Path getLog() {
+        return log;
+    }
+
+    /**
+     * Gets the number of recorded exchanges.
+     *
+     * @return The number of exchanges.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the recorded endpoints.
+     *
+     * @return The unmodifiable set of endpoints, as {@code METHOD path}.
+     */
+    public Set<String> getEndpoints() {
+        return routes.keySet();
+    }
+
+    /**
+     * Finds the exchanges of an endpoint recorded within a time range, using the index.
+     *
+     * @param method The HTTP method.
+     * @param path   The path of the endpoint.
+     * @param from   The start of the range, inclusive.
+     * @param to     The end of the range, inclusive.
+     * @return The exchanges, ordered by timestamp.
+     * @throws UncheckedIOException If a frame of the log is corrupt.
+     */
+    public List<RecordedExchange> find(String method, String path, Instant from, Instant to) {
+        Route route = routes.get(TrafficLog.endpointKey(method, path));
+        if (route == null)
+            return Collections.emptyList();
+        long start = from.toEpochMilli();
+        long end = to.toEpochMilli();
+        Entry[] byTime = route.byTime;
+        int low = 0;
+        int high = byTime.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (byTime[middle].timestamp < start)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        List<RecordedExchange> result = new ArrayList<>();
+        for (int i = low; i < byTime.length && byTime[i].timestamp <= end; i++)
+            result.add(frame(byTime[i].frameOffset).exchanges[byTime[i].position]);
+        return result;
+    }
+
+    @Override
+    public StubResponse respond(StubRequest request) {
+        Route route = routes.get(TrafficLog.endpointKey(request.getMethod(), request.getPath()));
+        if (route == null)
+            return StubResponse.json(404, "{\"error\":\"No recorded response for "
+                    + request.getMethod() + " " + request.getPath() + "\"}");
+        Candidates candidates = route.byHash.get(
+                TrafficLog.matchHash(TrafficLog.normalizeQuery(request.getQuery()), request.getBody()));
+        Entry entry = (candidates != null ? candidates : route.all).next();
+        return frame(entry.frameOffset).responses[entry.position];
+    }
+
+    /**
+     * Gets a frame of the log, inflating it unless it is cached.
+     *
+     * @param offset The offset of the frame.
+     * @return The frame.
+     * @throws UncheckedIOException If the frame is corrupt.
+     */
+    private Frame frame(long offset) {
+        Frame frame = frames.get(offset);
+        return frame != null ? frame : cache(offset, decode(log, mapping, (int) offset));
+    }
+
+    /**
+     * Caches an inflated frame, evicting other frames to stay within the cache size.
+     * The most recent frame is always kept, even if it is larger than the cache.
+     *
+     * @param offset The offset of the frame.
+     * @param frame  The frame.
+     * @return The cached frame, which is another instance if a concurrent caller cached it first.
+     */
+    private Frame cache(long offset, Frame frame) {
+        Frame previous = frames.putIfAbsent(offset, frame);
+        if (previous != null)
+            return previous;
+        long total = cachedBytes.addAndGet(frame.bytes);
+        Iterator<Map.Entry<Long, Frame>> evicted = frames.entrySet().iterator();
+        while (total > cacheBytes && evicted.hasNext()) {
+            Map.Entry<Long, Frame> entry = evicted.next();
+            if (entry.getKey() != offset && frames.remove(entry.getKey(), entry.getValue()))
+                total = cachedBytes.addAndGet(-entry.getValue().bytes);
+        }
+        return frame;
+    }
+
+    /**
+     * Inflates and decodes a frame of the log.
+     *
+     * @param log     The log file, for error messages.
+     * @param mapping The mapping of the log.
+     * @param offset  The offset of the frame.
+     * @return The frame.
+     * @throws UncheckedIOException If the frame is corrupt.
+     */
+    private static Frame decode(Path log, ByteBuffer mapping, int offset) {
+        int rawLength = mapping.getInt(offset);
+        int compressedLength = mapping.getInt(offset + 4);
+        int count = mapping.getInt(offset + 8);
+        ByteBuffer compressed = mapping.duplicate();
+        compressed.position(offset + TrafficLog.FRAME_HEADER_LENGTH).limit(offset + TrafficLog.FRAME_HEADER_LENGTH + compressedLength);
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < rawLength) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput()))
+                    break;
+                length += inflated;
+            }
+            if (length != rawLength)
+                throw new IOException("Frame at " + offset + " is truncated");
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+            RecordedExchange[] exchanges = new RecordedExchange[count];
+            StubResponse[] responses = new StubResponse[count];
+            for (int i = 0; i < count; i++) {
+                exchanges[i] = TrafficLog.readRecord(in);
+                responses[i] = toStubResponse(exchanges[i]);
+            }
+            return new Frame(exchanges, responses, rawLength);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Traffic log is corrupt: " + log, e);
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException("Traffic log is corrupt: " + log, new IOException(e));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Builds the response replaying a recorded exchange. Headers describing the original connection and encoding
+     * are left to the stub server, as the recorded body is already decoded.
+     *
+     * @param exchange The recorded exchange.
+     * @return The response.
+     */
+    private static StubResponse toStubResponse(RecordedExchange exchange) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        exchange.getHeaders().forEach((name, value) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT)))
+                headers.put(name, value);
+        });
+        return new StubResponse(exchange.getStatusCode(), headers, exchange.getResponseBody());
+    }
+
+    /**
+     * Reads the entries of an index, stopping at an entry cut short by a crash.
+     *
+     * @param index         The index file.
+     * @param logLength     The length of the log; entries pointing past it are ignored.
+     * @param entries       The list receiving the entries.
+     * @param indexedFrames The set receiving the offsets of the indexed frames.
+     * @throws UncheckedIOException If the index cannot be read, or is not a traffic log index.
+     */
+    private static void readIndex(Path index, long logLength, List<Entry> entries, Set<Long> indexedFrames) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index), 1 << 16))) {
+            byte[] magic = new byte[TrafficLog.INDEX_MAGIC.length()];
+            in.readFully(magic);
+            if (!TrafficLog.INDEX_MAGIC.equals(new String(magic, StandardCharsets.US_ASCII)))
+                throw new UncheckedIOException(new IOException("Not a traffic log index of this version: " + index));
+            while (true) {
+                String key = TrafficLog.readString(in);
+                long timestamp = in.readLong();
+                long frameOffset = in.readLong();
+                int position = in.readInt();
+                int matchHash = in.readInt();
+                if (key == null || frameOffset + TrafficLog.FRAME_HEADER_LENGTH > logLength)
+                    break;
+                entries.add(new Entry(key, timestamp, frameOffset, position, matchHash));
+                indexedFrames.add(frameOffset);
+            }
+        } catch (EOFException e) {
+            // The last complete entry is reached.
+        } catch (IOException e) {
+            throw new UncheckedIOException("Traffic log index can't be read: " + index, e);
+        }
+    }
+
+    /**
+     * An index entry, locating a record in the log.
+     */
+    private static final class Entry {
+        private final String key;
+        private final long timestamp;
+        private final long frameOffset;
+        private final int position;
+        private final int matchHash;
+
+        Entry(String key, long timestamp, long frameOffset, int position, int matchHash) {
+            this.key = key;
+            this.timestamp = timestamp;
+            this.frameOffset = frameOffset;
+            this.position = position;
+            this.matchHash = matchHash;
+        }
+    }
+
+    /**
+     * The records of an endpoint, in recording order overall and per request, and by timestamp.
+     */
+    private static final class Route {
+        private final Candidates all;
+        private final Map<Integer, Candidates> byHash = new HashMap<>();
+        private final Entry[] byTime;
+
+        Route(List<Entry> entries) {
+            this.all = new Candidates(entries);
+            Map<Integer, List<Entry>> groups = new HashMap<>();
+            for (Entry entry : entries)
+                groups.computeIfAbsent(entry.matchHash, hash -> new ArrayList<>()).add(entry);
+            groups.forEach((hash, group) -> byHash.put(hash, new Candidates(group)));
+            this.byTime = entries.toArray(new Entry[0]);
+            Arrays.sort(byTime, Comparator.comparingLong(entry -> entry.timestamp));
+        }
+    }
+
+    /**
+     * Records served in turn.
+     */
+    private static final class Candidates {
+        private final Entry[] entries;
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        Candidates(List<Entry> entries) {
+            this.entries = entries.toArray(new Entry[0]);
+        }
+
+        Entry next() {
+            return entries[Math.floorMod(cursor.getAndIncrement(), entries.length)];
+        }
+    }
+
+    /**
+     * The decoded records of a frame, with the responses replaying them.
+     */
+    private static final class Frame {
+        private final RecordedExchange[] exchanges;
+        private final StubResponse[] responses;
+        private final long bytes;
+
+        Frame(RecordedExchange[] exchanges, StubResponse[] responses, long bytes) {
+            this.exchanges = exchanges;
+            this.responses = responses;
+            this.bytes = bytes;
+        }
+    }
+}
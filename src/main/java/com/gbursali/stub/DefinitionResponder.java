@@ -0,0 +1,157 @@
+package com.gbursali.stub;
+
+import com.gbursali.endpoint.DefinitionCache;
+import com.gbursali.endpoint.EndpointDefinition;
+import com.gbursali.endpoint.Template;
+import com.gbursali.utils.InvalidJSONException;
+import com.gbursali.utils.JSONUtils;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves the canned responses declared in a tree of JSON endpoint definitions.
+ * A definition opts in with a "stub-response" block next to its "settings":
+ * <pre>
+ * "stub-response": {
+ *   "status": 200,
+ *   "headers": {"X-Trace": "stub"},
+ *   "body": {"id": 1}
+ * }
+ * </pre>
+ * Instead of "body", a "file" attribute can point to a file holding the body, resolved against the tree root.
+ * Requests are matched on method and path; a {@code {{name}}} placeholder of a definition path matches any single
+ * path segment, and definitions without placeholders take precedence. Unmatched requests get a 404 response.
+ */
+@SuppressWarnings("java:S1144")
+public class DefinitionResponder implements StubResponder {
+
+    private final Map<String, StubResponse> routes;
+    private final List<TemplatedRoute> templatedRoutes;
+
+    private DefinitionResponder(Map<String, StubResponse> routes, List<TemplatedRoute> templatedRoutes) {
+        this.routes = routes;
+        this.templatedRoutes = templatedRoutes;
+    }
+
+    /**
+     * Loads the stub responses of every definition under the given directory. The definitions are read through a
+     * {@link DefinitionCache#preload(Path) preload}, so they are parsed exactly as endpoints made from them are.
+     *
+     * @param root The root directory of the definition tree.
+     * @return The created DefinitionResponder.
+     * @throws InvalidJSONException If the directory or a definition under it cannot be loaded, or a "stub-response"
+     *                              block is invalid. JSON files that are not endpoint definitions, such as response
+     *                              bodies, are ignored.
+     */
+    public static DefinitionResponder fromDirectory(Path root) {
+        DefinitionCache definitions = new DefinitionCache();
+        definitions.preload(root).throwIfFailed();
+
+        Map<String, StubResponse> routes = new HashMap<>();
+        List<TemplatedRoute> templatedRoutes = new ArrayList<>();
+        for (EndpointDefinition definition : definitions.getPreloaded()) {
+            if (definition.getStubResponse() == null)
+                continue;
+            String method = definition.getType().toString();
+            String path = definition.getPath() != null ? definition.getPath() : "/";
+            StubResponse response = readResponse(root, definition.getStubResponse());
+            Template template = Template.compile(path);
+            if (template.isConstant())
+                routes.put(routeKey(method, path), response);
+            else
+                templatedRoutes.add(new TemplatedRoute(method, template, response));
+        }
+        templatedRoutes.sort(Comparator.comparing(route -> route.path.getText()));
+        return new DefinitionResponder(routes, templatedRoutes);
+    }
+
+    /**
+     * Gets the number of routes served.
+     *
+     * @return The number of definitions with a stub response.
+     */
+    public int size() {
+        return routes.size() + templatedRoutes.size();
+    }
+
+    @Override
+    public StubResponse respond(StubRequest request) {
+        StubResponse response = routes.get(routeKey(request.getMethod(), request.getPath()));
+        if (response != null)
+            return response;
+        for (TemplatedRoute route : templatedRoutes)
+            if (route.method.equalsIgnoreCase(request.getMethod()) && route.path.matches(request.getPath(), '/'))
+                return route.response;
+        return StubResponse.json(404, "{\"error\":\"No stub response defined for "
+                + request.getMethod() + " " + request.getPath() + "\"}");
+    }
+
+    /**
+     * Reads a "stub-response" block.
+     *
+     * @param root  The root directory of the definition tree.
+     * @param block The "stub-response" block.
+     * @return The canned response.
+     */
+    private static StubResponse readResponse(Path root, JsonObject block) {
+        int status = block.has("status") ? block.get("status").getAsInt() : 200;
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", "application/json");
+        if (block.has("headers"))
+            headers.putAll(JSONUtils.objToStringMap(block.getAsJsonObject("headers")));
+
+        byte[] body = new byte[0];
+        if (block.has("file")) {
+            Path bodyFile = Path.of(block.get("file").getAsString());
+            if (!bodyFile.isAbsolute() && Files.exists(root.resolve(bodyFile)))
+                bodyFile = root.resolve(bodyFile);
+            try {
+                body = Files.readAllBytes(bodyFile);
+            } catch (IOException e) {
+                throw new InvalidJSONException("Stub response body can't be read", bodyFile);
+            }
+        } else if (block.has("body")) {
+            JsonElement element = block.get("body");
+            String text = element.isJsonPrimitive() ? element.getAsString() : JSONUtils.stringify(element);
+            body = text.getBytes(StandardCharsets.UTF_8);
+        }
+        return new StubResponse(status, headers, body);
+    }
+
+    private static String routeKey(String method, String path) {
+        return method.toUpperCase() + " " + path;
+    }
+
+    /**
+     * A route whose path holds placeholders.
+     */
+    private static final class TemplatedRoute {
+        private final String method;
+        private final Template path;
+        private final StubResponse response;
+
+        /**
+         * Constructs a new TemplatedRoute.
+         *
+         * @param method   The method of the route.
+         * @param path     The path of the route, with its placeholders.
+         * @param response The response served on the route.
+         */
+        private TemplatedRoute(String method, Template path, StubResponse response) {
+            this.method = method;
+            this.path = path;
+            this.response = response;
+        }
+    }
+}
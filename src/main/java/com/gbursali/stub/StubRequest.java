@@ -0,0 +1,103 @@
+package com.gbursali.stub;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A request received by a {@link StubServer}.
+ */
+public class StubRequest {
+
+    private final String method;
+    private final String path;
+    private final String query;
+    private final byte[] body;
+    private final Map<String, String> headers;
+
+    /**
+     * Constructs a new StubRequest without headers.
+     *
+     * @param method The HTTP method of the request.
+     * @param path   The path of the request.
+     * @param query  The raw query string, or null if there is none.
+     * @param body   The request body.
+     */
+    public StubRequest(String method, String path, String query, byte[] body) {
+        this(method, path, query, body, Collections.emptyMap());
+    }
+
+    /**
+     * Constructs a new StubRequest.
+     *
+     * @param method  The HTTP method of the request.
+     * @param path    The path of the request.
+     * @param query   The raw query string, or null if there is none.
+     * @param body    The request body.
+     * @param headers The request headers, with the first value of every header.
+     */
+    public StubRequest(String method, String path, String query, byte[] body, Map<String, String> headers) {
+        this.method = method;
+        this.path = path;
+        this.query = query;
+        this.body = body;
+        Map<String, String> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        copy.putAll(headers);
+        this.headers = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Gets the HTTP method of the request.
+     *
+     * @return The HTTP method.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the path of the request.
+     *
+     * @return The path.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the raw query string of the request.
+     *
+     * @return The query string, or null if there is none.
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Gets the body of the request.
+     *
+     * @return The request body.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Gets a header of the request.
+     *
+     * @param name The name of the header, matched regardless of case.
+     * @return The first value of the header, or null if it is not present.
+     */
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * Gets the headers of the request.
+     *
+     * @return The unmodifiable, case-insensitive map of headers to their first value.
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+}
@@ -0,0 +1,17 @@
+package com.gbursali.stub;
+
+/**
+ * Produces the response a {@link StubServer} sends for a request.
+ * Implementations must be thread-safe.
+ */
+@FunctionalInterface
+public interface StubResponder {
+
+    /**
+     * Produces the response for a request.
+     *
+     * @param request The received request.
+     * @return The response to send.
+     */
+    StubResponse respond(StubRequest request);
+}
@@ -0,0 +1,67 @@
+package com.gbursali.stub;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A canned response served by a {@link StubServer}. Instances are immutable.
+ */
+public class StubResponse {
+
+    private final int status;
+    private final Map<String, String> headers;
+    private final byte[] body;
+
+    /**
+     * Constructs a new StubResponse.
+     *
+     * @param status  The HTTP status code.
+     * @param headers The response headers.
+     * @param body    The response body.
+     */
+    public StubResponse(int status, Map<String, String> headers, byte[] body) {
+        this.status = status;
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+        this.body = body;
+    }
+
+    /**
+     * Creates a JSON response.
+     *
+     * @param status The HTTP status code.
+     * @param json   The JSON body.
+     * @return The created StubResponse.
+     */
+    public static StubResponse json(int status, String json) {
+        return new StubResponse(status, Map.of("Content-Type", "application/json"), json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gets the HTTP status code.
+     *
+     * @return The status code.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets the response headers.
+     *
+     * @return The unmodifiable map of headers.
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Gets the response body. It must not be modified.
+     *
+     * @return The response body.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+}
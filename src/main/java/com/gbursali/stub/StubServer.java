@@ -0,0 +1,286 @@
+package com.gbursali.stub;
+
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.record.TrafficRecorder;
+import com.gbursali.record.TrafficReplayer;
+import com.gbursali.utils.ThreadPools;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded HTTP server serving canned responses on the loopback interface, so that whole suites can run
+ * offline and the client path can be measured without network noise.
+ * <p>
+ * Artificial latency is applied without holding a server thread: responses are scheduled to be written
+ * once the latency has passed, so the server sustains high request rates even with slow simulated upstreams.
+ * <pre>
+ * try (StubServer server = StubServer.fromDefinitions(Path.of("src", "test", "resources"))
+ *         .withLatency(Duration.ofMillis(5))
+ *         .start()) {
+ *     server.getBase().makeWithJson("hebrew-api/hebrew_converter.json").send();
+ * }
+ * </pre>
+ * <p>
+ * Run the JVM with {@code -Dsun.net.httpserver.nodelay=true} when measuring through the server: without it, the JDK
+ * server leaves Nagle's algorithm on and keep-alive requests stall ~40ms on delayed ACKs. The property is JVM-wide
+ * and read once, so it is left to the caller rather than set by this class.
+ */
+@SuppressWarnings("java:S1144")
+public class StubServer implements AutoCloseable {
+
+    private final StubResponder responder;
+    private final Path jsonBasePath;
+    private final LongAdder requests = new LongAdder();
+    private Duration minLatency = Duration.ZERO;
+    private Duration maxLatency = Duration.ZERO;
+    private int port;
+    private int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private HttpServer server;
+    private ExecutorService workers;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a new StubServer.
+     *
+     * @param responder    The responder producing the responses.
+     * @param jsonBasePath The JSON base path of the bases created by the server, or null.
+     */
+    protected StubServer(StubResponder responder, Path jsonBasePath) {
+        this.responder = responder;
+        this.jsonBasePath = jsonBasePath;
+    }
+
+    /**
+     * Creates a stub server serving the "stub-response" blocks of a JSON definition tree.
+     *
+     * @param jsonBasePath The root directory of the definition tree.
+     * @return The created, not yet started, StubServer.
+     * @see DefinitionResponder
+     */
+    public static StubServer fromDefinitions(Path jsonBasePath) {
+        return new StubServer(DefinitionResponder.fromDirectory(jsonBasePath), jsonBasePath);
+    }
+
+    /**
+     * Creates a stub server replaying the responses of a traffic log.
+     *
+     * @param log The log written by a {@link TrafficRecorder}.
+     * @return The created, not yet started, StubServer.
+     * @see TrafficReplayer
+     */
+    public static StubServer fromRecording(Path log) {
+        return new StubServer(TrafficReplayer.open(log), null);
+    }
+
+    /**
+     * Creates a stub server serving the responses of the given responder.
+     *
+     * @param responder The responder producing the responses.
+     * @return The created, not yet started, StubServer.
+     */
+    public static StubServer fromResponder(StubResponder responder) {
+        return new StubServer(responder, null);
+    }
+
+    /**
+     * Sets a fixed artificial latency added to every response.
+     *
+     * @param latency The latency.
+     * @return The current StubServer instance.
+     */
+    public StubServer withLatency(Duration latency) {
+        return withLatency(latency, latency);
+    }
+
+    /**
+     * Sets an artificial latency, picked uniformly between the bounds for every response.
+     *
+     * @param min The minimum latency.
+     * @param max The maximum latency.
+     * @return The current StubServer instance.
+     */
+    public StubServer withLatency(Duration min, Duration max) {
+        if (min.isNegative() || max.compareTo(min) < 0)
+            throw new IllegalArgumentException("Invalid latency range: " + min + " - " + max);
+        this.minLatency = min;
+        this.maxLatency = max;
+        return this;
+    }
+
+    /**
+     * Sets the port to listen on. By default a free port is picked.
+     *
+     * @param port The port.
+     * @return The current StubServer instance.
+     */
+    public StubServer withPort(int port) {
+        this.port = port;
+        return this;
+    }
+
+    /**
+     * Sets the number of threads handling requests.
+     *
+     * @param threads The number of threads.
+     * @return The current StubServer instance.
+     */
+    public StubServer withThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Starts the server on the loopback interface.
+     *
+     * @return The current StubServer instance.
+     * @throws UncheckedIOException If the server cannot be bound.
+     */
+    public synchronized StubServer start() {
+        if (server != null)
+            throw new IllegalStateException("Stub server is already started");
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Stub server can't be started", e);
+        }
+        workers = Executors.newFixedThreadPool(threads, ThreadPools.daemonThreadFactory("stub-server"));
+        scheduler = Executors.newSingleThreadScheduledExecutor(ThreadPools.daemonThreadFactory("stub-latency"));
+        server.setExecutor(workers);
+        server.createContext("/", this::handle);
+        server.start();
+        return this;
+    }
+
+    /**
+     * Gets the base URL of the running server.
+     *
+     * @return The base URL, such as {@code http://127.0.0.1:43123}.
+     * @throws IllegalStateException If the server is not started.
+     */
+    public String getBaseURL() {
+        if (server == null)
+            throw new IllegalStateException("Stub server is not started");
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getAddress().getHostAddress() + ":" + address.getPort();
+    }
+
+    /**
+     * Creates an EndpointBase sending its requests to this server. When the server serves a definition tree,
+     * the base uses the same tree as JSON base path.
+     *
+     * @return The created EndpointBase instance.
+     */
+    public EndpointBase getBase() {
+        EndpointBase base = EndpointBase.builder(getBaseURL());
+        return jsonBasePath != null ? base.withJsonBasePath(jsonBasePath) : base;
+    }
+
+    /**
+     * Gets the number of requests received since the server started.
+     *
+     * @return The request count.
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public synchronized void close() {
+        if (server == null)
+            return;
+        server.stop(0);
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+        server = null;
+    }
+
+    /**
+     * Handles a single exchange, writing the response now or after the artificial latency.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the request cannot be read.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+        Map<String, String> headers = new HashMap<>();
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            if (!values.isEmpty())
+                headers.put(name, values.get(0));
+        });
+        StubRequest request = new StubRequest(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                exchange.getRequestURI().getRawQuery(), body, headers);
+        StubResponse response;
+        try {
+            response = responder.respond(request);
+        } catch (RuntimeException e) {
+            response = StubResponse.json(500, "{\"error\":\"Stub responder failed\"}");
+        }
+
+        long latency = latencyNanos();
+        if (latency <= 0) {
+            write(exchange, response);
+            return;
+        }
+        StubResponse delayed = response;
+        scheduler.schedule(() -> workers.execute(() -> write(exchange, delayed)), latency, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Picks the artificial latency of a response.
+     *
+     * @return The latency in nanoseconds.
+     */
+    private long latencyNanos() {
+        long min = minLatency.toNanos();
+        long max = maxLatency.toNanos();
+        return max > min ? ThreadLocalRandom.current().nextLong(min, max + 1) : min;
+    }
+
+    /**
+     * Writes a response and closes the exchange.
+     *
+     * @param exchange The exchange.
+     * @param response The response to write.
+     */
+    private static void write(HttpExchange exchange, StubResponse response) {
+        try {
+            response.getHeaders().forEach(exchange.getResponseHeaders()::add);
+            byte[] body = response.getBody();
+            boolean noBody = body.length == 0 || "HEAD".equals(exchange.getRequestMethod());
+            exchange.sendResponseHeaders(response.getStatus(), noBody ? -1 : body.length);
+            if (!noBody) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } catch (IOException e) {
+            // The client went away; there is nobody left to report to.
+        } finally {
+            exchange.close();
+        }
+    }
+}
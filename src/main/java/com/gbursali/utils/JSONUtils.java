@@ -1,8 +1,17 @@
 package com.gbursali.utils;
 
 import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
@@ -85,6 +94,95 @@ public class JSONUtils {
         }
     }
 
+    /**
+     * Parses JSON content directly from a UTF-8 encoded byte stream, without building an intermediate String.
+     *
+     * @param content The stream containing the JSON content. It is not closed by this method.
+     * @return The parsed JsonElement.
+     */
+    public static JsonElement jsonify(InputStream content) {
+        return jsonify(content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses JSON content directly from a byte stream in the given charset, without building an intermediate String.
+     *
+     * @param content The stream containing the JSON content. It is not closed by this method.
+     * @param charset The charset of the content.
+     * @return The parsed JsonElement.
+     */
+    public static JsonElement jsonify(InputStream content, Charset charset) {
+        try{
+            return JsonParser.parseReader(new InputStreamReader(content, charset));
+        }
+        catch (JsonParseException e){
+            throw new InvalidJSONException("Provided content is not a valid JSON");
+        }
+    }
+
+    /**
+     * Parses JSON content from UTF-8 encoded bytes.
+     *
+     * @param content The JSON content to parse.
+     * @return The parsed JsonElement.
+     */
+    public static JsonElement jsonify(byte[] content) {
+        return jsonify(content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses JSON content from bytes in the given charset.
+     *
+     * @param content The JSON content to parse.
+     * @param charset The charset of the content.
+     * @return The parsed JsonElement.
+     */
+    public static JsonElement jsonify(byte[] content, Charset charset) {
+        return jsonify(new ByteArrayInputStream(content), charset);
+    }
+
+    /**
+     * Creates a JSON token reader over a UTF-8 encoded byte stream, for incremental parsing of documents too large
+     * to hold in memory.
+     *
+     * @param content The stream containing the JSON content. It is closed when the reader is closed.
+     * @return The JSON reader.
+     */
+    public static JsonReader newJsonReader(InputStream content) {
+        return new JsonReader(new InputStreamReader(content, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a JSON array one element at a time and passes each element to the given action, so that memory use
+     * is bounded by the largest element. The reader must be positioned before the array.
+     *
+     * @param reader The JSON reader.
+     * @param action The action to perform on each element.
+     * @return The number of elements.
+     * @throws InvalidJSONException If the content is not a valid JSON array.
+     * @throws UncheckedIOException If the content cannot be read.
+     */
+    public static long forEachArrayElement(JsonReader reader, Consumer<JsonElement> action) {
+        try {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY)
+                throw new InvalidJSONException("Provided content is not a JSON array");
+            reader.beginArray();
+            long count = 0;
+            while (reader.hasNext()) {
+                action.accept(JsonParser.parseReader(reader));
+                count++;
+            }
+            reader.endArray();
+            return count;
+        } catch (JsonIOException e) {
+            throw new UncheckedIOException("JSON content can't be read", new IOException(e.getCause()));
+        } catch (JsonParseException | MalformedJsonException e) {
+            throw new InvalidJSONException("Provided content is not a valid JSON");
+        } catch (IOException e) {
+            throw new UncheckedIOException("JSON content can't be read", e);
+        }
+    }
+
     /**
      * Converts a JsonElement to its string representation.
      *
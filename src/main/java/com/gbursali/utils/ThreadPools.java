@@ -0,0 +1,134 @@
+package com.gbursali.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Utility class for creating the executors used to send requests.
+ */
+@SuppressWarnings("java:S1144")
+public class ThreadPools {
+
+    /**
+     * Lazily created executor shared by all asynchronous requests that do not specify their own.
+     */
+    private static volatile ExecutorService sharedRequestExecutor;
+
+    /**
+     * Lazily created executor running hedged request attempts.
+     */
+    private static volatile ExecutorService sharedHedgeExecutor;
+
+    /**
+     * Lazily created scheduler for timed, non-blocking tasks.
+     */
+    private static volatile ScheduledExecutorService sharedScheduler;
+
+    /**
+     * Prevent instantiation of the utility class.
+     */
+    private ThreadPools() {
+    }
+
+    /**
+     * Creates an executor for running blocking requests.
+     * On JDK 21 and later every task runs on its own virtual thread; on older runtimes
+     * a fixed pool of daemon threads is used.
+     *
+     * @param threads The number of threads of the fallback pool.
+     * @return The created executor.
+     */
+    public static ExecutorService newRequestExecutor(int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(threads, daemonThreadFactory("ra-requester"));
+        }
+    }
+
+    /**
+     * Gets the executor shared by asynchronous requests that do not specify their own.
+     * It is created on first use with {@link #newRequestExecutor(int)} and never shut down.
+     *
+     * @return The shared request executor.
+     */
+    public static ExecutorService sharedRequestExecutor() {
+        ExecutorService executor = sharedRequestExecutor;
+        if (executor == null) {
+            synchronized (ThreadPools.class) {
+                executor = sharedRequestExecutor;
+                if (executor == null) {
+                    executor = newRequestExecutor(Math.max(16, Runtime.getRuntime().availableProcessors() * 8));
+                    sharedRequestExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Gets the executor running the attempts of hedged requests. Callers block on these attempts, possibly from
+     * a request executor thread, so the executor is unbounded: virtual threads on JDK 21 and later, and a cached
+     * pool of daemon threads on older runtimes. It is created on first use and never shut down.
+     *
+     * @return The shared hedge executor.
+     */
+    public static ExecutorService sharedHedgeExecutor() {
+        ExecutorService executor = sharedHedgeExecutor;
+        if (executor == null) {
+            synchronized (ThreadPools.class) {
+                executor = sharedHedgeExecutor;
+                if (executor == null) {
+                    try {
+                        executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                    } catch (ReflectiveOperationException e) {
+                        executor = Executors.newCachedThreadPool(daemonThreadFactory("ra-requester-hedge"));
+                    }
+                    sharedHedgeExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Gets the scheduler running short timed tasks, such as waking up requests waiting for a rate limit.
+     * Its single daemon thread must never block. It is created on first use and never shut down.
+     *
+     * @return The shared scheduler.
+     */
+    public static ScheduledExecutorService sharedScheduler() {
+        ScheduledExecutorService scheduler = sharedScheduler;
+        if (scheduler == null) {
+            synchronized (ThreadPools.class) {
+                scheduler = sharedScheduler;
+                if (scheduler == null) {
+                    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, daemonThreadFactory("ra-requester-scheduler"));
+                    executor.setRemoveOnCancelPolicy(true);
+                    scheduler = executor;
+                    sharedScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * Creates a thread factory producing named daemon threads.
+     *
+     * @param prefix The prefix of the thread names.
+     * @return The created thread factory.
+     */
+    public static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,130 @@
+package com.gbursali.utils.json_validator;
+
+import com.google.gson.JsonObject;
+import dev.harrel.jsonschema.Validator;
+
+import java.net.URI;
+
+/**
+ * A JSON schema that has been parsed and compiled once by a {@link SchemaRegistry}.
+ * Instances are immutable and can be shared between threads and endpoints; the streaming and parallel
+ * forms of the schema are derived on first use and shared as well.
+ */
+public final class CompiledSchema {
+
+    /**
+     * Content hash identifying the schema document.
+     */
+    private final String key;
+
+    /**
+     * Validator holding the compiled schema.
+     */
+    private final Validator validator;
+
+    /**
+     * URI under which the schema is registered in the validator.
+     */
+    private final URI uri;
+
+    /**
+     * The schema document the compiled schema was built from.
+     */
+    private final JsonObject schema;
+
+    /**
+     * Element-wise validator for array schemas, created on first streaming validation.
+     */
+    private volatile StreamingArrayValidator streamingValidator;
+
+    /**
+     * Whether the schema has been checked for streaming support.
+     */
+    private volatile boolean streamingChecked;
+
+    /**
+     * Split of the schema for parallel validation, created on first parallel validation.
+     */
+    private volatile ParallelValidationPlan parallelPlan;
+
+    /**
+     * Constructs a new CompiledSchema. Use {@link SchemaRegistry#compile(JsonObject)} to create an instance.
+     *
+     * @param key       The content hash of the schema.
+     * @param validator The validator the schema is registered in.
+     * @param uri       The URI of the registered schema.
+     * @param schema    The schema document.
+     */
+    CompiledSchema(String key, Validator validator, URI uri, JsonObject schema) {
+        this.key = key;
+        this.validator = validator;
+        this.uri = uri;
+        this.schema = schema;
+    }
+
+    /**
+     * Gets the content hash identifying this schema.
+     * Two compiled schemas with the same key were built from the same schema document.
+     *
+     * @return The content hash of the schema.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the schema document this schema was compiled from.
+     *
+     * @return The schema document. It must not be modified.
+     */
+    JsonObject getSchema() {
+        return schema;
+    }
+
+    /**
+     * Validates a raw JSON instance against this schema.
+     *
+     * @param instance The JSON instance as a string.
+     * @return The validation result.
+     */
+    Validator.Result validate(String instance) {
+        return validator.validate(uri, instance);
+    }
+
+    /**
+     * Validates an already parsed JSON instance against this schema.
+     *
+     * @param instance The JSON instance as a Gson node.
+     * @return The validation result.
+     */
+    Validator.Result validate(Object instance) {
+        return validator.validate(uri, instance);
+    }
+
+    /**
+     * Gets the element-wise validator of the schema, creating it on first use.
+     *
+     * @return The streaming validator, or null if the schema does not support streaming.
+     */
+    StreamingArrayValidator getStreamingValidator() {
+        if (!streamingChecked) {
+            streamingValidator = StreamingArrayValidator.forSchema(schema, SchemaRegistry.shared());
+            streamingChecked = true;
+        }
+        return streamingValidator;
+    }
+
+    /**
+     * Gets the split of the schema for parallel validation, creating it on first use.
+     *
+     * @return The parallel validation plan.
+     */
+    ParallelValidationPlan getParallelPlan() {
+        ParallelValidationPlan plan = parallelPlan;
+        if (plan == null) {
+            plan = ParallelValidationPlan.forSchema(schema, SchemaRegistry.shared());
+            parallelPlan = plan;
+        }
+        return plan;
+    }
+}
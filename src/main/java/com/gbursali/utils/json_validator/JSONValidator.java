@@ -1,14 +1,21 @@
 package com.gbursali.utils.json_validator;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import dev.harrel.jsonschema.Dialects;
+import com.google.gson.JsonParser;
 import dev.harrel.jsonschema.Error;
 import dev.harrel.jsonschema.Validator;
-import dev.harrel.jsonschema.ValidatorFactory;
-import dev.harrel.jsonschema.providers.GsonNode;
 import com.gbursali.utils.JSONUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 
 /**
@@ -18,24 +25,72 @@ import java.util.logging.Logger;
 public class JSONValidator {
 
     /**
-     * ValidatorFactory instance for creating JSON validators.
+     * Compiled JSON schema to be used for validation.
      */
-    private final ValidatorFactory factory = new ValidatorFactory()
-            .withJsonNodeFactory(new GsonNode.Factory())
-            .withDialect(new Dialects.Draft2020Dialect());
+    private final CompiledSchema schema;
 
     /**
-     * JSON schema to be used for validation.
+     * How many errors are reported before validation stops.
      */
-    private final JsonObject schema;
+    private final ValidationMode mode;
 
     /**
      * Constructs a new JSONValidator with the specified JSON schema.
+     * The schema is compiled through the {@link SchemaRegistry#shared() shared registry}.
      *
      * @param schema The JSON schema for validation.
      */
     protected JSONValidator(JsonObject schema) {
+        this(SchemaRegistry.shared().compile(schema));
+    }
+
+    /**
+     * Constructs a new JSONValidator with the specified compiled JSON schema.
+     *
+     * @param schema The compiled JSON schema for validation.
+     */
+    protected JSONValidator(CompiledSchema schema) {
+        this(schema, ValidationMode.full());
+    }
+
+    /**
+     * Constructs a new JSONValidator with the specified compiled JSON schema and validation mode.
+     *
+     * @param schema The compiled JSON schema for validation.
+     * @param mode   How many errors are reported before validation stops.
+     */
+    protected JSONValidator(CompiledSchema schema, ValidationMode mode) {
         this.schema = schema;
+        this.mode = mode;
+    }
+
+    /**
+     * Creates a validator for the same schema with another validation mode.
+     * The compiled schema is shared, so this is cheap.
+     *
+     * @param mode How many errors are reported before validation stops.
+     * @return The JSONValidator with the given mode.
+     */
+    public JSONValidator withMode(ValidationMode mode) {
+        return mode == this.mode ? this : new JSONValidator(schema, mode);
+    }
+
+    /**
+     * Gets the validation mode of this validator.
+     *
+     * @return The validation mode.
+     */
+    public ValidationMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Gets the compiled schema used by this validator.
+     *
+     * @return The compiled schema.
+     */
+    public CompiledSchema getSchema() {
+        return schema;
     }
 
     /**
@@ -45,9 +100,188 @@ public class JSONValidator {
      * @throws JsonValidationException If the validation fails, containing details of the validation errors.
      */
     public void validate(String instance) {
-        Validator.Result result = factory.validate(JSONUtils.stringify(schema), instance);
-        if (!result.isValid())
-            throw new JsonValidationException("Schema validation failed", result.getErrors().toArray(new Error[0]));
+        handleResult(schema.validate(instance));
+    }
+
+    /**
+     * Validates an already parsed JSON instance against the stored schema.
+     *
+     * @param instance The parsed JSON instance to validate.
+     * @throws JsonValidationException If the validation fails, containing details of the validation errors.
+     */
+    public void validate(JsonElement instance) {
+        handleResult(schema.validate((Object) instance));
+    }
+
+    /**
+     * Parses a JSON instance from a UTF-8 encoded stream and validates it against the stored schema.
+     *
+     * @param instance The stream containing the JSON instance. It is not closed by this method.
+     * @return The parsed JSON instance.
+     * @throws JsonValidationException If the validation fails, containing details of the validation errors.
+     * @see #validate(InputStream, Charset)
+     */
+    public JsonElement validate(InputStream instance) {
+        return validate(instance, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a JSON instance from a stream in the given charset and validates it against the stored schema.
+     * The stream is parsed exactly once, and the parsed tree is returned for further use. Content that is not
+     * JSON fails with the same {@link com.google.gson.JsonSyntaxException} as {@link #validate(String)}.
+     *
+     * @param instance The stream containing the JSON instance. It is not closed by this method.
+     * @param charset  The charset of the instance.
+     * @return The parsed JSON instance.
+     * @throws JsonValidationException If the validation fails, containing details of the validation errors.
+     */
+    public JsonElement validate(InputStream instance, Charset charset) {
+        JsonElement parsed = JsonParser.parseReader(new InputStreamReader(instance, charset));
+        validate(parsed);
+        return parsed;
+    }
+
+    /**
+     * Parses a JSON instance from UTF-8 encoded bytes and validates it against the stored schema.
+     *
+     * @param instance The JSON instance as bytes.
+     * @return The parsed JSON instance.
+     * @throws JsonValidationException If the validation fails, containing details of the validation errors.
+     * @see #validate(InputStream, Charset)
+     */
+    public JsonElement validate(byte[] instance) {
+        return validate(instance, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a JSON instance from bytes in the given charset and validates it against the stored schema.
+     *
+     * @param instance The JSON instance as bytes.
+     * @param charset  The charset of the instance.
+     * @return The parsed JSON instance.
+     * @throws JsonValidationException If the validation fails, containing details of the validation errors.
+     * @see #validate(InputStream, Charset)
+     */
+    public JsonElement validate(byte[] instance, Charset charset) {
+        return validate(new ByteArrayInputStream(instance), charset);
+    }
+
+    /**
+     * Checks if the schema can be validated element by element by {@link #validateStream(InputStream)}:
+     * a {@code "type": "array"} schema with {@code items} and optionally {@code minItems}/{@code maxItems}.
+     *
+     * @return True if streaming validation keeps memory bounded by a single element.
+     */
+    public boolean supportsStreaming() {
+        return schema.getStreamingValidator() != null;
+    }
+
+    /**
+     * Validates a UTF-8 encoded JSON array read from a stream, one element at a time, without keeping
+     * the array in memory. Errors are located by element index, such as {@code /1042/email}, and reading
+     * stops once the error limit of the mode is reached.
+     * When the schema does not {@link #supportsStreaming() support streaming}, the stream is parsed
+     * and validated as a whole instead.
+     *
+     * @param instance The stream containing the JSON instance. It is not closed by this method.
+     * @throws JsonValidationException If the validation fails, containing details of the validation errors.
+     */
+    public void validateStream(InputStream instance) {
+        StreamingArrayValidator streaming = schema.getStreamingValidator();
+        if (streaming == null) {
+            validate(instance);
+            return;
+        }
+        handleErrors(streaming.validate(instance, mode.getMaxErrors()));
+    }
+
+    /**
+     * Validates an already parsed JSON instance on the common fork-join pool.
+     *
+     * @param instance The parsed JSON instance to validate.
+     * @throws JsonValidationException If the validation fails, containing details of the validation errors.
+     * @see #validateParallel(JsonElement, ForkJoinPool)
+     */
+    public void validateParallel(JsonElement instance) {
+        validateParallel(instance, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Validates an already parsed JSON instance using several cores. Array items are validated in chunks
+     * and object properties one by one, each against its compiled subschema, while keywords that look at
+     * the instance as a whole are checked once. Errors are reported in a fixed order: errors of an object
+     * or array itself first, then errors of its items by index and of its properties in instance order.
+     * Schemas that cannot be split are validated on the calling thread.
+     * <p>
+     * Subschemas are checked on their own, so errors a sequential validation derives from a failed sibling,
+     * such as {@code additionalProperties} flagging every property once one of them is invalid, are not repeated.
+     *
+     * @param instance The parsed JSON instance to validate.
+     * @param pool     The pool running the validation tasks.
+     * @throws JsonValidationException If the validation fails, containing details of the validation errors.
+     */
+    public void validateParallel(JsonElement instance, ForkJoinPool pool) {
+        ParallelValidationPlan plan = schema.getParallelPlan();
+        if (!plan.isSplit()) {
+            validate(instance);
+            return;
+        }
+        handleErrors(plan.validate(instance, pool, mode.getMaxErrors()));
+    }
+
+    /**
+     * Checks whether a JSON instance matches the stored schema, without building a report of the errors.
+     *
+     * @param instance The JSON instance to check.
+     * @return True if the instance is valid.
+     */
+    public boolean isValid(String instance) {
+        return schema.validate(instance).isValid();
+    }
+
+    /**
+     * Checks whether an already parsed JSON instance matches the stored schema, without building a report
+     * of the errors.
+     *
+     * @param instance The parsed JSON instance to check.
+     * @return True if the instance is valid.
+     */
+    public boolean isValid(JsonElement instance) {
+        return schema.validate((Object) instance).isValid();
+    }
+
+    /**
+     * Throws if the validation result contains errors, reporting at most as many errors as the mode allows.
+     *
+     * @param result The validation result.
+     * @throws JsonValidationException If the validation failed.
+     */
+    private void handleResult(Validator.Result result) {
+        if (!result.isValid()) {
+            List<Error> found = result.getErrors();
+            int reported = Math.min(found.size(), mode.getMaxErrors());
+            List<ValidationError> errors = new ArrayList<>(reported);
+            for (int i = 0; i < reported; i++)
+                errors.add(ValidationError.from(found.get(i)));
+            throw new JsonValidationException("Schema validation failed", errors, reported < found.size());
+        }
+        Logger.getAnonymousLogger().fine("Schema validated");
+    }
+
+    /**
+     * Throws if errors were found, reporting at most as many errors as the mode allows.
+     *
+     * @param errors The errors found; validation may have stopped once the limit was reached.
+     * @throws JsonValidationException If errors were found.
+     */
+    private void handleErrors(List<ValidationError> errors) {
+        if (!errors.isEmpty()) {
+            boolean truncated = !mode.isFull() && errors.size() >= mode.getMaxErrors();
+            List<ValidationError> reported = errors.size() > mode.getMaxErrors()
+                    ? errors.subList(0, mode.getMaxErrors())
+                    : errors;
+            throw new JsonValidationException("Schema validation failed", reported, truncated);
+        }
         Logger.getAnonymousLogger().fine("Schema validated");
     }
 
@@ -58,7 +292,7 @@ public class JSONValidator {
      * @return The created JSONValidator instance.
      */
     public static JSONValidator fromFile(Path schemaFile) {
-        return fromJson(JSONUtils.readJsonFile(schemaFile, "Can't find schema file"));
+        return new JSONValidator(SchemaRegistry.shared().compile(schemaFile));
     }
 
     /**
@@ -3,12 +3,36 @@ package com.gbursali.utils.json_validator;
 import dev.harrel.jsonschema.Error;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  * Exception thrown when JSON validation fails.
+ * The detailed message listing every error is only built when it is first read.
  */
 public class JsonValidationException extends RuntimeException {
+
+    /**
+     * The summary message, without the errors.
+     */
+    private final String summary;
+
+    /**
+     * The validation errors.
+     */
+    private final transient List<ValidationError> errors;
+
+    /**
+     * Whether validation stopped before all errors were found.
+     */
+    private final boolean truncated;
+
+    /**
+     * The detailed message, built on first use.
+     */
+    private String message;
+
     /**
      * Constructs a new JSON validation exception with the specified detail message and validation errors.
      *
@@ -16,32 +40,82 @@ public class JsonValidationException extends RuntimeException {
      * @param errors  The validation errors.
      */
     public JsonValidationException(String message, Error... errors) {
-        super(buildMessage(message, errors));
+        this(message, Arrays.stream(errors).map(ValidationError::from).collect(Collectors.toList()));
     }
 
     /**
-     * Builds a detailed error message by combining the provided message and validation errors.
+     * Constructs a new JSON validation exception with the specified detail message and validation errors.
      *
      * @param message The detail message.
      * @param errors  The validation errors.
-     * @return The detailed error message.
      */
-    private static String buildMessage(String message, Error... errors) {
-        String errorMessage = Arrays.stream(errors)
-                .map(JsonValidationException::extractMessage)
-                .collect(Collectors.joining("\n\n"));
-        return message + "\n" + errorMessage;
+    public JsonValidationException(String message, List<ValidationError> errors) {
+        this(message, errors, false);
     }
 
     /**
-     * Extracts a formatted message from a validation error.
+     * Constructs a new JSON validation exception with the specified detail message and validation errors.
      *
-     * @param error The validation error.
-     * @return The formatted error message.
+     * @param message   The detail message.
+     * @param errors    The validation errors.
+     * @param truncated Whether validation stopped before all errors were found.
+     */
+    public JsonValidationException(String message, List<ValidationError> errors, boolean truncated) {
+        super(message);
+        this.summary = message;
+        this.errors = Collections.unmodifiableList(errors);
+        this.truncated = truncated;
+    }
+
+    /**
+     * Gets the validation errors.
+     *
+     * @return The unmodifiable list of validation errors.
+     */
+    public List<ValidationError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Checks whether validation stopped at an error limit, so that more errors may exist than reported.
+     *
+     * @return True if the error list is incomplete.
+     * @see ValidationMode
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Gets the detailed message, listing every reported error.
+     *
+     * @return The detailed message.
+     */
+    @Override
+    public String getMessage() {
+        String result = message;
+        if (result == null) {
+            result = buildMessage();
+            message = result;
+        }
+        return result;
+    }
+
+    /**
+     * Builds a detailed error message by combining the summary and the validation errors.
+     *
+     * @return The detailed error message.
      */
-    private static String extractMessage(Error error) {
-        return String.format(
-                "Path: %s%nVariable: %s%nError: %s",
-                error.getInstanceLocation(), error.getKeyword(), error.getError());
+    private String buildMessage() {
+        StringBuilder builder = new StringBuilder(summary);
+        if (truncated)
+            builder.append(" (stopped after ").append(errors.size()).append(errors.size() == 1 ? " error)" : " errors)");
+        builder.append('\n');
+        for (int i = 0; i < errors.size(); i++) {
+            if (i > 0)
+                builder.append("\n\n");
+            errors.get(i).appendTo(builder);
+        }
+        return builder.toString();
     }
 }
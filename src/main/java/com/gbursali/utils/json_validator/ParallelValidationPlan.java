@@ -0,0 +1,344 @@
+package com.gbursali.utils.json_validator;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import dev.harrel.jsonschema.Error;
+import dev.harrel.jsonschema.Validator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A schema split into independently validated parts, so that large instances can be validated on
+ * several cores of a {@link ForkJoinPool}.
+ * <p>
+ * A schema with {@code items} or {@code properties} is split into a shell, the schema with those subschemas
+ * replaced by {@code true}, and the subschemas themselves, which are split again recursively. The shell keeps
+ * every keyword that looks at the instance as a whole ({@code required}, {@code minItems},
+ * {@code additionalProperties}, ...), while array items are validated in chunks and properties one by one.
+ * Parts that cannot be compiled on their own, such as subschemas referencing the root schema, stay in the shell.
+ * <p>
+ * Errors are merged in a fixed order: errors of the shell first, then errors of the items by index and of
+ * the properties in instance order, so reports do not depend on scheduling.
+ */
+final class ParallelValidationPlan {
+
+    /**
+     * Smallest number of array items validated as a single task.
+     */
+    private static final int MIN_CHUNK = 16;
+
+    /**
+     * Number of JSON values above which an instance is split; smaller ones are validated in one go.
+     */
+    private static final int SPLIT_THRESHOLD = 256;
+
+    /**
+     * The whole schema, used for instances too small to be worth splitting.
+     */
+    private final CompiledSchema whole;
+
+    /**
+     * Schema validated against the instance itself when it is split: the shell, or the whole schema of a leaf.
+     */
+    private final CompiledSchema schema;
+
+    /**
+     * Plan for the array items, or null if items are validated by the shell.
+     */
+    private final ParallelValidationPlan items;
+
+    /**
+     * Index of the first item validated by the items plan; earlier items are covered by {@code prefixItems}.
+     */
+    private final int firstItem;
+
+    /**
+     * Plans for the properties validated outside the shell.
+     */
+    private final Map<String, ParallelValidationPlan> properties;
+
+    private ParallelValidationPlan(CompiledSchema whole, CompiledSchema schema, ParallelValidationPlan items,
+                                   int firstItem, Map<String, ParallelValidationPlan> properties) {
+        this.whole = whole;
+        this.schema = schema;
+        this.items = items;
+        this.firstItem = firstItem;
+        this.properties = properties;
+    }
+
+    /**
+     * Splits a schema into parts that can be validated independently.
+     *
+     * @param schema   The standalone schema document.
+     * @param registry The registry compiling the parts.
+     * @return The validation plan.
+     */
+    static ParallelValidationPlan forSchema(JsonObject schema, SchemaRegistry registry) {
+        // Keywords next to $ref are ignored by older drafts, so splitting them could report extra errors.
+        if (schema.has("$ref"))
+            return leaf(schema, registry);
+        JsonObject shell = schema.deepCopy();
+
+        ParallelValidationPlan items = null;
+        int firstItem = 0;
+        JsonElement itemSchema = schema.get("items");
+        if (itemSchema != null && !schema.has("additionalItems")) {
+            JsonObject itemDocument = Subschemas.extract(schema, itemSchema);
+            if (itemDocument != null) {
+                items = forSchema(itemDocument, registry);
+                shell.add("items", new JsonPrimitive(true));
+                if (schema.has("prefixItems") && schema.get("prefixItems").isJsonArray())
+                    firstItem = schema.getAsJsonArray("prefixItems").size();
+            }
+        }
+
+        Map<String, ParallelValidationPlan> properties = new LinkedHashMap<>();
+        JsonElement propertySchemas = schema.get("properties");
+        if (propertySchemas != null && propertySchemas.isJsonObject()) {
+            JsonObject shellProperties = shell.getAsJsonObject("properties");
+            for (Map.Entry<String, JsonElement> entry : propertySchemas.getAsJsonObject().entrySet()) {
+                JsonObject propertyDocument = Subschemas.extract(schema, entry.getValue());
+                if (propertyDocument == null)
+                    continue;
+                properties.put(entry.getKey(), forSchema(propertyDocument, registry));
+                shellProperties.add(entry.getKey(), new JsonPrimitive(true));
+            }
+        }
+
+        if (items == null && properties.isEmpty())
+            return leaf(schema, registry);
+        return new ParallelValidationPlan(registry.compile(schema), registry.compile(shell), items, firstItem,
+                Collections.unmodifiableMap(properties));
+    }
+
+    private static ParallelValidationPlan leaf(JsonObject schema, SchemaRegistry registry) {
+        CompiledSchema compiled = registry.compile(schema);
+        return new ParallelValidationPlan(compiled, compiled, null, 0, Collections.emptyMap());
+    }
+
+    /**
+     * Checks whether the plan validates anything outside a single task.
+     *
+     * @return True if the schema was split.
+     */
+    boolean isSplit() {
+        return items != null || !properties.isEmpty();
+    }
+
+    /**
+     * Validates an instance on the given pool.
+     *
+     * Once the error limit is reached, no further parts are validated; which errors are found then
+     * depends on scheduling, but they are still reported in the fixed order.
+     *
+     * @param instance  The instance to validate.
+     * @param pool      The pool running the validation tasks.
+     * @param maxErrors The number of errors after which validation stops.
+     * @return The validation errors in deterministic order; empty if the instance is valid.
+     */
+    List<ValidationError> validate(JsonElement instance, ForkJoinPool pool, int maxErrors) {
+        if (!isLarge(instance))
+            return validate(whole, instance, "");
+        return pool.invoke(new NodeTask(this, instance, "", new Run(pool, maxErrors)));
+    }
+
+    /**
+     * Validates an instance against the shell of a plan, without its split parts.
+     */
+    private List<ValidationError> validateShell(JsonElement instance, String location) {
+        return validate(schema, instance, location);
+    }
+
+    /**
+     * Validates an instance against a compiled schema, locating the errors below the given pointer.
+     */
+    private static List<ValidationError> validate(CompiledSchema schema, JsonElement instance, String location) {
+        Validator.Result result = schema.validate((Object) instance);
+        if (result.isValid())
+            return new ArrayList<>();
+        List<ValidationError> errors = new ArrayList<>(result.getErrors().size());
+        for (Error error : result.getErrors())
+            errors.add(ValidationError.from(error).under(location));
+        return errors;
+    }
+
+    /**
+     * Checks whether an instance holds more values than {@link #SPLIT_THRESHOLD}, visiting at most that many.
+     *
+     * @param instance The instance.
+     * @return True if the instance is large enough to be split.
+     */
+    private static boolean isLarge(JsonElement instance) {
+        Deque<JsonElement> pending = new ArrayDeque<>();
+        pending.push(instance);
+        int visited = 0;
+        while (!pending.isEmpty()) {
+            JsonElement element = pending.pop();
+            if (++visited > SPLIT_THRESHOLD)
+                return true;
+            if (element.isJsonArray()) {
+                JsonArray array = element.getAsJsonArray();
+                if (visited + array.size() > SPLIT_THRESHOLD)
+                    return true;
+                array.forEach(pending::push);
+            } else if (element.isJsonObject()) {
+                element.getAsJsonObject().entrySet().forEach(entry -> pending.push(entry.getValue()));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Schedules a task on the pool of the validation. Tasks started on a thread outside the pool, which
+     * happens when the pool runs a task on its caller, are submitted to the pool rather than forked
+     * into the common pool.
+     */
+    private static <T extends ForkJoinTask<List<ValidationError>>> T schedule(T task, ForkJoinPool pool) {
+        if (ForkJoinTask.getPool() == pool)
+            task.fork();
+        else
+            pool.execute(task);
+        return task;
+    }
+
+    /**
+     * Validates a value against a plan, forking the split parts.
+     */
+    private static final class NodeTask extends RecursiveTask<List<ValidationError>> {
+
+        private final transient ParallelValidationPlan plan;
+        private final transient JsonElement instance;
+        private final String location;
+        private final transient Run run;
+
+        NodeTask(ParallelValidationPlan plan, JsonElement instance, String location, Run run) {
+            this.plan = plan;
+            this.instance = instance;
+            this.location = location;
+            this.run = run;
+        }
+
+        @Override
+        protected List<ValidationError> compute() {
+            if (run.isExhausted())
+                return new ArrayList<>();
+            if (!plan.isSplit() || !isLarge(instance))
+                return run.count(validate(plan.whole, instance, location));
+            List<Supplier<List<ValidationError>>> children = new ArrayList<>();
+            if (plan.items != null && instance.isJsonArray()) {
+                JsonArray array = instance.getAsJsonArray();
+                int count = array.size() - plan.firstItem;
+                if (count > 0) {
+                    int chunk = Math.max(MIN_CHUNK, array.size() / (run.pool.getParallelism() * 4));
+                    ChunkTask items = new ChunkTask(plan.items, array, location, plan.firstItem, array.size(), chunk, run);
+                    children.add(count > MIN_CHUNK ? schedule(items, run.pool)::join : completed(items.compute()));
+                }
+            }
+            if (!plan.properties.isEmpty() && instance.isJsonObject()) {
+                for (Map.Entry<String, JsonElement> entry : instance.getAsJsonObject().entrySet()) {
+                    ParallelValidationPlan property = plan.properties.get(entry.getKey());
+                    if (property == null)
+                        continue;
+                    NodeTask task = new NodeTask(property, entry.getValue(),
+                            location + "/" + Subschemas.escape(entry.getKey()), run);
+                    // Scalars are cheaper to validate than to schedule.
+                    JsonElement value = entry.getValue();
+                    boolean container = value.isJsonArray() || value.isJsonObject();
+                    children.add(container ? schedule(task, run.pool)::join : completed(task.compute()));
+                }
+            }
+            List<ValidationError> errors = run.count(plan.validateShell(instance, location));
+            for (Supplier<List<ValidationError>> child : children)
+                errors.addAll(child.get());
+            return errors;
+        }
+
+        private static Supplier<List<ValidationError>> completed(List<ValidationError> errors) {
+            return () -> errors;
+        }
+    }
+
+    /**
+     * Validates a range of array items, splitting it in halves until it is small enough.
+     */
+    private static final class ChunkTask extends RecursiveTask<List<ValidationError>> {
+
+        private final transient ParallelValidationPlan plan;
+        private final transient JsonArray array;
+        private final String location;
+        private final int from;
+        private final int to;
+        private final int chunk;
+        private final transient Run run;
+
+        ChunkTask(ParallelValidationPlan plan, JsonArray array, String location, int from, int to, int chunk,
+                  Run run) {
+            this.plan = plan;
+            this.array = array;
+            this.location = location;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.run = run;
+        }
+
+        @Override
+        protected List<ValidationError> compute() {
+            if (to - from > chunk) {
+                int middle = (from + to) >>> 1;
+                ChunkTask right = schedule(new ChunkTask(plan, array, location, middle, to, chunk, run), run.pool);
+                List<ValidationError> errors = new ChunkTask(plan, array, location, from, middle, chunk, run).compute();
+                errors.addAll(right.join());
+                return errors;
+            }
+            List<ValidationError> errors = new ArrayList<>();
+            for (int i = from; i < to && !run.isExhausted(); i++)
+                errors.addAll(new NodeTask(plan, array.get(i), location + "/" + i, run).compute());
+            return errors;
+        }
+    }
+
+    /**
+     * State shared by the tasks of a single validation.
+     */
+    private static final class Run {
+
+        private final ForkJoinPool pool;
+        private final int maxErrors;
+        private final AtomicInteger found = new AtomicInteger();
+
+        Run(ForkJoinPool pool, int maxErrors) {
+            this.pool = pool;
+            this.maxErrors = maxErrors;
+        }
+
+        /**
+         * Checks whether enough errors were found to stop.
+         */
+        boolean isExhausted() {
+            return found.get() >= maxErrors;
+        }
+
+        /**
+         * Adds errors to the number of errors found.
+         */
+        List<ValidationError> count(List<ValidationError> errors) {
+            if (!errors.isEmpty())
+                found.addAndGet(errors.size());
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.gbursali.utils.json_validator;
+
+import com.gbursali.utils.InvalidJSONException;
+import com.gbursali.utils.JSONUtils;
+import com.google.gson.JsonObject;
+import dev.harrel.jsonschema.Dialects;
+import dev.harrel.jsonschema.Validator;
+import dev.harrel.jsonschema.ValidatorFactory;
+import dev.harrel.jsonschema.providers.GsonNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe registry that compiles each JSON schema only once and shares the compiled form.
+ * Schemas are keyed by a hash of their content; schema files are additionally keyed by their path
+ * and modification time, so unchanged files are neither re-read nor re-compiled.
+ */
+@SuppressWarnings("java:S1144")
+public class SchemaRegistry {
+
+    /**
+     * Registry shared by all validators that do not specify their own.
+     */
+    private static final SchemaRegistry SHARED = new SchemaRegistry();
+
+    /**
+     * ValidatorFactory instance for creating JSON validators.
+     */
+    private final ValidatorFactory factory = new ValidatorFactory()
+            .withJsonNodeFactory(new GsonNode.Factory())
+            .withDialect(new Dialects.Draft2020Dialect());
+
+    /**
+     * Compiled schemas by content hash.
+     */
+    private final Map<String, CompiledSchema> schemas = new ConcurrentHashMap<>();
+
+    /**
+     * Compiled schemas by normalized file path, along with the file's modification time.
+     */
+    private final Map<Path, FileEntry> files = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Gets the registry shared by default across all endpoints.
+     *
+     * @return The shared SchemaRegistry instance.
+     */
+    public static SchemaRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Compiles the given schema, or returns the already compiled schema with the same content.
+     *
+     * @param schema The JsonObject representing the JSON schema.
+     * @return The compiled schema.
+     */
+    public CompiledSchema compile(JsonObject schema) {
+        String key = hash(JSONUtils.stringify(schema));
+        CompiledSchema compiled = schemas.get(key);
+        if (compiled != null) {
+            hits.increment();
+            return compiled;
+        }
+        return schemas.computeIfAbsent(key, k -> {
+            misses.increment();
+            return doCompile(k, schema.deepCopy());
+        });
+    }
+
+    /**
+     * Compiles the schema stored in the given file. The file is only read again when its
+     * modification time changes, and only compiled again when its content changes.
+     *
+     * @param schemaFile The path to the JSON schema file.
+     * @return The compiled schema.
+     * @throws InvalidJSONException If the file cannot be found or contains invalid JSON content.
+     */
+    public CompiledSchema compile(Path schemaFile) {
+        Path key = schemaFile.toAbsolutePath().normalize();
+        FileTime modified = modificationTime(schemaFile);
+        FileEntry entry = files.get(key);
+        if (entry != null && entry.modified.equals(modified)) {
+            hits.increment();
+            return entry.schema;
+        }
+        CompiledSchema compiled = compile(JSONUtils.readJsonFile(schemaFile, "Can't find schema file"));
+        files.put(key, new FileEntry(modified, compiled));
+        return compiled;
+    }
+
+    /**
+     * Gets the number of compile requests that were served from the registry.
+     *
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of compile requests that required compiling a schema.
+     *
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of distinct schemas held by the registry.
+     *
+     * @return The number of compiled schemas.
+     */
+    public int size() {
+        return schemas.size();
+    }
+
+    /**
+     * Removes all compiled schemas and resets the hit and miss counters.
+     */
+    public void clear() {
+        schemas.clear();
+        files.clear();
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * Registers the schema in a validator of its own, so that compiled schemas never share mutable state.
+     *
+     * @param key    The content hash of the schema.
+     * @param schema The schema document.
+     * @return The compiled schema.
+     */
+    private CompiledSchema doCompile(String key, JsonObject schema) {
+        Validator validator = factory.createValidator();
+        URI uri = validator.registerSchema(URI.create("urn:ra-requester:schema:" + key), schema);
+        return new CompiledSchema(key, validator, uri, schema);
+    }
+
+    /**
+     * Reads the modification time of a schema file.
+     *
+     * @param schemaFile The path to the JSON schema file.
+     * @return The modification time of the file.
+     * @throws InvalidJSONException If the file cannot be found.
+     */
+    private static FileTime modificationTime(Path schemaFile) {
+        try {
+            return Files.getLastModifiedTime(schemaFile);
+        } catch (IOException e) {
+            throw new InvalidJSONException("Can't find schema file", schemaFile);
+        }
+    }
+
+    /**
+     * Computes the SHA-256 hash of the given content.
+     *
+     * @param content The content to hash.
+     * @return The hash as a hexadecimal string.
+     */
+    private static String hash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest)
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A compiled schema file along with the modification time it was read at.
+     */
+    private static final class FileEntry {
+        private final FileTime modified;
+        private final CompiledSchema schema;
+
+        private FileEntry(FileTime modified, CompiledSchema schema) {
+            this.modified = modified;
+            this.schema = schema;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.gbursali.utils.json_validator;
+
+import com.gbursali.utils.InvalidJSONException;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import dev.harrel.jsonschema.Error;
+import dev.harrel.jsonschema.Validator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Validates a JSON array against an array schema one element at a time, so that memory use is bounded by
+ * the largest element instead of the whole document.
+ * <p>
+ * Only schemas whose constraints can be checked element by element are supported: {@code "type": "array"}
+ * with an {@code items} schema and optional {@code minItems}/{@code maxItems}. References inside the item
+ * schema may point to {@code $defs} or {@code definitions} of the root schema. Schemas with an {@code $id} whose
+ * item schema has relative references are not supported, since the item schema is compiled apart from its root.
+ */
+final class StreamingArrayValidator {
+
+    private static final Set<String> SUPPORTED_KEYWORDS = new HashSet<>(Arrays.asList(
+            "$schema", "$id", "$comment", "$defs", "definitions", "title", "description", "examples", "default",
+            "type", "items", "minItems", "maxItems"));
+
+    /**
+     * Compiled item schema, or null if every element is valid.
+     */
+    private final CompiledSchema itemSchema;
+    private final long minItems;
+    private final long maxItems;
+
+    private StreamingArrayValidator(CompiledSchema itemSchema, long minItems, long maxItems) {
+        this.itemSchema = itemSchema;
+        this.minItems = minItems;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Creates a streaming validator for a schema, if the schema supports streaming validation.
+     *
+     * @param schema   The root schema.
+     * @param registry The registry compiling the item schema.
+     * @return The created validator, or null if the schema does not support streaming validation.
+     */
+    static StreamingArrayValidator forSchema(JsonObject schema, SchemaRegistry registry) {
+        for (String keyword : schema.keySet())
+            if (!SUPPORTED_KEYWORDS.contains(keyword))
+                return null;
+        JsonElement type = schema.get("type");
+        JsonElement items = schema.get("items");
+        if (type == null || !type.isJsonPrimitive() || !"array".equals(type.getAsString()) || items == null)
+            return null;
+        long minItems = schema.has("minItems") ? schema.get("minItems").getAsLong() : 0;
+        long maxItems = schema.has("maxItems") ? schema.get("maxItems").getAsLong() : Long.MAX_VALUE;
+
+        if (items.isJsonPrimitive() && items.getAsJsonPrimitive().isBoolean() && items.getAsBoolean())
+            return new StreamingArrayValidator(null, minItems, maxItems);
+        if (schema.has("$id") && Subschemas.hasRelativeReference(items))
+            return null;
+        JsonObject itemDocument = Subschemas.extract(schema, items);
+        if (itemDocument == null)
+            return null;
+        return new StreamingArrayValidator(registry.compile(itemDocument), minItems, maxItems);
+    }
+
+    /**
+     * Reads a UTF-8 encoded JSON array from a stream and validates every element as it is read.
+     *
+     * Reading stops once the error limit is reached.
+     *
+     * @param instance  The stream containing the array. It is not closed by this method.
+     * @param maxErrors The maximum number of errors to collect.
+     * @return The validation errors, located by element index; empty if the array is valid.
+     * @throws InvalidJSONException If the stream does not contain valid JSON, or has content after the array.
+     */
+    List<ValidationError> validate(InputStream instance, int maxErrors) {
+        List<ValidationError> errors = new ArrayList<>();
+        try {
+            JsonReader reader = new JsonReader(new InputStreamReader(instance, StandardCharsets.UTF_8));
+            JsonToken token = reader.peek();
+            if (token != JsonToken.BEGIN_ARRAY) {
+                errors.add(new ValidationError("", "type",
+                        String.format("Value is [%s] but should be [array]", typeOf(token))));
+                return errors;
+            }
+            reader.beginArray();
+            long index = 0;
+            while (reader.hasNext()) {
+                if (itemSchema == null) {
+                    reader.skipValue();
+                } else {
+                    JsonElement element = JsonParser.parseReader(reader);
+                    Validator.Result result = itemSchema.validate((Object) element);
+                    if (!result.isValid()) {
+                        for (Error error : result.getErrors()) {
+                            errors.add(ValidationError.from(error).atIndex(index));
+                            if (errors.size() >= maxErrors)
+                                return errors;
+                        }
+                    }
+                }
+                index++;
+            }
+            reader.endArray();
+            if (reader.peek() != JsonToken.END_DOCUMENT)
+                throw new InvalidJSONException("Provided content is not a valid JSON");
+            if (index < minItems)
+                errors.add(new ValidationError("", "minItems",
+                        String.format("Array has less than %d items", minItems)));
+            if (index > maxItems)
+                errors.add(new ValidationError("", "maxItems",
+                        String.format("Array has more than %d items", maxItems)));
+            return errors;
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            throw new InvalidJSONException("Provided content is not a valid JSON");
+        }
+    }
+
+    private static String typeOf(JsonToken token) {
+        switch (token) {
+            case BEGIN_OBJECT:
+                return "object";
+            case STRING:
+                return "string";
+            case NUMBER:
+                return "number";
+            case BOOLEAN:
+                return "boolean";
+            case NULL:
+                return "null";
+            default:
+                return token.toString().toLowerCase();
+        }
+    }
+}
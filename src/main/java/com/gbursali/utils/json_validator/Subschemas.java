@@ -0,0 +1,116 @@
+package com.gbursali.utils.json_validator;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for compiling parts of a schema on their own, such as the {@code items} schema of an array.
+ */
+final class Subschemas {
+
+    /**
+     * Root keywords copied into extracted subschemas, so that dialect and local definitions still resolve.
+     */
+    private static final List<String> CARRIED_KEYWORDS = Arrays.asList("$schema", "$defs", "definitions");
+
+    private Subschemas() {
+    }
+
+    /**
+     * Builds a standalone schema document from a subschema of a root schema.
+     *
+     * @param root      The root schema the subschema belongs to.
+     * @param subschema The subschema.
+     * @return The standalone schema, or null if the subschema is not an object or references parts of the
+     * root schema other than its {@code $defs} or {@code definitions}.
+     */
+    static JsonObject extract(JsonObject root, JsonElement subschema) {
+        if (!subschema.isJsonObject() || hasRootReference(subschema))
+            return null;
+        JsonObject document = subschema.getAsJsonObject().deepCopy();
+        for (String keyword : CARRIED_KEYWORDS)
+            if (root.has(keyword) && !document.has(keyword))
+                document.add(keyword, root.get(keyword));
+        return document;
+    }
+
+    /**
+     * Checks if a schema contains local references an extracted subschema cannot resolve.
+     *
+     * @param schema The schema to check.
+     * @return True if a reference points outside {@code $defs} and {@code definitions}.
+     */
+    static boolean hasRootReference(JsonElement schema) {
+        if (schema.isJsonArray()) {
+            for (JsonElement element : schema.getAsJsonArray())
+                if (hasRootReference(element))
+                    return true;
+        } else if (schema.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : schema.getAsJsonObject().entrySet()) {
+                JsonElement value = entry.getValue();
+                if ((entry.getKey().equals("$ref") || entry.getKey().equals("$dynamicRef"))
+                        && value.isJsonPrimitive() && isRootReference(value.getAsString()))
+                    return true;
+                if (hasRootReference(value))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a schema contains references relative to the base URI of its document, such as
+     * {@code "item.json"}. An extracted subschema loses the {@code $id} of its root, so it cannot resolve them.
+     *
+     * @param schema The schema to check.
+     * @return True if a reference is neither a fragment nor an absolute URI.
+     */
+    static boolean hasRelativeReference(JsonElement schema) {
+        if (schema.isJsonArray()) {
+            for (JsonElement element : schema.getAsJsonArray())
+                if (hasRelativeReference(element))
+                    return true;
+        } else if (schema.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : schema.getAsJsonObject().entrySet()) {
+                JsonElement value = entry.getValue();
+                if ((entry.getKey().equals("$ref") || entry.getKey().equals("$dynamicRef"))
+                        && value.isJsonPrimitive() && isRelativeReference(value.getAsString()))
+                    return true;
+                if (hasRelativeReference(value))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRelativeReference(String reference) {
+        if (reference.startsWith("#"))
+            return false;
+        try {
+            return !URI.create(reference).isAbsolute();
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    private static boolean isRootReference(String reference) {
+        return reference.startsWith("#")
+                && !reference.startsWith("#/$defs/")
+                && !reference.startsWith("#/definitions/");
+    }
+
+    /**
+     * Escapes a property name for use as a JSON pointer segment.
+     *
+     * @param name The property name.
+     * @return The escaped segment.
+     */
+    static String escape(String name) {
+        return name.replace("~", "~0").replace("/", "~1");
+    }
+}
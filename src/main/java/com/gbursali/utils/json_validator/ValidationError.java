@@ -0,0 +1,114 @@
+package com.gbursali.utils.json_validator;
+
+import dev.harrel.jsonschema.Error;
+
+/**
+ * A single violation found while validating a JSON instance against a schema.
+ * Instances are immutable.
+ */
+public final class ValidationError {
+
+    /**
+     * JSON pointer to the invalid part of the instance.
+     */
+    private final String instanceLocation;
+
+    /**
+     * Schema keyword that was violated.
+     */
+    private final String keyword;
+
+    /**
+     * Description of the violation.
+     */
+    private final String error;
+
+    /**
+     * Constructs a new ValidationError.
+     *
+     * @param instanceLocation The JSON pointer to the invalid part of the instance.
+     * @param keyword          The schema keyword that was violated.
+     * @param error            The description of the violation.
+     */
+    public ValidationError(String instanceLocation, String keyword, String error) {
+        this.instanceLocation = instanceLocation;
+        this.keyword = keyword;
+        this.error = error;
+    }
+
+    /**
+     * Creates a ValidationError from an error reported by the schema validator.
+     *
+     * @param error The validator error.
+     * @return The created ValidationError.
+     */
+    static ValidationError from(Error error) {
+        return new ValidationError(error.getInstanceLocation(), error.getKeyword(), error.getError());
+    }
+
+    /**
+     * Creates a copy of this error located inside the array element at the given index.
+     *
+     * @param index The index of the element the error was found in.
+     * @return The relocated ValidationError.
+     */
+    ValidationError atIndex(long index) {
+        return under("/" + index);
+    }
+
+    /**
+     * Creates a copy of this error located below the given JSON pointer.
+     *
+     * @param location The JSON pointer of the value the error was found in.
+     * @return The relocated ValidationError.
+     */
+    ValidationError under(String location) {
+        return location.isEmpty() ? this : new ValidationError(location + instanceLocation, keyword, error);
+    }
+
+    /**
+     * Gets the JSON pointer to the invalid part of the instance, such as {@code /12/email}.
+     *
+     * @return The instance location; empty for the root.
+     */
+    public String getInstanceLocation() {
+        return instanceLocation;
+    }
+
+    /**
+     * Gets the schema keyword that was violated.
+     *
+     * @return The keyword.
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Gets the description of the violation.
+     *
+     * @return The description.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Appends the description of this error to a message.
+     *
+     * @param builder The message being built.
+     */
+    void appendTo(StringBuilder builder) {
+        String lineSeparator = System.lineSeparator();
+        builder.append("Path: ").append(instanceLocation).append(lineSeparator)
+                .append("Variable: ").append(keyword).append(lineSeparator)
+                .append("Error: ").append(error);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        appendTo(builder);
+        return builder.toString();
+    }
+}
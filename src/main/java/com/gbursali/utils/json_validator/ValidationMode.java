@@ -0,0 +1,76 @@
+package com.gbursali.utils.json_validator;
+
+/**
+ * How many errors a {@link JSONValidator} reports before it stops.
+ * Instances are immutable.
+ * <p>
+ * The schema library always checks a document completely, so limiting errors mainly saves building and
+ * formatting the report. Streaming validation stops reading further elements and parallel validation
+ * stops starting new tasks once the limit is reached, so there a limit also saves validation work.
+ */
+public final class ValidationMode {
+
+    private static final ValidationMode FULL = new ValidationMode(Integer.MAX_VALUE);
+    private static final ValidationMode FAIL_FAST = new ValidationMode(1);
+
+    private final int maxErrors;
+
+    private ValidationMode(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Gets the mode reporting every error. This is the default.
+     *
+     * @return The full ValidationMode.
+     */
+    public static ValidationMode full() {
+        return FULL;
+    }
+
+    /**
+     * Gets the mode stopping at the first error.
+     *
+     * @return The fail-fast ValidationMode.
+     */
+    public static ValidationMode failFast() {
+        return FAIL_FAST;
+    }
+
+    /**
+     * Creates a mode stopping after the given number of errors.
+     *
+     * @param maxErrors The maximum number of errors to report.
+     * @return The created ValidationMode.
+     */
+    public static ValidationMode capped(int maxErrors) {
+        if (maxErrors < 1)
+            throw new IllegalArgumentException("maxErrors must be positive, got " + maxErrors);
+        return maxErrors == 1 ? FAIL_FAST : new ValidationMode(maxErrors);
+    }
+
+    /**
+     * Gets the maximum number of errors reported.
+     *
+     * @return The error limit, {@link Integer#MAX_VALUE} for the full mode.
+     */
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    /**
+     * Checks whether every error is reported.
+     *
+     * @return True for the full mode.
+     */
+    public boolean isFull() {
+        return maxErrors == Integer.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        if (isFull())
+            return "full";
+        return maxErrors == 1 ? "fail-fast" : "capped(" + maxErrors + ")";
+    }
+}
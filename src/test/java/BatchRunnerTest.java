@@ -0,0 +1,104 @@
+import com.gbursali.endpoint.BatchOptions;
+import com.gbursali.endpoint.Endpoint;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.endpoint.EndpointResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test class for sending batches of endpoints.
+ */
+public class BatchRunnerTest {
+
+    /**
+     * Verifies that endpoints waiting for a busy host do not hold the batch slots needed by other hosts.
+     */
+    @Test
+    public void verifyBusyHostDoesNotBlockOtherHosts() throws Exception {
+        AtomicLong fastServedAt = new AtomicLong();
+        HttpServer slow = start(exchange -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange);
+        });
+        HttpServer fast = start(exchange -> {
+            fastServedAt.compareAndSet(0, System.nanoTime());
+            respond(exchange);
+        });
+        try {
+            EndpointBase slowBase = EndpointBase.builder(baseURL(slow));
+            EndpointBase fastBase = EndpointBase.builder(baseURL(fast));
+            // Warm RestAssured up, so that only the batch itself is timed.
+            fastBase.makeWithPath("/warm-up").send();
+            fastServedAt.set(0);
+            List<Endpoint> endpoints = new ArrayList<>();
+            for (int i = 0; i < 3; i++)
+                endpoints.add(slowBase.makeWithPath("/slow/" + i));
+            endpoints.add(fastBase.makeWithPath("/fast"));
+            long start = System.nanoTime();
+            List<EndpointResult> results = slowBase.sendAll(endpoints,
+                    BatchOptions.defaults().withMaxConcurrency(2).withMaxConnectionsPerHost(1));
+            Assert.assertEquals(4, results.size());
+            Assert.assertTrue(fastServedAt.get() - start < 200_000_000L);
+        } finally {
+            slow.stop(0);
+            fast.stop(0);
+        }
+    }
+
+    /**
+     * Verifies that endpoints rejected by the executor complete with the rejection instead of hanging the batch.
+     */
+    @Test(timeout = 10_000)
+    public void verifyRejectedEndpointsComplete() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        executor.shutdown();
+        EndpointBase base = EndpointBase.builder("http://127.0.0.1:1");
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            endpoints.add(base.makeWithPath("/items/" + i));
+        List<EndpointResult> results = base.sendAll(endpoints,
+                BatchOptions.defaults().withMaxConcurrency(2).withExecutor(executor));
+        for (EndpointResult result : results)
+            Assert.assertTrue(result.getError() instanceof RejectedExecutionException);
+    }
+
+    private static HttpServer start(HttpHandler handler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", handler);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String baseURL(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+}
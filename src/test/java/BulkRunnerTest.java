@@ -0,0 +1,105 @@
+import com.gbursali.bulk.BulkJob;
+import com.gbursali.bulk.BulkReport;
+import com.gbursali.bulk.BulkRunner;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.metrics.RequestOutcome;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Test class for the bulk runner.
+ */
+public class BulkRunnerTest {
+
+    private Path root;
+
+    /**
+     * Writes a templated definition validating that the echoed user name is a string.
+     */
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("ra-requester-bulk");
+        Files.writeString(root.resolve("user.json"), "{"
+                + "\"settings\":{\"path\":\"/users/{{id}}\",\"method\":\"GET\"},"
+                + "\"params\":{\"name\":\"{{name}}\"},"
+                + "\"result-schema\":{\"required\":[\"name\"]}"
+                + "}");
+    }
+
+    /**
+     * Verifies that every CSV row gets a result, in input order, including invalid and failing rows.
+     */
+    @Test
+    public void verifyCsvRowsAreWrittenInOrder() throws IOException {
+        StringBuilder csv = new StringBuilder("id,name\n");
+        for (int i = 1; i <= 40; i++)
+            csv.append(i).append(",\"user, ").append(i).append("\"\n");
+        csv.append("41\n");
+        Path input = Files.writeString(root.resolve("users.csv"), csv);
+        Path output = root.resolve("results.jsonl");
+        try (StubServer server = StubServer.fromResponder(request -> request.getPath().endsWith("/13")
+                ? StubResponse.json(200, "{}")
+                : StubResponse.json(200, "{\"name\":\"x\"}")).start()) {
+            BulkReport report = BulkRunner.run(base(server), BulkJob.of("user.json", input, output).withMaxConcurrency(8));
+            Assert.assertEquals(41, report.getRowCount());
+            Assert.assertEquals(40, server.getRequestCount());
+            Assert.assertEquals(39, report.getOutcomeCount(RequestOutcome.SUCCESS));
+            Assert.assertEquals(1, report.getOutcomeCount(RequestOutcome.VALIDATION_FAILURE));
+            Assert.assertEquals(1, report.getInvalidRowCount());
+        }
+        List<String> lines = Files.readAllLines(output);
+        Assert.assertEquals(41, lines.size());
+        for (int i = 0; i < lines.size(); i++)
+            Assert.assertEquals(i + 1, JsonParser.parseString(lines.get(i)).getAsJsonObject().get("row").getAsInt());
+        JsonObject failed = JsonParser.parseString(lines.get(12)).getAsJsonObject();
+        Assert.assertEquals("VALIDATION_FAILURE", failed.get("outcome").getAsString());
+        Assert.assertEquals(200, failed.get("status").getAsInt());
+        Assert.assertEquals("INVALID_ROW", JsonParser.parseString(lines.get(40)).getAsJsonObject().get("outcome").getAsString());
+    }
+
+    /**
+     * Verifies that a resumed run skips committed rows and discards results written after the checkpoint.
+     */
+    @Test
+    public void verifyRunResumesFromCheckpoint() throws IOException {
+        Path input = root.resolve("users.jsonl");
+        Path output = root.resolve("results.jsonl");
+        for (int i = 1; i <= 10; i++)
+            Files.writeString(input, "{\"id\":" + i + ",\"name\":\"user-" + i + "\"}\n",
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        try (StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, "{\"name\":\"x\"}")).start()) {
+            BulkJob job = BulkJob.of("user.json", input, output).withCheckpointInterval(3).withResume(true);
+            BulkRunner.run(base(server), job);
+            Files.writeString(output, "{\"row\":11,\"outcome\":\"UNCOMMITTED\"}\n", StandardOpenOption.APPEND);
+            for (int i = 11; i <= 15; i++)
+                Files.writeString(input, "{\"id\":" + i + ",\"name\":\"user-" + i + "\"}\n", StandardOpenOption.APPEND);
+
+            BulkReport report = BulkRunner.run(base(server), job);
+            Assert.assertEquals(10, report.getSkippedCount());
+            Assert.assertEquals(5, report.getRowCount());
+            Assert.assertEquals(15, server.getRequestCount());
+        }
+        List<String> lines = Files.readAllLines(output);
+        Assert.assertEquals(15, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            JsonObject result = JsonParser.parseString(lines.get(i)).getAsJsonObject();
+            Assert.assertEquals(i + 1, result.get("row").getAsInt());
+            Assert.assertEquals("SUCCESS", result.get("outcome").getAsString());
+        }
+    }
+
+    private EndpointBase base(StubServer server) {
+        return server.getBase().withJsonBasePath(root);
+    }
+}
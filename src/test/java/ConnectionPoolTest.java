@@ -0,0 +1,94 @@
+import com.gbursali.endpoint.ConnectionPool;
+import com.gbursali.endpoint.ConnectionSettings;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import io.restassured.RestAssured;
+import io.restassured.config.RedirectConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.Header;
+import org.apache.http.pool.PoolStats;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Test class for pooled connections.
+ */
+public class ConnectionPoolTest {
+
+    private static final String DEFINITION = "hebrew-api/hebrew_converter.json";
+    private final Path resourcePath = Path.of("src", "test", "resources");
+
+    /**
+     * Verifies that sequential requests from a base and its copies reuse a single connection.
+     */
+    @Test
+    public void verifyConnectionsAreReused() {
+        try (StubServer server = StubServer.fromDefinitions(resourcePath).start();
+             ConnectionPool pool = ConnectionPool.create(ConnectionSettings.defaults()
+                     .withConnectTimeout(Duration.ofSeconds(5))
+                     .withReadTimeout(Duration.ofSeconds(5)))) {
+            EndpointBase base = server.getBase().withConnectionPool(pool);
+            for (int i = 0; i < 5; i++) {
+                base.makeWithJson(DEFINITION).send();
+                base.withHeader(new Header("X-Request", String.valueOf(i))).makeWithJson(DEFINITION).send();
+            }
+            PoolStats stats = pool.getStats();
+            Assert.assertEquals(0, stats.getLeased());
+            Assert.assertEquals(1, stats.getAvailable());
+            Assert.assertEquals(0, stats.getPending());
+            Assert.assertEquals(10, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Verifies that a zero keep-alive closes connections after every response.
+     */
+    @Test
+    public void verifyZeroKeepAliveDisablesReuse() {
+        try (StubServer server = StubServer.fromDefinitions(resourcePath).start()) {
+            EndpointBase base = server.getBase()
+                    .withConnectionSettings(ConnectionSettings.defaults().withKeepAlive(Duration.ZERO));
+            base.makeWithJson(DEFINITION).send();
+            Assert.assertEquals(0, base.getConnectionPool().getStats().getAvailable());
+            base.getConnectionPool().close();
+        }
+    }
+
+    /**
+     * Verifies that responses nobody reads still release their connection.
+     */
+    @Test(timeout = 10000)
+    public void verifyUnreadResponsesReleaseConnections() {
+        try (StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, "{}")).start()) {
+            EndpointBase base = server.getBase()
+                    .withConnectionSettings(ConnectionSettings.defaults().withMaxPerRoute(2));
+            for (int i = 0; i < 5; i++)
+                base.makeWithPath("/unread").send();
+            Assert.assertEquals(0, base.getConnectionPool().getStats().getLeased());
+            base.getConnectionPool().close();
+        }
+    }
+
+    /**
+     * Verifies that requests sent through a pool keep the rest of RestAssured's global configuration.
+     */
+    @Test
+    public void verifyGlobalConfigIsKept() {
+        RestAssuredConfig global = RestAssured.config;
+        RestAssured.config = RestAssured.config().redirect(RedirectConfig.redirectConfig().followRedirects(false));
+        try (StubServer server = StubServer.fromResponder(request -> new StubResponse(302,
+                Map.of("Location", "/elsewhere"), new byte[0])).start();
+             ConnectionPool pool = ConnectionPool.create(ConnectionSettings.defaults())) {
+            EndpointBase base = server.getBase().withConnectionPool(pool);
+            Assert.assertEquals(302, base.makeWithPath("/moved").send().getStatusCode());
+            Assert.assertEquals(1, server.getRequestCount());
+        } finally {
+            RestAssured.config = global;
+        }
+    }
+}
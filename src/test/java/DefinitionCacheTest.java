@@ -0,0 +1,161 @@
+import com.gbursali.endpoint.DefinitionCache;
+import com.gbursali.endpoint.Endpoint;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.endpoint.EndpointDefinition;
+import com.gbursali.endpoint.PreloadReport;
+import com.gbursali.utils.MethodType;
+import io.restassured.http.Header;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for cached endpoint definitions.
+ */
+public class DefinitionCacheTest {
+
+    private final Path resourcePath = Path.of("src", "test", "resources");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Verifies that a definition file is parsed once per base.
+     */
+    @Test
+    public void verifyDefinitionIsParsedOnce() {
+        EndpointBase base = EndpointBase.builder("https://www.hebcal.com")
+                .withJsonBasePath(resourcePath);
+
+        base.makeWithJson("hebrew-api/hebrew_converter.json");
+        base.makeWithJson("hebrew-api/hebrew_converter.json");
+        EndpointDefinition definition = base.getDefinition(Path.of("hebrew-api/hebrew_converter.json"));
+
+        Assert.assertEquals(1, base.getDefinitionCache().getMissCount());
+        Assert.assertEquals(2, base.getDefinitionCache().getHitCount());
+        Assert.assertEquals("/converter", definition.getPath());
+        Assert.assertEquals(MethodType.GET, definition.getType());
+        Assert.assertEquals("2011-06-02", definition.getParams().get("date"));
+    }
+
+    /**
+     * Verifies that a modified definition file is read again.
+     */
+    @Test
+    public void verifyModifiedDefinitionIsReloaded() throws IOException {
+        Path file = Files.createTempFile("definition", ".json");
+        try {
+            DefinitionCache cache = new DefinitionCache();
+            Files.writeString(file, "{\"settings\":{\"path\":\"/first\"}}");
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now().minusSeconds(60)));
+            Assert.assertEquals("/first", cache.get(file).getPath());
+
+            Files.writeString(file, "{\"settings\":{\"path\":\"/second\",\"method\":\"POST\"}}");
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            Assert.assertEquals("/second", cache.get(file).getPath());
+            Assert.assertEquals(2, cache.getMissCount());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Verifies that preloading indexes every definition and skips the schema files next to them.
+     */
+    @Test
+    public void verifyPreloadIndexesDefinitions() {
+        EndpointBase base = EndpointBase.builder("https://www.hebcal.com")
+                .withJsonBasePath(resourcePath);
+
+        PreloadReport report = base.preload();
+
+        Assert.assertFalse(report.getFailures().toString(), report.hasFailures());
+        Assert.assertEquals(1, report.getLoadedCount());
+        Assert.assertEquals(1, report.getSkippedCount());
+        Assert.assertTrue(base.getDefinitionCache().findById("hebrew-api/hebrew_converter").isPresent());
+        Assert.assertNotNull(base.makeWithId("hebrew_converter.json"));
+    }
+
+    /**
+     * Verifies that a base pointing at another JSON root does not see the definitions preloaded from the first one.
+     */
+    @Test
+    public void verifyOtherRootDoesNotSharePreload() {
+        EndpointBase base = EndpointBase.builder("https://www.hebcal.com")
+                .withJsonBasePath(resourcePath);
+        base.preload().throwIfFailed();
+
+        Assert.assertNotNull(base.withHeader(new Header("X-Trace", "1")).makeWithId("hebrew_converter.json"));
+        EndpointBase other = base.withJsonBasePath(temporaryFolder.getRoot().toPath());
+        Assert.assertNotSame(base.getDefinitionCache(), other.getDefinitionCache());
+        Assert.assertThrows(IllegalArgumentException.class, () -> other.makeWithId("hebrew-api/hebrew_converter"));
+    }
+
+    /**
+     * Verifies that lookups by id keep finding the definitions while the directory is preloaded again.
+     */
+    @Test
+    public void verifyReloadKeepsIndexAvailable() throws InterruptedException {
+        DefinitionCache cache = new DefinitionCache();
+        cache.preload(resourcePath);
+        AtomicBoolean reloading = new AtomicBoolean(true);
+        AtomicInteger misses = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (reloading.get())
+                if (cache.findById("hebrew-api/hebrew_converter").isEmpty()
+                        || cache.findByFileName("hebrew_converter.json").isEmpty())
+                    misses.incrementAndGet();
+        });
+        reader.start();
+        for (int i = 0; i < 50; i++)
+            cache.preload(resourcePath);
+        reloading.set(false);
+        reader.join();
+        Assert.assertEquals(0, misses.get());
+    }
+
+    /**
+     * Verifies that the result schema of a definition is wired into the endpoints and loaded only once.
+     */
+    @Test
+    public void verifyResultSchemaIsShared() {
+        EndpointBase base = EndpointBase.builder("https://www.hebcal.com")
+                .withJsonBasePath(resourcePath);
+
+        Endpoint first = base.makeWithJson("hebrew-api/hebrew_converter.json");
+        Endpoint second = base.makeWithJson("hebrew-api/hebrew_converter.json");
+
+        Assert.assertNotNull(first.getValidator());
+        Assert.assertSame(first.getValidator().getSchema(), second.getValidator().getSchema());
+    }
+
+    /**
+     * Verifies that an edited schema file is picked up by the endpoints created afterwards.
+     */
+    @Test
+    public void verifyEditedSchemaFileIsReloaded() throws IOException {
+        Path root = temporaryFolder.getRoot().toPath();
+        Path schema = root.resolve("schema.json");
+        Files.writeString(schema, "{\"type\":\"object\"}");
+        Files.writeString(root.resolve("item.json"),
+                "{\"settings\":{\"path\":\"/item\"},\"result-schema\":{\"file\":\"schema.json\"}}");
+        EndpointBase base = EndpointBase.builder("https://www.hebcal.com").withJsonBasePath(root);
+        Endpoint before = base.makeWithJson("item.json");
+
+        Files.writeString(schema, "{\"type\":\"array\"}");
+        Files.setLastModifiedTime(schema, FileTime.from(Instant.now().plusSeconds(10)));
+        Endpoint after = base.makeWithJson("item.json");
+
+        Assert.assertNotSame(before.getValidator().getSchema(), after.getValidator().getSchema());
+        Assert.assertSame(after.getValidator().getSchema(), base.makeWithJson("item.json").getValidator().getSchema());
+    }
+}
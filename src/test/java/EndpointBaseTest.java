@@ -0,0 +1,92 @@
+import com.gbursali.endpoint.Endpoint;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.stub.StubRequest;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import com.gbursali.utils.MethodType;
+import io.restassured.http.Header;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test class for sharing an endpoint base between endpoints and threads.
+ */
+public class EndpointBaseTest {
+
+    /**
+     * Verifies that the params and body of an endpoint are not sent by other endpoints of the same base,
+     * and that {@code with...} methods leave the original base unchanged.
+     */
+    @Test
+    public void verifyEndpointsDoNotShareRequestState() {
+        try (StubServer server = StubServer.fromResponder(EndpointBaseTest::echo).start()) {
+            EndpointBase base = server.getBase().withHeader(new Header("X-Base", "shared"));
+            EndpointBase traced = base.withHeader(new Header("X-Trace", "1"));
+
+            Endpoint create = base.makeWithPath("/items").withType(MethodType.POST);
+            create.setBody("{\"name\":\"book\"}");
+            Assert.assertEquals("POST null {\"name\":\"book\"} shared null", create.send().asString());
+
+            Endpoint search = base.makeWithPath("/items");
+            search.addParam(Map.of("tenant", "acme"));
+            Assert.assertEquals("GET tenant=acme  shared null", search.send().asString());
+
+            Endpoint list = base.makeWithPath("/items");
+            Assert.assertEquals("GET null  shared null", list.send().asString());
+            Assert.assertEquals("GET null  shared 1", traced.makeWithPath("/items").send().asString());
+            Assert.assertEquals(1, base.getHeaders().size());
+        }
+    }
+
+    /**
+     * Verifies that endpoints sent concurrently through one base each send their own params, headers and body.
+     */
+    @Test
+    public void verifyConcurrentSendsDoNotInterfere() throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try (StubServer server = StubServer.fromResponder(EndpointBaseTest::echo).start()) {
+            EndpointBase base = server.getBase().withHeader(new Header("X-Base", "shared"));
+            List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                int id = i;
+                responses.add(threads.submit(() -> {
+                    Endpoint endpoint = base.makeWithPath("/items");
+                    if (id % 2 == 0) {
+                        endpoint.addParam(Map.of("id", String.valueOf(id)));
+                    } else {
+                        endpoint.withType(MethodType.POST).setBody("body-" + id);
+                    }
+                    endpoint.addHeader(Map.of("X-Trace", String.valueOf(id)));
+                    return endpoint.send().asString();
+                }));
+            }
+            for (int i = 0; i < responses.size(); i++) {
+                String expected = i % 2 == 0 ? "GET id=" + i + " " : "POST null body-" + i;
+                Assert.assertEquals(expected + " shared " + i, responses.get(i).get());
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /**
+     * Answers with the method, query, body and traced headers of the request.
+     *
+     * @param request The request.
+     * @return The response.
+     */
+    private static StubResponse echo(StubRequest request) {
+        String echo = request.getMethod() + " " + request.getQuery() + " "
+                + new String(request.getBody(), StandardCharsets.UTF_8) + " "
+                + request.getHeader("X-Base") + " " + request.getHeader("X-Trace");
+        return new StubResponse(200, Map.of("Content-Type", "text/plain"), echo.getBytes(StandardCharsets.UTF_8));
+    }
+}
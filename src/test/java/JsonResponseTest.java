@@ -0,0 +1,118 @@
+import com.gbursali.endpoint.JsonResponse;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import com.gbursali.utils.JSONUtils;
+import com.gbursali.utils.json_validator.JSONValidator;
+import com.gbursali.utils.json_validator.SchemaRegistry;
+import com.google.gson.JsonElement;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test class for parsing and validating response bodies from their bytes.
+ */
+public class JsonResponseTest {
+
+    private static final String SCHEMA = "{\"properties\":{\"name\":{\"type\":\"string\",\"maxLength\":4}}}";
+
+    /**
+     * Verifies that the tree parsed for validation is the one returned and exposed by the response.
+     */
+    @Test
+    public void verifyValidatedTreeIsReused() {
+        List<JsonElement> validated = new ArrayList<>();
+        JSONValidator validator = capturing(validated);
+        byte[] body = "{\"name\":\"book\"}".getBytes(StandardCharsets.UTF_8);
+
+        JsonElement fromBytes = validator.validate(body);
+        Assert.assertSame(validated.get(0), fromBytes);
+        JsonElement fromStream = validator.validate(new ByteArrayInputStream(body));
+        Assert.assertSame(validated.get(1), fromStream);
+
+        validated.clear();
+        try (StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, "{\"name\":\"book\"}")).start()) {
+            JsonResponse response = server.getBase().makeWithPath("/items").withValidator(validator).sendForJson();
+            Assert.assertEquals(1, validated.size());
+            Assert.assertSame(validated.get(0), response.getBody());
+            Assert.assertSame(response.getBody(), response.getBody());
+        }
+    }
+
+    /**
+     * Verifies that content that is not JSON, or not valid UTF-8, fails the byte paths as it fails the String path.
+     */
+    @Test
+    public void verifyInvalidContentFailsLikeStringPath() {
+        JSONValidator validator = JSONValidator.fromString(SCHEMA);
+        for (String content : new String[]{"not json", "{\"name\":", "{} trailing", "{\"name\" \"book\"}"}) {
+            RuntimeException expected = failure(() -> validator.validate(content));
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            assertSameFailure(expected, failure(() -> validator.validate(bytes)));
+            assertSameFailure(expected, failure(() -> validator.validate(new ByteArrayInputStream(bytes))));
+        }
+
+        byte[] malformed = {'{', '"', 'n', 'a', 'm', 'e', '"', ':', '"', (byte) 0xC3, '(', 'a', 'b', 'c', '"', '}'};
+        RuntimeException expected = failure(() -> validator.validate(new String(malformed, StandardCharsets.UTF_8)));
+        assertSameFailure(expected, failure(() -> validator.validate(malformed)));
+        assertSameFailure(expected, failure(() -> validator.validate(new ByteArrayInputStream(malformed))));
+    }
+
+    /**
+     * Verifies that bodies are decoded with the charset of their Content-Type.
+     */
+    @Test
+    public void verifyBodyIsDecodedWithResponseCharset() {
+        byte[] latin1 = "{\"name\":\"café\"}".getBytes(StandardCharsets.ISO_8859_1);
+        try (StubServer server = StubServer.fromResponder(request -> new StubResponse(200,
+                Map.of("Content-Type", "application/json; charset=ISO-8859-1"), latin1)).start()) {
+            String schema = "{\"properties\":{\"name\":{\"const\":\"café\"}}}";
+            JsonResponse validated = server.getBase().makeWithPath("/items").withValidator(schema).sendForJson();
+            Assert.assertEquals("café", validated.getBodyAsObject().get("name").getAsString());
+            JsonResponse parsed = server.getBase().makeWithPath("/items").sendForJson();
+            Assert.assertEquals("café", parsed.getBodyAsObject().get("name").getAsString());
+        }
+    }
+
+    /**
+     * Creates a validator for {@link #SCHEMA} that records every tree it validates.
+     *
+     * @param validated The list the validated trees are added to.
+     * @return The validator.
+     */
+    private static JSONValidator capturing(List<JsonElement> validated) {
+        return new JSONValidator(SchemaRegistry.shared().compile(JSONUtils.jsonify(SCHEMA).getAsJsonObject())) {
+            @Override
+            public void validate(JsonElement instance) {
+                validated.add(instance);
+                super.validate(instance);
+            }
+        };
+    }
+
+    /**
+     * Runs an action expected to fail.
+     *
+     * @param action The action.
+     * @return The exception it failed with.
+     */
+    private static RuntimeException failure(Runnable action) {
+        return Assert.assertThrows(RuntimeException.class, action::run);
+    }
+
+    /**
+     * Asserts that two failures have the same type and message.
+     *
+     * @param expected The failure of the String path.
+     * @param actual   The failure of a byte path.
+     */
+    private static void assertSameFailure(RuntimeException expected, RuntimeException actual) {
+        Assert.assertEquals(expected.getClass(), actual.getClass());
+        Assert.assertEquals(expected.getMessage(), actual.getMessage());
+    }
+}
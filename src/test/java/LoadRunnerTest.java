@@ -0,0 +1,88 @@
+import com.gbursali.load.LoadReport;
+import com.gbursali.load.LoadRunner;
+import com.gbursali.load.LoadScenario;
+import com.gbursali.metrics.RequestOutcome;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Test class for the load runner.
+ */
+public class LoadRunnerTest {
+
+    private static final String DEFINITION = "hebrew-api/hebrew_converter.json";
+    private final Path resourcePath = Path.of("src", "test", "resources");
+
+    /**
+     * Verifies that the open model sends requests at the target rate.
+     */
+    @Test
+    public void verifyOpenModelRate() {
+        try (StubServer server = StubServer.fromDefinitions(resourcePath).start()) {
+            LoadReport report = LoadRunner.run(server.getBase(),
+                    LoadScenario.openModel(100, Duration.ofSeconds(1))
+                            .withWarmup(Duration.ofMillis(500))
+                            .withDefinition(DEFINITION, 1));
+            Assert.assertEquals(100, report.getRequestCount());
+            Assert.assertEquals(100, report.getOutcomeCount(RequestOutcome.SUCCESS));
+            Assert.assertEquals(0, report.getErrorRate(), 0);
+        }
+    }
+
+    /**
+     * Verifies that waiting caused by a saturated target is part of the reported latency.
+     */
+    @Test
+    public void verifyOpenModelMeasuresQueueing() {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try (StubServer server = StubServer.fromDefinitions(resourcePath)
+                .withLatency(Duration.ofMillis(20))
+                .start()) {
+            LoadReport report = LoadRunner.run(server.getBase(),
+                    LoadScenario.openModel(100, Duration.ofMillis(500))
+                            .withDefinition(DEFINITION, 1)
+                            .withExecutor(single));
+            Assert.assertEquals(50, report.getRequestCount());
+            Assert.assertTrue(report.getLatencyAtPercentile(99).toMillis() > 400);
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    /**
+     * Verifies that the closed model keeps every user busy for the duration.
+     */
+    @Test
+    public void verifyClosedModel() {
+        try (StubServer server = StubServer.fromDefinitions(resourcePath)
+                .withLatency(Duration.ofMillis(10))
+                .start()) {
+            LoadReport report = LoadRunner.run(server.getBase(),
+                    LoadScenario.closedModel(4, Duration.ofMillis(500)).withDefinition(DEFINITION, 1));
+            Assert.assertTrue(report.getRequestCount() > 20);
+            Assert.assertEquals(report.getRequestCount(), report.getOutcomeCount(RequestOutcome.SUCCESS));
+            Assert.assertTrue(report.getThroughput() > 0);
+        }
+    }
+
+    /**
+     * Verifies that responses violating the schema are counted as validation failures.
+     */
+    @Test
+    public void verifyValidationFailures() {
+        try (StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, "{\"gy\":\"x\"}"))
+                .start()) {
+            LoadReport report = LoadRunner.run(server.getBase().withJsonBasePath(resourcePath),
+                    LoadScenario.closedModel(2, Duration.ofMillis(300)).withDefinition(DEFINITION, 1));
+            Assert.assertTrue(report.getRequestCount() > 0);
+            Assert.assertEquals(report.getRequestCount(), report.getOutcomeCount(RequestOutcome.VALIDATION_FAILURE));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.metrics.EndpointMetrics;
+import com.gbursali.metrics.LatencyHistogram;
+import com.gbursali.metrics.MetricsRecorder;
+import com.gbursali.metrics.RequestOutcome;
+import com.gbursali.metrics.RequestPhase;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test class for the request metrics.
+ */
+public class MetricsRecorderTest {
+
+    private final Path resourcePath = Path.of("src", "test", "resources");
+
+    /**
+     * Verifies that requests sent through a base with a recorder are measured per endpoint.
+     */
+    @Test
+    public void verifyRequestsAreRecorded() {
+        MetricsRecorder recorder = new MetricsRecorder();
+        try (StubServer server = StubServer.fromDefinitions(resourcePath).start()) {
+            EndpointBase base = server.getBase().withMetricsListener(recorder);
+            for (int i = 0; i < 3; i++)
+                base.makeWithJson("hebrew-api/hebrew_converter.json").send();
+        }
+        List<EndpointMetrics> endpoints = recorder.getEndpoints();
+        Assert.assertEquals(1, endpoints.size());
+        EndpointMetrics metrics = endpoints.get(0);
+        Assert.assertEquals(3, metrics.getTotal().getCount());
+        Assert.assertEquals(3, metrics.getOutcomeCount(RequestOutcome.SUCCESS));
+        Assert.assertEquals(3, metrics.getPhase(RequestPhase.VALIDATION).getCount());
+        Assert.assertTrue(metrics.getResponseBytes() > 0);
+    }
+
+    /**
+     * Verifies that requests made from a templated definition are aggregated under the path of the definition.
+     */
+    @Test
+    public void verifyTemplatedPathsShareOneEndpoint() throws Exception {
+        Path root = Files.createTempDirectory("ra-requester-metrics");
+        Files.writeString(root.resolve("user.json"), "{\"settings\":{\"path\":\"/users/{{user}}\",\"method\":\"GET\"}}");
+        MetricsRecorder recorder = new MetricsRecorder();
+        try (StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, "{}")).start()) {
+            EndpointBase base = server.getBase().withJsonBasePath(root).withMetricsListener(recorder);
+            for (int i = 0; i < 5; i++)
+                base.makeWithJson("user.json", Map.of("user", i)).send();
+        }
+        List<EndpointMetrics> endpoints = recorder.getEndpoints();
+        Assert.assertEquals(1, endpoints.size());
+        Assert.assertEquals("/users/{{user}}", endpoints.get(0).getPath());
+        Assert.assertEquals(5, endpoints.get(0).getTotal().getCount());
+    }
+
+    /**
+     * Verifies that percentiles are reported within the precision of the histogram.
+     */
+    @Test
+    public void verifyHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++)
+            histogram.record(value * 1000);
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(500_000, histogram.getValueAtPercentile(50), 500_000 * 0.02);
+        Assert.assertEquals(990_000, histogram.getValueAtPercentile(99), 990_000 * 0.02);
+        Assert.assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+    }
+}
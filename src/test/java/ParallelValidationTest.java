@@ -0,0 +1,86 @@
+import com.gbursali.utils.JSONUtils;
+import com.gbursali.utils.json_validator.JSONValidator;
+import com.gbursali.utils.json_validator.JsonValidationException;
+import com.gbursali.utils.json_validator.ValidationError;
+import com.google.gson.JsonElement;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Test class for parallel schema validation.
+ */
+public class ParallelValidationTest {
+
+    private static final String SCHEMA = "{\"type\":\"object\",\"required\":[\"total\",\"data\"],"
+            + "\"properties\":{\"total\":{\"type\":\"integer\"},"
+            + "\"data\":{\"type\":\"array\",\"items\":{\"$ref\":\"#/$defs/record\"}}},"
+            + "\"$defs\":{\"record\":{\"type\":\"object\",\"required\":[\"id\"],"
+            + "\"properties\":{\"id\":{\"type\":\"integer\"}}}}}";
+
+    /**
+     * Verifies that parallel validation reports the same errors as sequential validation, in a stable order.
+     */
+    @Test
+    public void verifyErrorsMatchSequentialValidation() {
+        JSONValidator validator = JSONValidator.fromString(SCHEMA);
+        JsonElement instance = instance(2_000);
+        List<String> sequential = locations(() -> validator.validate(instance));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<String> parallel = locations(() -> validator.validateParallel(instance, pool));
+            Assert.assertEquals(sequential.stream().sorted().collect(Collectors.toList()),
+                    parallel.stream().sorted().collect(Collectors.toList()));
+            for (int i = 0; i < 5; i++)
+                Assert.assertEquals(parallel, locations(() -> validator.validateParallel(instance, pool)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Verifies that a valid instance passes parallel validation.
+     */
+    @Test
+    public void verifyValidInstancePasses() {
+        JSONValidator.fromString(SCHEMA).validateParallel(instance(0));
+    }
+
+    /**
+     * Verifies that keywords looking at the whole object still apply to split properties.
+     */
+    @Test
+    public void verifyAdditionalPropertiesAreChecked() {
+        JSONValidator validator = JSONValidator.fromString(SCHEMA.replace("{\"type\":\"object\",",
+                "{\"type\":\"object\",\"additionalProperties\":false,"));
+        JsonElement instance = JSONUtils.jsonify("{\"total\":1,\"data\":[{\"id\":1}],\"extra\":true}");
+        Assert.assertEquals(List.of("/extra null"), locations(() -> validator.validateParallel(instance)));
+    }
+
+    /**
+     * Builds an instance with the given number of records, every hundredth one invalid.
+     */
+    private static JsonElement instance(int records) {
+        StringBuilder json = new StringBuilder("{\"total\":").append(records).append(",\"data\":[");
+        for (int i = 0; i < Math.max(records, 100); i++) {
+            json.append(i == 0 ? "" : ",");
+            json.append(records > 0 && i % 100 == 7 ? "{\"id\":\"x\"}" : "{\"id\":" + i + "}");
+        }
+        return JSONUtils.jsonify(json.append("]}").toString());
+    }
+
+    private static List<String> locations(Runnable validation) {
+        try {
+            validation.run();
+        } catch (JsonValidationException e) {
+            return e.getErrors().stream()
+                    .map(error -> error.getInstanceLocation() + " " + error.getKeyword())
+                    .collect(Collectors.toList());
+        }
+        Assert.fail("Expected a validation failure");
+        return null;
+    }
+}
@@ -0,0 +1,108 @@
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.endpoint.EndpointDefinition;
+import com.gbursali.endpoint.RateLimiter;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import com.google.gson.JsonParser;
+import io.restassured.response.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for the rate limiter and concurrency governor.
+ */
+public class RateLimiterTest {
+
+    /**
+     * Verifies that asynchronous requests beyond the burst are spread out at the configured rate without
+     * blocking the caller.
+     */
+    @Test
+    public void verifyRate() throws Exception {
+        RateLimiter limiter = RateLimiter.perSecond(20).withBurst(1);
+        try (StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, "{}")).start()) {
+            EndpointBase base = server.getBase().withRateLimiter(limiter);
+            long start = System.nanoTime();
+            List<CompletableFuture<Response>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++)
+                futures.add(base.makeWithPath("/items/" + i).sendAsync());
+            Assert.assertTrue(System.nanoTime() - start < 200_000_000L);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            Assert.assertTrue(System.nanoTime() - start >= 400_000_000L);
+            Assert.assertEquals(10, limiter.getAcquiredCount());
+            Assert.assertEquals(9, limiter.getDelayedCount());
+        }
+    }
+
+    /**
+     * Verifies that no more requests than the concurrency limit are in flight at once.
+     */
+    @Test
+    public void verifyConcurrency() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        RateLimiter limiter = RateLimiter.concurrency(2);
+        try (StubServer server = StubServer.fromResponder(request -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return StubResponse.json(200, "{}");
+        }).start()) {
+            EndpointBase base = server.getBase();
+            List<CompletableFuture<Response>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++)
+                futures.add(base.makeWithPath("/items/" + i).withRateLimiter(limiter).sendAsync());
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            Assert.assertEquals(2, maxInFlight.get());
+            Assert.assertEquals(0, limiter.getInFlight());
+        }
+    }
+
+    /**
+     * Verifies that a 429 response halves the rate and pauses the limiter for its Retry-After delay.
+     */
+    @Test
+    public void verifyThrottling() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        RateLimiter limiter = RateLimiter.perSecond(100);
+        try (StubServer server = StubServer.fromResponder(request -> calls.incrementAndGet() == 1
+                ? new StubResponse(429, Map.of("Retry-After", "1"), "{}".getBytes(StandardCharsets.UTF_8))
+                : StubResponse.json(200, "{}")).start()) {
+            EndpointBase base = server.getBase().withRateLimiter(limiter);
+            Assert.assertEquals(429, base.makeWithPath("/items").send().getStatusCode());
+            Assert.assertEquals(50, limiter.getCurrentRate(), 0.001);
+            Assert.assertEquals(1, limiter.getThrottledCount());
+            long start = System.nanoTime();
+            Assert.assertEquals(200, base.makeWithPath("/items").send().getStatusCode());
+            Assert.assertTrue(System.nanoTime() - start >= 900_000_000L);
+            Assert.assertTrue(limiter.getCurrentRate() > 50);
+        }
+    }
+
+    /**
+     * Verifies that the limiter is read from the settings block of a definition.
+     */
+    @Test
+    public void verifyDefinitionSettings() {
+        EndpointDefinition definition = EndpointDefinition.fromJson(JsonParser.parseString("{\"settings\":{"
+                + "\"path\":\"/items\","
+                + "\"rate-limit\":{\"permits-per-second\":50,\"burst\":10,\"max-concurrency\":8,\"adaptive\":false}"
+                + "}}").getAsJsonObject());
+        RateLimiter limiter = definition.getRateLimiter();
+        Assert.assertEquals(50, limiter.getPermitsPerSecond(), 0);
+        Assert.assertEquals(10, limiter.getBurst());
+        Assert.assertEquals(8, limiter.getMaxConcurrency());
+        Assert.assertFalse(limiter.isAdaptive());
+    }
+}
@@ -0,0 +1,102 @@
+import com.gbursali.endpoint.Endpoint;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.endpoint.RequestBody;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import com.gbursali.utils.MethodType;
+import com.google.gson.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Test class for request bodies sent as raw bytes.
+ */
+public class RequestBodyTest {
+
+    /**
+     * Creates a server answering with the length, hash, content type and framing of the request body.
+     *
+     * @return The started server.
+     */
+    private static StubServer echoServer() {
+        return StubServer.fromResponder(request -> {
+            JsonObject echo = new JsonObject();
+            echo.addProperty("length", request.getBody().length);
+            echo.addProperty("hash", Arrays.hashCode(request.getBody()));
+            echo.addProperty("contentType", request.getHeader("Content-Type"));
+            echo.addProperty("chunked", request.getHeader("Content-Length") == null);
+            return StubResponse.json(200, echo.toString());
+        }).start();
+    }
+
+    private static JsonObject send(Endpoint endpoint) {
+        return endpoint.withType(MethodType.POST).sendForJson().getBodyAsObject();
+    }
+
+    /**
+     * Verifies that byte arrays, buffers, files and memory-mapped files are sent unchanged, with the declared
+     * content type, and that only in-memory arrays are sent with a Content-Length.
+     */
+    @Test
+    public void verifyBinaryBodies() throws IOException {
+        byte[] payload = new byte[3 * 1024 * 1024 + 17];
+        new Random(7).nextBytes(payload);
+        Path file = Files.createTempFile("ra-requester-body", ".bin");
+        Files.write(file, payload);
+        ByteBuffer direct = ByteBuffer.allocateDirect(payload.length).put(payload).flip();
+        try (StubServer server = echoServer()) {
+            EndpointBase base = server.getBase();
+            RequestBody[] bodies = {RequestBody.fromBytes(payload), RequestBody.fromBuffer(direct),
+                    RequestBody.fromFile(file), RequestBody.fromMappedFile(file)};
+            for (RequestBody body : bodies) {
+                Assert.assertEquals(payload.length, body.getLength());
+                Endpoint endpoint = base.makeWithPath("/upload").setBody(body);
+                endpoint.addHeader(Map.of("Content-Type", "application/json"));
+                for (int i = 0; i < 2; i++) {
+                    JsonObject echo = send(endpoint);
+                    Assert.assertEquals(payload.length, echo.get("length").getAsInt());
+                    Assert.assertEquals(Arrays.hashCode(payload), echo.get("hash").getAsInt());
+                    Assert.assertEquals("application/json", echo.get("contentType").getAsString());
+                    Assert.assertEquals(body != bodies[0], echo.get("chunked").getAsBoolean());
+                }
+            }
+            JsonObject echo = send(base.makeWithPath("/upload").setBody(ByteBuffer.wrap(payload)));
+            Assert.assertFalse(echo.get("chunked").getAsBoolean());
+            Assert.assertEquals(payload.length, direct.remaining());
+        }
+    }
+
+    /**
+     * Verifies that a definition body referencing a file sends the file, resolved against the JSON base path.
+     */
+    @Test
+    public void verifyFileBodyDefinition() throws IOException {
+        Path root = Files.createTempDirectory("ra-requester-body");
+        byte[] payload = "{\"items\":[1,2,3]}".getBytes();
+        Files.write(root.resolve("payload.json"), payload);
+        Files.writeString(root.resolve("upload.json"), "{"
+                + "\"settings\":{\"path\":\"/upload\",\"method\":\"POST\"},"
+                + "\"body\":{\"file\":\"payload.json\",\"mapped\":true}"
+                + "}");
+        Files.writeString(root.resolve("inline.json"), "{"
+                + "\"settings\":{\"path\":\"/upload\",\"method\":\"POST\"},"
+                + "\"body\":{\"file\":\"payload.json\",\"size\":3}"
+                + "}");
+        try (StubServer server = echoServer()) {
+            EndpointBase base = server.getBase().withJsonBasePath(root);
+            Assert.assertEquals("payload.json", base.getDefinition(Path.of("upload.json")).getBodyFile());
+            JsonObject echo = base.makeWithJson("upload.json").sendForJson().getBodyAsObject();
+            Assert.assertEquals(payload.length, echo.get("length").getAsInt());
+            Assert.assertEquals(Arrays.hashCode(payload), echo.get("hash").getAsInt());
+            Assert.assertNull(base.getDefinition(Path.of("inline.json")).getBodyFile());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+import com.gbursali.endpoint.BatchOptions;
+import com.gbursali.endpoint.Endpoint;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.endpoint.EndpointResult;
+import com.gbursali.endpoint.RequestCoalescer;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import com.gbursali.utils.json_validator.JsonValidationException;
+import io.restassured.response.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Test class for request coalescing.
+ */
+public class RequestCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    /**
+     * Verifies that concurrent identical requests share a single call and its response.
+     */
+    @Test
+    public void verifyConcurrentIdenticalRequestsShareOneCall() throws Exception {
+        try (StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, "{\"token\":\"abc\"}"))
+                .withLatency(Duration.ofMillis(300))
+                .start()) {
+            RequestCoalescer coalescer = new RequestCoalescer();
+            EndpointBase base = server.getBase().withRequestCoalescer(coalescer);
+            List<Response> responses = sendConcurrently(base, endpointBase -> endpointBase.makeWithPath("/auth").send());
+            Assert.assertEquals(1, server.getRequestCount());
+            Assert.assertEquals(1, coalescer.getSentCount());
+            Assert.assertEquals(CALLERS - 1, coalescer.getCoalescedCount());
+            for (Response response : responses)
+                Assert.assertEquals("{\"token\":\"abc\"}", response.asString());
+            Assert.assertEquals(0, coalescer.getInFlightCount());
+
+            base.makeWithPath("/auth").send();
+            base.makeWithPath("/auth").withType("POST").send();
+            Assert.assertEquals(3, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Verifies that a validation failure of the shared call reaches every attached caller, synchronous or not.
+     */
+    @Test
+    public void verifyFailureReachesEveryCaller() throws Exception {
+        try (StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, "{\"token\":1}"))
+                .withLatency(Duration.ofMillis(300))
+                .start()) {
+            EndpointBase base = server.getBase().withRequestCoalescer(new RequestCoalescer());
+            String schema = "{\"properties\":{\"token\":{\"type\":\"string\"}}}";
+            CompletableFuture<Response> async = base.makeWithPath("/auth").withValidator(schema).sendAsync();
+            List<Response> failures = sendConcurrently(base, endpointBase -> {
+                try {
+                    return endpointBase.makeWithPath("/auth").withValidator(schema).send();
+                } catch (JsonValidationException e) {
+                    return null;
+                }
+            });
+            CompletionException failure = Assert.assertThrows(CompletionException.class, async::join);
+            Assert.assertTrue(failure.getCause() instanceof JsonValidationException);
+            for (Response response : failures)
+                Assert.assertNull(response);
+            Assert.assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Verifies that identical endpoints sent in one batch produce a single exchange, and every result gets
+     * the response.
+     */
+    @Test
+    public void verifyIdenticalBatchEndpointsShareOneCall() throws Exception {
+        try (StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, "{\"token\":\"abc\"}"))
+                .withLatency(Duration.ofMillis(300))
+                .start()) {
+            RequestCoalescer coalescer = new RequestCoalescer();
+            EndpointBase base = server.getBase().withRequestCoalescer(coalescer);
+            List<Endpoint> endpoints = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++)
+                endpoints.add(base.makeWithPath("/auth"));
+            List<EndpointResult> results = base.sendAll(endpoints,
+                    BatchOptions.defaults().withMaxConcurrency(CALLERS).withMaxConnectionsPerHost(CALLERS));
+            Assert.assertEquals(1, server.getRequestCount());
+            Assert.assertEquals(CALLERS - 1, coalescer.getCoalescedCount());
+            for (EndpointResult result : results) {
+                Assert.assertTrue(result.isSuccess());
+                Assert.assertEquals("{\"token\":\"abc\"}", result.getResponse().asString());
+            }
+        }
+    }
+
+    private static List<Response> sendConcurrently(EndpointBase base, Function<EndpointBase, Response> call)
+            throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Response>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++)
+                futures.add(callers.submit(() -> {
+                    start.await();
+                    return call.apply(base);
+                }));
+            start.countDown();
+            List<Response> responses = new ArrayList<>();
+            for (Future<Response> future : futures)
+                responses.add(future.get());
+            return responses;
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+import com.gbursali.endpoint.CircuitBreaker;
+import com.gbursali.endpoint.CircuitOpenException;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.endpoint.EndpointDefinition;
+import com.gbursali.endpoint.HedgePolicy;
+import com.gbursali.endpoint.RetryPolicy;
+import com.gbursali.metrics.RequestMetrics;
+import com.gbursali.metrics.RequestPhase;
+import com.gbursali.record.RecordedExchange;
+import com.gbursali.record.TrafficRecorder;
+import com.gbursali.record.TrafficReplayer;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import com.gbursali.utils.MethodType;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for the retry, circuit breaker and hedge policies.
+ */
+public class ResilienceTest {
+
+    /**
+     * Verifies that idempotent requests are retried on retryable statuses and transport errors, and others are not.
+     */
+    @Test
+    public void verifyRetries() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        RetryPolicy retry = RetryPolicy.defaults().withInitialBackoff(Duration.ofMillis(1));
+        try (StubServer server = StubServer.fromResponder(request ->
+                StubResponse.json(calls.incrementAndGet() % 3 == 0 ? 200 : 503, "{}")).start()) {
+            EndpointBase base = server.getBase().withRetryPolicy(retry);
+            Assert.assertEquals(200, base.makeWithPath("/flaky").send().getStatusCode());
+            Assert.assertEquals(2, retry.getRetryCount());
+            Assert.assertEquals(1, retry.getRecoveredCount());
+
+            Assert.assertEquals(503, base.makeWithPath("/flaky").withType(MethodType.POST).send().getStatusCode());
+            Assert.assertEquals(4, calls.get());
+            Assert.assertEquals(2, retry.getRetryCount());
+        }
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        EndpointBase closed = EndpointBase.builder("http://127.0.0.1:" + port).withRetryPolicy(retry);
+        Assert.assertThrows(Exception.class, () -> closed.makeWithPath("/down").send());
+        Assert.assertEquals(4, retry.getRetryCount());
+        Assert.assertEquals(1, retry.getExhaustedCount());
+    }
+
+    /**
+     * Verifies that the circuit of a failing host opens, rejects requests without sending them, and closes
+     * again after a successful trial request.
+     */
+    @Test
+    public void verifyCircuitBreaker() throws Exception {
+        AtomicBoolean healthy = new AtomicBoolean();
+        CircuitBreaker breaker = CircuitBreaker.defaults().withFailureThreshold(2).withOpenDuration(Duration.ofMillis(200));
+        try (StubServer server = StubServer.fromResponder(request ->
+                StubResponse.json(healthy.get() ? 200 : 500, "{}")).start()) {
+            EndpointBase base = server.getBase().withCircuitBreaker(breaker);
+            String host = server.getBaseURL().replace("http://", "");
+            base.makeWithPath("/down").send();
+            base.makeWithPath("/down").send();
+            Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState(host));
+            Assert.assertThrows(CircuitOpenException.class, () -> base.makeWithPath("/down").send());
+            Assert.assertEquals(2, server.getRequestCount());
+            Assert.assertEquals(1, breaker.getRejectedCount());
+
+            healthy.set(true);
+            Thread.sleep(250);
+            Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(host));
+            Assert.assertEquals(200, base.makeWithPath("/down").send().getStatusCode());
+            Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(host));
+            Assert.assertEquals(1, breaker.getOpenedCount());
+        }
+    }
+
+    /**
+     * Verifies that a slow outlier is hedged once enough latencies are known, and the hedge wins.
+     */
+    @Test
+    public void verifyHedging() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        HedgePolicy hedge = HedgePolicy.defaults().withMinSamples(10);
+        try (StubServer server = StubServer.fromResponder(request -> {
+            if (calls.incrementAndGet() == 11) {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return StubResponse.json(200, "{}");
+        }).start()) {
+            EndpointBase base = server.getBase().withHedgePolicy(hedge);
+            for (int i = 0; i < 10; i++)
+                base.makeWithPath("/items").send();
+            Assert.assertEquals(0, hedge.getHedgeCount());
+            long start = System.nanoTime();
+            Assert.assertEquals(200, base.makeWithPath("/items").send().getStatusCode());
+            Assert.assertTrue(System.nanoTime() - start < 1_000_000_000L);
+            Assert.assertEquals(1, hedge.getHedgeCount());
+            Assert.assertEquals(1, hedge.getHedgeWinCount());
+        }
+    }
+
+    /**
+     * Verifies that only the winning attempt of a hedged request is measured and recorded to the traffic log.
+     */
+    @Test
+    public void verifyHedgingRecordsWinnerOnly() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        HedgePolicy hedge = HedgePolicy.defaults().withMinSamples(10);
+        List<RequestMetrics> metrics = new CopyOnWriteArrayList<>();
+        Path log = Files.createTempDirectory("ra-requester-hedge").resolve("run.ralog");
+        try (TrafficRecorder recorder = TrafficRecorder.open(log);
+             StubServer server = StubServer.fromResponder(request -> {
+                 if (calls.incrementAndGet() == 11) {
+                     try {
+                         Thread.sleep(1000);
+                     } catch (InterruptedException e) {
+                         Thread.currentThread().interrupt();
+                     }
+                     return StubResponse.json(200, "{\"slow\":true}");
+                 }
+                 return StubResponse.json(200, "{}");
+             }).start()) {
+            EndpointBase base = server.getBase()
+                    .withHedgePolicy(hedge)
+                    .withMetricsListener(metrics::add)
+                    .withTrafficRecorder(recorder);
+            for (int i = 0; i < 10; i++)
+                base.makeWithPath("/items").send();
+            Assert.assertEquals("{}", base.makeWithPath("/items").send().asString());
+            Assert.assertEquals(1, hedge.getHedgeCount());
+            RequestMetrics hedged = metrics.get(metrics.size() - 1);
+            Assert.assertTrue(hedged.getPhaseNanos(RequestPhase.EXCHANGE) > 0);
+            Assert.assertEquals(2, hedged.getResponseBytes());
+
+            Thread.sleep(1500);
+            recorder.flush();
+            Assert.assertEquals(11, recorder.getRecordedCount());
+        }
+        for (RecordedExchange exchange : TrafficReplayer.open(log).find("GET", "/items", Instant.EPOCH, Instant.now()))
+            Assert.assertEquals("{}", new String(exchange.getResponseBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Verifies that the policies are read from the settings block of a definition.
+     */
+    @Test
+    public void verifyDefinitionSettings() {
+        EndpointDefinition definition = EndpointDefinition.fromJson(JsonParser.parseString("{\"settings\":{"
+                + "\"path\":\"/items\","
+                + "\"retry\":{\"max-attempts\":4,\"statuses\":[503]},"
+                + "\"circuit-breaker\":{\"failure-threshold\":3,\"open-ms\":1000},"
+                + "\"hedge\":false"
+                + "}}").getAsJsonObject());
+        Assert.assertEquals(4, definition.getRetryPolicy().getMaxAttempts());
+        Assert.assertEquals(Set.of(503), definition.getRetryPolicy().getRetryStatuses());
+        Assert.assertEquals(3, definition.getCircuitBreaker().getFailureThreshold());
+        Assert.assertEquals(Duration.ofSeconds(1), definition.getCircuitBreaker().getOpenDuration());
+        Assert.assertFalse(definition.getHedgePolicy().isEnabled());
+    }
+}
@@ -0,0 +1,85 @@
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.endpoint.ResponseCache;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import com.gbursali.utils.json_validator.JsonValidationException;
+import io.restassured.response.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Test class for the response cache.
+ */
+public class ResponseCacheTest {
+
+    private static final String BODY = "{\"id\":1}";
+
+    /**
+     * Verifies that fresh responses are served without contacting the server, and that
+     * non-idempotent or non-cacheable requests are always sent.
+     */
+    @Test
+    public void verifyFreshResponsesAreServedFromCache() {
+        try (StubServer server = StubServer.fromResponder(request -> response(request.getPath().equals("/volatile")
+                ? "no-store" : "max-age=60", null)).start()) {
+            ResponseCache cache = new ResponseCache();
+            EndpointBase base = server.getBase().withResponseCache(cache);
+            for (int i = 0; i < 3; i++)
+                Assert.assertEquals(BODY, base.makeWithPath("/items").send().asString());
+            Assert.assertEquals(1, server.getRequestCount());
+            Assert.assertEquals(2, cache.getHitCount());
+            Assert.assertEquals(1, cache.getMissCount());
+
+            base.makeWithPath("/items").withType("POST").send();
+            base.makeWithPath("/volatile").send();
+            base.makeWithPath("/volatile").send();
+            Assert.assertEquals(4, server.getRequestCount());
+            Assert.assertEquals(1, cache.size());
+        }
+    }
+
+    /**
+     * Verifies that stale responses are revalidated with their ETag and served again on 304.
+     */
+    @Test
+    public void verifyStaleResponsesAreRevalidated() {
+        try (StubServer server = StubServer.fromResponder(request -> "\"v1\"".equals(request.getHeader("If-None-Match"))
+                ? new StubResponse(304, Map.of("ETag", "\"v1\""), new byte[0])
+                : response("no-cache", "\"v1\"")).start()) {
+            ResponseCache cache = new ResponseCache(16, Duration.ofMinutes(1));
+            EndpointBase base = server.getBase().withResponseCache(cache);
+            Response first = base.makeWithPath("/items").send();
+            Response second = base.makeWithPath("/items").send();
+            Assert.assertEquals(2, server.getRequestCount());
+            Assert.assertEquals(1, cache.getRevalidationCount());
+            Assert.assertEquals(200, second.getStatusCode());
+            Assert.assertEquals(first.asString(), second.asString());
+        }
+    }
+
+    /**
+     * Verifies that a cached response is validated again when the schema changes.
+     */
+    @Test(expected = JsonValidationException.class)
+    public void verifyChangedSchemaValidatesCachedResponse() {
+        try (StubServer server = StubServer.fromResponder(request -> response("max-age=60", null)).start()) {
+            EndpointBase base = server.getBase().withResponseCache(new ResponseCache());
+            String schema = "{\"type\":\"object\",\"properties\":{\"id\":{\"type\":\"integer\"}}}";
+            base.makeWithPath("/items").withValidator(schema).send();
+            base.makeWithPath("/items").withValidator(schema).send();
+            Assert.assertEquals(1, server.getRequestCount());
+            base.makeWithPath("/items").withValidator("{\"type\":\"object\",\"required\":[\"name\"]}").send();
+        }
+    }
+
+    private static StubResponse response(String cacheControl, String etag) {
+        Map<String, String> headers = etag == null
+                ? Map.of("Content-Type", "application/json", "Cache-Control", cacheControl)
+                : Map.of("Content-Type", "application/json", "Cache-Control", cacheControl, "ETag", etag);
+        return new StubResponse(200, headers, BODY.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,56 @@
+import com.gbursali.utils.JSONUtils;
+import com.gbursali.utils.json_validator.JSONValidator;
+import com.gbursali.utils.json_validator.JsonValidationException;
+import com.gbursali.utils.json_validator.SchemaRegistry;
+import com.google.gson.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Path;
+
+/**
+ * Test class for the compile-once schema registry.
+ */
+public class SchemaRegistryTest {
+
+    private final Path schemaFile = Path.of("src", "test", "resources", "hebrew-api", "hebrew-schema.json");
+
+    /**
+     * Verifies that the same schema content is compiled only once.
+     */
+    @Test
+    public void verifySchemaIsCompiledOnce() {
+        SchemaRegistry registry = new SchemaRegistry();
+        JsonObject schema = JSONUtils.jsonify("{\"type\":\"object\"}").getAsJsonObject();
+
+        var first = registry.compile(schema);
+        var second = registry.compile(schema.deepCopy());
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, registry.getMissCount());
+        Assert.assertEquals(1, registry.getHitCount());
+    }
+
+    /**
+     * Verifies that an unchanged schema file is served from the registry.
+     */
+    @Test
+    public void verifySchemaFileIsCompiledOnce() {
+        SchemaRegistry registry = new SchemaRegistry();
+
+        var first = registry.compile(schemaFile);
+        var second = registry.compile(schemaFile);
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, registry.getMissCount());
+        Assert.assertEquals(1, registry.size());
+    }
+
+    /**
+     * Verifies that a validator built on the registry still reports schema violations.
+     */
+    @Test(expected = JsonValidationException.class)
+    public void verifyCompiledSchemaRejectsInvalidInstance() {
+        JSONValidator.fromString("{\"type\":\"object\",\"required\":[\"id\"]}").validate("{\"name\":\"x\"}");
+    }
+}
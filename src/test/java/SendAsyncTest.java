@@ -0,0 +1,123 @@
+import com.gbursali.endpoint.Endpoint;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.stub.StubRequest;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import com.gbursali.utils.MethodType;
+import com.gbursali.utils.json_validator.JsonValidationException;
+import io.restassured.response.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for sending requests asynchronously.
+ */
+public class SendAsyncTest {
+
+    private static final String SCHEMA = "{\"properties\":{\"id\":{\"type\":\"integer\"}}}";
+
+    /**
+     * Verifies that the exchange runs on the request executor and validation on the validation executor.
+     */
+    @Test
+    public void verifyValidationRunsOnValidationExecutor() {
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try (StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, "{\"id\":1}")).start()) {
+            AtomicInteger requests = new AtomicInteger();
+            AtomicInteger validations = new AtomicInteger();
+            Executor requestExecutor = counting(threads, requests);
+            Executor validationExecutor = counting(threads, validations);
+
+            Response response = server.getBase().makeWithPath("/items").withValidator(SCHEMA)
+                    .sendAsync(requestExecutor, validationExecutor).join();
+            Assert.assertEquals("{\"id\":1}", response.asString());
+            Assert.assertEquals(1, requests.get());
+            Assert.assertEquals(1, validations.get());
+
+            server.getBase().makeWithPath("/items").sendAsync(requestExecutor, validationExecutor).join();
+            Assert.assertEquals(2, requests.get());
+            Assert.assertEquals(1, validations.get());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /**
+     * Verifies that a failure of the exchange or of validation completes the future exceptionally.
+     */
+    @Test
+    public void verifyFailuresCompleteExceptionally() {
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try (StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, "{\"id\":\"one\"}")).start()) {
+            CompletableFuture<Response> invalid = server.getBase().makeWithPath("/items").withValidator(SCHEMA)
+                    .sendAsync(threads, threads);
+            CompletionException validation = Assert.assertThrows(CompletionException.class, invalid::join);
+            Assert.assertTrue(validation.getCause() instanceof JsonValidationException);
+
+            CompletableFuture<Response> unreachable = EndpointBase.builder("http://127.0.0.1:1")
+                    .makeWithPath("/items").withValidator(SCHEMA)
+                    .sendAsync(threads, threads);
+            CompletionException exchange = Assert.assertThrows(CompletionException.class, unreachable::join);
+            Assert.assertFalse(exchange.getCause() instanceof JsonValidationException);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /**
+     * Verifies that changing the endpoint after sending it does not affect the request already in flight.
+     */
+    @Test
+    public void verifyChangesAfterSendDoNotAffectRequest() {
+        try (StubServer server = StubServer.fromResponder(SendAsyncTest::echo).start()) {
+            List<Runnable> held = new ArrayList<>();
+            Endpoint endpoint = server.getBase().makeWithPath("/first").withType(MethodType.POST);
+            endpoint.setBody("first");
+            endpoint.addHeader(Map.of("X-Trace", "1"));
+            CompletableFuture<Response> first = endpoint.sendAsync(held::add, Runnable::run);
+
+            endpoint.withPath("/second").setBody("second");
+            endpoint.addHeader(Map.of("X-Trace", "2"));
+            held.forEach(Runnable::run);
+            Assert.assertEquals("POST /first first 1", first.join().asString());
+            Assert.assertEquals("POST /second second 2", endpoint.send().asString());
+        }
+    }
+
+    /**
+     * Wraps an executor, counting the tasks handed to it.
+     *
+     * @param executor The executor running the tasks.
+     * @param count    The counter of tasks.
+     * @return The counting executor.
+     */
+    private static Executor counting(Executor executor, AtomicInteger count) {
+        return task -> {
+            count.incrementAndGet();
+            executor.execute(task);
+        };
+    }
+
+    /**
+     * Answers with the method, path, body and trace header of the request.
+     *
+     * @param request The request.
+     * @return The response.
+     */
+    private static StubResponse echo(StubRequest request) {
+        String echo = request.getMethod() + " " + request.getPath() + " "
+                + new String(request.getBody(), StandardCharsets.UTF_8) + " " + request.getHeader("X-Trace");
+        return new StubResponse(200, Map.of("Content-Type", "text/plain"), echo.getBytes(StandardCharsets.UTF_8));
+    }
+}
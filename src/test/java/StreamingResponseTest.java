@@ -0,0 +1,148 @@
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.endpoint.StreamingResponse;
+import com.gbursali.metrics.RequestMetrics;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test class for responses streamed from the connection.
+ */
+public class StreamingResponseTest {
+
+    private static final int RECORDS = 20_000;
+
+    /**
+     * Creates a server answering with a large JSON array.
+     *
+     * @return The started server.
+     */
+    private static StubServer exportServer() {
+        JsonArray records = new JsonArray();
+        for (int i = 0; i < RECORDS; i++) {
+            JsonObject record = new JsonObject();
+            record.addProperty("id", i);
+            record.addProperty("name", "record-" + i);
+            records.add(record);
+        }
+        String export = records.toString();
+        return StubServer.fromResponder(request -> StubResponse.json(200, export)).start();
+    }
+
+    /**
+     * Verifies that status assertions leave the body on the connection and that the body is parsed one element at a time.
+     */
+    @Test
+    public void verifyElementStreaming() {
+        try (StubServer server = exportServer()) {
+            EndpointBase base = server.getBase();
+            AtomicLong ids = new AtomicLong();
+            try (StreamingResponse export = base.makeWithPath("/export").sendStreaming()) {
+                export.then().statusCode(200).contentType("application/json");
+                Assert.assertEquals(0, export.getBytesRead());
+                long count = export.forEachElement(record -> ids.addAndGet(record.getAsJsonObject().get("id").getAsLong()));
+                Assert.assertEquals(RECORDS, count);
+                Assert.assertEquals((long) RECORDS * (RECORDS - 1) / 2, ids.get());
+                Assert.assertThrows(IllegalStateException.class, export::getBody);
+            }
+        }
+    }
+
+    /**
+     * Verifies that the publisher only reads as many buffers as the subscriber requested.
+     */
+    @Test
+    public void verifyPublisherBackpressure() throws Exception {
+        try (StubServer server = exportServer();
+             StreamingResponse export = server.getBase().makeWithPath("/export").sendStreaming()) {
+            ByteArrayOutputStream received = new ByteArrayOutputStream();
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            CompletableFuture<Flow.Subscription> subscribed = new CompletableFuture<>();
+            export.toPublisher(1024, Runnable::run).subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscribed.complete(subscription);
+                }
+
+                @Override
+                public void onNext(ByteBuffer item) {
+                    Assert.assertTrue(item.remaining() <= 1024);
+                    received.write(item.array(), item.arrayOffset() + item.position(), item.remaining());
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    done.completeExceptionally(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    done.complete(null);
+                }
+            });
+            Flow.Subscription subscription = subscribed.get(5, TimeUnit.SECONDS);
+            Assert.assertEquals(0, export.getBytesRead());
+            subscription.request(3);
+            Assert.assertEquals(3 * 1024, export.getBytesRead());
+            Assert.assertFalse(done.isDone());
+            subscription.request(Long.MAX_VALUE);
+            done.get(5, TimeUnit.SECONDS);
+            String body = received.toString(StandardCharsets.UTF_8);
+            Assert.assertTrue(body.startsWith("[{\"id\":0,") && body.endsWith("\"name\":\"record-" + (RECORDS - 1) + "\"}]"));
+            Assert.assertEquals(received.size(), export.getBytesRead());
+        }
+    }
+
+    /**
+     * Verifies that cancelling the subscription closes the response, which reports the request.
+     */
+    @Test
+    public void verifyPublisherCancelClosesResponse() throws Exception {
+        List<RequestMetrics> metrics = new CopyOnWriteArrayList<>();
+        try (StubServer server = exportServer()) {
+            StreamingResponse export = server.getBase().withMetricsListener(metrics::add)
+                    .makeWithPath("/export").sendStreaming();
+            CompletableFuture<Flow.Subscription> subscribed = new CompletableFuture<>();
+            export.toPublisher(1024, Runnable::run).subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscribed.complete(subscription);
+                }
+
+                @Override
+                public void onNext(ByteBuffer item) {
+                    // Only the first buffer is requested.
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    // Not expected.
+                }
+
+                @Override
+                public void onComplete() {
+                    // Not expected.
+                }
+            });
+            Flow.Subscription subscription = subscribed.get(5, TimeUnit.SECONDS);
+            subscription.request(1);
+            Assert.assertTrue(metrics.isEmpty());
+            subscription.cancel();
+            Assert.assertEquals(1, metrics.size());
+            Assert.assertEquals(1024, metrics.get(0).getResponseBytes());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+import com.gbursali.endpoint.ConnectionSettings;
+import com.gbursali.endpoint.Endpoint;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import com.gbursali.utils.InvalidJSONException;
+import com.gbursali.utils.json_validator.JSONValidator;
+import com.gbursali.utils.json_validator.JsonValidationException;
+import com.gbursali.utils.json_validator.ValidationError;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test class for streaming validation of array responses.
+ */
+public class StreamingValidationTest {
+
+    private static final String LIST_SCHEMA = "{\"type\":\"array\",\"maxItems\":100000,"
+            + "\"items\":{\"$ref\":\"#/$defs/record\"},"
+            + "\"$defs\":{\"record\":{\"type\":\"object\",\"required\":[\"id\"],"
+            + "\"properties\":{\"id\":{\"type\":\"integer\"}}}}}";
+
+    /**
+     * Verifies that errors found while streaming are located by element index.
+     */
+    @Test
+    public void verifyErrorsAreLocatedByIndex() {
+        JSONValidator validator = JSONValidator.fromString(LIST_SCHEMA);
+        Assert.assertTrue(validator.supportsStreaming());
+        try {
+            validator.validateStream(stream("[{\"id\":1},{\"id\":2},{\"id\":\"three\"},{}]"));
+            Assert.fail("Expected a validation failure");
+        } catch (JsonValidationException e) {
+            Assert.assertEquals(2, e.getErrors().size());
+            Assert.assertTrue(e.getErrors().stream().map(ValidationError::getInstanceLocation)
+                    .anyMatch("/2/id"::equals));
+            Assert.assertTrue(e.getErrors().stream().map(ValidationError::getInstanceLocation)
+                    .anyMatch("/3"::equals));
+        }
+    }
+
+    /**
+     * Verifies that schemas with constraints across elements are validated as a whole.
+     */
+    @Test(expected = JsonValidationException.class)
+    public void verifyUnsupportedSchemaFallsBack() {
+        JSONValidator validator = JSONValidator.fromString("{\"type\":\"array\",\"uniqueItems\":true}");
+        Assert.assertFalse(validator.supportsStreaming());
+        validator.validateStream(stream("[1,1]"));
+    }
+
+    /**
+     * Verifies that content after the array fails streaming validation.
+     */
+    @Test(expected = InvalidJSONException.class)
+    public void verifyTrailingContentIsRejected() {
+        JSONValidator validator = JSONValidator.fromString(LIST_SCHEMA);
+        Assert.assertTrue(validator.supportsStreaming());
+        validator.validateStream(stream("[{\"id\":1}] [{\"id\":2}]"));
+    }
+
+    /**
+     * Verifies that item schemas with references relative to the {@code $id} of the root are validated as a whole,
+     * where the references resolve.
+     */
+    @Test
+    public void verifyRelativeReferencesFallBack() {
+        JSONValidator validator = JSONValidator.fromString("{\"$id\":\"https://example.com/list.json\","
+                + "\"type\":\"array\",\"items\":{\"$ref\":\"list.json#/$defs/record\"},"
+                + "\"$defs\":{\"record\":{\"type\":\"object\",\"required\":[\"id\"]}}}");
+        Assert.assertFalse(validator.supportsStreaming());
+        validator.validateStream(stream("[{\"id\":1}]"));
+        JsonValidationException e = Assert.assertThrows(JsonValidationException.class,
+                () -> validator.validateStream(stream("[{\"id\":1},{}]")));
+        Assert.assertTrue(e.getErrors().stream().map(ValidationError::getInstanceLocation).anyMatch("/1"::equals));
+    }
+
+    /**
+     * Verifies that a large array response is validated while streaming it from the server,
+     * and that the connection is released afterwards.
+     */
+    @Test
+    public void verifyLargeResponseIsStreamed() {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 50_000; i++)
+            body.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append('}');
+        String list = body.append(']').toString();
+        try (StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, list)).start()) {
+            EndpointBase base = server.getBase().withConnectionSettings(ConnectionSettings.defaults());
+            Endpoint endpoint = base.makeWithPath("/records")
+                    .withValidator(LIST_SCHEMA)
+                    .withStreamingValidation(true);
+            Assert.assertEquals(200, endpoint.send().getStatusCode());
+            Assert.assertEquals(0, base.getConnectionPool().getStats().getLeased());
+            base.getConnectionPool().close();
+        }
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
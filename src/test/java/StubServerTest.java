@@ -0,0 +1,93 @@
+import com.gbursali.endpoint.Endpoint;
+import com.gbursali.stub.DefinitionResponder;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import com.gbursali.utils.InvalidJSONException;
+import com.gbursali.utils.json_validator.JsonValidationException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Test class for the embedded stub server.
+ */
+public class StubServerTest {
+
+    private final Path resourcePath = Path.of("src", "test", "resources");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Verifies that the Hebrew conversion definition is served and validated offline.
+     */
+    @Test
+    public void verifyHebrewConversionAgainstStub() {
+        try (StubServer server = StubServer.fromDefinitions(resourcePath).start()) {
+            server.getBase()
+                    .makeWithJson("hebrew-api/hebrew_converter.json")
+                    .send()
+                    .then()
+                    .assertThat().statusCode(200);
+            Assert.assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Verifies that a stubbed response violating the schema fails validation.
+     */
+    @Test(expected = JsonValidationException.class)
+    public void verifyInvalidStubResponseFailsValidation() {
+        try (StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, "{\"gy\":\"x\"}"))
+                .withLatency(Duration.ofMillis(5))
+                .start()) {
+            Endpoint endpoint = server.getBase()
+                    .withJsonBasePath(resourcePath)
+                    .makeWithJson("hebrew-api/hebrew_converter.json");
+            endpoint.send();
+        }
+    }
+
+    /**
+     * Verifies that a malformed definition fails the load, while JSON files that are not definitions are ignored.
+     */
+    @Test
+    public void verifyMalformedDefinitionFailsLoad() throws Exception {
+        Path root = temporaryFolder.getRoot().toPath();
+        Files.writeString(root.resolve("body.json"), "[1, 2]");
+        Files.writeString(root.resolve("ok.json"),
+                "{\"settings\":{\"path\":\"/ok\"},\"stub-response\":{\"body\":{}}}");
+        Assert.assertEquals(1, DefinitionResponder.fromDirectory(root).size());
+
+        Path broken = root.resolve("broken.json");
+        Files.writeString(broken, "{\"settings\":{\"path\":\"/broken\"},");
+        InvalidJSONException e = Assert.assertThrows(InvalidJSONException.class,
+                () -> DefinitionResponder.fromDirectory(root));
+        Assert.assertTrue(e.getMessage().contains("broken.json"));
+    }
+
+    /**
+     * Verifies that templated definition paths match any value of their placeholders, exact paths first.
+     */
+    @Test
+    public void verifyTemplatedPathsAreMatched() throws Exception {
+        Path root = temporaryFolder.getRoot().toPath();
+        Files.writeString(root.resolve("user.json"),
+                "{\"settings\":{\"path\":\"/users/{{id}}\"},\"stub-response\":{\"body\":{\"user\":\"any\"}}}");
+        Files.writeString(root.resolve("me.json"),
+                "{\"settings\":{\"path\":\"/users/me\"},\"stub-response\":{\"body\":{\"user\":\"me\"}}}");
+        try (StubServer server = StubServer.fromDefinitions(root).start()) {
+            Assert.assertEquals("{\"user\":\"any\"}", server.getBase().makeWithPath("/users/42").send().asString());
+            Assert.assertEquals("{\"user\":\"me\"}", server.getBase().makeWithPath("/users/me").send().asString());
+            Assert.assertEquals(404, server.getBase().makeWithPath("/users/42/orders").send().getStatusCode());
+            Assert.assertEquals("{\"user\":\"any\"}",
+                    server.getBase().makeWithJson("user.json", Map.of("id", 7)).send().asString());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.endpoint.Template;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Test class for templated endpoint definitions.
+ */
+public class TemplateTest {
+
+    /**
+     * Verifies rendering of plain and JSON templates.
+     */
+    @Test
+    public void verifyRendering() {
+        Template path = Template.compile("/users/{{ id }}/orders/{{order}}");
+        Assert.assertEquals(Map.of("id", 1, "order", 2).keySet(), path.getVariables());
+        Assert.assertEquals("/users/7/orders/x", path.render(Map.of("id", 7, "order", "x")));
+        Assert.assertTrue(Template.compile("/users").isConstant());
+
+        Template body = Template.compileJson("{\"name\":\"{{name}}\"}");
+        String rendered = body.render(Map.of("name", "a \"quoted\"\nname"));
+        Assert.assertEquals("a \"quoted\"\nname",
+                JsonParser.parseString(rendered).getAsJsonObject().get("name").getAsString());
+    }
+
+    /**
+     * Verifies that paths are matched against a template, each placeholder standing for one segment.
+     */
+    @Test
+    public void verifyMatching() {
+        Template path = Template.compile("/users/{{id}}/orders/{{order}}");
+        Assert.assertTrue(path.matches("/users/7/orders/x", '/'));
+        Assert.assertFalse(path.matches("/users/7/orders/", '/'));
+        Assert.assertFalse(path.matches("/users/7/8/orders/x", '/'));
+        Assert.assertFalse(path.matches("/users/7/orders/x/y", '/'));
+        Assert.assertTrue(Template.compile("/files/{{name}}.{{ext}}").matches("/files/a.b.json", '/'));
+        Assert.assertTrue(Template.compile("/users").matches("/users", '/'));
+        Assert.assertFalse(Template.compile("/users").matches("/users/1", '/'));
+    }
+
+    /**
+     * Verifies that rendering fails when a variable is not bound.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void verifyMissingVariableFails() {
+        Template.compile("/users/{{id}}").render(Map.of());
+    }
+
+    /**
+     * Verifies that a templated definition binds its path, params, headers and body.
+     */
+    @Test
+    public void verifyTemplatedDefinition() throws IOException {
+        Path root = Files.createTempDirectory("ra-requester-template");
+        Files.writeString(root.resolve("orders.json"), "{"
+                + "\"settings\":{\"path\":\"/users/{{user}}/orders\",\"method\":\"GET\"},"
+                + "\"params\":{\"page\":\"{{page}}\",\"size\":\"10\"},"
+                + "\"headers\":{\"X-Tenant\":\"{{tenant}}\"}"
+                + "}");
+        Files.writeString(root.resolve("order.json"), "{"
+                + "\"settings\":{\"path\":\"/users/{{user}}/orders\",\"method\":\"POST\"},"
+                + "\"body\":{\"item\":\"{{item}}\"}"
+                + "}");
+        try (StubServer server = StubServer.fromResponder(request -> {
+            JsonObject echo = new JsonObject();
+            echo.addProperty("path", request.getPath());
+            echo.addProperty("query", request.getQuery());
+            echo.addProperty("tenant", request.getHeader("X-Tenant"));
+            echo.addProperty("body", new String(request.getBody(), StandardCharsets.UTF_8));
+            return StubResponse.json(200, echo.toString());
+        }).start()) {
+            EndpointBase base = server.getBase().withJsonBasePath(root);
+            for (int i = 1; i <= 2; i++) {
+                JsonObject echo = base.makeWithJson("orders.json", Map.of("user", 42, "page", i, "tenant", "acme"))
+                        .sendForJson().getBodyAsObject();
+                Assert.assertEquals("/users/42/orders", echo.get("path").getAsString());
+                String query = echo.get("query").getAsString();
+                Assert.assertTrue(query, query.contains("page=" + i) && query.contains("size=10"));
+                Assert.assertEquals("acme", echo.get("tenant").getAsString());
+            }
+            JsonObject echo = base.makeWithJson("order.json", Map.of("user", 42, "item", "book"))
+                    .sendForJson().getBodyAsObject();
+            Assert.assertEquals("{\"item\":\"book\"}", echo.get("body").getAsString());
+        }
+    }
+}
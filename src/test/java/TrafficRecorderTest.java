@@ -0,0 +1,139 @@
+import com.gbursali.endpoint.Endpoint;
+import com.gbursali.endpoint.EndpointBase;
+import com.gbursali.record.RecordedExchange;
+import com.gbursali.record.TrafficRecorder;
+import com.gbursali.record.TrafficReplayer;
+import com.gbursali.stub.StubResponse;
+import com.gbursali.stub.StubServer;
+import com.gbursali.utils.MethodType;
+import io.restassured.response.Response;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for recording traffic to a log and replaying it.
+ */
+public class TrafficRecorderTest {
+
+    private Path log;
+
+    /**
+     * Picks a fresh log file.
+     */
+    @Before
+    public void setUp() throws IOException {
+        log = Files.createTempDirectory("ra-requester-traffic").resolve("run.ralog");
+    }
+
+    /**
+     * Records requests to a live stub, then replays them once the stub is gone: every request gets the response
+     * recorded for its parameters and body, and repeated requests get their responses in recording order.
+     */
+    @Test
+    public void verifyRecordAndReplay() throws Exception {
+        Instant start = Instant.now();
+        AtomicInteger calls = new AtomicInteger();
+        try (TrafficRecorder recorder = TrafficRecorder.open(log);
+             StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, "{\"call\":"
+                     + calls.incrementAndGet() + ",\"query\":\"" + request.getQuery()
+                     + "\",\"body\":\"" + new String(request.getBody(), StandardCharsets.UTF_8) + "\"}"))
+                     .start()) {
+            EndpointBase base = server.getBase().withTrafficRecorder(recorder);
+            get(base, 0);
+            get(base, 1);
+            get(base, 0);
+            base.makeWithPath("/echo").withType(MethodType.POST).setBody("b").send();
+            recorder.flush();
+            Assert.assertEquals(4, recorder.getRecordedCount());
+        }
+
+        TrafficReplayer replayer = TrafficReplayer.open(log);
+        Assert.assertEquals(4, replayer.size());
+        Assert.assertEquals(2, replayer.getEndpoints().size());
+        try (StubServer server = StubServer.fromRecording(log).start()) {
+            EndpointBase base = server.getBase();
+            Assert.assertEquals("{\"call\":2,\"query\":\"n=1\",\"body\":\"\"}", get(base, 1).asString());
+            Assert.assertEquals(1, get(base, 0).jsonPath().getInt("call"));
+            Assert.assertEquals(3, get(base, 0).jsonPath().getInt("call"));
+            Response post = base.makeWithPath("/echo").withType(MethodType.POST).setBody("b").send();
+            Assert.assertEquals("b", post.jsonPath().getString("body"));
+            Assert.assertEquals("application/json", post.getContentType());
+            Assert.assertEquals(404, base.makeWithPath("/missing").send().getStatusCode());
+        }
+
+        List<RecordedExchange> found = replayer.find("GET", "/echo", start, Instant.now());
+        Assert.assertEquals(3, found.size());
+        Assert.assertEquals("n=0", found.get(0).getQuery());
+        Assert.assertEquals(200, found.get(0).getStatusCode());
+        Assert.assertTrue(replayer.find("GET", "/echo", start.minusSeconds(60), start.minusSeconds(30)).isEmpty());
+    }
+
+    /**
+     * Verifies that reopening a log appends to it, and that frames missing from the index, or a lost index,
+     * are recovered by scanning the log.
+     */
+    @Test
+    public void verifyAppendAndIndexRecovery() throws Exception {
+        for (int run = 0; run < 2; run++) {
+            try (TrafficRecorder recorder = TrafficRecorder.open(log);
+                 StubServer server = StubServer.fromResponder(request -> StubResponse.json(200, "{}")).start()) {
+                EndpointBase base = server.getBase().withTrafficRecorder(recorder);
+                base.makeWithPath("/run/" + run).send();
+            }
+        }
+        Assert.assertEquals(2, TrafficReplayer.open(log).size());
+
+        Path index = log.resolveSibling(log.getFileName() + ".idx");
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        Assert.assertEquals(2, TrafficReplayer.open(log).size());
+        Files.delete(index);
+        TrafficReplayer replayer = TrafficReplayer.open(log);
+        Assert.assertEquals(2, replayer.size());
+        Assert.assertTrue(replayer.getEndpoints().contains("GET /run/1"));
+    }
+
+    /**
+     * Verifies that after a write failure, recording and flushing return instead of waiting on the writer,
+     * and the failure is reported.
+     */
+    @Test(timeout = 10_000)
+    public void verifyWriteFailureDoesNotBlock() throws Exception {
+        TrafficRecorder recorder = TrafficRecorder.open(log);
+        Field channel = TrafficRecorder.class.getDeclaredField("logChannel");
+        channel.setAccessible(true);
+        ((FileChannel) channel.get(recorder)).close();
+
+        RecordedExchange exchange = new RecordedExchange(System.currentTimeMillis(), 0, "GET", "http://localhost",
+                "/items", null, null, 200, Map.of(), new byte[0]);
+        recorder.record(exchange);
+        Assert.assertThrows(UncheckedIOException.class, recorder::flush);
+        for (int i = 0; i < 20_000; i++)
+            recorder.record(exchange);
+        Assert.assertThrows(UncheckedIOException.class, recorder::flush);
+        Assert.assertEquals(20_001, recorder.getDroppedCount());
+        Assert.assertEquals(0, recorder.getRecordedCount());
+        Assert.assertThrows(UncheckedIOException.class, recorder::close);
+    }
+
+    private static Response get(EndpointBase base, int n) {
+        Endpoint endpoint = base.makeWithPath("/echo");
+        endpoint.addParam(Map.of("n", String.valueOf(n)));
+        return endpoint.send();
+    }
+}
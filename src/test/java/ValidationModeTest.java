@@ -0,0 +1,77 @@
+import com.gbursali.utils.json_validator.JSONValidator;
+import com.gbursali.utils.json_validator.JsonValidationException;
+import com.gbursali.utils.json_validator.ValidationMode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test class for the validation modes.
+ */
+public class ValidationModeTest {
+
+    private static final String SCHEMA = "{\"type\":\"array\",\"items\":{\"type\":\"integer\"}}";
+    private static final String INVALID = "[\"a\",\"b\",\"c\",\"d\",\"e\"]";
+
+    /**
+     * Verifies that the number of reported errors follows the mode.
+     */
+    @Test
+    public void verifyErrorLimits() {
+        JSONValidator validator = JSONValidator.fromString(SCHEMA);
+        Assert.assertEquals(5, failure(validator, INVALID).getErrors().size());
+        Assert.assertFalse(failure(validator, INVALID).isTruncated());
+
+        JsonValidationException failFast = failure(validator.withMode(ValidationMode.failFast()), INVALID);
+        Assert.assertEquals(1, failFast.getErrors().size());
+        Assert.assertTrue(failFast.isTruncated());
+
+        Assert.assertEquals(3, failure(validator.withMode(ValidationMode.capped(3)), INVALID).getErrors().size());
+    }
+
+    /**
+     * Verifies that the detailed message lists the reported errors.
+     */
+    @Test
+    public void verifyMessageListsErrors() {
+        String message = failure(JSONValidator.fromString(SCHEMA), "[1,\"b\"]").getMessage();
+        Assert.assertTrue(message.startsWith("Schema validation failed\n"));
+        Assert.assertTrue(message.contains("Path: /1"));
+    }
+
+    /**
+     * Verifies the boolean-only check.
+     */
+    @Test
+    public void verifyIsValid() {
+        JSONValidator validator = JSONValidator.fromString(SCHEMA);
+        Assert.assertTrue(validator.isValid("[1,2,3]"));
+        Assert.assertFalse(validator.isValid(INVALID));
+    }
+
+    /**
+     * Verifies that fail-fast streaming validation stops reading at the first error.
+     */
+    @Test
+    public void verifyFailFastStreamingStopsReading() {
+        JSONValidator validator = JSONValidator.fromString(SCHEMA).withMode(ValidationMode.failFast());
+        byte[] body = "[1,\"b\",not json at all".getBytes(StandardCharsets.UTF_8);
+        try {
+            validator.validateStream(new ByteArrayInputStream(body));
+            Assert.fail("Expected a validation failure");
+        } catch (JsonValidationException e) {
+            Assert.assertEquals("/1", e.getErrors().get(0).getInstanceLocation());
+        }
+    }
+
+    private static JsonValidationException failure(JSONValidator validator, String instance) {
+        try {
+            validator.validate(instance);
+        } catch (JsonValidationException e) {
+            return e;
+        }
+        throw new AssertionError("Expected a validation failure");
+    }
+}